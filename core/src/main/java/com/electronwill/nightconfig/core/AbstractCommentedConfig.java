@@ -73,6 +73,9 @@ public abstract class AbstractCommentedConfig extends AbstractConfig implements
 
 	@Override
 	public String getComment(List<String> path) {
+		if (path.isEmpty()) {
+			return null;// the config itself has no comment
+		}
 		final int lastIndex = path.size() - 1;
 		final String lastKey = path.get(lastIndex);
 		if (lastIndex == 0) {
@@ -88,6 +91,9 @@ public abstract class AbstractCommentedConfig extends AbstractConfig implements
 
 	@Override
 	public String setComment(List<String> path, String comment) {
+		if (path.isEmpty()) {
+			throw new IllegalArgumentException("Cannot set a comment with an empty path");
+		}
 		final int lastIndex = path.size() - 1;
 		final String lastKey = path.get(lastIndex);
 		if (lastIndex == 0) {
@@ -114,6 +120,9 @@ public abstract class AbstractCommentedConfig extends AbstractConfig implements
 
 	@Override
 	public String removeComment(List<String> path) {
+		if (path.isEmpty()) {
+			return null;
+		}
 		final int lastIndex = path.size() - 1;
 		final String lastKey = path.get(lastIndex);
 		if (lastIndex == 0) {
@@ -129,6 +138,9 @@ public abstract class AbstractCommentedConfig extends AbstractConfig implements
 
 	@Override
 	public boolean containsComment(List<String> path) {
+		if (path.isEmpty()) {
+			return false;
+		}
 		final int lastIndex = path.size() - 1;
 		final String lastKey = path.get(lastIndex);
 		if (lastIndex == 0) {
@@ -149,7 +161,8 @@ public abstract class AbstractCommentedConfig extends AbstractConfig implements
 
 	@Override
 	public Set<? extends CommentedConfig.Entry> entrySet() {
-		return new TransformingSet<>(map.entrySet(), CommentedEntryWrapper::new, o -> null, o -> o);
+		return new TransformingSet<>(valueMap().entrySet(), CommentedEntryWrapper::new, o -> null,
+			o -> o);
 	}
 
 	/**
@@ -2,9 +2,12 @@ package com.electronwill.nightconfig.core;
 
 import com.electronwill.nightconfig.core.utils.TransformingSet;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.Supplier;
 
 import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
@@ -13,6 +16,18 @@ import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
  * An abstract Config that uses a {@link java.util.Map} to store its values. In practice it's
  * often a HashMap, or a ConcurrentHashMap if the config is concurrent, but it accepts any type
  * of Map.
+ * <p>
+ * The config keeps track of its modifications and caches its structural hash code. The hash of
+ * the immutable values (strings, numbers, etc.) is reused until the config is modified, and the
+ * hash of each sub-configuration whose hash is cached too is reused until that
+ * sub-configuration is modified. Each config counts its own modifications, so a modification
+ * only invalidates the caches of the configs on the path to the modified one: the next call to
+ * {@link #hashCode()} checks the counters of the cached sub-configurations, and hashes again
+ * the modified configs only. The other values, like lists, can be modified without the config
+ * knowing it, and are hashed again by each call to {@link #hashCode()}.
+ * The config is notified of all the modifications made through its methods and through the
+ * views returned by {@link #valueMap()} and {@link #entrySet()}. If the config was created
+ * around an existing map, the map may be modified behind its back, so the hash isn't cached.
  *
  * @author TheElectronWill
  */
@@ -23,6 +38,21 @@ public abstract class AbstractConfig implements Config, Cloneable {
 
 	final Map<String, Object> map;
 
+	/** The view returned by valueMap() */
+	private final ValueMapView mapView;
+
+	private static final AtomicIntegerFieldUpdater<AbstractConfig> MOD_COUNT =
+		AtomicIntegerFieldUpdater.newUpdater(AbstractConfig.class, "modCount");
+
+	/** Incremented after each modification of the map, but not of the sub-configs */
+	private volatile int modCount;
+
+	/** The cached hash, or null */
+	private volatile HashCache hashCache;
+
+	/** False if the map has been given by the user, who can modify it directly */
+	private final boolean hashCacheEnabled;
+
 	/**
 	 * Creates a new AbstractConfig backed by a new {@link Map}.
 	 */
@@ -38,6 +68,8 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	public AbstractConfig(Supplier<Map<String, Object>> mapCreator) {
 		this.mapCreator = mapCreator;
 		this.map = mapCreator.get();
+		this.mapView = ValueMapView.of(this, map);
+		this.hashCacheEnabled = true;
 	}
 
 	/**
@@ -47,7 +79,9 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	 */
 	public AbstractConfig(Map<String, Object> map) {
 		this.map = map;
+		this.mapView = ValueMapView.of(this, map);
 		this.mapCreator = getDefaultMapCreator(map instanceof ConcurrentMap);
+		this.hashCacheEnabled = false;
 	}
 
 	/**
@@ -68,8 +102,10 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	 */
 	public AbstractConfig(UnmodifiableConfig toCopy, Supplier<Map<String, Object>> mapCreator) {
 		this.map = mapCreator.get();
-		this.map.putAll(toCopy.valueMap());
+		this.map.putAll(rawValueMap(toCopy));
+		this.mapView = ValueMapView.of(this, map);
 		this.mapCreator = mapCreator;
+		this.hashCacheEnabled = true;
 	}
 
 	protected static <T> Supplier<Map<String, T>> getDefaultMapCreator(boolean concurrent) {
@@ -92,7 +128,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 			return null;
 		}
 		String lastKey = path.get(lastIndex);
-		return (T)parentMap.get(lastKey);
+		return (T)LazyString.materialize(parentMap.get(lastKey));
 	}
 
 	@Override
@@ -101,7 +137,11 @@ public abstract class AbstractConfig implements Config, Cloneable {
 		Map<String, Object> parentMap = getOrCreateMap(path.subList(0, lastIndex));
 		String lastKey = path.get(lastIndex);
 		Object nonNull = (value == null) ? NULL_OBJECT : value;
-		return (T)parentMap.put(lastKey, nonNull);
+		T previous = (T)parentMap.put(lastKey, nonNull);
+		if (lastIndex == 0) {
+			modified();
+		}
+		return previous;
 	}
 
 	@Override
@@ -110,18 +150,148 @@ public abstract class AbstractConfig implements Config, Cloneable {
 		Map<String, Object> parentMap = getOrCreateMap(path.subList(0, lastIndex));
 		String lastKey = path.get(lastIndex);
 		Object nonNull = (value == null) ? NULL_OBJECT : value;
-		return parentMap.putIfAbsent(lastKey, nonNull) == null;
+		boolean added = parentMap.putIfAbsent(lastKey, nonNull) == null;
+		if (added && lastIndex == 0) {
+			modified();
+		}
+		return added;
 	}
 
 	@Override
 	public <T> T remove(List<String> path) {
 		final int lastIndex = path.size() - 1;
-		Map<String, Object> parentMap = getMap(path.subList(0, lastIndex));
-		if (parentMap == null) {
+		if (lastIndex == 0) {
+			T previous = (T)map.remove(path.get(0));
+			modified();
+			return previous;
+		}
+		Object parent = getRaw(path.subList(0, lastIndex));
+		if (!(parent instanceof Config)) {
 			return null;
 		}
 		String lastKey = path.get(lastIndex);
-		return (T)parentMap.remove(lastKey);
+		return (T)((Config)parent).valueMap().remove(lastKey);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The paths are grouped by prefix, so that each sub-config is resolved (or created) only once,
+	 * and each modified config is notified once. The paths are checked before the first value is
+	 * set, so that an incompatible intermediary level doesn't leave the config partially
+	 * modified. The operation isn't atomic, though: if a sub-config rejects a value, for instance
+	 * a checked config, the values set before that one are kept, and the other threads may see
+	 * the values before all of them are set.
+	 *
+	 * @throws IllegalArgumentException if an intermediary level of a path isn't a config
+	 */
+	@Override
+	public void setAll(Map<List<String>, ?> values) {
+		PathNode root = new PathNode();
+		for (Map.Entry<List<String>, ?> entry : values.entrySet()) {
+			Object value = entry.getValue();
+			PathNode node = root.insert(entry.getKey());
+			node.hasValue = true;
+			node.value = (value == null) ? NULL_OBJECT : value;
+		}
+		if (root.children != null) {
+			checkIntermediaryLevels(map, root);
+			setAll(this, root);
+		}
+	}
+
+	/**
+	 * Checks that the intermediary levels of the paths are configs or missing, without modifying
+	 * anything.
+	 *
+	 * @param source the map of the config that contains the node's children, or null if the
+	 *               config doesn't exist yet
+	 */
+	private static void checkIntermediaryLevels(Map<String, Object> source, PathNode node) {
+		for (Map.Entry<String, PathNode> entry : node.children.entrySet()) {
+			PathNode child = entry.getValue();
+			if (child.children == null) {
+				continue;
+			}
+			Object value;
+			if (child.hasValue) {
+				value = child.value;
+			} else {
+				value = (source == null) ? null : source.get(entry.getKey());
+			}
+			if (value instanceof Config) {
+				checkIntermediaryLevels(rawValueMap((Config)value), child);
+			} else if (value == null) {// missing intermediary level, will be created
+				checkIntermediaryLevels(null, child);
+			} else {// incompatible intermediary level
+				throw new IllegalArgumentException(
+						"Cannot add an element to an intermediary value of type: "
+						+ value.getClass());
+			}
+		}
+	}
+
+	private void setAll(Config config, PathNode node) {
+		final boolean tracked = (config instanceof AbstractConfig);
+		final Map<String, Object> target =
+			tracked ? ((AbstractConfig)config).map : config.valueMap();
+		try {
+			for (Map.Entry<String, PathNode> entry : node.children.entrySet()) {
+				String key = entry.getKey();
+				PathNode child = entry.getValue();
+				if (child.hasValue) {
+					target.put(key, child.value);
+				}
+				if (child.children != null) {
+					Object currentValue = target.get(key);
+					Config subConfig;
+					if (currentValue == null) {// missing intermediary level
+						subConfig = createSubConfig();
+						target.put(key, subConfig);
+					} else {// existing intermediary level, checked before
+						subConfig = (Config)currentValue;
+					}
+					setAll(subConfig, child);
+				}
+			}
+		} finally {
+			if (tracked) {
+				((AbstractConfig)config).modified();
+			}
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The paths are grouped by prefix, so that each sub-config is resolved only once.
+	 */
+	@Override
+	public Map<List<String>, Object> getAll(Collection<List<String>> paths) {
+		PathNode root = new PathNode();
+		for (List<String> path : paths) {
+			root.insert(path).path = path;
+		}
+		Map<List<String>, Object> result = new LinkedHashMap<>();
+		getAll(map, root, result);
+		return result;
+	}
+
+	private static void getAll(Map<String, Object> source, PathNode node,
+							   Map<List<String>, Object> result) {
+		for (Map.Entry<String, PathNode> entry : node.children.entrySet()) {
+			Object value = source.get(entry.getKey());
+			if (value == null) {
+				continue;
+			}
+			PathNode child = entry.getValue();
+			if (child.path != null) {
+				result.put(child.path, (value == NULL_OBJECT) ? null : LazyString.materialize(value));
+			}
+			if (child.children != null && value instanceof Config) {
+				getAll(rawValueMap((Config)value), child, result);
+			}
+		}
 	}
 
 	@Override
@@ -148,7 +318,10 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	}
 
 	/**
-	 * Returns the Map associated to the given path. Any missing level is created.
+	 * Returns the Map associated to the given path. Any missing level is created. The maps of the
+	 * sub-configs are obtained with {@link Config#valueMap()}, so that they are notified of the
+	 * modifications. The caller must call {@link #modified()} if it modifies the returned map and
+	 * the path is empty.
 	 *
 	 * @param path the map's path
 	 * @return the Map, not null
@@ -161,6 +334,9 @@ public abstract class AbstractConfig implements Config, Cloneable {
 			if (currentValue == null) {// missing intermediary level
 				config = createSubConfig();
 				currentMap.put(currentKey, config);
+				if (currentMap == map) {
+					modified();
+				}
 			} else if (!(currentValue instanceof Config)) {// incompatible intermediary level
 				throw new IllegalArgumentException(
 						"Cannot add an element to an intermediary value of type: "
@@ -174,7 +350,8 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	}
 
 	/**
-	 * Returns the Map associated to the given path, or null if there is none.
+	 * Returns the Map associated to the given path, or null if there is none. The returned map
+	 * must not be modified.
 	 *
 	 * @param path the map's path
 	 * @return the Map if any, or null if none
@@ -186,14 +363,35 @@ public abstract class AbstractConfig implements Config, Cloneable {
 			if (!(value instanceof Config)) {// missing or incompatible intermediary level
 				return null;// the specified path doesn't exist -> stop here
 			}
-			currentMap = ((Config)value).valueMap();
+			currentMap = rawValueMap((Config)value);
 		}
 		return currentMap;
 	}
 
+	/**
+	 * Returns the map that contains the config's values, without the modification tracking of
+	 * {@link #valueMap()}. The returned map must not be modified.
+	 */
+	static Map<String, Object> rawValueMap(UnmodifiableConfig config) {
+		if (config instanceof AbstractConfig) {
+			return ((AbstractConfig)config).map;
+		}
+		return config.valueMap();
+	}
+
+	/**
+	 * Records a modification of the config's map, which invalidates the cached hash of this
+	 * config and of the configs that have cached its hash. It must be called after the
+	 * modification.
+	 */
+	final void modified() {
+		MOD_COUNT.incrementAndGet(this);
+	}
+
 	@Override
 	public void clear() {
 		map.clear();
+		modified();
 	}
 
 	@Override
@@ -203,12 +401,12 @@ public abstract class AbstractConfig implements Config, Cloneable {
 
 	@Override
 	public Map<String, Object> valueMap() {
-		return map;
+		return mapView;
 	}
 
 	@Override
 	public Set<? extends Entry> entrySet() {
-		return new TransformingSet<>(map.entrySet(), EntryWrapper::new, o -> null, o -> o);
+		return new TransformingSet<>(mapView.entrySet(), EntryWrapper::new, o -> null, o -> o);
 		/* the writeTransformation is not important because we can't write to the set anyway,
 		   since it's a generic Set<? extends Entry> */
 	}
@@ -221,9 +419,115 @@ public abstract class AbstractConfig implements Config, Cloneable {
 	@Override
 	public abstract AbstractConfig clone();
 
+	/**
+	 * Returns the hash code of this config, which is equal to the hash code of its value map.
+	 * <p>
+	 * The hash of the immutable values and of the sub-configurations that are entirely cached is
+	 * reused until they are modified. The other values, like lists, are hashed at each call,
+	 * because they can be modified without the config knowing it.
+	 */
 	@Override
 	public int hashCode() {
-		return map.hashCode();
+		if (!hashCacheEnabled) {
+			return map.hashCode();
+		}
+		HashCache cache = hashCache;
+		if (cache == null || !cache.isValid(this)) {
+			cache = computeHashCache(cache);
+			hashCache = cache;
+		}
+		return cache.hash();
+	}
+
+	/**
+	 * Hashes the entries of the map. The hash of the sub-configs is cached as a part of this
+	 * config's hash if they contain no mutable value. If the map hasn't been modified since the
+	 * previous cache was computed, only the sub-configs that have been modified are hashed again.
+	 *
+	 * @param previous the previous cache, or null
+	 */
+	private HashCache computeHashCache(HashCache previous) {
+		int count = modCount;// read before the map, so that concurrent writes invalidate it
+		HashBuilder builder = new HashBuilder();
+		if (previous != null && previous.modCount == count) {
+			// The map is the same, only some sub-configs have been modified
+			builder.stableHash = previous.stableHash;
+			for (int i = 0; i < previous.subConfigs.length; i++) {
+				AbstractConfig sub = previous.subConfigs[i];
+				HashCache subCache = previous.subCaches[i];
+				int keyHash = previous.subKeyHashes[i];
+				if (subCache.isValid(sub)) {
+					builder.addSubConfig(keyHash, sub, subCache);
+				} else {
+					builder.stableHash -= keyHash ^ subCache.hash();
+					builder.add(keyHash, sub);
+				}
+			}
+			for (int i = 0; i < previous.volatileValues.length; i++) {
+				builder.addVolatile(previous.volatileKeyHashes[i], previous.volatileValues[i]);
+			}
+		} else {
+			for (Map.Entry<String, Object> entry : map.entrySet()) {
+				builder.add(Objects.hashCode(entry.getKey()), entry.getValue());
+			}
+		}
+		return builder.build(count);
+	}
+
+	/**
+	 * @return the cached hash if it's up to date and doesn't depend on mutable values, or null
+	 */
+	private HashCache stableHashCache() {
+		HashCache cache = hashCache;
+		if (cache != null && cache.isStable() && cache.isValid(this)) {
+			return cache;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a stamp of the config's content, that stays valid as long as the config and its
+	 * sub-configs aren't modified. There is no stamp if the config contains values that can be
+	 * modified without it knowing, like lists.
+	 *
+	 * @return the stamp, or null if the config's content can't be stamped
+	 * @see #isUnmodifiedSince(Object)
+	 */
+	final Object contentStamp() {
+		if (!hashCacheEnabled) {
+			return null;
+		}
+		hashCode();// updates the cache
+		return stableHashCache();
+	}
+
+	/**
+	 * Checks if the config has been modified since a stamp was taken. The stamp must have been
+	 * returned by the {@link #contentStamp()} method of this config.
+	 *
+	 * @param stamp the stamp of this config
+	 * @return true if the config hasn't been modified since then
+	 */
+	final boolean isUnmodifiedSince(Object stamp) {
+		return ((HashCache)stamp).isValid(this);
+	}
+
+	private static final Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<>(Arrays.asList(
+		String.class, LazyString.class, NullObject.class, Boolean.class, Character.class,
+		Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+		BigInteger.class, BigDecimal.class));
+
+	/**
+	 * @return true if the value's hash code can't change
+	 */
+	private static boolean isImmutable(Object value) {
+		if (value == null) {
+			return true;
+		}
+		Class<?> c = value.getClass();
+		return IMMUTABLE_CLASSES.contains(c)
+			   || value instanceof Enum
+			   || c.getName().startsWith("java.time.");
 	}
 
 	@Override
@@ -231,7 +535,28 @@ public abstract class AbstractConfig implements Config, Cloneable {
 		if (obj == this) { return true; }
 		if (!(obj instanceof AbstractConfig)) { return false; }
 		AbstractConfig other = (AbstractConfig)obj;
-		return map.equals(other.map);
+		if (map.size() != other.map.size()) {
+			return false;
+		}
+		// Compares the hashes only if they are already known, hashing the configs would be slower
+		HashCache cache = stableHashCache(), otherCache = other.stableHashCache();
+		if (cache != null && otherCache != null && cache.stableHash != otherCache.stableHash) {
+			return false;
+		}
+		// Like Map.equals, but a String is equal to a LazyString with the same content
+		for (Map.Entry<String, Object> entry : map.entrySet()) {
+			Object value = entry.getValue();
+			Object otherValue = other.map.get(entry.getKey());
+			if (value == null || otherValue == null) {
+				if (value != otherValue || !other.map.containsKey(entry.getKey())) {
+					return false;
+				}
+			} else if (!(value instanceof LazyString ? value.equals(otherValue)
+													  : otherValue.equals(value))) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -239,6 +564,151 @@ public abstract class AbstractConfig implements Config, Cloneable {
 		return getClass().getSimpleName() + ':' + valueMap();
 	}
 
+	/**
+	 * A snapshot of the structural hash of a config's map. Because {@link Map#hashCode()} is the
+	 * sum of the entries' hashes, the hash of the stable entries is summed once, and only the
+	 * volatile values are hashed again by {@link #hash()}. The snapshot remembers the cache of
+	 * each stable sub-config, to check that they haven't been modified since then.
+	 */
+	private static final class HashCache {
+		final int modCount;
+		final int stableHash;
+		final int[] subKeyHashes;
+		final AbstractConfig[] subConfigs;
+		final HashCache[] subCaches;
+		final int[] volatileKeyHashes;
+		final Object[] volatileValues;
+
+		HashCache(int modCount, int stableHash, int[] subKeyHashes, AbstractConfig[] subConfigs,
+				  HashCache[] subCaches, int[] volatileKeyHashes, Object[] volatileValues) {
+			this.modCount = modCount;
+			this.stableHash = stableHash;
+			this.subKeyHashes = subKeyHashes;
+			this.subConfigs = subConfigs;
+			this.subCaches = subCaches;
+			this.volatileKeyHashes = volatileKeyHashes;
+			this.volatileValues = volatileValues;
+		}
+
+		/**
+		 * Checks that the config and its stable sub-configs haven't been modified since the
+		 * snapshot. This only reads the counters of the configs, not their values.
+		 */
+		boolean isValid(AbstractConfig config) {
+			if (config.modCount != modCount) {
+				return false;
+			}
+			for (int i = 0; i < subConfigs.length; i++) {
+				if (!subCaches[i].isValid(subConfigs[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		boolean isStable() {
+			return volatileValues.length == 0;
+		}
+
+		int hash() {
+			int h = stableHash;
+			for (int i = 0; i < volatileValues.length; i++) {
+				h += volatileKeyHashes[i] ^ volatileValues[i].hashCode();
+			}
+			return h;
+		}
+	}
+
+	/**
+	 * Builds a {@link HashCache} from the entries of a map.
+	 */
+	private static final class HashBuilder {
+		int stableHash;
+		int subCount, volatileCount;
+		int[] subKeyHashes = new int[4];
+		AbstractConfig[] subConfigs = new AbstractConfig[4];
+		HashCache[] subCaches = new HashCache[4];
+		int[] volatileKeyHashes = new int[4];
+		Object[] volatileValues = new Object[4];
+
+		void add(int keyHash, Object value) {
+			if (isImmutable(value)) {
+				stableHash += keyHash ^ Objects.hashCode(value);
+				return;
+			}
+			if (value instanceof AbstractConfig && ((AbstractConfig)value).hashCacheEnabled) {
+				AbstractConfig sub = (AbstractConfig)value;
+				sub.hashCode();// updates the sub-config's cache
+				HashCache subCache = sub.hashCache;
+				if (subCache.isStable()) {
+					stableHash += keyHash ^ subCache.hash();
+					addSubConfig(keyHash, sub, subCache);
+					return;
+				}
+			}
+			addVolatile(keyHash, value);
+		}
+
+		/**
+		 * Adds a sub-config whose hash is already in the stable hash.
+		 */
+		void addSubConfig(int keyHash, AbstractConfig sub, HashCache subCache) {
+			if (subCount == subConfigs.length) {
+				subKeyHashes = Arrays.copyOf(subKeyHashes, subCount * 2);
+				subConfigs = Arrays.copyOf(subConfigs, subCount * 2);
+				subCaches = Arrays.copyOf(subCaches, subCount * 2);
+			}
+			subKeyHashes[subCount] = keyHash;
+			subConfigs[subCount] = sub;
+			subCaches[subCount] = subCache;
+			subCount++;
+		}
+
+		void addVolatile(int keyHash, Object value) {
+			if (volatileCount == volatileValues.length) {
+				volatileKeyHashes = Arrays.copyOf(volatileKeyHashes, volatileCount * 2);
+				volatileValues = Arrays.copyOf(volatileValues, volatileCount * 2);
+			}
+			volatileKeyHashes[volatileCount] = keyHash;
+			volatileValues[volatileCount] = value;
+			volatileCount++;
+		}
+
+		HashCache build(int modCount) {
+			return new HashCache(modCount, stableHash, Arrays.copyOf(subKeyHashes, subCount),
+								 Arrays.copyOf(subConfigs, subCount),
+								 Arrays.copyOf(subCaches, subCount),
+								 Arrays.copyOf(volatileKeyHashes, volatileCount),
+								 Arrays.copyOf(volatileValues, volatileCount));
+		}
+	}
+
+	/**
+	 * A node of the tree that groups the paths of a bulk operation by prefix. The children are
+	 * kept in insertion order, so that the keys are added to the configs in the same order as
+	 * with sequential operations.
+	 */
+	private static final class PathNode {
+		Map<String, PathNode> children;
+		boolean hasValue;
+		Object value;
+		List<String> path;
+
+		PathNode insert(List<String> path) {
+			if (path.isEmpty()) {
+				throw new IllegalArgumentException("Invalid empty path");
+			}
+			PathNode node = this;
+			for (String key : path) {
+				if (node.children == null) {
+					node.children = new LinkedHashMap<>();
+				}
+				node = node.children.computeIfAbsent(key, k -> new PathNode());
+			}
+			return node;
+		}
+	}
+
 	/**
 	 * A wrapper around a {@code Map.Entry<String, Object>}.
 	 *
@@ -258,7 +728,7 @@ public abstract class AbstractConfig implements Config, Cloneable {
 
 		@Override
 		public <T> T getRawValue() {
-			return (T)mapEntry.getValue();
+			return (T)LazyString.materialize(mapEntry.getValue());
 		}
 
 		@Override
@@ -4,9 +4,11 @@ import com.electronwill.nightconfig.core.utils.CommentedConfigWrapper;
 import com.electronwill.nightconfig.core.utils.TransformingMap;
 import com.electronwill.nightconfig.core.utils.TransformingSet;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 /**
  * A checker wrapped around a commented configuration. It checks that all the values put into the
@@ -87,4 +89,10 @@ class CheckedCommentedConfig extends CommentedConfigWrapper<CommentedConfig>
 		checkValue(value);
 		return value;
 	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);// reads the values, no check needed
+	}
 }
\ No newline at end of file
@@ -85,6 +85,19 @@ public interface Config extends UnmodifiableConfig {
 		valueMap().putAll(config.valueMap());
 	}
 
+	/**
+	 * Sets several config values. This is equivalent to calling {@link #set(List, Object)} for
+	 * each entry of the map, but implementations may resolve the parents shared by several paths
+	 * only once. A path and one of its prefixes should not be both present in the map.
+	 *
+	 * @param values a map path -> value, where each path is a list of keys
+	 */
+	default void setAll(Map<List<String>, ?> values) {
+		for (Map.Entry<List<String>, ?> entry : values.entrySet()) {
+			set(entry.getKey(), entry.getValue());
+		}
+	}
+
 	/**
 	 * Removes a value from the config.
 	 *
@@ -173,6 +186,30 @@ public interface Config extends UnmodifiableConfig {
 		return new CheckedConfig(this);
 	}
 
+	/**
+	 * Returns a profiled view of the config. It counts how many times each path is read and
+	 * written, and reports the hot keys and the keys that are never read.
+	 *
+	 * @return a profiled view of the config.
+	 * @see ProfiledConfig
+	 */
+	default ProfiledConfig profiled() {
+		return new ProfiledConfig(this, 1);
+	}
+
+	/**
+	 * Returns a profiled view of the config that records only one access out of
+	 * {@code samplingPeriod}, on average. This reduces the overhead of the profiling, but the
+	 * counts are estimations.
+	 *
+	 * @param samplingPeriod the sampling period, 1 to record every access
+	 * @return a profiled view of the config.
+	 * @see ProfiledConfig
+	 */
+	default ProfiledConfig profiled(int samplingPeriod) {
+		return new ProfiledConfig(this, samplingPeriod);
+	}
+
 	/**
 	 * Returns a Map view of the config's values. Any change to the map is reflected in the config
 	 * and vice-versa.
@@ -2,6 +2,7 @@ package com.electronwill.nightconfig.core;
 
 import com.electronwill.nightconfig.core.io.ConfigParser;
 import com.electronwill.nightconfig.core.io.ConfigWriter;
+import com.electronwill.nightconfig.core.io.SectionScanner;
 import com.electronwill.nightconfig.core.utils.WriterSupplier;
 
 import java.io.File;
@@ -28,6 +29,16 @@ public interface ConfigFormat<C extends Config> {
 	 */
 	ConfigParser<C> createParser();
 
+	/**
+	 * Creates a scanner that finds the top-level sections of the documents of this format, without
+	 * parsing them. Returns null by default.
+	 *
+	 * @return a section scanner, or null if this format doesn't support it
+	 */
+	default SectionScanner createSectionScanner() {
+		return null;
+	}
+
 	/**
 	 * @return a config of this format
 	 */
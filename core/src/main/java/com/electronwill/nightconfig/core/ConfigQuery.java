@@ -0,0 +1,744 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
+
+/**
+ * A compiled query that selects values in a configuration, with wildcards and filters.
+ * <p>
+ * A query is compiled once by {@link #compile(String)}, then it can be evaluated against any
+ * number of configurations. The evaluation walks only the subtrees that can match the query,
+ * and produces its results lazily: nothing is computed until the results are iterated, and no
+ * path is materialized.
+ *
+ * <h2>Syntax</h2>
+ * A query is a list of segments separated by dots. Each segment may be followed by one or more
+ * selectors between brackets.
+ * <ul>
+ * <li>{@code name} selects the entry with that key. Keys that contain special characters can be
+ * quoted: {@code "a.b"} or {@code 'a.b'}.</li>
+ * <li>{@code *} selects all the entries of a config.</li>
+ * <li>{@code **} selects the current value and all its descendants, at any depth, including the
+ * elements of the lists.</li>
+ * <li>{@code [n]} selects the n-th element of a list. Negative indexes start from the end:
+ * {@code [-1]} is the last element.</li>
+ * <li>{@code [*]} selects all the elements of a list.</li>
+ * <li>{@code [?path]} selects the sub-configs (list elements or config entries) that contain a
+ * value at the given relative path, and {@code [?path op literal]} selects the ones whose value
+ * matches the comparison. The supported operators are {@code = != < <= > >=} and the literal
+ * can be a number, {@code true}, {@code false}, {@code null}, a quoted string or a bare word.</li>
+ * </ul>
+ * For instance, {@code servers[*].port} gives the port of each server in the list "servers",
+ * {@code **.timeout} gives all the values associated with the key "timeout", and
+ * {@code servers[?enabled = true].host} gives the host of the enabled servers.
+ * <p>
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @author TheElectronWill
+ */
+public final class ConfigQuery {
+	/** The maximum number of steps of a query, limited by the size of the states' bitset. */
+	private static final int MAX_STEPS = 63;
+
+	private final String query;
+	private final Step[] steps;
+	private final long accept;
+
+	private ConfigQuery(String query, Step[] steps) {
+		this.query = query;
+		this.steps = steps;
+		this.accept = 1L << steps.length;
+	}
+
+	/**
+	 * Compiles a query.
+	 *
+	 * @param query the query to compile
+	 * @return the compiled query
+	 * @throws IllegalArgumentException if the query is invalid
+	 */
+	public static ConfigQuery compile(String query) {
+		List<Step> steps = new QueryParser(query).parse();
+		if (steps.size() > MAX_STEPS) {
+			throw new IllegalArgumentException("Too many steps in query " + query
+											   + ": the maximum is " + MAX_STEPS);
+		}
+		return new ConfigQuery(query, steps.toArray(new Step[0]));
+	}
+
+	/**
+	 * Evaluates this query and returns an iterator over the matching values. The values are
+	 * found lazily, while iterating.
+	 *
+	 * @param config the config to query
+	 * @param <T>    the values' type
+	 * @return an Iterator over the matching values
+	 */
+	public <T> Iterator<T> iterator(UnmodifiableConfig config) {
+		return new ResultIterator<>(config);
+	}
+
+	/**
+	 * Evaluates this query and returns a sequential Stream of the matching values. The values are
+	 * found lazily, while consuming the stream.
+	 *
+	 * @param config the config to query
+	 * @param <T>    the values' type
+	 * @return a Stream of the matching values
+	 */
+	public <T> Stream<T> stream(UnmodifiableConfig config) {
+		Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(iterator(config),
+			Spliterator.ORDERED);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Evaluates this query and performs the given action for each matching value.
+	 *
+	 * @param config the config to query
+	 * @param action the action to perform
+	 */
+	public <T> void forEach(UnmodifiableConfig config, Consumer<? super T> action) {
+		Iterator<T> it = iterator(config);
+		while (it.hasNext()) {
+			action.accept(it.next());
+		}
+	}
+
+	/**
+	 * Evaluates this query and returns all the matching values.
+	 *
+	 * @param config the config to query
+	 * @param <T>    the values' type
+	 * @return a new List containing the matching values
+	 */
+	public <T> List<T> getAll(UnmodifiableConfig config) {
+		List<T> result = new ArrayList<>();
+		Iterator<T> it = iterator(config);
+		while (it.hasNext()) {
+			result.add(it.next());
+		}
+		return result;
+	}
+
+	/**
+	 * Evaluates this query and returns the first matching value, if any. The evaluation stops as
+	 * soon as a value is found.
+	 *
+	 * @param config the config to query
+	 * @param <T>    the value's type
+	 * @return the first matching value, or {@code Optional.empty()} if there is none
+	 */
+	public <T> Optional<T> getFirst(UnmodifiableConfig config) {
+		Iterator<T> it = iterator(config);
+		return it.hasNext() ? Optional.ofNullable(it.next()) : Optional.empty();
+	}
+
+	@Override
+	public String toString() {
+		return "ConfigQuery(" + query + ')';
+	}
+
+	// --- Automaton ---
+
+	/**
+	 * Adds the states that are reachable without consuming a value, ie the states that follow a
+	 * {@code **} step.
+	 */
+	private long closure(long states) {
+		for (int i = 0; i < steps.length; i++) {
+			if ((states & (1L << i)) != 0 && steps[i].kind == Kind.DESCENDANTS) {
+				states |= 1L << (i + 1);
+			}
+		}
+		return states;
+	}
+
+	/**
+	 * Computes the states reached after consuming a child value.
+	 *
+	 * @param states the current states
+	 * @param key    the child's key if the parent is a config, or null
+	 * @param index  the child's index if the parent is a list, or -1
+	 * @param size   the size of the parent list, or 0
+	 * @param value  the child's raw value
+	 */
+	private long transition(long states, String key, int index, int size, Object value) {
+		long result = 0;
+		for (int i = 0; i < steps.length; i++) {
+			if ((states & (1L << i)) == 0) {
+				continue;
+			}
+			Step step = steps[i];
+			boolean matches;
+			switch (step.kind) {
+				case KEY:
+					matches = (key != null) && key.equals(step.key);
+					break;
+				case ANY_KEY:
+					matches = (key != null);
+					break;
+				case INDEX:
+					matches = (index >= 0) && (index == step.index || index == size + step.index);
+					break;
+				case ANY_INDEX:
+					matches = (index >= 0);
+					break;
+				case FILTER:
+					matches = (value instanceof UnmodifiableConfig)
+							  && step.filter.test((UnmodifiableConfig)value);
+					break;
+				case DESCENDANTS:
+					result |= 1L << i;// stays in the same state
+					matches = false;
+					break;
+				default:
+					throw new AssertionError();
+			}
+			if (matches) {
+				result |= 1L << (i + 1);
+			}
+		}
+		return closure(result);
+	}
+
+	/**
+	 * Returns true if all the pending states of the given set match by key (or by index), which
+	 * means that the children can be looked up directly instead of being iterated.
+	 */
+	private boolean isDirectLookup(long states, boolean list) {
+		Kind direct = list ? Kind.INDEX : Kind.KEY;
+		for (int i = 0; i < steps.length; i++) {
+			if ((states & (1L << i)) != 0 && steps[i].kind != direct) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * A lazy depth-first traversal of the subtrees that can match the query.
+	 */
+	private final class ResultIterator<T> implements Iterator<T> {
+		private final Deque<Frame> stack = new ArrayDeque<>();
+		private Object nextValue;
+		private boolean hasNextValue;
+
+		ResultIterator(UnmodifiableConfig root) {
+			long initial = closure(1L);
+			if ((initial & accept) != 0) {
+				nextValue = root;
+				hasNextValue = true;
+			}
+			push(root, initial);
+		}
+
+		private void push(Object container, long states) {
+			long pending = states & ~accept;
+			if (pending == 0) {
+				return;// the query can't match anything below this value
+			}
+			if (container instanceof UnmodifiableConfig) {
+				Map<String, Object> map = AbstractConfig.rawValueMap((UnmodifiableConfig)container);
+				if (isDirectLookup(pending, false)) {
+					stack.push(new KeyLookupFrame(map, pending));
+				} else {
+					stack.push(new MapFrame(map, pending));
+				}
+			} else if (container instanceof List) {
+				List<?> list = (List<?>)container;
+				if (isDirectLookup(pending, true) && list instanceof RandomAccess) {
+					stack.push(new IndexLookupFrame(list, pending));
+				} else {
+					stack.push(new ListFrame(list, pending));
+				}
+			}
+		}
+
+		/**
+		 * Processes a child value: pushes it on the stack if the query may match its children,
+		 * and returns true if the value itself matches the query.
+		 */
+		private boolean visit(Object value, long states) {
+			if (states == 0) {
+				return false;
+			}
+			push(value, states);
+			if ((states & accept) != 0) {
+				nextValue = (value == NULL_OBJECT) ? null : LazyString.materialize(value);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (!hasNextValue && !stack.isEmpty()) {
+				Frame top = stack.peek();
+				if (!top.advance()) {
+					stack.remove(top);
+				}
+			}
+			return hasNextValue;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			hasNextValue = false;
+			T value = (T)nextValue;
+			nextValue = null;
+			return value;
+		}
+
+		/** A level of the traversal. */
+		private abstract class Frame {
+			final long states;
+
+			Frame(long states) {
+				this.states = states;
+			}
+
+			/**
+			 * Visits the next child of this frame.
+			 *
+			 * @return false if there is no more child to visit, true otherwise
+			 */
+			abstract boolean advance();
+		}
+
+		/** Iterates over all the entries of a config. */
+		private final class MapFrame extends Frame {
+			private final Iterator<Map.Entry<String, Object>> it;
+
+			MapFrame(Map<String, Object> map, long states) {
+				super(states);
+				this.it = map.entrySet().iterator();
+			}
+
+			@Override
+			boolean advance() {
+				if (!it.hasNext()) {
+					return false;
+				}
+				Map.Entry<String, Object> entry = it.next();
+				Object value = entry.getValue();
+				hasNextValue = visit(value, transition(states, entry.getKey(), -1, 0, value));
+				return true;
+			}
+		}
+
+		/** Looks up the keys required by the query, without iterating over the config. */
+		private final class KeyLookupFrame extends Frame {
+			private final Map<String, Object> map;
+			private int step = -1;
+
+			KeyLookupFrame(Map<String, Object> map, long states) {
+				super(states);
+				this.map = map;
+			}
+
+			@Override
+			boolean advance() {
+				step = nextStep(step);
+				if (step == -1) {
+					return false;
+				}
+				String key = steps[step].key;
+				if (isFirstOccurrence(key, step)) {
+					Object value = map.get(key);
+					if (value != null) {
+						hasNextValue = visit(value, transition(states, key, -1, 0, value));
+					}
+				}
+				return true;
+			}
+
+			private boolean isFirstOccurrence(String key, int step) {
+				for (int i = nextStep(-1); i < step; i = nextStep(i)) {
+					if (steps[i].key.equals(key)) {
+						return false;
+					}
+				}
+				return true;
+			}
+
+			private int nextStep(int current) {
+				for (int i = current + 1; i < steps.length; i++) {
+					if ((states & (1L << i)) != 0) {
+						return i;
+					}
+				}
+				return -1;
+			}
+		}
+
+		/** Iterates over all the elements of a list. */
+		private final class ListFrame extends Frame {
+			private final Iterator<?> it;
+			private final int size;
+			private int index = 0;
+
+			ListFrame(List<?> list, long states) {
+				super(states);
+				this.it = list.iterator();
+				this.size = list.size();
+			}
+
+			@Override
+			boolean advance() {
+				if (!it.hasNext()) {
+					return false;
+				}
+				Object value = it.next();
+				hasNextValue = visit(value, transition(states, null, index, size, value));
+				index++;
+				return true;
+			}
+		}
+
+		/** Gets the elements required by the query, without iterating over the list. */
+		private final class IndexLookupFrame extends Frame {
+			private final List<?> list;
+			private final int size;
+			private int step = -1;
+
+			IndexLookupFrame(List<?> list, long states) {
+				super(states);
+				this.list = list;
+				this.size = list.size();
+			}
+
+			@Override
+			boolean advance() {
+				do {
+					step++;
+				} while (step < steps.length && (states & (1L << step)) == 0);
+				if (step >= steps.length) {
+					return false;
+				}
+				int index = steps[step].index;
+				if (index < 0) {
+					index += size;
+				}
+				if (index >= 0 && index < size && isFirstOccurrence(index, step)) {
+					Object value = list.get(index);
+					hasNextValue = visit(value, transition(states, null, index, size, value));
+				}
+				return true;
+			}
+
+			private boolean isFirstOccurrence(int index, int step) {
+				for (int i = 0; i < step; i++) {
+					if ((states & (1L << i)) != 0) {
+						int other = steps[i].index;
+						if (other == index || other + size == index) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		}
+	}
+
+	// --- Compilation ---
+
+	private enum Kind {
+		KEY, ANY_KEY, INDEX, ANY_INDEX, FILTER, DESCENDANTS
+	}
+
+	private static final class Step {
+		final Kind kind;
+		final String key;
+		final int index;
+		final Predicate<UnmodifiableConfig> filter;
+
+		Step(Kind kind, String key, int index, Predicate<UnmodifiableConfig> filter) {
+			this.kind = kind;
+			this.key = key;
+			this.index = index;
+			this.filter = filter;
+		}
+	}
+
+	/**
+	 * A recursive-descent parser that compiles a query into a list of steps.
+	 */
+	private static final class QueryParser {
+		private final String query;
+		private int pos = 0;
+
+		QueryParser(String query) {
+			this.query = query;
+		}
+
+		List<Step> parse() {
+			List<Step> steps = new ArrayList<>();
+			if (query.isEmpty()) {
+				return steps;// the empty query matches the root
+			}
+			while (true) {
+				if (peek() != '[') {
+					parseSegment(steps);
+				}
+				while (peek() == '[') {
+					pos++;
+					steps.add(parseSelector());
+					expect(']');
+				}
+				if (pos == query.length()) {
+					return steps;
+				}
+				expect('.');
+			}
+		}
+
+		private void parseSegment(List<Step> steps) {
+			if (query.startsWith("**", pos) && isSegmentEnd(pos + 2)) {
+				pos += 2;
+				steps.add(new Step(Kind.DESCENDANTS, null, 0, null));
+			} else if (peek() == '*' && isSegmentEnd(pos + 1)) {
+				pos++;
+				steps.add(new Step(Kind.ANY_KEY, null, 0, null));
+			} else {
+				steps.add(new Step(Kind.KEY, parseKey(), 0, null));
+			}
+		}
+
+		private boolean isSegmentEnd(int index) {
+			if (index >= query.length()) {
+				return true;
+			}
+			char c = query.charAt(index);
+			return c == '.' || c == '[';
+		}
+
+		private Step parseSelector() {
+			skipSpaces();
+			char c = peek();
+			if (c == '*') {
+				pos++;
+				skipSpaces();
+				return new Step(Kind.ANY_INDEX, null, 0, null);
+			} else if (c == '?') {
+				pos++;
+				return new Step(Kind.FILTER, null, 0, parseFilter());
+			}
+			int start = pos;
+			if (c == '-') {
+				pos++;
+			}
+			while (Character.isDigit(peek())) {
+				pos++;
+			}
+			if (start == pos) {
+				throw error("Invalid selector");
+			}
+			int index;
+			try {
+				index = Integer.parseInt(query.substring(start, pos));
+			} catch (NumberFormatException ex) {
+				throw error("Invalid index");
+			}
+			skipSpaces();
+			return new Step(Kind.INDEX, null, index, null);
+		}
+
+		private Predicate<UnmodifiableConfig> parseFilter() {
+			skipSpaces();
+			List<String> path = new ArrayList<>(4);
+			path.add(parseKey());
+			while (peek() == '.') {
+				pos++;
+				path.add(parseKey());
+			}
+			skipSpaces();
+			String op = parseOperator();
+			if (op == null) {
+				return c -> c.contains(path);
+			}
+			skipSpaces();
+			Object literal = parseLiteral();
+			skipSpaces();
+			return c -> {
+				if (!c.contains(path)) {
+					return false;
+				}
+				Object value = c.getRaw(path);
+				return compare(op, (value == NULL_OBJECT) ? null : value, literal);
+			};
+		}
+
+		private String parseOperator() {
+			char c = peek();
+			char c2 = (pos + 1 < query.length()) ? query.charAt(pos + 1) : 0;
+			String op;
+			if (c == '=') {
+				op = (c2 == '=') ? "==" : "=";
+			} else if (c == '!' && c2 == '=') {
+				op = "!=";
+			} else if (c == '<' || c == '>') {
+				op = (c2 == '=') ? String.valueOf(c) + '=' : String.valueOf(c);
+			} else {
+				return null;
+			}
+			pos += op.length();
+			return op.equals("==") ? "=" : op;
+		}
+
+		private Object parseLiteral() {
+			char c = peek();
+			if (c == '"' || c == '\'') {
+				return parseQuoted();
+			}
+			int start = pos;
+			while (pos < query.length() && query.charAt(pos) != ']' && query.charAt(pos) != ' ') {
+				pos++;
+			}
+			String word = query.substring(start, pos);
+			if (word.isEmpty()) {
+				throw error("Missing value in filter");
+			}
+			switch (word) {
+				case "true":
+					return Boolean.TRUE;
+				case "false":
+					return Boolean.FALSE;
+				case "null":
+					return null;
+			}
+			try {
+				if (word.indexOf('.') == -1 && word.indexOf('e') == -1 && word.indexOf('E') == -1) {
+					return Long.parseLong(word);
+				}
+				return Double.parseDouble(word);
+			} catch (NumberFormatException ex) {
+				return word;// bare string
+			}
+		}
+
+		private String parseKey() {
+			char c = peek();
+			if (c == '"' || c == '\'') {
+				return parseQuoted();
+			}
+			int start = pos;
+			while (pos < query.length()) {
+				char ch = query.charAt(pos);
+				if (ch == '.' || ch == '[' || ch == ']' || ch == ' ' || ch == '=' || ch == '!'
+					|| ch == '<' || ch == '>' || ch == '"' || ch == '\'') {
+					break;
+				}
+				pos++;
+			}
+			if (start == pos) {
+				throw error("Empty key");
+			}
+			return query.substring(start, pos);
+		}
+
+		private String parseQuoted() {
+			char quote = query.charAt(pos++);
+			StringBuilder builder = new StringBuilder();
+			while (true) {
+				if (pos >= query.length()) {
+					throw error("Unterminated quoted key");
+				}
+				char c = query.charAt(pos++);
+				if (c == quote) {
+					return builder.toString();
+				}
+				if (c == '\\' && pos < query.length()) {
+					c = query.charAt(pos++);
+				}
+				builder.append(c);
+			}
+		}
+
+		private void skipSpaces() {
+			while (peek() == ' ') {
+				pos++;
+			}
+		}
+
+		private char peek() {
+			return (pos < query.length()) ? query.charAt(pos) : 0;
+		}
+
+		private void expect(char c) {
+			if (peek() != c) {
+				throw error("Expected '" + c + "'");
+			}
+			pos++;
+		}
+
+		private IllegalArgumentException error(String message) {
+			return new IllegalArgumentException(message + " at index " + pos + " of query " + query);
+		}
+	}
+
+	private static boolean compare(String op, Object value, Object literal) {
+		if (value instanceof Number && literal instanceof Number) {
+			int cmp = compareNumbers((Number)value, (Number)literal);
+			switch (op) {
+				case "=":
+					return cmp == 0;
+				case "!=":
+					return cmp != 0;
+				case "<":
+					return cmp < 0;
+				case "<=":
+					return cmp <= 0;
+				case ">":
+					return cmp > 0;
+				default:
+					return cmp >= 0;
+			}
+		}
+		if (value instanceof Enum) {
+			value = ((Enum<?>)value).name();
+		} else if (value instanceof CharSequence) {
+			value = value.toString();
+		}
+		switch (op) {
+			case "=":
+				return Objects.equals(value, literal);
+			case "!=":
+				return !Objects.equals(value, literal);
+		}
+		if (value instanceof String && literal instanceof String) {
+			int cmp = ((String)value).compareTo((String)literal);
+			switch (op) {
+				case "<":
+					return cmp < 0;
+				case "<=":
+					return cmp <= 0;
+				case ">":
+					return cmp > 0;
+				default:
+					return cmp >= 0;
+			}
+		}
+		return false;
+	}
+
+	private static int compareNumbers(Number a, Number b) {
+		boolean integral = (a instanceof Long || a instanceof Integer || a instanceof Short
+							|| a instanceof Byte)
+						   && (b instanceof Long || b instanceof Integer || b instanceof Short
+							   || b instanceof Byte);
+		if (integral) {
+			return Long.compare(a.longValue(), b.longValue());
+		}
+		return Double.compare(a.doubleValue(), b.doubleValue());
+	}
+}
@@ -0,0 +1,312 @@
+package com.electronwill.nightconfig.core;
+
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A value that is derived from some values of a configuration, and that is recomputed only when
+ * these values change. It's useful to avoid rebuilding expensive objects (patterns, durations,
+ * routing tables, etc.) each time they are used or each time the configuration is reloaded.
+ * <p>
+ * When the configuration is an {@link AbstractConfig} that knows all its modifications (it
+ * contains no value that can be modified in place, like a list), {@link #get()} only checks the
+ * configuration's modification counter, and returns the memoized value if nothing has changed.
+ * Otherwise, it reads the source values and compares them to the values that were used for the
+ * last computation. The simple values are compared with {@code equals}. The sub-configurations
+ * are compared with their modification counter if they are AbstractConfigs that know all their
+ * modifications. The other sub-configurations, the collections, the maps and the arrays can be
+ * modified in place, so a deep copy of their content is kept with the derived value, and they
+ * are compared to it element by element, which costs a traversal. When the configuration is an
+ * autoreloaded {@link com.electronwill.nightconfig.core.file.FileConfig}, the derived value is
+ * also refreshed right after each reload, so that the next call to {@code get()} doesn't have to
+ * compute it.
+ * <p>
+ * Instances of this class are thread-safe if the configuration is thread-safe. The derivation
+ * function may be called by several threads, but not concurrently.
+ *
+ * @param <T> the type of the derived value
+ * @author TheElectronWill
+ * @see UnmodifiableConfig#derive(String, Function)
+ */
+public final class DerivedValue<T> implements Supplier<T> {
+	private final UnmodifiableConfig config;
+	private final List<List<String>> paths;
+	private final Function<? super List<Object>, ? extends T> function;
+	private volatile Snapshot<T> snapshot;
+
+	DerivedValue(UnmodifiableConfig config, Collection<List<String>> paths,
+				 Function<? super List<Object>, ? extends T> function) {
+		this.config = config;
+		this.function = function;
+		List<List<String>> pathsCopy = new ArrayList<>(paths.size());
+		for (List<String> path : paths) {
+			pathsCopy.add(Collections.unmodifiableList(new ArrayList<>(path)));
+		}
+		this.paths = Collections.unmodifiableList(pathsCopy);
+	}
+
+	/**
+	 * Returns the derived value. It's computed again if the source values have changed since the
+	 * last computation.
+	 *
+	 * @return the derived value
+	 */
+	@Override
+	public T get() {
+		Snapshot<T> s = snapshot;
+		if (s != null && s.configStamp != null
+			&& ((AbstractConfig)config).isUnmodifiedSince(s.configStamp)) {
+			return s.result;
+		}
+		Object configStamp = configStamp();// taken before reading the values
+		Object[] values = currentValues();
+		if (s != null && s.matches(values)) {
+			if (configStamp != null) {
+				snapshot = s.withConfigStamp(configStamp);
+			}
+			return s.result;
+		}
+		return compute(values, configStamp);
+	}
+
+	/**
+	 * Computes the derived value now if the source values have changed since the last
+	 * computation.
+	 *
+	 * @return true if the value has been computed, false if it was up to date
+	 */
+	public boolean refresh() {
+		Object configStamp = configStamp();
+		Object[] values = currentValues();
+		Snapshot<T> s = snapshot;
+		if (s != null && s.matches(values)) {
+			if (configStamp != null) {
+				snapshot = s.withConfigStamp(configStamp);
+			}
+			return false;
+		}
+		compute(values, configStamp);
+		return true;
+	}
+
+	/**
+	 * Forgets the derived value, so that it's computed again by the next call to {@link #get()}.
+	 */
+	public void invalidate() {
+		snapshot = null;
+	}
+
+	/**
+	 * @return the paths of the source values
+	 */
+	public List<List<String>> paths() {
+		return paths;
+	}
+
+	@Override
+	public String toString() {
+		Snapshot<T> s = snapshot;
+		return "DerivedValue(" + paths + ": " + ((s == null) ? "not computed" : s.result) + ')';
+	}
+
+	private synchronized T compute(Object[] values, Object configStamp) {
+		Snapshot<T> s = snapshot;
+		if (s != null && s.matches(values)) {
+			return s.result;// computed by another thread in the meantime
+		}
+		// The stamps are taken before the function reads the values, so that a modification made
+		// during the computation isn't hidden by them.
+		Snapshot<T> newSnapshot = new Snapshot<>(values, configStamp);
+		List<Object> arguments = Collections.unmodifiableList(Arrays.asList(values.clone()));
+		newSnapshot.result = function.apply(arguments);
+		snapshot = newSnapshot;
+		return newSnapshot.result;
+	}
+
+	/**
+	 * @return a stamp of the config's content, or null if it isn't available
+	 */
+	private Object configStamp() {
+		return (config instanceof AbstractConfig) ? ((AbstractConfig)config).contentStamp() : null;
+	}
+
+	private Object[] currentValues() {
+		Object[] values = new Object[paths.size()];
+		if (values.length == 1) {
+			values[0] = config.get(paths.get(0));
+		} else {
+			Map<List<String>, Object> all = config.getAll(paths);
+			for (int i = 0; i < values.length; i++) {
+				values[i] = all.get(paths.get(i));
+			}
+		}
+		return values;
+	}
+
+	/**
+	 * The source values and the result of a computation.
+	 */
+	private static final class Snapshot<T> {
+		final Object[] values;// the values, or copies of the containers that have no stamp
+		final Object[] stamps;
+		final Object configStamp;
+		T result;
+
+		Snapshot(Object[] values, Object configStamp) {
+			this.values = new Object[values.length];
+			this.stamps = new Object[values.length];
+			this.configStamp = configStamp;
+			for (int i = 0; i < values.length; i++) {
+				Object value = values[i];
+				if (value instanceof AbstractConfig) {
+					stamps[i] = ((AbstractConfig)value).contentStamp();
+				}
+				// The containers that can be modified without us knowing are copied, because the
+				// same object may be modified in place before the next check.
+				this.values[i] = (stamps[i] == null) ? copy(value) : value;
+			}
+		}
+
+		private Snapshot(Snapshot<T> s, Object configStamp) {
+			this.values = s.values;
+			this.stamps = s.stamps;
+			this.configStamp = configStamp;
+			this.result = s.result;
+		}
+
+		Snapshot<T> withConfigStamp(Object configStamp) {
+			return new Snapshot<>(this, configStamp);
+		}
+
+		boolean matches(Object[] current) {
+			for (int i = 0; i < values.length; i++) {
+				Object old = values[i], now = current[i];
+				if (stamps[i] != null) {
+					// old is a sub-config that knows all its modifications
+					if (!((AbstractConfig)old).isUnmodifiedSince(stamps[i])
+						|| (now != old && !old.equals(now))) {
+						return false;
+					}
+				} else if (!contentEquals(now, old)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Copies the content of a container (config, collection, map or array) and of the
+		 * containers it contains. The other values are returned as they are.
+		 */
+		private static Object copy(Object value) {
+			if (value instanceof UnmodifiableConfig) {
+				return new ConfigContent(copyMap(((UnmodifiableConfig)value).valueMap()));
+			} else if (value instanceof Map) {
+				return copyMap((Map<?, ?>)value);
+			} else if (value instanceof Collection) {
+				Collection<?> collection = (Collection<?>)value;
+				Collection<Object> copy = (value instanceof Set) ? new HashSet<>()
+										  : new ArrayList<>(collection.size());
+				for (Object element : collection) {
+					copy.add(copy(element));
+				}
+				return copy;
+			} else if (value != null && value.getClass().isArray()) {
+				int length = Array.getLength(value);
+				Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+				if (value instanceof Object[]) {
+					for (int i = 0; i < length; i++) {
+						((Object[])copy)[i] = copy(((Object[])value)[i]);
+					}
+				} else {
+					System.arraycopy(value, 0, copy, 0, length);
+				}
+				return copy;
+			}
+			return value;
+		}
+
+		private static Map<Object, Object> copyMap(Map<?, ?> map) {
+			Map<Object, Object> copy = new HashMap<>();
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				copy.put(entry.getKey(), copy(entry.getValue()));
+			}
+			return copy;
+		}
+
+		/**
+		 * Checks if a value has the same content as a copy made by {@link #copy(Object)}.
+		 */
+		private static boolean contentEquals(Object value, Object copy) {
+			if (value instanceof UnmodifiableConfig) {
+				Map<String, Object> map = ((UnmodifiableConfig)value).valueMap();
+				return copy instanceof ConfigContent && mapEquals(map, ((ConfigContent)copy).map);
+			} else if (value instanceof Map) {
+				return copy instanceof Map && mapEquals((Map<?, ?>)value, (Map<?, ?>)copy);
+			} else if (value instanceof Set) {
+				return copy instanceof Set && copy(value).equals(copy);
+			} else if (value instanceof Collection) {
+				Collection<?> collection = (Collection<?>)value;
+				if (!(copy instanceof List) || ((List<?>)copy).size() != collection.size()) {
+					return false;
+				}
+				Iterator<?> it = ((List<?>)copy).iterator();
+				for (Object element : collection) {
+					if (!contentEquals(element, it.next())) {
+						return false;
+					}
+				}
+				return true;
+			} else if (value instanceof Object[]) {
+				Object[] array = (Object[])value;
+				if (!(copy instanceof Object[]) || ((Object[])copy).length != array.length) {
+					return false;
+				}
+				for (int i = 0; i < array.length; i++) {
+					if (!contentEquals(array[i], ((Object[])copy)[i])) {
+						return false;
+					}
+				}
+				return true;
+			}
+			// compares the primitive arrays by content, and the other values with equals
+			return Arrays.deepEquals(new Object[] {copy}, new Object[] {value});
+		}
+
+		private static boolean mapEquals(Map<?, ?> map, Map<?, ?> copy) {
+			if (map.size() != copy.size()) {
+				return false;
+			}
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				Object key = entry.getKey();
+				if (!copy.containsKey(key) || !contentEquals(entry.getValue(), copy.get(key))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * A copy of the values of a config, distinct from a copy of a map.
+	 */
+	private static final class ConfigContent {
+		final Map<Object, Object> map;
+
+		ConfigContent(Map<Object, Object> map) {
+			this.map = map;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ConfigContent && map.equals(((ConfigContent)obj).map);
+		}
+
+		@Override
+		public int hashCode() {
+			return map.hashCode();
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.Objects;
+
+/**
+ * A string value that hasn't been turned into a {@link String} yet. Parsers can store it in a
+ * config instead of a String, to avoid creating the Strings that are never read. It is based on
+ * a view of the parser's source buffer, which is retained until the String is created.
+ * <p>
+ * LazyStrings are internal to the {@link AbstractConfig}s. The methods that return values, like
+ * {@link UnmodifiableConfig#get(String)}, and the maps returned by
+ * {@link UnmodifiableConfig#valueMap()} never return a LazyString but the corresponding String,
+ * which is created on the first read and then reused. The parsers give Strings to the other
+ * configs (see {@link com.electronwill.nightconfig.core.io.ParsingMode#put}). A LazyString is
+ * equal to the Strings and LazyStrings that contain the same characters, and has the same
+ * hashCode as the corresponding String.
+ *
+ * @author TheElectronWill
+ */
+public final class LazyString implements CharSequence {
+	private volatile CharSequence source;// null once the String is created
+	private volatile String value;
+
+	/**
+	 * Creates a new LazyString. The source must not be modified afterwards.
+	 *
+	 * @param source the characters of the string
+	 */
+	public LazyString(CharSequence source) {
+		this.source = Objects.requireNonNull(source, "The source must not be null.");
+	}
+
+	/**
+	 * Returns the String if the value is a LazyString, or the value itself.
+	 */
+	static Object materialize(Object value) {
+		return (value instanceof LazyString) ? value.toString() : value;
+	}
+
+	/**
+	 * @return true if the String has been created
+	 */
+	public boolean isMaterialized() {
+		return source == null;
+	}
+
+	@Override
+	public String toString() {
+		String s = value;
+		if (s == null) {
+			CharSequence src = source;
+			if (src == null) {// created by another thread in the meantime
+				return value;
+			}
+			s = src.toString();
+			value = s;
+			source = null;// releases the source buffer
+		}
+		return s;
+	}
+
+	private CharSequence content() {
+		CharSequence src = source;
+		return (src == null) ? value : src;
+	}
+
+	@Override
+	public int length() {
+		return content().length();
+	}
+
+	@Override
+	public char charAt(int index) {
+		return content().charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		return toString().subSequence(start, end);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof String || obj instanceof LazyString)) {
+			return false;
+		}
+		CharSequence a = content(), b = (CharSequence)obj;
+		int length = a.length();
+		if (length != b.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (a.charAt(i) != b.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		String s = value;
+		if (s != null) {
+			return s.hashCode();
+		}
+		CharSequence chars = content();
+		int h = 0;// same as String.hashCode()
+		for (int i = 0; i < chars.length(); i++) {
+			h = 31 * h + chars.charAt(i);
+		}
+		return h;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,224 @@
+package com.electronwill.nightconfig.core;
+
+import com.electronwill.nightconfig.core.utils.ConfigWrapper;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.electronwill.nightconfig.core.utils.StringUtils.split;
+
+/**
+ * A profiler wrapped around a configuration. It counts how many times each path is read (with
+ * {@link #getRaw(List)}) and written (with {@link #set(List, Object)} and
+ * {@link #add(List, Object)}), in order to find the hot keys and the keys that are never used.
+ * <p>
+ * The counters are {@link LongAdder}s, so the profiling scales well with the number of threads.
+ * To reduce the overhead further, the profiler can sample only some of the accesses: with a
+ * sampling period of N, each access is recorded with a probability of 1/N and counts as N
+ * accesses. The counts are then estimations, and some rarely used keys may be reported as never
+ * read.
+ * <p>
+ * Only the accesses made through this wrapper are recorded. The accesses made directly to the
+ * {@link #valueMap()}, to the entries, or to the sub-configs returned by {@code getRaw}, are not.
+ *
+ * @author TheElectronWill
+ */
+public final class ProfiledConfig extends ConfigWrapper<Config> {
+	private final Map<List<String>, Counters> counters = new ConcurrentHashMap<>();
+	private final int samplingPeriod;
+
+	/**
+	 * Creates a new ProfiledConfig around a given configuration.
+	 *
+	 * @param config         the configuration to wrap
+	 * @param samplingPeriod 1 to record every access, N to record 1 access out of N on average
+	 */
+	ProfiledConfig(Config config, int samplingPeriod) {
+		super(config);
+		if (samplingPeriod < 1) {
+			throw new IllegalArgumentException("Invalid sampling period: " + samplingPeriod);
+		}
+		this.samplingPeriod = samplingPeriod;
+	}
+
+	@Override
+	public ProfiledConfig profiled() {
+		return this;
+	}
+
+	@Override
+	public <T> T getRaw(List<String> path) {
+		record(path, false);
+		return super.getRaw(path);
+	}
+
+	@Override
+	public <T> T set(List<String> path, Object value) {
+		record(path, true);
+		return super.set(path, value);
+	}
+
+	@Override
+	public boolean add(List<String> path, Object value) {
+		record(path, true);
+		return super.add(path, value);
+	}
+
+	@Override
+	public String toString() {
+		return "profiled of " + config;
+	}
+
+	/**
+	 * @return the sampling period of this profiler
+	 */
+	public int samplingPeriod() {
+		return samplingPeriod;
+	}
+
+	/**
+	 * Returns the (estimated) number of reads of the given path.
+	 *
+	 * @param path the path, each part separated by a dot. Example "a.b.c"
+	 * @return the number of reads
+	 */
+	public long readCount(String path) {
+		return readCount(split(path, '.'));
+	}
+
+	/**
+	 * Returns the (estimated) number of reads of the given path.
+	 *
+	 * @param path the path, each element of the list is a different part of the path.
+	 * @return the number of reads
+	 */
+	public long readCount(List<String> path) {
+		Counters c = counters.get(path);
+		return (c == null) ? 0 : c.reads.sum();
+	}
+
+	/**
+	 * Returns the (estimated) number of writes of the given path.
+	 *
+	 * @param path the path, each part separated by a dot. Example "a.b.c"
+	 * @return the number of writes
+	 */
+	public long writeCount(String path) {
+		return writeCount(split(path, '.'));
+	}
+
+	/**
+	 * Returns the (estimated) number of writes of the given path.
+	 *
+	 * @param path the path, each element of the list is a different part of the path.
+	 * @return the number of writes
+	 */
+	public long writeCount(List<String> path) {
+		Counters c = counters.get(path);
+		return (c == null) ? 0 : c.writes.sum();
+	}
+
+	/**
+	 * Returns the most read paths, sorted by decreasing number of reads.
+	 *
+	 * @param n the maximum number of paths to return
+	 * @return an ordered map path -> number of reads
+	 */
+	public Map<List<String>, Long> topReads(int n) {
+		return top(n, false);
+	}
+
+	/**
+	 * Returns the most written paths, sorted by decreasing number of writes.
+	 *
+	 * @param n the maximum number of paths to return
+	 * @return an ordered map path -> number of writes
+	 */
+	public Map<List<String>, Long> topWrites(int n) {
+		return top(n, true);
+	}
+
+	/**
+	 * Returns the paths of the values that are in the config but have never been read. A value
+	 * is considered read if its path or the path of one of its parents has been read. The
+	 * sub-configurations are explored recursively, and only their values are reported.
+	 *
+	 * @return the paths of the values that have never been read
+	 */
+	public List<List<String>> neverRead() {
+		List<List<String>> result = new ArrayList<>();
+		collectNeverRead(config, new ArrayList<>(), result);
+		return result;
+	}
+
+	/**
+	 * Resets all the counters.
+	 */
+	public void resetCounters() {
+		counters.clear();
+	}
+
+	private void record(List<String> path, boolean write) {
+		int increment;
+		if (samplingPeriod == 1) {
+			increment = 1;
+		} else if (ThreadLocalRandom.current().nextInt(samplingPeriod) == 0) {
+			increment = samplingPeriod;
+		} else {
+			return;
+		}
+		Counters c = counters.get(path);
+		if (c == null) {
+			// Copies the path because the caller may modify it afterwards
+			List<String> key = Collections.unmodifiableList(new ArrayList<>(path));
+			c = counters.computeIfAbsent(key, k -> new Counters());
+		}
+		(write ? c.writes : c.reads).add(increment);
+	}
+
+	private Map<List<String>, Long> top(int n, boolean writes) {
+		List<Map.Entry<List<String>, Long>> entries = new ArrayList<>(counters.size());
+		for (Map.Entry<List<String>, Counters> entry : counters.entrySet()) {
+			Counters c = entry.getValue();
+			long count = writes ? c.writes.sum() : c.reads.sum();
+			if (count > 0) {
+				entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+			}
+		}
+		entries.sort(Map.Entry.<List<String>, Long>comparingByValue().reversed());
+		Map<List<String>, Long> result = new LinkedHashMap<>();
+		for (int i = 0; i < Math.min(n, entries.size()); i++) {
+			Map.Entry<List<String>, Long> entry = entries.get(i);
+			result.put(entry.getKey(), entry.getValue());
+		}
+		return result;
+	}
+
+	private void collectNeverRead(UnmodifiableConfig config, List<String> parentPath,
+								  List<List<String>> result) {
+		for (UnmodifiableConfig.Entry entry : config.entrySet()) {
+			List<String> path = new ArrayList<>(parentPath.size() + 1);
+			path.addAll(parentPath);
+			path.add(entry.getKey());
+			if (readCount(path) > 0) {
+				continue;// read, and so are its children
+			}
+			Object value = entry.getRawValue();
+			if (value instanceof UnmodifiableConfig) {
+				collectNeverRead((UnmodifiableConfig)value, path, result);
+			} else {
+				result.add(path);
+			}
+		}
+	}
+
+	/**
+	 * The access counters of a path.
+	 */
+	private static final class Counters {
+		final LongAdder reads = new LongAdder();
+		final LongAdder writes = new LongAdder();
+	}
+}
@@ -1,6 +1,7 @@
 package com.electronwill.nightconfig.core;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -57,6 +58,70 @@ public interface UnmodifiableConfig {
 	 */
 	<T> T getRaw(List<String> path);
 
+	/**
+	 * Gets several values from the config. This is equivalent to calling {@link #get(List)} for
+	 * each path, but implementations may resolve the parents shared by several paths only once.
+	 *
+	 * @param paths the values' paths, each path is a list of keys
+	 * @return a map path -> value that contains the paths that exist in the config
+	 */
+	default Map<List<String>, Object> getAll(Collection<List<String>> paths) {
+		Map<List<String>, Object> result = new LinkedHashMap<>();
+		for (List<String> path : paths) {
+			Object raw = getRaw(path);
+			if (raw != null) {
+				result.put(path, (raw == NULL_OBJECT) ? null : raw);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a value derived from a config value. The derived value is computed by the given
+	 * function when it's needed, and computed again only when the config value changes.
+	 *
+	 * @param path     the source value's path, each part separated by a dot. Example "a.b.c"
+	 * @param function the function that computes the derived value from the source value
+	 * @param <V>      the source value's type
+	 * @param <T>      the derived value's type
+	 * @return a DerivedValue that memoizes the result of the function
+	 */
+	default <V, T> DerivedValue<T> derive(String path, Function<? super V, ? extends T> function) {
+		return derive(split(path, '.'), function);
+	}
+
+	/**
+	 * Creates a value derived from a config value. The derived value is computed by the given
+	 * function when it's needed, and computed again only when the config value changes.
+	 *
+	 * @param path     the source value's path, each element of the list is a different part of
+	 *                 the path.
+	 * @param function the function that computes the derived value from the source value
+	 * @param <V>      the source value's type
+	 * @param <T>      the derived value's type
+	 * @return a DerivedValue that memoizes the result of the function
+	 */
+	default <V, T> DerivedValue<T> derive(List<String> path,
+										  Function<? super V, ? extends T> function) {
+		return deriveAll(Collections.singletonList(path), values -> function.apply((V)values.get(0)));
+	}
+
+	/**
+	 * Creates a value derived from several config values. The derived value is computed by the
+	 * given function when it's needed, and computed again only when one of the config values
+	 * changes.
+	 *
+	 * @param paths    the source values' paths, each path is a list of keys
+	 * @param function the function that computes the derived value from the source values, given
+	 *                 in the same order as the paths
+	 * @param <T>      the derived value's type
+	 * @return a DerivedValue that memoizes the result of the function
+	 */
+	default <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										  Function<? super List<Object>, ? extends T> function) {
+		return new DerivedValue<>(this, paths, function);
+	}
+
 	/**
 	 * Gets an optional value from the config.
 	 *
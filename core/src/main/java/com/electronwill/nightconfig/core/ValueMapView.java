@@ -0,0 +1,445 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The map returned by {@link AbstractConfig#valueMap()}: a view of the config's map that notifies
+ * the config of the modifications made through it. The view is created once, with the config.
+ * If the config's map is a {@link ConcurrentMap}, the view is a ConcurrentMap too, and its atomic
+ * operations are the ones of the config's map.
+ * <p>
+ * The {@link LazyString}s stored in the config's map never leave the view: the methods that
+ * return values, the iterators, the entries and the functions given to the view see the
+ * corresponding Strings.
+ *
+ * @author TheElectronWill
+ */
+class ValueMapView implements Map<String, Object> {
+	final AbstractConfig config;
+	final Map<String, Object> map;
+	private Set<String> keySet;
+	private Collection<Object> values;
+	private Set<Entry<String, Object>> entrySet;
+
+	static ValueMapView of(AbstractConfig config, Map<String, Object> map) {
+		if (map instanceof ConcurrentMap) {
+			return new Concurrent(config, map);
+		}
+		return new ValueMapView(config, map);
+	}
+
+	private ValueMapView(AbstractConfig config, Map<String, Object> map) {
+		this.config = config;
+		this.map = map;
+	}
+
+	@Override
+	public int size() {
+		return map.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return map.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		if (value instanceof String) {
+			for (Object v : map.values()) {
+				if (value.equals(materialize(v))) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return map.containsValue(value);
+	}
+
+	@Override
+	public Object get(Object key) {
+		return materialize(map.get(key));
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		return materialize(map.getOrDefault(key, defaultValue));
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Object previous = map.put(key, value);
+		config.modified();
+		return materialize(previous);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Object previous = map.remove(key);
+		config.modified();
+		return materialize(previous);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ?> m) {
+		map.putAll(m);
+		config.modified();
+	}
+
+	@Override
+	public void clear() {
+		map.clear();
+		config.modified();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		map.forEach((k, v) -> action.accept(k, materialize(v)));
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+		map.replaceAll((k, v) -> function.apply(k, materialize(v)));
+		config.modified();
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		Object existing = map.putIfAbsent(key, value);
+		if (existing == null) {
+			config.modified();
+		}
+		return materialize(existing);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		boolean removed = map.remove(key, stored(key, value));
+		if (removed) {
+			config.modified();
+		}
+		return removed;
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		boolean replaced = map.replace(key, stored(key, oldValue), newValue);
+		if (replaced) {
+			config.modified();
+		}
+		return replaced;
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		Object previous = map.replace(key, value);
+		if (previous != null) {
+			config.modified();
+		}
+		return materialize(previous);
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+		Object result = map.computeIfAbsent(key, mappingFunction);
+		config.modified();
+		return materialize(result);
+	}
+
+	@Override
+	public Object computeIfPresent(String key,
+								   BiFunction<? super String, ? super Object, ?> function) {
+		Object result = map.computeIfPresent(key, (k, v) -> function.apply(k, materialize(v)));
+		config.modified();
+		return materialize(result);
+	}
+
+	@Override
+	public Object compute(String key,
+						  BiFunction<? super String, ? super Object, ?> remappingFunction) {
+		Object result = map.compute(key, (k, v) -> remappingFunction.apply(k, materialize(v)));
+		config.modified();
+		return materialize(result);
+	}
+
+	@Override
+	public Object merge(String key, Object value,
+						BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+		Object result = map.merge(key, value,
+			(v, given) -> remappingFunction.apply(materialize(v), given));
+		config.modified();
+		return materialize(result);
+	}
+
+	private static Object materialize(Object value) {
+		return LazyString.materialize(value);
+	}
+
+	/**
+	 * Returns the value stored in the map if it is a LazyString equal to the given value, so
+	 * that the conditional operations of the map, which compare with {@code equals}, work with
+	 * a String.
+	 */
+	private Object stored(Object key, Object value) {
+		Object current = map.get(key);
+		return (current instanceof LazyString && current.equals(value)) ? current : value;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		Set<String> set = keySet;
+		if (set == null) {
+			keySet = set = new KeySet();
+		}
+		return set;
+	}
+
+	@Override
+	public Collection<Object> values() {
+		Collection<Object> collection = values;
+		if (collection == null) {
+			values = collection = new Values();
+		}
+		return collection;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Set<Entry<String, Object>> set = entrySet;
+		if (set == null) {
+			entrySet = set = new EntrySet();
+		}
+		return set;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof Map)) {
+			return false;
+		}
+		// Like Map.equals, but with the LazyStrings of both maps materialized
+		Map<?, ?> other = (Map<?, ?>)obj;
+		if (other.size() != map.size()) {
+			return false;
+		}
+		for (Entry<String, Object> entry : map.entrySet()) {
+			String key = entry.getKey();
+			Object value = materialize(entry.getValue());
+			Object otherValue = materialize(other.get(key));
+			if (value == null ? (otherValue != null || !other.containsKey(key))
+							  : !value.equals(otherValue)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return map.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return map.toString();
+	}
+
+	/**
+	 * An iterator of the map's views, that notifies the config of the removals.
+	 */
+	private abstract class ViewIterator<E> implements Iterator<E> {
+		private final Iterator<Entry<String, Object>> iterator = map.entrySet().iterator();
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public E next() {
+			return view(iterator.next());
+		}
+
+		abstract E view(Entry<String, Object> entry);
+
+		@Override
+		public void remove() {
+			iterator.remove();
+			config.modified();
+		}
+	}
+
+	private final class KeySet extends AbstractSet<String> {
+		@Override
+		public Iterator<String> iterator() {
+			return new ViewIterator<String>() {
+				@Override
+				String view(Entry<String, Object> entry) {
+					return entry.getKey();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return map.containsKey(o);
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			boolean removed = map.keySet().remove(o);
+			if (removed) {
+				config.modified();
+			}
+			return removed;
+		}
+
+		@Override
+		public void clear() {
+			ValueMapView.this.clear();
+		}
+	}
+
+	private final class Values extends AbstractCollection<Object> {
+		@Override
+		public Iterator<Object> iterator() {
+			return new ViewIterator<Object>() {
+				@Override
+				Object view(Entry<String, Object> entry) {
+					return materialize(entry.getValue());
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return containsValue(o);
+		}
+
+		@Override
+		public void clear() {
+			ValueMapView.this.clear();
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+		@Override
+		public Iterator<Entry<String, Object>> iterator() {
+			return new ViewIterator<Entry<String, Object>>() {
+				@Override
+				Entry<String, Object> view(Entry<String, Object> entry) {
+					return new ViewEntry(entry);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> entry = (Entry<?, ?>)o;
+			Object value = get(entry.getKey());
+			return value != null && value.equals(materialize(entry.getValue()));
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!(o instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> entry = (Entry<?, ?>)o;
+			return ValueMapView.this.remove(entry.getKey(), entry.getValue());
+		}
+
+		@Override
+		public void clear() {
+			ValueMapView.this.clear();
+		}
+	}
+
+	/**
+	 * An entry of the map, that notifies the config when its value is set.
+	 */
+	private final class ViewEntry implements Entry<String, Object> {
+		private final Entry<String, Object> entry;
+
+		ViewEntry(Entry<String, Object> entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public String getKey() {
+			return entry.getKey();
+		}
+
+		@Override
+		public Object getValue() {
+			return materialize(entry.getValue());
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			Object previous = entry.setValue(value);
+			config.modified();
+			return materialize(previous);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Entry)) {
+				return false;
+			}
+			Entry<?, ?> other = (Entry<?, ?>)obj;
+			return Objects.equals(getKey(), other.getKey())
+				   && Objects.equals(getValue(), other.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	/**
+	 * The view of a ConcurrentMap.
+	 */
+	private static final class Concurrent extends ValueMapView
+		implements ConcurrentMap<String, Object> {
+		Concurrent(AbstractConfig config, Map<String, Object> map) {
+			super(config, map);
+		}
+	}
+}
\ No newline at end of file
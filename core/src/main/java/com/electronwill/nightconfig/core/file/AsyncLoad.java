@@ -0,0 +1,109 @@
+package com.electronwill.nightconfig.core.file;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.io.ConfigParser;
+import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.ParsingMode;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Implements {@link FileConfig#loadAsync(java.util.concurrent.Executor)} for the FileConfigs
+ * that parse their file: the file is parsed to a new config in background, then the parsed
+ * values are put into the FileConfig. The FileConfig makes sure that the file isn't being
+ * saved while it's parsed.
+ * <p>
+ * The FileConfig's config must be concurrent, because the other threads read it without any
+ * lock while the values are put. The values are put one by one, so the readers can see some
+ * old values and some new ones until the loading is complete. In the REPLACE mode, the old
+ * entries are removed after the new values are put, instead of clearing the config first, so
+ * that an entry that is in the file doesn't disappear during the loading.
+ *
+ * @author TheElectronWill
+ */
+final class AsyncLoad {
+	/**
+	 * Checks that a config can be read by other threads while it's loaded asynchronously.
+	 *
+	 * @throws UnsupportedOperationException if the config isn't concurrent
+	 */
+	static void checkConcurrent(Config config) {
+		if (!(config.valueMap() instanceof ConcurrentMap)) {
+			throw new UnsupportedOperationException("Cannot load a FileConfig asynchronously "
+				+ "if it isn't concurrent, see GenericBuilder#concurrent()");
+		}
+	}
+
+	/**
+	 * Parses a file to a new config.
+	 *
+	 * @return the parsed config, or null if the file doesn't exist and the FileNotFoundAction
+	 * doesn't create it
+	 */
+	static Config parse(ConfigParser<?> parser, Path file, FileNotFoundAction nefAction,
+						Charset charset, long mmapThreshold) {
+		try {
+			if (Files.notExists(file) && !nefAction.run(file, parser.getFormat())) {
+				return null;
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		return parser.parse(file, FileNotFoundAction.READ_NOTHING, charset, mmapThreshold);
+	}
+
+	/**
+	 * Puts the values and the top-level comments of a parsed config into the destination. The
+	 * result is the same as if the file was parsed directly into the destination with the
+	 * parsing mode.
+	 */
+	static void publish(Config parsed, Config destination, ParsingMode parsingMode) {
+		boolean replace = (parsingMode == ParsingMode.REPLACE);
+		if (!replace) {
+			parsingMode.prepareParsing(destination);
+		}
+		Map<String, Object> values = destination.valueMap();
+		boolean comments = (destination instanceof CommentedConfig)
+						   && (parsed instanceof UnmodifiableCommentedConfig);
+		Map<String, Object> parsedValues = parsed.valueMap();
+		for (Map.Entry<String, Object> entry : parsedValues.entrySet()) {
+			String key = entry.getKey();
+			if (parsingMode == ParsingMode.ADD && values.containsKey(key)) {
+				continue;// the existing values are kept
+			}
+			values.put(key, entry.getValue());
+			if (comments) {
+				List<String> path = Collections.singletonList(key);
+				String comment = ((UnmodifiableCommentedConfig)parsed).getComment(path);
+				if (comment != null) {
+					((CommentedConfig)destination).setComment(path, comment);
+				} else if (replace) {
+					((CommentedConfig)destination).removeComment(path);
+				}
+			}
+		}
+		if (replace) {// removes the entries that aren't in the file anymore
+			for (String key : new ArrayList<>(values.keySet())) {
+				if (!parsedValues.containsKey(key)) {
+					List<String> path = Collections.singletonList(key);
+					destination.remove(path);
+					if (destination instanceof CommentedConfig) {
+						((CommentedConfig)destination).removeComment(path);
+					}
+				}
+			}
+		}
+	}
+
+	private AsyncLoad() {}
+}
\ No newline at end of file
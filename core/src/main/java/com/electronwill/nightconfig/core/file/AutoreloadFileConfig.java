@@ -1,26 +1,62 @@
 package com.electronwill.nightconfig.core.file;
 
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.ConfigWrapper;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
  */
 final class AutoreloadFileConfig<C extends FileConfig> extends ConfigWrapper<C> implements FileConfig {
 	private final FileWatcher watcher = FileWatcher.defaultInstance();
+	private final List<WeakReference<DerivedValue<?>>> derivedValues = new CopyOnWriteArrayList<>();
 
 	AutoreloadFileConfig(C config) {
 		super(config);
 		try {
-			watcher.addWatch(config.getFile(), config::load);
+			watcher.addWatch(config.getFile(), this::reload);
 		} catch (IOException e) {
 			throw new RuntimeException("Unable to create the autoreloaded config", e);
 		}
 	}
 
+	/**
+	 * Reloads the config and refreshes the values derived from it.
+	 */
+	private void reload() {
+		config.load();
+		for (WeakReference<DerivedValue<?>> reference : derivedValues) {
+			DerivedValue<?> derived = reference.get();
+			if (derived == null) {
+				derivedValues.remove(reference);
+			} else {
+				try {
+					derived.refresh();
+				} catch (RuntimeException e) {
+					derived.invalidate();// the error will be thrown by the next get()
+				}
+			}
+		}
+	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		DerivedValue<T> derived = config.deriveAll(paths, function);
+		derivedValues.add(new WeakReference<>(derived));
+		return derived;
+	}
+
 	@Override
 	public File getFile() {
 		return config.getFile();
@@ -41,6 +77,11 @@ final class AutoreloadFileConfig<C extends FileConfig> extends ConfigWrapper<C>
 		config.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return config.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		watcher.removeWatch(config.getFile());
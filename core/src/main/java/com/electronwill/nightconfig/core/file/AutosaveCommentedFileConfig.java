@@ -1,13 +1,18 @@
 package com.electronwill.nightconfig.core.file;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.CommentedConfigWrapper;
 import com.electronwill.nightconfig.core.utils.ObservedMap;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -65,6 +70,12 @@ final class AutosaveCommentedFileConfig extends CommentedConfigWrapper<Commented
 		return new ObservedMap<>(super.commentMap(), this::save);
 	}
 
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return fileConfig.deriveAll(paths, function);// registers the value for autoreload, if enabled
+	}
+
 	@Override
 	public File getFile() {
 		return fileConfig.getFile();
@@ -85,6 +96,11 @@ final class AutosaveCommentedFileConfig extends CommentedConfigWrapper<Commented
 		fileConfig.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return fileConfig.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		fileConfig.close();
@@ -1,12 +1,17 @@
 package com.electronwill.nightconfig.core.file;
 
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.ConfigWrapper;
 import com.electronwill.nightconfig.core.utils.ObservedMap;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -42,6 +47,12 @@ final class AutosaveFileConfig<C extends FileConfig> extends ConfigWrapper<C> im
 		return new ObservedMap<>(super.valueMap(), this::save);
 	}
 
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);// registers the value for autoreload, if enabled
+	}
+
 	@Override
 	public File getFile() {
 		return config.getFile();
@@ -62,6 +73,11 @@ final class AutosaveFileConfig<C extends FileConfig> extends ConfigWrapper<C> im
 		config.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return config.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		config.close();
@@ -3,15 +3,20 @@ package com.electronwill.nightconfig.core.file;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.CommentedConfigWrapper;
 import com.electronwill.nightconfig.core.utils.TransformingMap;
 import com.electronwill.nightconfig.core.utils.TransformingSet;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -49,6 +54,11 @@ class CheckedCommentedFileConfig extends CommentedConfigWrapper<CommentedFileCon
 		config.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return config.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		config.close();
@@ -110,4 +120,10 @@ class CheckedCommentedFileConfig extends CommentedConfigWrapper<CommentedFileCon
 		checkValue(value);
 		return value;
 	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);// reads the values, no check needed
+	}
 }
\ No newline at end of file
@@ -2,15 +2,20 @@ package com.electronwill.nightconfig.core.file;
 
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.ConfigWrapper;
 import com.electronwill.nightconfig.core.utils.TransformingMap;
 import com.electronwill.nightconfig.core.utils.TransformingSet;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -47,6 +52,11 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		config.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return config.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		config.close();
@@ -108,4 +118,10 @@ class CheckedFileConfig extends ConfigWrapper<FileConfig> implements FileConfig
 		checkValue(value);
 		return value;
 	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);// reads the values, no check needed
+	}
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.electronwill.nightconfig.core.file;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.io.ConfigParser;
+import com.electronwill.nightconfig.core.io.ParsingException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loads many configuration files in parallel. The format of each file is detected with the
+ * {@link FormatDetector}, and the files are parsed by the loader's executor. An error in one
+ * file, including an undetected format, doesn't prevent the other files from being loaded: it's
+ * reported in the {@link Result}.
+ * <p>
+ * A ConfigLoader is thread-safe: it can load several directories at the same time.
+ *
+ * @author TheElectronWill
+ */
+public final class ConfigLoader {
+	private final Executor executor;
+	private volatile Charset charset = StandardCharsets.UTF_8;
+
+	/**
+	 * Creates a new ConfigLoader that parses the files with the common ForkJoinPool.
+	 */
+	public ConfigLoader() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates a new ConfigLoader that parses the files with the given executor.
+	 *
+	 * @param executor the executor that parses the files
+	 */
+	public ConfigLoader(Executor executor) {
+		this.executor = Objects.requireNonNull(executor, "The executor must not be null.");
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Sets the charset of the files. The default charset is UTF-8.
+	 *
+	 * @param charset the charset to use to read the files
+	 * @return this loader
+	 */
+	public ConfigLoader setCharset(Charset charset) {
+		this.charset = Objects.requireNonNull(charset, "The charset must not be null.");
+		return this;
+	}
+
+	/**
+	 * Loads all the files of a directory, but not the files of its subdirectories. This method
+	 * blocks until all the files are parsed.
+	 *
+	 * @param directory the directory that contains the files
+	 * @return the loaded configs and the errors
+	 *
+	 * @throws ParsingException if the directory can't be read
+	 */
+	public Result load(Path directory) {
+		return load(listFiles(directory, null));
+	}
+
+	/**
+	 * Loads the files of a directory that match a glob pattern. The pattern is matched against
+	 * the path of each file relative to the directory, for instance {@code "*.toml"} or
+	 * {@code "tenants/**.json"}. This method blocks until all the files are parsed.
+	 *
+	 * @param directory the directory that contains the files
+	 * @param glob      the glob pattern, see {@link java.nio.file.FileSystem#getPathMatcher}
+	 * @return the loaded configs and the errors
+	 *
+	 * @throws ParsingException if the directory can't be read
+	 */
+	public Result load(Path directory, String glob) {
+		return load(listFiles(directory, glob));
+	}
+
+	/**
+	 * Loads some files. This method blocks until all the files are parsed.
+	 *
+	 * @param files the files to load
+	 * @return the loaded configs and the errors
+	 */
+	public Result load(Collection<Path> files) {
+		return loadAsync(files).join();
+	}
+
+	/**
+	 * Loads all the files of a directory, but not the files of its subdirectories, without
+	 * blocking the calling thread. The directory is listed by the executor.
+	 *
+	 * @param directory the directory that contains the files
+	 * @return a CompletableFuture that completes when all the files are parsed, or completes
+	 * exceptionally if the directory can't be read
+	 */
+	public CompletableFuture<Result> loadAsync(Path directory) {
+		return CompletableFuture.supplyAsync(() -> listFiles(directory, null), executor)
+								.thenCompose(this::loadAsync);
+	}
+
+	/**
+	 * Loads the files of a directory that match a glob pattern, without blocking the calling
+	 * thread. The directory is listed by the executor.
+	 *
+	 * @param directory the directory that contains the files
+	 * @param glob      the glob pattern, see {@link java.nio.file.FileSystem#getPathMatcher}
+	 * @return a CompletableFuture that completes when all the files are parsed, or completes
+	 * exceptionally if the directory can't be read
+	 * @see #load(Path, String)
+	 */
+	public CompletableFuture<Result> loadAsync(Path directory, String glob) {
+		return CompletableFuture.supplyAsync(() -> listFiles(directory, glob), executor)
+								.thenCompose(this::loadAsync);
+	}
+
+	/**
+	 * Loads some files without blocking the calling thread.
+	 *
+	 * @param files the files to load
+	 * @return a CompletableFuture that completes when all the files are parsed. The exceptions
+	 * and the {@link StackOverflowError}s thrown while loading a file are reported in the Result.
+	 * The future completes exceptionally only if another {@link Error}, like an
+	 * {@link OutOfMemoryError}, is thrown while parsing a file.
+	 */
+	public CompletableFuture<Result> loadAsync(Collection<Path> files) {
+		Charset charset = this.charset;
+		Map<Path, Config> configs = new ConcurrentHashMap<>();
+		Map<Path, Throwable> errors = new ConcurrentHashMap<>();
+		List<CompletableFuture<Void>> tasks = new ArrayList<>(files.size());
+		for (Path file : files) {
+			ConfigFormat<?> format = FormatDetector.detect(file);
+			if (format == null) {
+				errors.put(file, new NoFormatFoundException("No suitable format for " + file));
+				continue;
+			}
+			try {
+				tasks.add(CompletableFuture.runAsync(() -> {
+					try {
+						// A parser per file, because some parsers can't be used concurrently
+						ConfigParser<?> parser = format.createParser();
+						Config config = parser.parse(file, FileNotFoundAction.THROW_ERROR, charset);
+						configs.put(file, config);
+					} catch (Exception | StackOverflowError e) {// a too deep file only fails itself
+						errors.put(file, e);
+					}
+				}, executor));
+			} catch (RejectedExecutionException e) {// fails this file, not the whole loading
+				errors.put(file, e);
+			}
+		}
+		CompletableFuture<?>[] array = tasks.toArray(new CompletableFuture<?>[0]);
+		return CompletableFuture.allOf(array).thenApply(v -> new Result(configs, errors));
+	}
+
+	/**
+	 * Lists the regular files of a directory.
+	 *
+	 * @param glob the pattern to match, or null to list the files that are directly in the
+	 *             directory
+	 */
+	private static List<Path> listFiles(Path directory, String glob) {
+		try (Stream<Path> stream = (glob == null) ? Files.list(directory)
+												  : Files.walk(directory)) {
+			Stream<Path> files = stream.filter(Files::isRegularFile);
+			if (glob != null) {
+				PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + glob);
+				files = files.filter(f -> matcher.matches(directory.relativize(f)));
+			}
+			return files.collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new ParsingException("Failed to list the files of " + directory, e);
+		} catch (UncheckedIOException e) {// thrown by the stream, for instance by Files.walk
+			throw new ParsingException("Failed to list the files of " + directory, e.getCause());
+		}
+	}
+
+	/**
+	 * The result of a loading: the configs that have been loaded and the errors that occured.
+	 * Each file is either in the configs or in the errors.
+	 */
+	public static final class Result {
+		private final Map<Path, Config> configs;
+		private final Map<Path, Throwable> errors;
+
+		private Result(Map<Path, Config> configs, Map<Path, Throwable> errors) {
+			this.configs = Collections.unmodifiableMap(configs);
+			this.errors = Collections.unmodifiableMap(errors);
+		}
+
+		/**
+		 * @return an unmodifiable map of the loaded files to their config
+		 */
+		public Map<Path, Config> getConfigs() {
+			return configs;
+		}
+
+		/**
+		 * @return an unmodifiable map of the files that couldn't be loaded to the exception or
+		 * {@link StackOverflowError} that occured
+		 */
+		public Map<Path, Throwable> getErrors() {
+			return errors;
+		}
+
+		/**
+		 * @return true if at least one file couldn't be loaded
+		 */
+		public boolean hasErrors() {
+			return !errors.isEmpty();
+		}
+
+		@Override
+		public String toString() {
+			return "ConfigLoader.Result{configs=" + configs.keySet() + ", errors=" + errors + '}';
+		}
+	}
+}
\ No newline at end of file
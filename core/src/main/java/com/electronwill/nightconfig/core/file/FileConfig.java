@@ -4,8 +4,12 @@ import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
 
 import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * @author TheElectronWill
@@ -32,6 +36,26 @@ public interface FileConfig extends Config, AutoCloseable {
 	 */
 	void load();
 
+	/**
+	 * (Re)loads this config from the file without blocking the calling thread. The file is read
+	 * and parsed by the given executor. The FileConfigs built by {@link FileConfigBuilder} parse
+	 * the file to a separate config when it isn't being saved, then put the parsed values into
+	 * this config. They must be {@link GenericBuilder#concurrent() concurrent}, because the
+	 * other threads can read the config while the values are put, one by one: they can see a
+	 * partially loaded config until the returned CompletableFuture completes.
+	 *
+	 * @param executor the executor that reads and parses the file
+	 * @return a CompletableFuture that completes when the config is loaded, or completes
+	 * exceptionally if the loading fails
+	 *
+	 * @throws IllegalStateException         if the FileConfig is closed
+	 * @throws UnsupportedOperationException if the FileConfig is built by a FileConfigBuilder
+	 *                                       and isn't concurrent
+	 */
+	default CompletableFuture<Void> loadAsync(Executor executor) {
+		return CompletableFuture.runAsync(this::load, executor);
+	}
+
 	/**
 	 * Closes this FileConfig, releases its associated resources (if any), and ensure that the
 	 * ongoing saving operations complete.
@@ -193,6 +217,42 @@ public interface FileConfig extends Config, AutoCloseable {
 		return ofConcurrent(Paths.get(filePath), format);
 	}
 
+	/**
+	 * Creates a new thread-safe FileConfig that only keeps a part of its data in memory. The
+	 * top-level sections of the file are parsed on demand, and the least recently used ones are
+	 * discarded when their total size exceeds the memory budget. The file is read with UTF-8.
+	 *
+	 * @param file         the file to use to save and load the config
+	 * @param format       the config's format, must support sections scanning
+	 * @param memoryBudget the maximum size of the parsed sections, in bytes of the file
+	 * @return a new paged FileConfig associated to the specified file
+	 *
+	 * @throws UnsupportedOperationException if the format doesn't provide a SectionScanner
+	 * @see ConfigFormat#createSectionScanner()
+	 */
+	static FileConfig paged(Path file, ConfigFormat<? extends Config> format, long memoryBudget) {
+		return paged(file, format, StandardCharsets.UTF_8, memoryBudget);
+	}
+
+	/**
+	 * Creates a new thread-safe FileConfig that only keeps a part of its data in memory. The
+	 * top-level sections of the file are parsed on demand, and the least recently used ones are
+	 * discarded when their total size exceeds the memory budget.
+	 *
+	 * @param file         the file to use to save and load the config
+	 * @param format       the config's format, must support sections scanning
+	 * @param charset      the charset of the file, must be compatible with ASCII
+	 * @param memoryBudget the maximum size of the parsed sections, in bytes of the file
+	 * @return a new paged FileConfig associated to the specified file
+	 *
+	 * @throws UnsupportedOperationException if the format doesn't provide a SectionScanner
+	 * @see ConfigFormat#createSectionScanner()
+	 */
+	static FileConfig paged(Path file, ConfigFormat<? extends Config> format, Charset charset,
+							long memoryBudget) {
+		return new PagedFileConfig(file, format, charset, memoryBudget);
+	}
+
 	/**
 	 * Returns a FileConfigBuilder to create a FileConfig with many options. The format is detected
 	 * automatically.
@@ -26,6 +26,7 @@ import java.util.function.Supplier;
  * <li>Not autosaved - change it with {@link #autosave()}</li>
  * <li>Not autoreloaded - change it with {@link #autoreload()}</li>
  * <li>Not thread-safe - change it with {@link #concurrent()}</li>
+ * <li>Not memory-mapped - change it with {@link #memoryMapped(long)}</li>
  * <li>Values' insertion order preserved if {@link Config#isInsertionOrderPreserved()}
  * returns true when the builder is constructed.</li>
  * </ul>
@@ -45,6 +46,7 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 	protected boolean sync = false, autosave = false, autoreload = false, concurrent = false;
 	protected boolean insertionOrder = Config.isInsertionOrderPreserved();
 	protected Supplier<Map<String, Object>> mapCreator = null;
+	protected long mmapThreshold = Long.MAX_VALUE;
 
 	GenericBuilder(Path file, ConfigFormat<? extends Base> format) {
 		this.file = file;
@@ -193,6 +195,33 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 		return this;
 	}
 
+	/**
+	 * Makes the configuration map its file in memory when it is loaded, if the file is big
+	 * enough. The mapped file is parsed directly, without copying it into heap buffers, and the
+	 * pages of the file are shared with the other processes that read it. Below the threshold,
+	 * the file is read normally, which is faster for small files.
+	 * <p>
+	 * On some systems (like Windows), a mapped file can't be replaced until the mapping is
+	 * garbage-collected, which may prevent the config from being saved.
+	 * <p>
+	 * Reading a mapped file that is truncated at the same time fails at the system level, so the
+	 * file is only mapped when the config can't write it during the loading: by the
+	 * {@link FileConfig#load()} method of a {@link #sync() synchronized} config, which doesn't
+	 * load and save at the same time. The asynchronous loads and the configs that write in
+	 * background always read the file normally. If another program truncates the file while it
+	 * is parsed, the parsing fails with a ParsingException.
+	 *
+	 * @param minSize the minimum size, in bytes, of the file to map it in memory
+	 * @return this builder
+	 */
+	public GenericBuilder<Base, Result> memoryMapped(long minSize) {
+		if (minSize < 0) {
+			throw new IllegalArgumentException("Invalid minimum size: " + minSize);
+		}
+		mmapThreshold = minSize;
+		return this;
+	}
+
 	/**
 	 * Uses a specific Supplier to create the backing maps (one for the top level
 	 * and one for each sub-configuration) of the configuration.
@@ -218,13 +247,14 @@ public abstract class GenericBuilder<Base extends Config, Result extends FileCon
 		FileConfig fileConfig;
 		if (sync) {
 			fileConfig = new WriteSyncFileConfig<>(getConfig(), file, charset, writer, writingMode,
-				parser, parsingMode, nefAction);
+				parser, parsingMode, nefAction, mmapThreshold);
 		} else {
 			if (autoreload) {
 				concurrent();
 				// Autoreloading is done from a background thread, therefore we need thread-safety
 				// This isn't needed with WriteSyncFileConfig because it synchronizes loads and writes.
 			}
+			// The file is written in background, possibly during a load: it isn't mapped
 			fileConfig = new WriteAsyncFileConfig<>(getConfig(), file, charset, writer, writingMode,
 				parser, parsingMode, nefAction);
 		}
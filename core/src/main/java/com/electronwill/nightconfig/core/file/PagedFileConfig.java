@@ -0,0 +1,586 @@
+package com.electronwill.nightconfig.core.file;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.core.io.*;
+import com.electronwill.nightconfig.core.io.SectionScanner.Section;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A FileConfig that keeps only a part of its data in memory. When the config is loaded, the file
+ * is scanned to find the position of each top-level section (see {@link SectionScanner}), but
+ * the sections aren't parsed. A section is parsed when one of its values is accessed for the
+ * first time. When the total size of the parsed sections exceeds the memory budget, the least
+ * recently used sections are discarded, and will be parsed again from the file if needed.
+ * <p>
+ * A top-level value that is modified is kept in memory until the config is saved. A section is
+ * also kept in memory once a value that can be modified in place, like a sub-config or a list,
+ * has been obtained from it, because the config can't know if that value has been modified.
+ * The sections are read from the file on demand, so the file must not be modified by another
+ * program while the config is in use, except for a reload. The config is thread-safe.
+ *
+ * @author TheElectronWill
+ */
+final class PagedFileConfig implements FileConfig {
+	private final Path nioPath;
+	private final Charset charset;
+	private final ConfigFormat<? extends Config> format;
+	private final ConfigParser<? extends Config> parser;
+	private final ConfigWriter writer;
+	private final SectionScanner scanner;
+	private final long memoryBudget;
+
+	/** The values that are always in memory: root values and modified values */
+	private Config residentConfig;
+
+	/** The sections of the file that haven't been made resident, by top-level key */
+	private Map<String, List<Section>> sections = new LinkedHashMap<>();
+
+	/** The parsed sections, in access order */
+	private final LinkedHashMap<String, LoadedSection> loaded = new LinkedHashMap<>(16, 0.75f,
+		true);
+	private long loadedSize;
+
+	private FileChannel channel;
+	private boolean closed;
+	private boolean saving;// true while the writer reads the config
+
+	PagedFileConfig(Path nioPath, ConfigFormat<? extends Config> format, Charset charset,
+					long memoryBudget) {
+		SectionScanner scanner = format.createSectionScanner();
+		if (scanner == null) {
+			throw new UnsupportedOperationException(
+				"The format " + format + " doesn't support paged configurations");
+		}
+		if (memoryBudget < 0) {
+			throw new IllegalArgumentException("Invalid memory budget: " + memoryBudget);
+		}
+		this.nioPath = nioPath;
+		this.charset = charset;
+		this.format = format;
+		this.parser = format.createParser();
+		this.writer = format.createWriter();
+		this.scanner = scanner;
+		this.memoryBudget = memoryBudget;
+		this.residentConfig = format.createConfig();
+	}
+
+	// --- FileConfig ---
+
+	@Override
+	public File getFile() {
+		return nioPath.toFile();
+	}
+
+	@Override
+	public Path getNioPath() {
+		return nioPath;
+	}
+
+	@Override
+	public synchronized void load() {
+		if (closed) {
+			throw new IllegalStateException("Cannot (re)load a closed FileConfig");
+		}
+		closeChannel();
+		loaded.clear();
+		loadedSize = 0;
+		sections = new LinkedHashMap<>();
+		if (Files.notExists(nioPath)) {
+			residentConfig = format.createConfig();
+			return;
+		}
+		List<Section> scanned;
+		try (InputStream input = Files.newInputStream(nioPath)) {
+			scanned = scanner.scan(input, charset);
+			channel = FileChannel.open(nioPath, StandardOpenOption.READ);
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		List<Section> rootSections = new ArrayList<>();
+		for (Section section : scanned) {
+			if (section.key() == null) {
+				rootSections.add(section);
+			} else {
+				sections.computeIfAbsent(section.key(), k -> new ArrayList<>()).add(section);
+			}
+		}
+		Config root = rootSections.isEmpty() ? format.createConfig() : parse(rootSections);
+		// A key defined by both the root values and some sections must be parsed at once
+		boolean conflict = false;
+		for (String key : root.valueMap().keySet()) {
+			List<Section> keySections = sections.remove(key);
+			if (keySections != null) {
+				rootSections.addAll(keySections);
+				conflict = true;
+			}
+		}
+		if (conflict) {
+			rootSections.sort(Comparator.comparingLong(Section::start));
+			root = parse(rootSections);
+		}
+		residentConfig = root;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The config is written to a temporary file, which then replaces the config's file. The
+	 * sections that aren't in memory are parsed while writing, but the memory budget still
+	 * applies: the values given to the writer don't keep their section in memory, because the
+	 * writer doesn't modify them. After the save, the config is reloaded from the new file.
+	 */
+	@Override
+	public synchronized void save() {
+		if (closed) {
+			throw new IllegalStateException("Cannot save a closed FileConfig");
+		}
+		Path tmp = nioPath.resolveSibling(nioPath.getFileName() + ".tmp");
+		saving = true;
+		try {
+			writer.write(this, tmp, WritingMode.REPLACE, charset);
+		} finally {
+			saving = false;
+		}
+		closeChannel();
+		try {
+			try {
+				Files.move(tmp, nioPath, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp, nioPath, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			throw new WritingException("An I/O error occured", e);
+		}
+		load();
+	}
+
+	@Override
+	public synchronized void close() {
+		closeChannel();
+		closed = true;
+	}
+
+	private void closeChannel() {
+		if (channel != null) {
+			try {
+				channel.close();
+			} catch (IOException ignored) {}
+			channel = null;
+		}
+	}
+
+	// --- Paging ---
+
+	/**
+	 * Parses some sections of the file.
+	 */
+	private Config parse(List<Section> toParse) {
+		List<String> texts = new ArrayList<>(toParse.size());
+		try {
+			for (Section section : toParse) {
+				if (section.size() > Integer.MAX_VALUE) {
+					throw new ParsingException("Section too big: " + section);
+				}
+				ByteBuffer buffer = ByteBuffer.allocate((int)section.size());
+				long position = section.start();
+				while (buffer.hasRemaining()) {
+					int read = channel.read(buffer, position);
+					if (read < 0) {
+						throw ParsingException.notEnoughData();
+					}
+					position += read;
+				}
+				buffer.flip();
+				texts.add(charset.decode(buffer).toString());
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		return parser.parse(scanner.join(texts));
+	}
+
+	/**
+	 * Gets a top-level value, parsing its sections if needed.
+	 */
+	private Object getTopLevel(String key) {
+		List<Section> keySections = sections.get(key);
+		if (keySections == null) {
+			return residentConfig.valueMap().get(key);
+		}
+		LoadedSection section = loaded.get(key);
+		if (section == null) {
+			Object value = parse(keySections).valueMap().get(key);
+			long size = 0;
+			for (Section s : keySections) {
+				size += s.size();
+			}
+			section = new LoadedSection(value, size);
+			loaded.put(key, section);
+			loadedSize += size;
+			evict();
+		}
+		return section.value;
+	}
+
+	/**
+	 * Marks a section as modified if a value obtained from it can be modified in place, except
+	 * when the value is read by the writer during a save.
+	 */
+	private void escaped(String key, Object value) {
+		if (saving) {
+			return;
+		}
+		if (value instanceof UnmodifiableConfig || value instanceof Collection
+			|| value instanceof Map || (value != null && value.getClass().isArray())) {
+			LoadedSection section = loaded.get(key);
+			if (section != null) {
+				section.modified = true;
+			}
+		}
+	}
+
+	/**
+	 * Discards the least recently used sections until the memory budget is respected. The most
+	 * recently used section is always kept. A discarded section that may have been modified in
+	 * place is made resident instead, to avoid losing the modifications.
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, LoadedSection>> it = loaded.entrySet().iterator();
+		while (loadedSize > memoryBudget && loaded.size() > 1) {
+			Map.Entry<String, LoadedSection> eldest = it.next();
+			LoadedSection section = eldest.getValue();
+			it.remove();
+			loadedSize -= section.size;
+			if (section.modified) {
+				String key = eldest.getKey();
+				sections.remove(key);
+				residentConfig.valueMap().put(key, section.value);
+			}
+		}
+	}
+
+	/**
+	 * Makes a top-level value resident, before modifying it.
+	 */
+	private void makeResident(String key) {
+		if (sections.containsKey(key)) {
+			Object value = getTopLevel(key);
+			LoadedSection section = loaded.remove(key);
+			loadedSize -= section.size;
+			sections.remove(key);
+			if (value != null) {
+				residentConfig.valueMap().put(key, value);
+			}
+		}
+	}
+
+	// --- Config ---
+
+	@Override
+	public synchronized <T> T getRaw(List<String> path) {
+		String key = path.get(0);
+		Object value = getTopLevel(key);
+		if (path.size() > 1) {
+			value = (value instanceof UnmodifiableConfig)
+					? ((UnmodifiableConfig)value).getRaw(path.subList(1, path.size())) : null;
+		}
+		escaped(key, value);
+		return (T)value;
+	}
+
+	@Override
+	public synchronized boolean contains(List<String> path) {
+		String key = path.get(0);
+		if (path.size() == 1) {
+			return sections.containsKey(key) || residentConfig.valueMap().containsKey(key);
+		}
+		Object value = getTopLevel(key);
+		return (value instanceof UnmodifiableConfig)
+			   && ((UnmodifiableConfig)value).contains(path.subList(1, path.size()));
+	}
+
+	@Override
+	public synchronized <T> T set(List<String> path, Object value) {
+		makeResident(path.get(0));
+		return residentConfig.set(path, value);
+	}
+
+	@Override
+	public synchronized boolean add(List<String> path, Object value) {
+		makeResident(path.get(0));
+		return residentConfig.add(path, value);
+	}
+
+	@Override
+	public synchronized <T> T remove(List<String> path) {
+		makeResident(path.get(0));
+		return residentConfig.remove(path);
+	}
+
+	@Override
+	public synchronized void clear() {
+		residentConfig.clear();
+		sections.clear();
+		loaded.clear();
+		loadedSize = 0;
+	}
+
+	@Override
+	public synchronized int size() {
+		return residentConfig.size() + sections.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The sections are parsed when the corresponding values are read from the map.
+	 */
+	@Override
+	public Map<String, Object> valueMap() {
+		return new ValueMap();
+	}
+
+	@Override
+	public Set<? extends Config.Entry> entrySet() {
+		return new AbstractSet<Config.Entry>() {
+			@Override
+			public Iterator<Config.Entry> iterator() {
+				Iterator<Map.Entry<String, Object>> it = valueMap().entrySet().iterator();
+				return new Iterator<Config.Entry>() {
+					@Override
+					public boolean hasNext() {
+						return it.hasNext();
+					}
+
+					@Override
+					public Config.Entry next() {
+						return new EntryView(it.next().getKey());
+					}
+
+					@Override
+					public void remove() {
+						it.remove();
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return PagedFileConfig.this.size();
+			}
+		};
+	}
+
+	@Override
+	public ConfigFormat<?> configFormat() {
+		return format;
+	}
+
+	@Override
+	public synchronized Config createSubConfig() {
+		return residentConfig.createSubConfig();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "PagedFileConfig(" + nioPath + ", " + sections.size() + " sections, "
+			   + loaded.size() + " in memory)";
+	}
+
+	/**
+	 * A parsed section.
+	 */
+	private static final class LoadedSection {
+		final Object value;
+		final long size;
+
+		/** True if a value that can be modified in place has been obtained from the section */
+		boolean modified;
+
+		LoadedSection(Object value, long size) {
+			this.value = value;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * A config entry that reads and writes through the paged config.
+	 */
+	private final class EntryView implements Config.Entry {
+		private final String key;
+
+		EntryView(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		public <T> T getRawValue() {
+			return getRaw(Collections.singletonList(key));
+		}
+
+		@Override
+		public <T> T setValue(Object value) {
+			return set(Collections.singletonList(key), value);
+		}
+	}
+
+	/**
+	 * An entry of the {@link ValueMap}, whose value is read when it's requested, so that
+	 * iterating over the keys doesn't parse the sections.
+	 */
+	private final class MapEntry implements Map.Entry<String, Object> {
+		private final String key;
+
+		MapEntry(String key) {
+			this.key = key;
+		}
+
+		@Override
+		public String getKey() {
+			return key;
+		}
+
+		@Override
+		public Object getValue() {
+			return valueMap().get(key);
+		}
+
+		@Override
+		public Object setValue(Object value) {
+			return valueMap().put(key, value);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> other = (Map.Entry<?, ?>)obj;
+			return key.equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ Objects.hashCode(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + getValue();
+		}
+	}
+
+	/**
+	 * A Map view of the config, that parses the sections on demand.
+	 */
+	private final class ValueMap extends AbstractMap<String, Object> {
+		@Override
+		public Object get(Object key) {
+			if (!(key instanceof String)) {
+				return null;
+			}
+			synchronized (PagedFileConfig.this) {
+				Object value = getTopLevel((String)key);
+				escaped((String)key, value);
+				return value;
+			}
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return (key instanceof String) && contains(Collections.singletonList((String)key));
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			synchronized (PagedFileConfig.this) {
+				makeResident(key);
+				return residentConfig.valueMap().put(key, value);
+			}
+		}
+
+		@Override
+		public Object remove(Object key) {
+			if (!(key instanceof String)) {
+				return null;
+			}
+			synchronized (PagedFileConfig.this) {
+				makeResident((String)key);
+				return residentConfig.valueMap().remove(key);
+			}
+		}
+
+		@Override
+		public void clear() {
+			PagedFileConfig.this.clear();
+		}
+
+		@Override
+		public int size() {
+			return PagedFileConfig.this.size();
+		}
+
+		@Override
+		public Set<Map.Entry<String, Object>> entrySet() {
+			return new AbstractSet<Map.Entry<String, Object>>() {
+				@Override
+				public Iterator<Map.Entry<String, Object>> iterator() {
+					List<String> keys;
+					synchronized (PagedFileConfig.this) {
+						keys = new ArrayList<>(residentConfig.valueMap().keySet());
+						keys.addAll(sections.keySet());
+					}
+					Iterator<String> keyIterator = keys.iterator();
+					return new Iterator<Map.Entry<String, Object>>() {
+						private String current;
+
+						@Override
+						public boolean hasNext() {
+							return keyIterator.hasNext();
+						}
+
+						@Override
+						public Map.Entry<String, Object> next() {
+							current = keyIterator.next();
+							return new MapEntry(current);
+						}
+
+						@Override
+						public void remove() {
+							if (current == null) {
+								throw new IllegalStateException();
+							}
+							ValueMap.this.remove(current);
+							current = null;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return PagedFileConfig.this.size();
+				}
+			};
+		}
+	}
+}
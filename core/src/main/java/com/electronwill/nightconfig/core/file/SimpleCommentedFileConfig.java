@@ -1,10 +1,16 @@
 package com.electronwill.nightconfig.core.file;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.utils.CommentedConfigWrapper;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -18,6 +24,12 @@ class SimpleCommentedFileConfig extends CommentedConfigWrapper<CommentedConfig>
 		this.fileConfig = fileConfig;
 	}
 
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return fileConfig.deriveAll(paths, function);// registers the value for autoreload, if enabled
+	}
+
 	@Override
 	public File getFile() {
 		return fileConfig.getFile();
@@ -38,6 +50,11 @@ class SimpleCommentedFileConfig extends CommentedConfigWrapper<CommentedConfig>
 		fileConfig.load();
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		return fileConfig.loadAsync(executor);
+	}
+
 	@Override
 	public void close() {
 		fileConfig.close();
@@ -1,6 +1,7 @@
 package com.electronwill.nightconfig.core.file;
 
 import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.io.*;
 import com.electronwill.nightconfig.core.utils.ConfigWrapper;
 
@@ -11,9 +12,16 @@ import java.nio.CharBuffer;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.CompletionHandler;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static java.nio.file.StandardOpenOption.*;
 
@@ -43,6 +51,15 @@ final class WriteAsyncFileConfig<C extends Config> extends ConfigWrapper<C> impl
 	 * True if the config has changed during the write operation, and thus must be written again.
 	 */
 	private final AtomicBoolean mustWriteAgain = new AtomicBoolean();
+	/**
+	 * The number of write operations that have started or ended: odd while the file is written.
+	 */
+	private final AtomicLong writes = new AtomicLong();
+	/**
+	 * Buffer used to encode the config in UTF-8. There is at most one write operation in
+	 * progress, so it can be reused by each save.
+	 */
+	private ByteBuffer saveBuffer;
 
 	private final ConfigWriter writer;
 	private final WriteCompletedHandler writeCompletedHandler;
@@ -109,11 +126,32 @@ final class WriteAsyncFileConfig<C extends Config> extends ConfigWrapper<C> impl
 		// atomically sets to true if false:
 		boolean canSaveNow = currentlyWriting.compareAndSet(false, true);
 		if (canSaveNow) {// no writing is in progress: start one immediately
+			writes.incrementAndGet();
 			// Writes the config data to a ByteBuffer
-			CharsWrapper.Builder builder = new CharsWrapper.Builder(512);
-			writer.write(config, builder);
-			CharBuffer chars = CharBuffer.wrap(builder.build());
-			ByteBuffer buffer = charset.encode(chars);
+			ByteBuffer buffer;
+			try {
+				if (charset.equals(StandardCharsets.UTF_8)) {
+					// Encodes the data while writing it, into a buffer reused by each save
+					if (saveBuffer == null) {
+						saveBuffer = ByteBuffer.allocateDirect(4096);
+					}
+					saveBuffer.clear();
+					Utf8Output output = new Utf8Output(saveBuffer, true);
+					writer.write(config, output);
+					output.flush();
+					saveBuffer = output.buffer();
+					buffer = saveBuffer.duplicate();
+					buffer.flip();
+				} else {
+					CharsWrapper.Builder builder = new CharsWrapper.Builder(512);
+					writer.write(config, builder);
+					CharBuffer chars = CharBuffer.wrap(builder.build());
+					buffer = charset.encode(chars);
+				}
+			} catch (RuntimeException | Error e) {
+				writeAborted();
+				throw e;
+			}
 
 			// Writes the ByteBuffer to the nioPath, asynchronously
 			synchronized (channelGuard) {
@@ -135,13 +173,80 @@ final class WriteAsyncFileConfig<C extends Config> extends ConfigWrapper<C> impl
 			throw new IllegalStateException("Cannot (re)load a closed FileConfig");
 		}
 		if (!currentlyWriting.get()) { // Skips load when writing
-			parser.parse(nioPath, config, parsingMode, nefAction);//blocking read, not async
+			parser.parse(nioPath, config, parsingMode, nefAction, charset);//blocking read, not async
+		}
+	}
+
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		if (closed.get()) {
+			throw new IllegalStateException("Cannot (re)load a closed FileConfig");
+		}
+		AsyncLoad.checkConcurrent(config);
+		return CompletableFuture.runAsync(() -> {
+			synchronized (this) {// one loading at a time
+				while (true) {
+					long stamp = awaitWrites();
+					if (closed.get()) {
+						return;
+					}
+					// A save could truncate the file during the parsing: it isn't mapped
+					Config loaded;
+					try {
+						loaded = AsyncLoad.parse(parser, nioPath, nefAction, charset,
+												 Long.MAX_VALUE);
+					} catch (ParsingException e) {
+						if (writes.get() == stamp) {
+							throw e;
+						}
+						continue;// the file has been written during the parsing
+					}
+					if (writes.get() == stamp) {// the file hasn't been written during the parsing
+						if (loaded != null) {
+							AsyncLoad.publish(loaded, config, parsingMode);
+						}
+						return;
+					}
+				}
+			}
+		}, executor);
+	}
+
+	/**
+	 * Waits until no write operation is in progress.
+	 *
+	 * @return the number of write operations that have started or ended
+	 */
+	private long awaitWrites() {
+		synchronized (channelGuard) {
+			long stamp;
+			while ((stamp = writes.get()) % 2 != 0) {
+				try {
+					channelGuard.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new ParsingException("Interrupted while waiting for a save", e);
+				}
+			}
+			return stamp;
+		}
+	}
+
+	/**
+	 * Ends a write operation that has failed, and notifies the waiters.
+	 */
+	private void writeAborted() {
+		writes.incrementAndGet();
+		currentlyWriting.set(false);
+		synchronized (channelGuard) {
+			channelGuard.notifyAll();
 		}
 	}
 
 	private final class WriteCompletedHandler implements CompletionHandler<Integer, Object> {
 		@Override
 		public void completed(Integer result, Object attachment) {
+			writes.incrementAndGet();
 			currentlyWriting.set(false);// Resets currentlyWriting
 			if (mustWriteAgain.getAndSet(false)) {// Gets and resets mustWriteAgain
 				save(false);// Saves the config without setting mustWriteAgain to true if canSaveNow is false
@@ -152,10 +257,10 @@ final class WriteAsyncFileConfig<C extends Config> extends ConfigWrapper<C> impl
 					try {
 						channel.close();
 						channel = null;
-					} catch (IOException e) {
-						failed(e, null);
+					} catch (IOException e) {// the data has been written, only the closing failed
+						throw new WritingException("Error while closing the file " + nioPath, e);
 					} finally {
-						channelGuard.notify();// Notifies the waiter (if any). See method close()
+						channelGuard.notifyAll();// Notifies the waiters, see close() and awaitWrites
 					}
 				}
 			}
@@ -163,7 +268,14 @@ final class WriteAsyncFileConfig<C extends Config> extends ConfigWrapper<C> impl
 
 		@Override
 		public void failed(Throwable exc, Object attachment) {
+			writeAborted();
 			throw new WritingException("Error while saving the FileConfig to " + nioPath, exc);
 		}
 	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);
+	}
 }
\ No newline at end of file
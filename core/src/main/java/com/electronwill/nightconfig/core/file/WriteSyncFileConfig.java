@@ -1,8 +1,10 @@
 package com.electronwill.nightconfig.core.file;
 
 import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.DerivedValue;
 import com.electronwill.nightconfig.core.io.ConfigParser;
 import com.electronwill.nightconfig.core.io.ConfigWriter;
+import com.electronwill.nightconfig.core.io.ParsingException;
 import com.electronwill.nightconfig.core.io.ParsingMode;
 import com.electronwill.nightconfig.core.io.WritingMode;
 import com.electronwill.nightconfig.core.utils.ConfigWrapper;
@@ -10,6 +12,11 @@ import com.electronwill.nightconfig.core.utils.ConfigWrapper;
 import java.io.File;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * @author TheElectronWill
@@ -25,12 +32,16 @@ final class WriteSyncFileConfig<C extends Config> extends ConfigWrapper<C> imple
 	private final ConfigParser<?> parser;
 	private final FileNotFoundAction nefAction;
 	private final ParsingMode parsingMode;
+	private final long mmapThreshold;
 
 	private volatile boolean currentlyWriting = false;
+	/** The number of times a save has started or ended: odd while a save writes the file */
+	private volatile long saves;
 
 	WriteSyncFileConfig(C config, Path nioPath, Charset charset, ConfigWriter writer,
 						 WritingMode writingMode, ConfigParser<?> parser,
-						 ParsingMode parsingMode, FileNotFoundAction nefAction) {
+						 ParsingMode parsingMode, FileNotFoundAction nefAction,
+						 long mmapThreshold) {
 		super(config);
 		this.nioPath = nioPath;
 		this.charset = charset;
@@ -38,6 +49,7 @@ final class WriteSyncFileConfig<C extends Config> extends ConfigWrapper<C> imple
 		this.parser = parser;
 		this.parsingMode = parsingMode;
 		this.nefAction = nefAction;
+		this.mmapThreshold = mmapThreshold;
 		this.writingMode = writingMode;
 	}
 
@@ -58,7 +70,12 @@ final class WriteSyncFileConfig<C extends Config> extends ConfigWrapper<C> imple
 				throw new IllegalStateException("Cannot save a closed FileConfig");
 			}
 			currentlyWriting = true;
-			writer.write(config, nioPath, writingMode, charset);
+			saves++;
+			try {
+				writer.write(config, nioPath, writingMode, charset);
+			} finally {
+				saves++;
+			}
 			currentlyWriting = false;
 		}
 	}
@@ -70,13 +87,55 @@ final class WriteSyncFileConfig<C extends Config> extends ConfigWrapper<C> imple
 				if (closed) {
 					throw new IllegalStateException("Cannot (re)load a closed FileConfig");
 				}
-				parser.parse(nioPath, config, parsingMode, nefAction);
+				parser.parse(nioPath, config, parsingMode, nefAction, charset, mmapThreshold);
 			}
 		}
 	}
 
+	@Override
+	public CompletableFuture<Void> loadAsync(Executor executor) {
+		if (closed) {
+			throw new IllegalStateException("Cannot (re)load a closed FileConfig");
+		}
+		AsyncLoad.checkConcurrent(config);
+		return CompletableFuture.runAsync(() -> {
+			// Parses the file without the lock, unless a save is writing it
+			long stamp = saves;
+			Config loaded = null;
+			boolean parsed = false;
+			if (stamp % 2 == 0) {
+				try {
+					// A save could truncate the file during the parsing: it isn't mapped
+					loaded = AsyncLoad.parse(parser, nioPath, nefAction, charset, Long.MAX_VALUE);
+					parsed = true;
+				} catch (ParsingException e) {
+					if (saves == stamp) {
+						throw e;
+					}// else the file has been saved during the parsing, it's parsed again below
+				}
+			}
+			synchronized (this) {// excludes save() and load() until the loading is complete
+				if (closed) {
+					return;
+				}
+				if (!parsed || saves != stamp) {// a save has written the file in the meantime
+					loaded = AsyncLoad.parse(parser, nioPath, nefAction, charset, mmapThreshold);
+				}
+				if (loaded != null) {
+					AsyncLoad.publish(loaded, config, parsingMode);
+				}
+			}
+		}, executor);
+	}
+
 	@Override
 	public void close() {
 		closed = true;
 	}
+
+	@Override
+	public <T> DerivedValue<T> deriveAll(Collection<List<String>> paths,
+										 Function<? super List<Object>, ? extends T> function) {
+		return config.deriveAll(paths, function);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Abstract base class for ConfigGenerators. It checks the structure of the document and calls
+ * the write methods of the format, which only have to write the data.
+ *
+ * @author TheElectronWill
+ */
+public abstract class AbstractGenerator implements ConfigGenerator {
+	/**
+	 * The output that the generator writes to.
+	 */
+	protected final CharacterOutput output;
+	private boolean[] tables = new boolean[16];// false for the arrays
+	private boolean[] empty = new boolean[16];
+	private int depth;
+	private boolean keyWritten, started, closed;
+
+	protected AbstractGenerator(CharacterOutput output) {
+		this.output = output;
+	}
+
+	@Override
+	public final ConfigGenerator beginTable() {
+		writeTableStart(startValue());
+		push(true);
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator endTable() {
+		writeTableEnd(end(true));
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator beginArray() {
+		if (depth == 0 && !supportsRootArray()) {
+			throw new WritingException("Invalid array at the root of the document: the root "
+									   + "must be a table");
+		}
+		writeArrayStart(startValue());
+		push(false);
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator endArray() {
+		writeArrayEnd(end(false));
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator key(String key) {
+		Objects.requireNonNull(key, "The key must not be null");
+		checkOpen();
+		if (depth == 0 || !tables[depth - 1]) {
+			throw new WritingException("Invalid key \"" + key + "\" outside of a table");
+		}
+		if (keyWritten) {
+			throw new WritingException("Invalid key \""
+									   + key
+									   + "\": the previous key has no value");
+		}
+		boolean first = empty[depth - 1];
+		empty[depth - 1] = false;
+		keyWritten = true;
+		writeKey(key, first);
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator value(Object value) {
+		if (depth == 0) {
+			throw new WritingException("Invalid value at the root of the document: the root must "
+									   + "be a table");
+		}
+		writeValue(value, startValue());
+		return this;
+	}
+
+	@Override
+	public final ConfigGenerator comment(String comment) {
+		checkOpen();
+		if (keyWritten) {
+			throw new WritingException("Invalid comment between a key and its value");
+		}
+		writeComment(comment);
+		return this;
+	}
+
+	@Override
+	public void flush() {
+		output.flush();
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (!started) {
+				throw new WritingException("Incomplete document: nothing has been written");
+			}
+			if (depth > 0) {
+				throw new WritingException("Incomplete document: "
+										   + depth
+										   + " table(s) or array(s) haven't been ended");
+			}
+			finish();
+			output.flush();
+		} finally {
+			output.close();
+		}
+	}
+
+	/**
+	 * @return the number of tables and arrays that contain the current position
+	 */
+	protected final int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return true if the current position is in an array, false if it's in a table or at the
+	 * root of the document
+	 */
+	protected final boolean inArray() {
+		return depth > 0 && !tables[depth - 1];
+	}
+
+	/**
+	 * Checks that a value is allowed at the current position.
+	 *
+	 * @return false if the value follows another element of the same array, true otherwise
+	 */
+	private boolean startValue() {
+		checkOpen();
+		if (depth == 0) {
+			if (started) {
+				throw new WritingException("Invalid value after the end of the document");
+			}
+			started = true;
+			return true;
+		}
+		if (tables[depth - 1]) {
+			if (!keyWritten) {
+				throw new WritingException("Invalid value without a key in a table");
+			}
+			keyWritten = false;
+			return true;
+		}
+		boolean first = empty[depth - 1];
+		empty[depth - 1] = false;
+		return first;
+	}
+
+	/**
+	 * Checks that the current value is a table or an array, and ends it.
+	 *
+	 * @return true if the table or array is empty
+	 */
+	private boolean end(boolean table) {
+		checkOpen();
+		String name = table ? "table" : "array";
+		if (depth == 0 || tables[depth - 1] != table) {
+			throw new WritingException("Invalid end of " + name + ": there is no " + name + " to end");
+		}
+		if (keyWritten) {
+			throw new WritingException("Invalid end of table: the last key has no value");
+		}
+		return empty[--depth];
+	}
+
+	private void push(boolean table) {
+		if (depth == tables.length) {
+			tables = Arrays.copyOf(tables, depth * 2);
+			empty = Arrays.copyOf(empty, depth * 2);
+		}
+		tables[depth] = table;
+		empty[depth] = true;
+		depth++;
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new WritingException("The generator is closed");
+		}
+	}
+
+	/**
+	 * @return true if the format supports an array at the root of the document
+	 */
+	protected boolean supportsRootArray() {
+		return false;
+	}
+
+	/**
+	 * Called by {@link #close()} when the document is complete, before the output is flushed.
+	 * The default implementation does nothing.
+	 */
+	protected void finish() {}
+
+	/**
+	 * Writes the beginning of a table. {@link #depth()} and {@link #inArray()} still refer to
+	 * the position of the table, as a value.
+	 *
+	 * @param first false if the table follows another element of the same array
+	 */
+	protected abstract void writeTableStart(boolean first);
+
+	/**
+	 * Writes the end of a table. {@link #depth()} and {@link #inArray()} already refer to the
+	 * position of the table, as a value.
+	 *
+	 * @param empty true if the table has no entry
+	 */
+	protected abstract void writeTableEnd(boolean empty);
+
+	/**
+	 * Writes the beginning of an array. {@link #depth()} and {@link #inArray()} still refer to
+	 * the position of the array, as a value.
+	 *
+	 * @param first false if the array follows another element of the same array
+	 */
+	protected abstract void writeArrayStart(boolean first);
+
+	/**
+	 * Writes the end of an array. {@link #depth()} and {@link #inArray()} already refer to the
+	 * position of the array, as a value.
+	 *
+	 * @param empty true if the array has no element
+	 */
+	protected abstract void writeArrayEnd(boolean empty);
+
+	/**
+	 * Writes the key of an entry of the current table.
+	 *
+	 * @param key   the key
+	 * @param first true if it's the first entry of the table
+	 */
+	protected abstract void writeKey(String key, boolean first);
+
+	/**
+	 * Writes a value.
+	 *
+	 * @param value the value
+	 * @param first false if the value follows another element of the same array
+	 */
+	protected abstract void writeValue(Object value, boolean first);
+
+	/**
+	 * Writes a comment, or ignores it if the format doesn't support comments.
+	 *
+	 * @param comment the comment
+	 */
+	protected abstract void writeComment(String comment);
+}
\ No newline at end of file
@@ -72,7 +72,7 @@ public final class ArrayInput extends AbstractInput {
 			return smaller;
 		}
 		System.arraycopy(chars, cursor, array, offset, size - offset);
-		cursor += size;
+		cursor += size - offset;
 		return new CharsWrapper(array);
 	}
 
@@ -85,7 +85,7 @@ public final class ArrayInput extends AbstractInput {
 		final char[] array = new char[n];
 		consumeDeque(array, offset, true);
 		System.arraycopy(chars, cursor, array, offset, n - offset);
-		cursor += n;
+		cursor += n - offset;
 		return new CharsWrapper(array);
 	}
 }
\ No newline at end of file
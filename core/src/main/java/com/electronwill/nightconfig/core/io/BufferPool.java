@@ -0,0 +1,110 @@
+package com.electronwill.nightconfig.core.io;
+
+/**
+ * Thread-local cache of the buffers used by the parsers and the writers. Repeated parsing and
+ * writing operations on the same thread, like the reloads and saves of a FileConfig, reuse the
+ * same arrays instead of allocating new ones each time.
+ * <p>
+ * Each thread keeps at most one buffer of each kind. A buffer taken from the pool belongs to the
+ * caller until it's given back, and must not be used after that. A buffer that isn't given back
+ * (because of an exception, for instance) is simply collected by the GC.
+ *
+ * @author TheElectronWill
+ */
+public final class BufferPool {
+	/** The buffers bigger than this are not kept, to avoid retaining too much memory. */
+	private static final int MAX_POOLED_LENGTH = 65536;
+	private static final ThreadLocal<BufferPool> LOCAL = ThreadLocal.withInitial(BufferPool::new);
+
+	private char[] chars;
+	private byte[] bytes;
+	private CharsWrapper.Builder builder;
+
+	private BufferPool() {}
+
+	/**
+	 * Takes a char array from the pool, or creates a new one if there is no suitable array in the
+	 * pool. The content of the array is undefined.
+	 *
+	 * @param minLength the minimum length of the array
+	 * @return an array of length >= minLength
+	 */
+	public static char[] takeChars(int minLength) {
+		BufferPool pool = LOCAL.get();
+		char[] array = pool.chars;
+		if (array != null && array.length >= minLength) {
+			pool.chars = null;
+			return array;
+		}
+		return new char[minLength];
+	}
+
+	/**
+	 * Gives a char array back to the pool.
+	 *
+	 * @param array the array to give back
+	 */
+	public static void giveBack(char[] array) {
+		if (array.length <= MAX_POOLED_LENGTH) {
+			LOCAL.get().chars = array;
+		}
+	}
+
+	/**
+	 * Takes a byte array from the pool, or creates a new one if there is no suitable array in the
+	 * pool. The content of the array is undefined.
+	 *
+	 * @param minLength the minimum length of the array
+	 * @return an array of length >= minLength
+	 */
+	public static byte[] takeBytes(int minLength) {
+		BufferPool pool = LOCAL.get();
+		byte[] array = pool.bytes;
+		if (array != null && array.length >= minLength) {
+			pool.bytes = null;
+			return array;
+		}
+		return new byte[minLength];
+	}
+
+	/**
+	 * Gives a byte array back to the pool.
+	 *
+	 * @param array the array to give back
+	 */
+	public static void giveBack(byte[] array) {
+		if (array.length <= MAX_POOLED_LENGTH) {
+			LOCAL.get().bytes = array;
+		}
+	}
+
+	/**
+	 * Takes an empty CharsWrapper.Builder from the pool, or creates a new one if the pool doesn't
+	 * contain any builder. Since the builder will be reused, the CharsWrappers built by
+	 * {@link CharsWrapper.Builder#build()} must not be kept: use toString() or copyAndBuild().
+	 *
+	 * @param initialCapacity the initial capacity of the builder, if a new one is created
+	 * @return an empty builder
+	 */
+	public static CharsWrapper.Builder takeBuilder(int initialCapacity) {
+		BufferPool pool = LOCAL.get();
+		CharsWrapper.Builder b = pool.builder;
+		if (b != null) {
+			pool.builder = null;
+			b.clear();
+			return b;
+		}
+		return new CharsWrapper.Builder(initialCapacity);
+	}
+
+	/**
+	 * Gives a CharsWrapper.Builder back to the pool.
+	 *
+	 * @param builder the builder to give back
+	 */
+	public static void giveBack(CharsWrapper.Builder builder) {
+		if (builder.getChars().length <= MAX_POOLED_LENGTH) {
+			LOCAL.get().builder = builder;
+		}
+	}
+}
\ No newline at end of file
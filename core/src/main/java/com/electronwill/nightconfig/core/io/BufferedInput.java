@@ -0,0 +1,309 @@
+package com.electronwill.nightconfig.core.io;
+
+import com.electronwill.nightconfig.core.utils.FastStringReader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A fast implementation of {@link CharacterInput} that reads its characters by large chunks
+ * into an array. Peeking and pushing back are done by moving an index in the array, and the
+ * tokens returned by {@link #readUntil(char[])} and similar methods are views of the array,
+ * without any copy.
+ * <p>
+ * The arrays are never modified once filled: when more data is needed, a new array is created.
+ * Therefore the returned CharsWrappers stay valid after the input has moved forward. The arrays
+ * can't be reused, because the input can't know when a view is no longer used: a parser may
+ * keep a token while reading the next ones, and a {@code LazyString} keeps its view for as long
+ * as the parsed config exists. Reusing an array would require to copy every token, which is
+ * what the views avoid. The cost is one allocation per chunk, and an array is garbage collected
+ * as soon as no view references it.
+ *
+ * @author TheElectronWill
+ */
+public final class BufferedInput implements CharacterInput {
+	private static final int DEFAULT_CHUNK_SIZE = 16384;
+	private static final char[] EMPTY = {};
+
+	private final Reader reader;// null if all the data is already in the buffer
+	private final int chunkSize;
+	private char[] buffer;
+	private int cursor, limit;
+	private int peekLimit;// index after the last peeked character
+	private boolean eos;
+
+	private final CharSet.Cache charSets = new CharSet.Cache();
+
+	/**
+	 * Creates a new BufferedInput that reads the content of a Reader.
+	 *
+	 * @param reader the Reader to read
+	 */
+	public BufferedInput(Reader reader) {
+		this(reader, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new BufferedInput that reads the content of a Reader.
+	 *
+	 * @param reader    the Reader to read
+	 * @param chunkSize the number of characters to read at once
+	 */
+	public BufferedInput(Reader reader, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+		this.reader = reader;
+		this.chunkSize = chunkSize;
+		this.buffer = EMPTY;
+	}
+
+	/**
+	 * Creates a new BufferedInput based on the specified array. The array must not be modified
+	 * while the input is used.
+	 *
+	 * @param chars  the char array to use as an input
+	 * @param offset the index to begin at (inclusive index)
+	 * @param limit  the limit to stop at (exclusive index)
+	 */
+	public BufferedInput(char[] chars, int offset, int limit) {
+		this.reader = null;
+		this.chunkSize = DEFAULT_CHUNK_SIZE;
+		this.buffer = chars;
+		this.cursor = offset;
+		this.limit = limit;
+		this.peekLimit = offset;
+		this.eos = true;
+	}
+
+	/**
+	 * Creates a new BufferedInput based on the specified array. The array must not be modified
+	 * while the input is used.
+	 *
+	 * @param chars the char array to use as an input
+	 */
+	public BufferedInput(char[] chars) {
+		this(chars, 0, chars.length);
+	}
+
+	/**
+	 * Creates a new BufferedInput that reads the characters of a String.
+	 *
+	 * @param str the String to read
+	 */
+	public BufferedInput(String str) {
+		this(str.toCharArray());
+	}
+
+	/**
+	 * Creates a CharacterInput that reads the content of a Reader. If the Reader reads a String,
+	 * the String's characters are used directly.
+	 *
+	 * @param reader the Reader to read
+	 * @return a new CharacterInput
+	 */
+	public static BufferedInput of(Reader reader) {
+		if (reader instanceof FastStringReader) {
+			return new BufferedInput(((FastStringReader)reader).readRemaining());
+		}
+		return new BufferedInput(reader);
+	}
+
+	/**
+	 * Reads more data from the reader into a new array. The characters before {@code keepFrom}
+	 * are discarded (they stay in the old array, which may still be referenced by some views).
+	 *
+	 * @param keepFrom index of the first character to keep
+	 * @return the difference between the new indexes and the old ones, or 1 if there is no more
+	 * data to read (a valid difference is always <= 0)
+	 */
+	private int fill(int keepFrom) {
+		if (eos) {
+			return 1;
+		}
+		int kept = limit - keepFrom;
+		char[] newBuffer = new char[Math.max(chunkSize, kept * 2)];
+		System.arraycopy(buffer, keepFrom, newBuffer, 0, kept);
+		int read;
+		try {
+			do {
+				read = reader.read(newBuffer, kept, newBuffer.length - kept);
+			} while (read == 0);
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		if (read < 0) {
+			eos = true;
+			return 1;
+		}
+		int shift = -keepFrom;
+		buffer = newBuffer;
+		cursor += shift;
+		peekLimit = Math.max(0, peekLimit + shift);
+		limit = kept + read;
+		return shift;
+	}
+
+	/**
+	 * Ensures that at least n characters are available after the cursor.
+	 *
+	 * @return true if the n characters are available, false if the end of the data is reached
+	 * before
+	 */
+	private boolean ensureAvailable(int n) {
+		while (limit - cursor < n) {
+			if (fill(cursor) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int read() {
+		if (cursor == limit && !ensureAvailable(1)) {
+			return -1;
+		}
+		return buffer[cursor++];
+	}
+
+	@Override
+	public char readChar() {
+		if (cursor == limit && !ensureAvailable(1)) {
+			throw ParsingException.notEnoughData();
+		}
+		return buffer[cursor++];
+	}
+
+	@Override
+	public int readAndSkip(char[] toSkip) {
+		CharSet set = charSets.get(toSkip);
+		while (true) {
+			while (cursor < limit) {
+				char c = buffer[cursor++];
+				if (!set.contains(c)) {
+					return c;
+				}
+			}
+			if (!ensureAvailable(1)) {
+				return -1;
+			}
+		}
+	}
+
+	@Override
+	public char readCharAndSkip(char[] toSkip) {
+		int c = readAndSkip(toSkip);
+		if (c == -1) {
+			throw ParsingException.notEnoughData();
+		}
+		return (char)c;
+	}
+
+	@Override
+	public CharsWrapper read(int n) {
+		ensureAvailable(n);
+		int end = Math.min(limit, cursor + n);
+		CharsWrapper chars = new CharsWrapper(buffer, cursor, end);
+		cursor = end;
+		return chars;
+	}
+
+	@Override
+	public CharsWrapper readChars(int n) {
+		if (!ensureAvailable(n)) {
+			throw ParsingException.notEnoughData();
+		}
+		CharsWrapper chars = new CharsWrapper(buffer, cursor, cursor + n);
+		cursor += n;
+		return chars;
+	}
+
+	@Override
+	public CharsWrapper readUntil(char[] stop) {
+		return readUntil(stop, false);
+	}
+
+	@Override
+	public CharsWrapper readCharsUntil(char[] stop) {
+		return readUntil(stop, true);
+	}
+
+	private CharsWrapper readUntil(char[] stop, boolean stopRequired) {
+		CharSet set = charSets.get(stop);
+		int start = cursor;
+		int i = cursor;
+		while (true) {
+			while (i < limit) {
+				if (set.contains(buffer[i])) {
+					cursor = i;
+					peekLimit = Math.max(peekLimit, i + 1);// the stop char is "peeked"
+					return new CharsWrapper(buffer, start, i);
+				}
+				i++;
+			}
+			int shift = fill(start);
+			if (shift > 0) {// end of the data
+				if (stopRequired) {
+					throw ParsingException.notEnoughData();
+				}
+				cursor = limit;
+				return new CharsWrapper(buffer, start, limit);
+			}
+			start += shift;
+			i += shift;
+		}
+	}
+
+	@Override
+	public int peek() {
+		return peek(0);
+	}
+
+	@Override
+	public int peek(int n) {
+		if (!ensureAvailable(n + 1)) {
+			return -1;
+		}
+		int index = cursor + n;
+		peekLimit = Math.max(peekLimit, index + 1);
+		return buffer[index];
+	}
+
+	@Override
+	public char peekChar() {
+		return peekChar(0);
+	}
+
+	@Override
+	public char peekChar(int n) {
+		int c = peek(n);
+		if (c == -1) {
+			throw ParsingException.notEnoughData();
+		}
+		return (char)c;
+	}
+
+	@Override
+	public void skipPeeks() {
+		cursor = Math.max(cursor, Math.min(peekLimit, limit));
+	}
+
+	@Override
+	public void pushBack(char c) {
+		if (cursor > 0 && buffer[cursor - 1] == c) {
+			cursor--;// common case: the char has just been read
+		} else {
+			// The arrays are never modified, so a new one must be created
+			int remaining = limit - cursor;
+			char[] newBuffer = new char[Math.max(chunkSize, remaining + 1)];
+			newBuffer[0] = c;
+			System.arraycopy(buffer, cursor, newBuffer, 1, remaining);
+			peekLimit = Math.max(0, peekLimit - cursor + 1);
+			buffer = newBuffer;
+			cursor = 0;
+			limit = remaining + 1;
+		}
+		peekLimit = Math.max(peekLimit, cursor + 1);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A fast implementation of {@link CharacterOutput} that stores the characters in a large array
+ * and writes them to a {@link Writer} by big chunks. Unlike {@link WriterOutput}, it doesn't make
+ * one call to the Writer per character.
+ * <p>
+ * The characters are transferred to the Writer when the buffer is full and when {@link #flush()}
+ * is called. Therefore, flush() must be called once the writing is done. The buffer comes from
+ * the {@link BufferPool} and is given back by {@link #close()}.
+ *
+ * @author TheElectronWill
+ */
+public final class BufferedOutput implements CharacterOutput, AutoCloseable {
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private final Writer writer;
+	private char[] buffer;
+	private int cursor;
+
+	/**
+	 * Creates a new BufferedOutput that writes to a Writer.
+	 *
+	 * @param writer the Writer to write to
+	 */
+	public BufferedOutput(Writer writer) {
+		this(writer, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates a new BufferedOutput that writes to a Writer.
+	 *
+	 * @param writer     the Writer to write to
+	 * @param bufferSize the size of the buffer
+	 */
+	public BufferedOutput(Writer writer, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("Invalid buffer size: " + bufferSize);
+		}
+		this.writer = writer;
+		this.buffer = BufferPool.takeChars(bufferSize);
+	}
+
+	/**
+	 * Writes the buffered characters to the Writer. The Writer itself isn't flushed.
+	 */
+	public void flush() {
+		if (cursor > 0) {
+			try {
+				writer.write(buffer, 0, cursor);
+			} catch (IOException e) {
+				throw new WritingException(e);
+			}
+			cursor = 0;
+		}
+	}
+
+	/**
+	 * Gives the buffer back to the pool. This method doesn't flush the output nor close the
+	 * Writer, and the output must not be used anymore.
+	 */
+	@Override
+	public void close() {
+		if (buffer != null) {
+			BufferPool.giveBack(buffer);
+			buffer = null;
+		}
+	}
+
+	/**
+	 * Makes room for n characters in the buffer, if possible.
+	 *
+	 * @return true if the n characters can be stored in the buffer, false if they're too many
+	 */
+	private boolean ensureRoom(int n) {
+		if (buffer.length - cursor < n) {
+			flush();
+			return n <= buffer.length;
+		}
+		return true;
+	}
+
+	@Override
+	public void write(char c) {
+		if (cursor == buffer.length) {
+			flush();
+		}
+		buffer[cursor++] = c;
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) {
+		if (ensureRoom(length)) {
+			System.arraycopy(chars, offset, buffer, cursor, length);
+			cursor += length;
+		} else {// too big for the buffer: writes it directly
+			try {
+				writer.write(chars, offset, length);
+			} catch (IOException e) {
+				throw new WritingException(e);
+			}
+		}
+	}
+
+	@Override
+	public void write(String s, int offset, int length) {
+		if (ensureRoom(length)) {
+			s.getChars(offset, offset + length, buffer, cursor);
+			cursor += length;
+		} else {
+			try {
+				writer.write(s, offset, length);
+			} catch (IOException e) {
+				throw new WritingException(e);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.electronwill.nightconfig.core.io;
+
+/**
+ * A set of characters, with a fast lookup for the ASCII characters.
+ *
+ * @author TheElectronWill
+ */
+final class CharSet {
+	private static final int MAX_PATTERNS = 4;// beyond that, the word scans aren't faster
+
+	private long low, high;// bits for the chars 0-63 and 64-127
+	private final char[] others;
+	private final long[] patterns;// broadcast chars for the word scans, null if not supported
+
+	CharSet(char[] chars) {
+		int nOthers = 0;
+		for (char c : chars) {
+			if (c < 64) {
+				low |= 1L << c;
+			} else if (c < 128) {
+				high |= 1L << (c - 64);
+			} else {
+				nOthers++;
+			}
+		}
+		others = new char[nOthers];
+		for (char c : chars) {
+			if (c >= 128) {
+				others[--nOthers] = c;
+			}
+		}
+		int nAscii = Long.bitCount(low) + Long.bitCount(high);
+		if (others.length == 0 && nAscii <= MAX_PATTERNS) {
+			patterns = new long[nAscii];
+			int i = 0;
+			for (char c = 0; c < 128; c++) {
+				if (contains(c)) {
+					patterns[i++] = Swar.broadcast(c);
+				}
+			}
+		} else {
+			patterns = null;
+		}
+	}
+
+	boolean contains(char c) {
+		if (c < 64) {
+			return (low & (1L << c)) != 0;
+		}
+		if (c < 128) {
+			return (high & (1L << (c - 64))) != 0;
+		}
+		return others.length != 0 && Utils.arrayContains(others, c);
+	}
+
+	/**
+	 * @return true if {@link #matches(long)} can be used, that is, if the set contains a few ASCII
+	 * characters and nothing else
+	 */
+	boolean isWordScannable() {
+		return patterns != null;
+	}
+
+	/**
+	 * Examines eight ASCII bytes at once. Must only be called if {@link #isWordScannable()}.
+	 *
+	 * @param word eight bytes in little-endian order
+	 * @return a mask of the bytes that are in the set, see {@link Swar}
+	 */
+	long matches(long word) {
+		long mask = 0;
+		for (long pattern : patterns) {
+			mask |= Swar.equal(word, pattern);
+		}
+		return mask;
+	}
+
+	/**
+	 * Small cache of the CharSets created from the arrays used by a parser. The parsers use
+	 * constant arrays, so they are compared by identity.
+	 */
+	static final class Cache {
+		private final char[][] arrays = new char[8][];
+		private final CharSet[] sets = new CharSet[8];
+		private int cursor;
+
+		CharSet get(char[] chars) {
+			for (int i = 0; i < arrays.length; i++) {
+				if (arrays[i] == chars) {
+					return sets[i];
+				}
+			}
+			CharSet set = new CharSet(chars);
+			int i = cursor;
+			arrays[i] = chars;
+			sets[i] = set;
+			cursor = (i + 1) % arrays.length;
+			return set;
+		}
+	}
+}
@@ -49,6 +49,26 @@ public interface CharacterOutput {
 	 */
 	void write(String s, int offset, int length);
 
+	/**
+	 * Writes a portion of a CharSequence.
+	 *
+	 * @param csq    the sequence to write
+	 * @param offset the index to start at
+	 * @param length the number of characters to write
+	 */
+	default void write(CharSequence csq, int offset, int length) {
+		if (csq instanceof String) {
+			write((String)csq, offset, length);
+		} else if (csq instanceof CharsWrapper) {
+			CharsWrapper cw = (CharsWrapper)csq;
+			write(cw.chars, cw.offset + offset, length);
+		} else {
+			for (int i = offset; i < offset + length; i++) {
+				write(csq.charAt(i));
+			}
+		}
+	}
+
 	/**
 	 * Writes all the characters in the given CharsWrapper.
 	 *
@@ -57,4 +77,16 @@ public interface CharacterOutput {
 	default void write(CharsWrapper cw) {
 		write(cw.chars, cw.offset, cw.limit - cw.offset);
 	}
+
+	/**
+	 * Writes the buffered characters, if any, to the destination of the output. The default
+	 * implementation does nothing.
+	 */
+	default void flush() {}
+
+	/**
+	 * Releases the resources used by the output, like its buffer. The destination of the output
+	 * isn't closed. The default implementation does nothing.
+	 */
+	default void close() {}
 }
\ No newline at end of file
@@ -416,7 +416,7 @@ public final class CharsWrapper implements CharSequence, Cloneable, Iterable<Cha
 		 * @param initialCapacity the initial capacity
 		 */
 		public Builder(int initialCapacity) {
-			this.data = new char[Math.min(2, initialCapacity)];
+			this.data = new char[Math.max(2, initialCapacity)];
 		}
 
 		/**
@@ -645,6 +645,13 @@ public final class CharsWrapper implements CharSequence, Cloneable, Iterable<Cha
 			data[index] = ch;
 		}
 
+		/**
+		 * Removes all the characters of this builder. Its capacity doesn't change.
+		 */
+		public void clear() {
+			cursor = 0;
+		}
+
 		/**
 		 * Compacts this builder, minimizing its size in memory.
 		 */
@@ -698,7 +705,7 @@ public final class CharsWrapper implements CharSequence, Cloneable, Iterable<Cha
 		 * @return a new CharsWrapper with a copy of the content of this builder
 		 */
 		public CharsWrapper copyAndBuild() {
-			return build(0);
+			return copyAndBuild(0);
 		}
 
 		/**
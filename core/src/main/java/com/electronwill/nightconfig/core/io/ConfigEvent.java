@@ -0,0 +1,51 @@
+package com.electronwill.nightconfig.core.io;
+
+/**
+ * The events reported by a {@link ConfigEventReader}.
+ *
+ * @author TheElectronWill
+ */
+public enum ConfigEvent {
+	/**
+	 * Beginning of a table (config). Its entries follow, until the corresponding
+	 * {@link #END_TABLE}.
+	 */
+	START_TABLE,
+
+	/**
+	 * End of a table.
+	 */
+	END_TABLE,
+
+	/**
+	 * Beginning of an array (list). Its elements follow, until the corresponding
+	 * {@link #END_ARRAY}.
+	 */
+	START_ARRAY,
+
+	/**
+	 * End of an array.
+	 */
+	END_ARRAY,
+
+	/**
+	 * Key of a table's entry, available with {@link ConfigEventReader#getKey()}. The value
+	 * follows: it is either a {@link #VALUE}, a {@link #START_TABLE} or a {@link #START_ARRAY}.
+	 */
+	KEY,
+
+	/**
+	 * Simple value, available with {@link ConfigEventReader#getValue()}.
+	 */
+	VALUE,
+
+	/**
+	 * Comment, available with {@link ConfigEventReader#getComment()}.
+	 */
+	COMMENT,
+
+	/**
+	 * End of the document. This is always the last event.
+	 */
+	END_DOCUMENT;
+}
\ No newline at end of file
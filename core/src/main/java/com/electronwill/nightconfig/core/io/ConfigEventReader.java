@@ -0,0 +1,103 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A pull parser that reads a configuration as a sequence of {@link ConfigEvent}s, without
+ * creating a Config. It can process documents that are too big to be loaded in memory, or
+ * extract a few values without creating the others.
+ * <p>
+ * A document is a table: the first event is {@link ConfigEvent#START_TABLE} (or
+ * {@link ConfigEvent#START_ARRAY} for the formats that support it, like JSON) and the last
+ * event is {@link ConfigEvent#END_DOCUMENT}. In a table, each entry is reported as a
+ * {@link ConfigEvent#KEY} followed by its value. In an array, the values follow each other.
+ * A value is a {@link ConfigEvent#VALUE}, or a nested table or array. Comments may appear
+ * before the keys and the values.
+ * <p>
+ * Some formats allow to define a table in several parts, with a key made of several parts (like
+ * the dotted keys and the table headers of TOML). The reader doesn't merge them: the same path
+ * may be reported several times, and the consumer is responsible for merging the values, for
+ * instance with {@link com.electronwill.nightconfig.core.Config#set(List, Object)}.
+ * <p>
+ * The readers check the syntax of the data, but not the rules that require to know the whole
+ * document, like the uniqueness of the keys.
+ *
+ * @author TheElectronWill
+ * @see ConfigParser#readEvents(java.io.Reader)
+ */
+public interface ConfigEventReader {
+	/**
+	 * @return true if there are more events, false if {@link ConfigEvent#END_DOCUMENT} has been
+	 * returned
+	 */
+	boolean hasNext();
+
+	/**
+	 * Reads the next event.
+	 *
+	 * @return the next event
+	 *
+	 * @throws ParsingException       if the data is invalid
+	 * @throws NoSuchElementException if {@link ConfigEvent#END_DOCUMENT} has already been
+	 *                                returned
+	 */
+	ConfigEvent next();
+
+	/**
+	 * Returns the key of the last {@link ConfigEvent#KEY} event, as a path relative to the
+	 * current table. Most keys have only one part.
+	 *
+	 * @return the path of the last key
+	 */
+	List<String> getKey();
+
+	/**
+	 * Returns the value of the last {@link ConfigEvent#VALUE} event. The null values are
+	 * represented by null.
+	 *
+	 * @return the last value
+	 */
+	Object getValue();
+
+	/**
+	 * @return the text of the last {@link ConfigEvent#COMMENT} event
+	 */
+	String getComment();
+
+	/**
+	 * Skips the next value, including its content if it's a table or an array. This method is
+	 * typically called after a {@link ConfigEvent#KEY} event, to skip the entries that aren't
+	 * interesting. The comments before the value are skipped too.
+	 *
+	 * @throws ParsingException if the data is invalid, or if there is no value to skip
+	 */
+	default void skipValue() {
+		int depth = 0;
+		while (true) {
+			ConfigEvent event = next();
+			switch (event) {
+				case START_TABLE:
+				case START_ARRAY:
+					depth++;
+					break;
+				case END_TABLE:
+				case END_ARRAY:
+					if (depth == 0) {
+						throw new ParsingException("No value to skip before the " + event);
+					}
+					depth--;
+					break;
+				case KEY:
+				case END_DOCUMENT:
+					if (depth == 0) {
+						throw new ParsingException("No value to skip before the " + event);
+					}
+					break;
+			}
+			if (depth == 0 && event != ConfigEvent.COMMENT) {
+				return;
+			}
+		}
+	}
+}
\ No newline at end of file
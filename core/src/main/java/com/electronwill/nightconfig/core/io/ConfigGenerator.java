@@ -0,0 +1,126 @@
+package com.electronwill.nightconfig.core.io;
+
+/**
+ * A push writer that writes a configuration piece by piece, without creating a Config. The
+ * data is written as the methods are called, so a generator can write documents that are too big
+ * to be kept in memory, for instance the rows of a database cursor.
+ * <p>
+ * The methods follow the structure of the {@link ConfigEvent}s: a document is a table (or an
+ * array, for the formats that support it, like JSON). In a table, each entry is written with
+ * {@link #key(String)} followed by its value. In an array, the values follow each other. A value
+ * is written with {@link #value(Object)}, or with {@link #beginTable()} and {@link #endTable()},
+ * or with {@link #beginArray()} and {@link #endArray()}. Comments may be written before the
+ * keys, and are ignored by the formats that don't support them.
+ * <p>
+ * The structure is checked as the methods are called: a key outside of a table, a value
+ * without a key, an end without the corresponding beginning, etc. are rejected with a
+ * {@link WritingException}. The rules that require to know the whole document, like the
+ * uniqueness of the keys, aren't checked.
+ * <p>
+ * The generator must be closed once the document is complete. {@link #close()} checks that every
+ * table and array has been ended, and writes the remaining data.
+ *
+ * @author TheElectronWill
+ * @see ConfigWriter#createGenerator(java.io.Writer)
+ */
+public interface ConfigGenerator extends AutoCloseable {
+	/**
+	 * Begins a table, as a value.
+	 *
+	 * @return this generator
+	 *
+	 * @throws WritingException if a table isn't allowed here, or if an error occurs
+	 */
+	ConfigGenerator beginTable();
+
+	/**
+	 * Ends the current table.
+	 *
+	 * @return this generator
+	 *
+	 * @throws WritingException if the current value isn't a table, or if an error occurs
+	 */
+	ConfigGenerator endTable();
+
+	/**
+	 * Begins an array, as a value.
+	 *
+	 * @return this generator
+	 *
+	 * @throws WritingException if an array isn't allowed here, or if an error occurs
+	 */
+	ConfigGenerator beginArray();
+
+	/**
+	 * Ends the current array.
+	 *
+	 * @return this generator
+	 *
+	 * @throws WritingException if the current value isn't an array, or if an error occurs
+	 */
+	ConfigGenerator endArray();
+
+	/**
+	 * Writes the key of an entry of the current table. It must be followed by the value of the
+	 * entry.
+	 *
+	 * @param key the key, not null
+	 * @return this generator
+	 *
+	 * @throws WritingException if the generator isn't in a table, or if the previous key has no
+	 *                          value
+	 */
+	ConfigGenerator key(String key);
+
+	/**
+	 * Writes a value. It may be any value supported by the format, including Configs and
+	 * Collections, which are written entirely.
+	 *
+	 * @param value the value to write
+	 * @return this generator
+	 *
+	 * @throws WritingException if a value isn't allowed here, if the value isn't supported, or
+	 *                          if an error occurs
+	 */
+	ConfigGenerator value(Object value);
+
+	/**
+	 * Writes a comment, before the next key or value. The formats that don't support comments
+	 * ignore it.
+	 *
+	 * @param comment the comment, may contain several lines
+	 * @return this generator
+	 *
+	 * @throws WritingException if a comment isn't allowed here, or if an error occurs
+	 */
+	ConfigGenerator comment(String comment);
+
+	/**
+	 * Writes an entry of the current table. This is equivalent to {@code key(key).value(value)}.
+	 *
+	 * @param key   the key, not null
+	 * @param value the value
+	 * @return this generator
+	 *
+	 * @throws WritingException if the generator isn't in a table, or if an error occurs
+	 */
+	default ConfigGenerator entry(String key, Object value) {
+		return key(key).value(value);
+	}
+
+	/**
+	 * Writes the buffered data to the destination of the generator.
+	 *
+	 * @throws WritingException if an error occurs
+	 */
+	void flush();
+
+	/**
+	 * Writes the remaining data and releases the resources used by the generator. The Writer or
+	 * channel that the generator writes to isn't closed.
+	 *
+	 * @throws WritingException if the document is incomplete, or if an error occurs
+	 */
+	@Override
+	void close();
+}
\ No newline at end of file
@@ -8,10 +8,12 @@ import com.electronwill.nightconfig.core.utils.FastStringReader;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 
 /**
  * Interface for reading configurations.
@@ -43,6 +45,61 @@ public interface ConfigParser<C extends Config> {
 	 */
 	void parse(Reader reader, Config destination, ParsingMode parsingMode);
 
+	/**
+	 * Parses the parts of a configuration that are accepted by a filter. The default
+	 * implementation parses the whole configuration and then copies the accepted entries.
+	 * Parsers that can skip the rest of the data should override it.
+	 *
+	 * @param reader      the reader to parse
+	 * @param destination the config where to put the data
+	 * @param filter      the filter that selects the entries to parse
+	 * @throws ParsingException if an error occurs
+	 */
+	default void parse(Reader reader, Config destination, ParsingMode parsingMode,
+					   PathFilter filter) {
+		C parsed = parse(reader);
+		parsingMode.prepareParsing(destination);
+		PathFilters.copy(parsed, destination, parsingMode, filter, new ArrayList<>());
+	}
+
+	/**
+	 * Parses the parts of a configuration String that are accepted by a filter.
+	 *
+	 * @param input       the input to parse
+	 * @param destination the config where to put the data
+	 * @param filter      the filter that selects the entries to parse
+	 * @throws ParsingException if an error occurs
+	 */
+	default void parse(String input, Config destination, ParsingMode parsingMode,
+					   PathFilter filter) {
+		parse(new FastStringReader(input), destination, parsingMode, filter);
+	}
+
+	/**
+	 * Parses a configuration from a CharacterInput. The default implementation reads the input
+	 * through a Reader. Parsers that work directly on CharacterInputs should override it.
+	 *
+	 * @param input the input to parse
+	 * @return a Config
+	 *
+	 * @throws ParsingException if an error occurs
+	 */
+	default C parse(CharacterInput input) {
+		return parse(new InputReader(input));
+	}
+
+	/**
+	 * Parses a configuration from a CharacterInput. The default implementation reads the input
+	 * through a Reader. Parsers that work directly on CharacterInputs should override it.
+	 *
+	 * @param input       the input to parse
+	 * @param destination the config where to put the data
+	 * @throws ParsingException if an error occurs
+	 */
+	default void parse(CharacterInput input, Config destination, ParsingMode parsingMode) {
+		parse(new InputReader(input), destination, parsingMode);
+	}
+
 	/**
 	 * Parses a configuration String.
 	 *
@@ -63,7 +120,50 @@ public interface ConfigParser<C extends Config> {
 	 * @throws ParsingException if an error occurs
 	 */
 	default void parse(String input, Config destination, ParsingMode parsingMode) {
-		parse(new StringReader(input), destination, parsingMode);
+		parse(new FastStringReader(input), destination, parsingMode);
+	}
+
+	/**
+	 * Creates a reader of the events of a configuration, which reads the configuration
+	 * progressively without creating a Config. The default implementation parses the whole
+	 * configuration and then walks through it. Parsers that can read the events directly should
+	 * override it.
+	 *
+	 * @param reader the reader to parse
+	 * @return a ConfigEventReader
+	 *
+	 * @throws ParsingException if an error occurs
+	 * @see ConfigEventReader
+	 */
+	default ConfigEventReader readEvents(Reader reader) {
+		return new TreeEventReader(parse(reader));
+	}
+
+	/**
+	 * Creates a reader of the events of a configuration. The default implementation reads the
+	 * input through a Reader. Parsers that work directly on CharacterInputs should override it.
+	 *
+	 * @param input the input to parse
+	 * @return a ConfigEventReader
+	 *
+	 * @throws ParsingException if an error occurs
+	 * @see ConfigEventReader
+	 */
+	default ConfigEventReader readEvents(CharacterInput input) {
+		return readEvents(new InputReader(input));
+	}
+
+	/**
+	 * Creates a reader of the events of a configuration String.
+	 *
+	 * @param input the input to parse
+	 * @return a ConfigEventReader
+	 *
+	 * @throws ParsingException if an error occurs
+	 * @see ConfigEventReader
+	 */
+	default ConfigEventReader readEvents(String input) {
+		return readEvents(new FastStringReader(input));
 	}
 
 	/**
@@ -79,7 +179,8 @@ public interface ConfigParser<C extends Config> {
 	}
 
 	/**
-	 * Parses a configuration.
+	 * Parses a configuration. The UTF-8 charset is decoded by a {@link Utf8Input}, the other
+	 * charsets by an {@link InputStreamReader}.
 	 *
 	 * @param input the input to parse
 	 * @return a Config
@@ -87,6 +188,11 @@ public interface ConfigParser<C extends Config> {
 	 * @throws ParsingException if an error occurs
 	 */
 	default C parse(InputStream input, Charset charset) {
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			try (Utf8Input utf8 = new Utf8Input(input)) {
+				return parse(utf8);
+			}
+		}
 		return parse(new BufferedReader(new InputStreamReader(input, charset)));
 	}
 
@@ -102,13 +208,20 @@ public interface ConfigParser<C extends Config> {
 	}
 
 	/**
-	 * Parses a configuration.
+	 * Parses a configuration. The UTF-8 charset is decoded by a {@link Utf8Input}, the other
+	 * charsets by an {@link InputStreamReader}.
 	 *
 	 * @param input       the input to parse
 	 * @param destination the config where to put the data
 	 * @throws ParsingException if an error occurs
 	 */
 	default void parse(InputStream input, Config destination, ParsingMode parsingMode, Charset charset) {
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			try (Utf8Input utf8 = new Utf8Input(input)) {
+				parse(utf8, destination, parsingMode);
+			}
+			return;
+		}
 		Reader reader = new BufferedReader(new InputStreamReader(input, charset));
 		parse(reader, destination, parsingMode);
 	}
@@ -179,10 +292,44 @@ public interface ConfigParser<C extends Config> {
 	 * @throws ParsingException if an error occurs
 	 */
 	default C parse(Path file, FileNotFoundAction nefAction, Charset charset) {
+		return parse(file, nefAction, charset, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Parses a configuration. If the file's size is at least {@code mmapThreshold} bytes, the
+	 * file is mapped in memory with {@link FileChannel#map} and parsed directly from the mapped
+	 * buffer, which avoids copying it. Otherwise it is read normally.
+	 * <p>
+	 * A mapped file stays mapped until the buffer is garbage-collected. On some systems (like
+	 * Windows), a mapped file can't be deleted or replaced.
+	 * <p>
+	 * If the file is truncated while it is parsed, for instance because another process writes
+	 * it, the JVM can't read the missing part of the mapping and throws an {@link InternalError}.
+	 * In that case, the file is parsed again with a normal read. Don't map a file that the
+	 * program itself may write during the parsing.
+	 *
+	 * @param file          the nio Path to parse
+	 * @param mmapThreshold the minimum size, in bytes, of the files to map in memory. Use
+	 *                      {@code Long.MAX_VALUE} to never map the file.
+	 * @return a Config
+	 * @throws ParsingException if an error occurs
+	 */
+	default C parse(Path file, FileNotFoundAction nefAction, Charset charset,
+					long mmapThreshold) {
 		try {
 			if(Files.notExists(file) && !nefAction.run(file, getFormat())) {
 				return getFormat().createConfig();
 			}
+			if (mmapThreshold != Long.MAX_VALUE) {
+				CharacterInput mapped = Utils.mapFile(file, charset, mmapThreshold);
+				if (mapped != null) {
+					try {
+						return parse(mapped);
+					} catch (InternalError e) {
+						// The file has been truncated during the parsing: reads it normally
+					}
+				}
+			}
 			try (InputStream input = Files.newInputStream(file)) {
 				return parse(input, charset);
 			}
@@ -211,10 +358,42 @@ public interface ConfigParser<C extends Config> {
 	 */
 	default void parse(Path file, Config destination, ParsingMode parsingMode,
 					   FileNotFoundAction nefAction, Charset charset) {
+		parse(file, destination, parsingMode, nefAction, charset, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Parses a configuration. If the file's size is at least {@code mmapThreshold} bytes, the
+	 * file is mapped in memory and parsed directly from the mapped buffer.
+	 * <p>
+	 * If the mapped file is truncated during the parsing, a ParsingException is thrown, because
+	 * the destination may already contain some of the values. Don't map a file that the program
+	 * itself may write during the parsing.
+	 *
+	 * @param file          the nio Path to parse
+	 * @param destination   the config where to put the data
+	 * @param mmapThreshold the minimum size, in bytes, of the files to map in memory. Use
+	 *                      {@code Long.MAX_VALUE} to never map the file.
+	 * @throws ParsingException if an error occurs
+	 * @see #parse(Path, FileNotFoundAction, Charset, long)
+	 */
+	default void parse(Path file, Config destination, ParsingMode parsingMode,
+					   FileNotFoundAction nefAction, Charset charset, long mmapThreshold) {
 		try {
 			if (Files.notExists(file) && !nefAction.run(file, getFormat())) {
 				return;
 			}
+			if (mmapThreshold != Long.MAX_VALUE) {
+				CharacterInput mapped = Utils.mapFile(file, charset, mmapThreshold);
+				if (mapped != null) {
+					try {
+						parse(mapped, destination, parsingMode);
+					} catch (InternalError e) {
+						throw new ParsingException(
+							"The file " + file + " has been truncated while it was parsed", e);
+					}
+					return;
+				}
+			}
 			try (InputStream input = Files.newInputStream(file)) {
 				parse(input, destination, parsingMode, charset);
 			}
@@ -5,7 +5,10 @@ import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import java.io.*;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -30,6 +33,58 @@ public interface ConfigWriter {
 	 */
 	void write(UnmodifiableConfig config, Writer writer);
 
+	/**
+	 * Writes a configuration to a CharacterOutput. The default implementation writes to the
+	 * output through a Writer. Writers that work directly on CharacterOutputs should override it.
+	 *
+	 * @param config the config to write
+	 * @param output the output to write it to
+	 * @throws WritingException if an error occurs
+	 */
+	default void write(UnmodifiableConfig config, CharacterOutput output) {
+		write(config, new OutputWriter(output));
+	}
+
+	/**
+	 * Writes a configuration to a CharsWrapper.Builder.
+	 *
+	 * @param config  the config to write
+	 * @param builder the builder to write it to
+	 * @throws WritingException if an error occurs
+	 */
+	default void write(UnmodifiableConfig config, CharsWrapper.Builder builder) {
+		write(config, (CharacterOutput)builder);
+	}
+
+	/**
+	 * Writes a configuration in UTF-8 to a channel. The characters are encoded as they are
+	 * written, into a pooled direct buffer.
+	 *
+	 * @param config  the config to write
+	 * @param channel the channel to write it to
+	 * @throws WritingException if an error occurs
+	 */
+	default void write(UnmodifiableConfig config, WritableByteChannel channel) {
+		try (Utf8Output output = new Utf8Output(channel)) {
+			write(config, output);
+			output.flush();
+		}
+	}
+
+	/**
+	 * Writes a configuration in UTF-8 to a ByteBuffer, from its current position. The position
+	 * of the buffer is advanced by the number of bytes written.
+	 *
+	 * @param config the config to write
+	 * @param buffer the buffer to write it to
+	 * @throws WritingException if an error occurs, or if the buffer is too small
+	 */
+	default void write(UnmodifiableConfig config, ByteBuffer buffer) {
+		Utf8Output output = new Utf8Output(buffer, false);
+		write(config, output);
+		output.flush();
+	}
+
 	/**
 	 * Writes a configuration.
 	 *
@@ -38,6 +93,10 @@ public interface ConfigWriter {
 	 * @throws WritingException if an error occurs
 	 */
 	default void write(UnmodifiableConfig config, OutputStream output, Charset charset) {
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			write(config, Channels.newChannel(output));
+			return;
+		}
 		Writer writer = new BufferedWriter(new OutputStreamWriter(output, charset));
 		write(config, writer);
 		try {
@@ -84,6 +143,14 @@ public interface ConfigWriter {
 		} else {
 			options = new StandardOpenOption[] { WRITE, CREATE, TRUNCATE_EXISTING };
 		}
+		if (charset.equals(StandardCharsets.UTF_8)) {
+			try (FileChannel channel = FileChannel.open(file, options)) {
+				write(config, channel);
+			} catch (IOException e) {
+				throw new WritingException("An I/O error occured", e);
+			}
+			return;
+		}
 		try (OutputStream output = Files.newOutputStream(file, options)) {
 			write(config, output, charset);
 		} catch (IOException e) {
@@ -137,6 +204,43 @@ public interface ConfigWriter {
 		}
 	}
 
+	/**
+	 * Creates a generator that writes a configuration piece by piece to a CharacterOutput. The
+	 * default implementation creates the config in memory and writes it when the generator is
+	 * closed. Writers that can write the data as it comes should override it.
+	 * <p>
+	 * The generator may use the settings of this writer, which must not be modified until the
+	 * generator is closed.
+	 *
+	 * @param output the output to write to
+	 * @return a new generator
+	 */
+	default ConfigGenerator createGenerator(CharacterOutput output) {
+		return new TreeGenerator(this, output);
+	}
+
+	/**
+	 * Creates a generator that writes a configuration piece by piece to a Writer. The Writer
+	 * isn't closed by the generator.
+	 *
+	 * @param writer the Writer to write to
+	 * @return a new generator
+	 */
+	default ConfigGenerator createGenerator(Writer writer) {
+		return createGenerator(new BufferedOutput(writer));
+	}
+
+	/**
+	 * Creates a generator that writes a configuration piece by piece in UTF-8 to a channel. The
+	 * channel isn't closed by the generator.
+	 *
+	 * @param channel the channel to write to
+	 * @return a new generator
+	 */
+	default ConfigGenerator createGenerator(WritableByteChannel channel) {
+		return createGenerator(new Utf8Output(channel));
+	}
+
 	/**
 	 * Writes a configuration to a String.
 	 *
@@ -146,8 +250,10 @@ public interface ConfigWriter {
 	 * @throws WritingException if an error occurs
 	 */
 	default String writeToString(UnmodifiableConfig config) {
-		CharsWrapper.Builder builder = new CharsWrapper.Builder(64);
+		CharsWrapper.Builder builder = BufferPool.takeBuilder(64);
 		write(config, builder);
-		return builder.toString();
+		String str = builder.toString();
+		BufferPool.giveBack(builder);
+		return str;
 	}
 }
\ No newline at end of file
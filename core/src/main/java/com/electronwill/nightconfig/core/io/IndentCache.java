@@ -0,0 +1,57 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.util.Arrays;
+
+/**
+ * Stores the indentation of each level, so that a line can be indented with only one write,
+ * instead of one write per level.
+ *
+ * @author TheElectronWill
+ */
+public final class IndentCache {
+	private final char[] indent;
+	private char[][] levels = new char[8][];
+
+	/**
+	 * Creates a new IndentCache.
+	 *
+	 * @param indent the characters of one level of indentation
+	 */
+	public IndentCache(char[] indent) {
+		this.indent = indent;
+	}
+
+	/**
+	 * Gets the characters that indent a line at the given level. The returned array must not be
+	 * modified.
+	 *
+	 * @param level the indentation level
+	 * @return the indentation, repeated level times
+	 */
+	public char[] get(int level) {
+		if (level >= levels.length) {
+			levels = Arrays.copyOf(levels, Math.max(level + 1, levels.length * 2));
+		}
+		char[] chars = levels[level];
+		if (chars == null) {
+			chars = new char[indent.length * level];
+			for (int i = 0; i < level; i++) {
+				System.arraycopy(indent, 0, chars, i * indent.length, indent.length);
+			}
+			levels[level] = chars;
+		}
+		return chars;
+	}
+
+	/**
+	 * Writes the indentation of the given level. Nothing is written if the level is negative.
+	 *
+	 * @param level  the indentation level
+	 * @param output the output to write to
+	 */
+	public void write(int level, CharacterOutput output) {
+		if (level > 0) {
+			output.write(get(level));
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.Reader;
+
+/**
+ * A Reader that reads the characters of a {@link CharacterInput}.
+ *
+ * @author TheElectronWill
+ */
+final class InputReader extends Reader {
+	private final CharacterInput input;
+
+	InputReader(CharacterInput input) {
+		this.input = input;
+	}
+
+	@Override
+	public int read() {
+		return input.read();
+	}
+
+	@Override
+	public int read(char[] cbuf, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		for (int i = 0; i < len; i++) {
+			int c = input.read();
+			if (c == -1) {
+				return (i == 0) ? -1 : i;
+			}
+			cbuf[off + i] = (char)c;
+		}
+		return len;
+	}
+
+	@Override
+	public void close() {}
+}
@@ -0,0 +1,392 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.math.BigInteger;
+
+/**
+ * Writes numbers directly to a {@link CharacterOutput}, without creating Strings.
+ * <p>
+ * The integers are written like {@link Long#toString(long)} does. The floating-point numbers
+ * are written in the format of {@link Double#toString(double)}, but with the shortest decimal
+ * representation that parses back to the same value, computed with the Ryu algorithm.
+ *
+ * @author TheElectronWill
+ * @see <a href="https://dl.acm.org/citation.cfm?id=3192369">Ryū: fast float-to-string
+ * conversion</a>
+ */
+public final class NumberFormatter {
+	private NumberFormatter() {}// Utility class that can't be constructed
+
+	private static final char[] NAN = {'N', 'a', 'N'};
+	private static final char[] INFINITY = {'I', 'n', 'f', 'i', 'n', 'i', 't', 'y'};
+	private static final char[] ZERO = {'0', '.', '0'};
+	private static final char[] MIN_LONG = Long.toString(Long.MIN_VALUE).toCharArray();
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	/**
+	 * Writes a number. The Integers, Longs, Shorts, Bytes, Doubles and Floats are written
+	 * directly, the other numbers are written with their toString() method.
+	 *
+	 * @param number the number to write
+	 * @param output the output to write to
+	 */
+	public static void write(Number number, CharacterOutput output) {
+		if (number instanceof Integer || number instanceof Long || number instanceof Short
+			|| number instanceof Byte) {
+			write(number.longValue(), output);
+		} else if (number instanceof Double) {
+			write(number.doubleValue(), output);
+		} else if (number instanceof Float) {
+			write(number.floatValue(), output);
+		} else {
+			output.write(number.toString());
+		}
+	}
+
+	/**
+	 * Writes a long in base 10.
+	 *
+	 * @param value  the value to write
+	 * @param output the output to write to
+	 */
+	public static void write(long value, CharacterOutput output) {
+		if (value < 0) {
+			if (value == Long.MIN_VALUE) {// has no positive counterpart
+				output.write(MIN_LONG);
+				return;
+			}
+			output.write('-');
+			value = -value;
+		}
+		writeDigits(value, digitCount(value), output);
+	}
+
+	/**
+	 * Writes a double with its shortest decimal representation.
+	 *
+	 * @param value  the value to write
+	 * @param output the output to write to
+	 */
+	public static void write(double value, CharacterOutput output) {
+		long bits = Double.doubleToRawLongBits(value);
+		long ieeeMantissa = bits & ((1L << 52) - 1);
+		int ieeeExponent = (int)((bits >>> 52) & 0x7FF);
+		boolean negative = bits < 0;
+		if (writeSpecial(ieeeExponent == 0x7FF, ieeeMantissa == 0 && ieeeExponent == 0,
+						 ieeeMantissa != 0, negative, output)) {
+			return;
+		}
+		long m2;
+		int e2;
+		if (ieeeExponent == 0) {// subnormal
+			m2 = ieeeMantissa;
+			e2 = 1 - 1023 - 52 - 2;
+		} else {
+			m2 = ieeeMantissa | (1L << 52);
+			e2 = ieeeExponent - 1023 - 52 - 2;
+		}
+		int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+		writeShortest(m2, e2, mmShift, negative, output);
+	}
+
+	/**
+	 * Writes a float with its shortest decimal representation.
+	 *
+	 * @param value  the value to write
+	 * @param output the output to write to
+	 */
+	public static void write(float value, CharacterOutput output) {
+		int bits = Float.floatToRawIntBits(value);
+		int ieeeMantissa = bits & ((1 << 23) - 1);
+		int ieeeExponent = (bits >>> 23) & 0xFF;
+		boolean negative = bits < 0;
+		if (writeSpecial(ieeeExponent == 0xFF, ieeeMantissa == 0 && ieeeExponent == 0,
+						 ieeeMantissa != 0, negative, output)) {
+			return;
+		}
+		long m2;
+		int e2;
+		if (ieeeExponent == 0) {// subnormal
+			m2 = ieeeMantissa;
+			e2 = 1 - 127 - 23 - 2;
+		} else {
+			m2 = ieeeMantissa | (1 << 23);
+			e2 = ieeeExponent - 127 - 23 - 2;
+		}
+		int mmShift = (ieeeMantissa != 0 || ieeeExponent <= 1) ? 1 : 0;
+		writeShortest(m2, e2, mmShift, negative, output);
+	}
+
+	/**
+	 * Writes NaN, infinities and zeros.
+	 *
+	 * @return true if the value was special and has been written
+	 */
+	private static boolean writeSpecial(boolean maxExponent, boolean zero, boolean nonZeroMantissa,
+										boolean negative, CharacterOutput output) {
+		if (maxExponent) {
+			if (nonZeroMantissa) {
+				output.write(NAN);
+				return true;
+			}
+			if (negative) {
+				output.write('-');
+			}
+			output.write(INFINITY);
+			return true;
+		}
+		if (zero) {
+			if (negative) {
+				output.write('-');
+			}
+			output.write(ZERO);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the shortest decimal that is in the rounding interval of m2 * 2^(e2 + 2), with
+	 * the Ryu algorithm, and writes it.
+	 *
+	 * @param m2      the binary mantissa
+	 * @param e2      the binary exponent, minus 2
+	 * @param mmShift 1 if the lower bound of the interval is at the usual distance, 0 if the
+	 *                value is a power of two whose lower neighbour is closer
+	 */
+	private static void writeShortest(long m2, int e2, int mmShift, boolean negative,
+									  CharacterOutput output) {
+		boolean acceptBounds = (m2 & 1) == 0;
+		long mv = 4 * m2;
+		long vr, vp, vm;
+		int e10;
+		boolean vmIsTrailingZeros = false, vrIsTrailingZeros = false;
+		if (e2 >= 0) {
+			int q = log10Pow2(e2) - (e2 > 3 ? 1 : 0);
+			e10 = q;
+			int k = Tables.POW5_INV_BITCOUNT + pow5bits(q) - 1;
+			int i = -e2 + q + k;
+			long high = Tables.POW5_INV_HIGH[q], low = Tables.POW5_INV_LOW[q];
+			vr = mulShift(mv, high, low, i);
+			vp = mulShift(mv + 2, high, low, i);
+			vm = mulShift(mv - 1 - mmShift, high, low, i);
+			if (q <= 21) {
+				// Only one of mp, mv and mm can be a multiple of 5, if any
+				if (mv % 5 == 0) {
+					vrIsTrailingZeros = multipleOfPowerOf5(mv, q);
+				} else if (acceptBounds) {
+					vmIsTrailingZeros = multipleOfPowerOf5(mv - 1 - mmShift, q);
+				} else if (multipleOfPowerOf5(mv + 2, q)) {
+					vp--;
+				}
+			}
+		} else {
+			int q = log10Pow5(-e2) - (-e2 > 1 ? 1 : 0);
+			e10 = q + e2;
+			int i = -e2 - q;
+			int k = pow5bits(i) - Tables.POW5_BITCOUNT;
+			int j = q - k;
+			long high = Tables.POW5_HIGH[i], low = Tables.POW5_LOW[i];
+			vr = mulShift(mv, high, low, j);
+			vp = mulShift(mv + 2, high, low, j);
+			vm = mulShift(mv - 1 - mmShift, high, low, j);
+			if (q <= 1) {
+				// mv = 4 * m2 always has at least two trailing zero bits
+				vrIsTrailingZeros = true;
+				if (acceptBounds) {
+					vmIsTrailingZeros = mmShift == 1;
+				} else {
+					vp--;
+				}
+			} else if (q < 63) {
+				vrIsTrailingZeros = (mv & ((1L << q) - 1)) == 0;
+			}
+		}
+		// Removes the digits that aren't needed to identify the value
+		int removed = 0;
+		long decimal;
+		if (vmIsTrailingZeros || vrIsTrailingZeros) {// rare case
+			int lastRemovedDigit = 0;
+			while (vp / 10 > vm / 10) {
+				vmIsTrailingZeros &= vm % 10 == 0;
+				vrIsTrailingZeros &= lastRemovedDigit == 0;
+				lastRemovedDigit = (int)(vr % 10);
+				vr /= 10;
+				vp /= 10;
+				vm /= 10;
+				removed++;
+			}
+			if (vmIsTrailingZeros) {
+				while (vm % 10 == 0) {
+					vrIsTrailingZeros &= lastRemovedDigit == 0;
+					lastRemovedDigit = (int)(vr % 10);
+					vr /= 10;
+					vp /= 10;
+					vm /= 10;
+					removed++;
+				}
+			}
+			if (vrIsTrailingZeros && lastRemovedDigit == 5 && vr % 2 == 0) {
+				lastRemovedDigit = 4;// exactly halfway: rounds to even
+			}
+			boolean roundUp = (vr == vm && (!acceptBounds || !vmIsTrailingZeros))
+							  || lastRemovedDigit >= 5;
+			decimal = vr + (roundUp ? 1 : 0);
+		} else {// common case
+			boolean roundUp = false;
+			while (vp / 10 > vm / 10) {
+				roundUp = vr % 10 >= 5;
+				vr /= 10;
+				vp /= 10;
+				vm /= 10;
+				removed++;
+			}
+			decimal = vr + ((vr == vm || roundUp) ? 1 : 0);
+		}
+		writeDecimal(decimal, e10 + removed, negative, output);
+	}
+
+	/**
+	 * Writes decimal * 10^exp10 in the format of Double.toString.
+	 */
+	private static void writeDecimal(long decimal, int exp10, boolean negative,
+									 CharacterOutput output) {
+		if (negative) {
+			output.write('-');
+		}
+		int length = digitCount(decimal);
+		int exponent = exp10 + length - 1;// exponent of the scientific notation
+		if (exponent < -3 || exponent >= 7) {// computerized scientific notation: d.dddE-n
+			long power = POWERS_OF_TEN[length - 1];
+			output.write((char)('0' + decimal / power));
+			output.write('.');
+			if (length == 1) {
+				output.write('0');
+			} else {
+				writeDigits(decimal % power, length - 1, output);
+			}
+			output.write('E');
+			write(exponent, output);
+		} else if (exponent < 0) {// 0.00ddd
+			output.write('0');
+			output.write('.');
+			for (int i = -1; i > exponent; i--) {
+				output.write('0');
+			}
+			writeDigits(decimal, length, output);
+		} else if (length <= exponent + 1) {// ddd00.0
+			writeDigits(decimal, length, output);
+			for (int i = length; i <= exponent; i++) {
+				output.write('0');
+			}
+			output.write('.');
+			output.write('0');
+		} else {// dd.ddd
+			long power = POWERS_OF_TEN[length - exponent - 1];
+			writeDigits(decimal / power, exponent + 1, output);
+			output.write('.');
+			writeDigits(decimal % power, length - exponent - 1, output);
+		}
+	}
+
+	/**
+	 * Writes the given number of digits of a positive value, with leading zeros if needed.
+	 */
+	private static void writeDigits(long value, int length, CharacterOutput output) {
+		for (int i = length - 1; i >= 0; i--) {
+			long power = POWERS_OF_TEN[i];
+			int digit = (int)(value / power);
+			value -= digit * power;
+			output.write((char)('0' + digit));
+		}
+	}
+
+	/**
+	 * @return the number of digits of a positive value
+	 */
+	private static int digitCount(long value) {
+		int count = 1;
+		while (count < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[count]) {
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @return floor(log10(2^e)), for 0 <= e <= 1650
+	 */
+	private static int log10Pow2(int e) {
+		return (int)((e * 78913L) >>> 18);
+	}
+
+	/**
+	 * @return floor(log10(5^e)), for 0 <= e <= 2620
+	 */
+	private static int log10Pow5(int e) {
+		return (int)((e * 732923L) >>> 20);
+	}
+
+	/**
+	 * @return the number of bits of 5^e, for 0 <= e <= 3528
+	 */
+	private static int pow5bits(int e) {
+		return (int)((e * 1217359L) >>> 19) + 1;
+	}
+
+	private static boolean multipleOfPowerOf5(long value, int p) {
+		int count = 0;
+		while (value % 5 == 0) {
+			value /= 5;
+			count++;
+		}
+		return count >= p;
+	}
+
+	/**
+	 * Computes (m * (high * 2^64 + low)) >> j, for 64 < j < 128.
+	 */
+	private static long mulShift(long m, long high, long low, int j) {
+		long lowProductHigh = NumberParser.multiplyHigh(m, low);
+		long sumLow = m * high + lowProductHigh;
+		long sumHigh = NumberParser.multiplyHigh(m, high);
+		if (Long.compareUnsigned(sumLow, lowProductHigh) < 0) {
+			sumHigh++;// carry
+		}
+		int shift = j - 64;
+		return (sumLow >>> shift) | (sumHigh << (64 - shift));
+	}
+
+	/**
+	 * The 125-bit approximations of 5^i and 2^k/5^i used by the algorithm. They are computed
+	 * when the first floating-point number is written.
+	 */
+	private static final class Tables {
+		static final int POW5_BITCOUNT = 125, POW5_INV_BITCOUNT = 125;
+		static final long[] POW5_HIGH = new long[326], POW5_LOW = new long[326];
+		static final long[] POW5_INV_HIGH = new long[342], POW5_INV_LOW = new long[342];
+
+		static {
+			BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+			for (int i = 0; i < POW5_INV_HIGH.length; i++) {
+				BigInteger power = BigInteger.valueOf(5).pow(i);
+				int bits = power.bitLength();
+				if (i < POW5_HIGH.length) {
+					int shift = bits - POW5_BITCOUNT;
+					BigInteger v = (shift >= 0) ? power.shiftRight(shift) : power.shiftLeft(-shift);
+					POW5_HIGH[i] = v.shiftRight(64).longValue();
+					POW5_LOW[i] = v.and(mask).longValue();
+				}
+				int j = bits - 1 + POW5_INV_BITCOUNT;
+				BigInteger inv = BigInteger.ONE.shiftLeft(j).divide(power).add(BigInteger.ONE);
+				POW5_INV_HIGH[i] = inv.shiftRight(64).longValue();
+				POW5_INV_LOW[i] = inv.and(mask).longValue();
+			}
+		}
+	}
+}
\ No newline at end of file
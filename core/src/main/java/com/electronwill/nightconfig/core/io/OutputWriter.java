@@ -0,0 +1,37 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.Writer;
+
+/**
+ * A Writer that writes its characters to a {@link CharacterOutput}.
+ *
+ * @author TheElectronWill
+ */
+final class OutputWriter extends Writer {
+	private final CharacterOutput output;
+
+	OutputWriter(CharacterOutput output) {
+		this.output = output;
+	}
+
+	@Override
+	public void write(int c) {
+		output.write((char)c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) {
+		output.write(cbuf, off, len);
+	}
+
+	@Override
+	public void write(String str, int off, int len) {
+		output.write(str, off, len);
+	}
+
+	@Override
+	public void flush() {}
+
+	@Override
+	public void close() {}
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.electronwill.nightconfig.core.io;
 
+import com.electronwill.nightconfig.core.AbstractConfig;
 import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.LazyString;
 import com.electronwill.nightconfig.core.utils.StringUtils;
 
 import java.util.List;
@@ -53,21 +55,31 @@ public enum ParsingMode {
 	}
 
 	/**
-	 * Puts (set or add) a value into the config
+	 * Puts (set or add) a value into the config. A {@link LazyString} is turned into a String
+	 * if the config isn't an {@link AbstractConfig}, which is the only kind of config that
+	 * handles LazyStrings.
 	 *
 	 * @return the previous value if any, or null if none
 	 */
 	public Object put(Config config, List<String> key, Object value) {
-		return putAction.put(config, key, value);
+		return putAction.put(config, key, checkLazy(config, value));
 	}
 
 	/**
-	 * Puts (set or add) a value into the config
+	 * Puts (set or add) a value into the config. A {@link LazyString} is turned into a String
+	 * if the config isn't an {@link AbstractConfig}.
 	 *
 	 * @return the previous value if any, or null if none
 	 */
 	public Object put(Config config, String key, Object value) {
-		return putAction.put(config, key, value);
+		return putAction.put(config, key, checkLazy(config, value));
+	}
+
+	private static Object checkLazy(Config config, Object value) {
+		if (value instanceof LazyString && !(config instanceof AbstractConfig)) {
+			return value.toString();
+		}
+		return value;
 	}
 
 	/**
@@ -0,0 +1,121 @@
+package com.electronwill.nightconfig.core.io;
+
+import com.electronwill.nightconfig.core.Config;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Selects the parts of a configuration that are parsed by
+ * {@link ConfigParser#parse(Reader, Config, ParsingMode, PathFilter)}. The filter is called
+ * with the path of each entry of the tables that are parsed, from the top-level entries to the
+ * nested ones, and decides whether the entry is kept entirely, skipped, or kept but filtered.
+ * The parsers that support filtering natively skip the unwanted data without creating its
+ * values.
+ *
+ * @author TheElectronWill
+ */
+@FunctionalInterface
+public interface PathFilter {
+	/**
+	 * Decides what to do with an entry. The path list is reused by the parser: it must not be
+	 * modified or kept by the filter.
+	 *
+	 * @param path the path of the entry, not empty
+	 * @return the action to take, not null
+	 */
+	Action test(List<String> path);
+
+	/**
+	 * The action to take for an entry.
+	 */
+	enum Action {
+		/**
+		 * Keeps the entry with its whole value, without calling the filter for the nested
+		 * entries.
+		 */
+		KEEP,
+		/**
+		 * Keeps the entry and calls the filter for each entry of its value. If the value isn't a
+		 * table, it's kept entirely, like with {@link #KEEP}.
+		 */
+		DESCEND,
+		/**
+		 * Skips the entry and its value.
+		 */
+		SKIP
+	}
+
+	/**
+	 * @return a filter that keeps everything
+	 */
+	static PathFilter all() {
+		return path -> Action.KEEP;
+	}
+
+	/**
+	 * Creates a filter that only keeps the given paths and their content.
+	 *
+	 * @param paths the paths to keep, with the keys separated by dots
+	 * @return a new PathFilter
+	 */
+	static PathFilter include(String... paths) {
+		return include(PathFilters.splitAll(paths));
+	}
+
+	/**
+	 * Creates a filter that only keeps the given paths and their content.
+	 *
+	 * @param paths the paths to keep
+	 * @return a new PathFilter
+	 */
+	static PathFilter include(Collection<List<String>> paths) {
+		List<List<String>> included = new ArrayList<>(paths);
+		return path -> {
+			Action action = Action.SKIP;
+			for (List<String> p : included) {
+				if (PathFilters.startsWith(path, p)) {
+					return Action.KEEP;
+				}
+				if (PathFilters.startsWith(p, path)) {
+					action = Action.DESCEND;
+				}
+			}
+			return action;
+		};
+	}
+
+	/**
+	 * Creates a filter that keeps everything but the given paths and their content.
+	 *
+	 * @param paths the paths to skip, with the keys separated by dots
+	 * @return a new PathFilter
+	 */
+	static PathFilter exclude(String... paths) {
+		return exclude(PathFilters.splitAll(paths));
+	}
+
+	/**
+	 * Creates a filter that keeps everything but the given paths and their content.
+	 *
+	 * @param paths the paths to skip
+	 * @return a new PathFilter
+	 */
+	static PathFilter exclude(Collection<List<String>> paths) {
+		List<List<String>> excluded = new ArrayList<>(paths);
+		return path -> {
+			Action action = Action.KEEP;
+			for (List<String> p : excluded) {
+				if (PathFilters.startsWith(path, p)) {
+					return Action.SKIP;
+				}
+				if (PathFilters.startsWith(p, path)) {
+					action = Action.DESCEND;
+				}
+			}
+			return action;
+		};
+	}
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.electronwill.nightconfig.core.io;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.electronwill.nightconfig.core.utils.StringUtils.split;
+
+/**
+ * Utility methods for the {@link PathFilter}s.
+ *
+ * @author TheElectronWill
+ */
+final class PathFilters {
+	/**
+	 * Copies the entries of a config that are accepted by a filter. It is used by the parsers that
+	 * don't support filtering natively, after parsing the whole configuration.
+	 */
+	static void copy(UnmodifiableConfig source, Config destination, ParsingMode parsingMode,
+					 PathFilter filter, List<String> path) {
+		for (UnmodifiableConfig.Entry entry : source.entrySet()) {
+			path.add(entry.getKey());
+			Object value = entry.getRawValue();
+			switch (filter.test(path)) {
+				case DESCEND:
+					if (value instanceof UnmodifiableConfig) {
+						Config table = destination.createSubConfig();
+						copy((UnmodifiableConfig)value, table, ParsingMode.MERGE, filter, path);
+						value = table;
+					}
+					// fall through
+				case KEEP:
+					List<String> key = Collections.singletonList(entry.getKey());
+					parsingMode.put(destination, key, value);
+					copyComment(source, destination, key);
+					break;
+			}
+			path.remove(path.size() - 1);
+		}
+	}
+
+	private static void copyComment(UnmodifiableConfig source, Config destination,
+									List<String> key) {
+		if (source instanceof UnmodifiableCommentedConfig
+			&& destination instanceof CommentedConfig) {
+			String comment = ((UnmodifiableCommentedConfig)source).getComment(key);
+			if (comment != null) {
+				((CommentedConfig)destination).setComment(key, comment);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the list begins with the given prefix
+	 */
+	static boolean startsWith(List<String> list, List<String> prefix) {
+		int size = prefix.size();
+		return list.size() >= size && list.subList(0, size).equals(prefix);
+	}
+
+	static List<List<String>> splitAll(String... paths) {
+		List<List<String>> list = new ArrayList<>(paths.length);
+		for (String path : paths) {
+			list.add(split(path, '.'));
+		}
+		return list;
+	}
+
+	private PathFilters() {}
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Finds the top-level sections of a document without parsing them. A section is a contiguous
+ * slice of the document that defines (a part of) the value associated with a top-level key: a
+ * member of the root object in JSON, a table or an array of tables in TOML. A section can be
+ * parsed independently of the others by joining it with {@link #join(List)} and giving the
+ * result to the format's parser.
+ * <p>
+ * The scanner only looks at the structural characters of the document, which are all ASCII, so
+ * it works with every ASCII-compatible charset (UTF-8, ISO-8859-1, ...).
+ *
+ * @author TheElectronWill
+ */
+public interface SectionScanner {
+	/**
+	 * Scans a document and returns its top-level sections, in the order of the document. The
+	 * input stream isn't closed by this method.
+	 *
+	 * @param input   the document to scan
+	 * @param charset the charset of the document, used to decode the keys
+	 * @return the list of the sections
+	 * @throws IOException      if an I/O error occurs
+	 * @throws ParsingException if the document structure is invalid
+	 */
+	List<Section> scan(InputStream input, Charset charset) throws IOException;
+
+	/**
+	 * Joins the texts of some sections to form a valid document for the format's parser.
+	 *
+	 * @param sectionTexts the texts of the sections, in the order of the original document
+	 * @return the document
+	 */
+	String join(List<String> sectionTexts);
+
+	/**
+	 * A section of a document.
+	 */
+	final class Section {
+		private final String key;
+		private final long start, end;
+
+		/**
+		 * Creates a new Section.
+		 *
+		 * @param key   the top-level key defined by the section, or null if the section may
+		 *              define several top-level keys
+		 * @param start the position of the first byte of the section
+		 * @param end   the position after the last byte of the section
+		 */
+		public Section(String key, long start, long end) {
+			this.key = key;
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * @return the top-level key defined by the section, or null if the section may define
+		 * several top-level keys (like the beginning of a TOML document, before the first table)
+		 */
+		public String key() {
+			return key;
+		}
+
+		/**
+		 * @return the position of the first byte of the section
+		 */
+		public long start() {
+			return start;
+		}
+
+		/**
+		 * @return the position after the last byte of the section
+		 */
+		public long end() {
+			return end;
+		}
+
+		/**
+		 * @return the size of the section, in bytes
+		 */
+		public long size() {
+			return end - start;
+		}
+
+		@Override
+		public String toString() {
+			return "Section(" + key + ", " + start + ".." + end + ')';
+		}
+	}
+}
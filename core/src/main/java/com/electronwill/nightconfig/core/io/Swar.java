@@ -0,0 +1,54 @@
+package com.electronwill.nightconfig.core.io;
+
+/**
+ * "SIMD within a register" utilities, to examine eight bytes at once in a long. The words must
+ * be read in little-endian order, so that the first byte is the least significant one and the
+ * index of the first marked byte is given by {@link #firstMarked(long)}.
+ * <p>
+ * The masks returned by these methods have the high bit of each marked byte set, and all the
+ * other bits cleared. They are exact: a byte is never marked because of its neighbours.
+ *
+ * @author TheElectronWill
+ */
+final class Swar {
+	static final long HIGH_BITS = 0x8080808080808080L;
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	private static final long ONES = 0x0101010101010101L;
+
+	/**
+	 * @return a word that contains eight times the given ASCII character
+	 */
+	static long broadcast(char c) {
+		return ONES * c;
+	}
+
+	/**
+	 * @return a mask of the bytes of the word that are zero
+	 */
+	static long zeros(long word) {
+		return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+	}
+
+	/**
+	 * @return a mask of the bytes of the word that are equal to the broadcast pattern
+	 */
+	static long equal(long word, long pattern) {
+		return zeros(word ^ pattern);
+	}
+
+	/**
+	 * @return a mask of the bytes of the word that aren't ASCII
+	 */
+	static long nonAscii(long word) {
+		return word & HIGH_BITS;
+	}
+
+	/**
+	 * @return the index of the first marked byte of the mask, or 8 if no byte is marked
+	 */
+	static int firstMarked(long mask) {
+		return Long.numberOfTrailingZeros(mask) >>> 3;
+	}
+
+	private Swar() {}
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.electronwill.nightconfig.core.io;
+
+import com.electronwill.nightconfig.core.NullObject;
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+
+import java.util.*;
+
+/**
+ * A {@link ConfigEventReader} that walks through a config that is already in memory. It is
+ * used for the formats whose parsers can't read the events directly.
+ *
+ * @author TheElectronWill
+ */
+final class TreeEventReader implements ConfigEventReader {
+	private final Deque<Iterator<?>> iterators = new ArrayDeque<>();// entries or elements
+	private final Deque<Object> containers = new ArrayDeque<>();// the tables and the lists
+	private final Deque<ConfigEvent> pending = new ArrayDeque<>(3);
+	private List<String> key, pendingKey;
+	private Object value, pendingValue;
+	private String comment, pendingComment;
+	private boolean started, finished;
+	private final UnmodifiableConfig root;
+
+	TreeEventReader(UnmodifiableConfig root) {
+		this.root = root;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !finished;
+	}
+
+	@Override
+	public ConfigEvent next() {
+		if (finished) {
+			throw new NoSuchElementException();
+		}
+		if (pending.isEmpty()) {
+			walk();
+		}
+		ConfigEvent event = pending.poll();
+		if (event == ConfigEvent.KEY) {
+			key = pendingKey;
+		} else if (event == ConfigEvent.COMMENT) {
+			comment = pendingComment;
+		} else if (event == ConfigEvent.VALUE) {
+			value = pendingValue;
+		} else if (event == ConfigEvent.END_DOCUMENT) {
+			finished = true;
+		}
+		return event;
+	}
+
+	/**
+	 * Goes to the next entry or element and adds its events to the pending ones.
+	 */
+	private void walk() {
+		if (!started) {
+			started = true;
+			startValue(root);
+			return;
+		}
+		Iterator<?> it = iterators.peek();
+		if (it == null) {
+			pending.add(ConfigEvent.END_DOCUMENT);
+			return;
+		}
+		Object container = containers.peek();
+		if (!it.hasNext()) {
+			iterators.pop();
+			containers.pop();
+			boolean isTable = container instanceof UnmodifiableConfig;
+			pending.add(isTable ? ConfigEvent.END_TABLE : ConfigEvent.END_ARRAY);
+			return;
+		}
+		if (container instanceof List) {
+			startValue(it.next());
+			return;
+		}
+		UnmodifiableConfig.Entry entry = (UnmodifiableConfig.Entry)it.next();
+		List<String> path = Collections.singletonList(entry.getKey());
+		if (container instanceof UnmodifiableCommentedConfig) {
+			pendingComment = ((UnmodifiableCommentedConfig)container).getComment(path);
+			if (pendingComment != null) {
+				pending.add(ConfigEvent.COMMENT);
+			}
+		}
+		pendingKey = path;
+		pending.add(ConfigEvent.KEY);
+		startValue(entry.getRawValue());
+	}
+
+	private void startValue(Object v) {
+		if (v instanceof UnmodifiableConfig) {
+			UnmodifiableConfig table = (UnmodifiableConfig)v;
+			iterators.push(table.entrySet().iterator());
+			containers.push(table);
+			pending.add(ConfigEvent.START_TABLE);
+		} else if (v instanceof List) {
+			List<?> list = (List<?>)v;
+			iterators.push(list.iterator());
+			containers.push(list);
+			pending.add(ConfigEvent.START_ARRAY);
+		} else {
+			if (v == NullObject.NULL_OBJECT) {
+				pendingValue = null;
+			} else {
+				pendingValue = v;
+			}
+			pending.add(ConfigEvent.VALUE);
+		}
+	}
+
+	@Override
+	public List<String> getKey() {
+		return key;
+	}
+
+	@Override
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String getComment() {
+		return comment;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.electronwill.nightconfig.core.io;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.InMemoryCommentedFormat;
+
+import java.util.*;
+
+/**
+ * A {@link ConfigGenerator} that creates a config in memory and writes it with a ConfigWriter
+ * when it's closed. It is used for the formats whose writers can't write the data piece by
+ * piece.
+ *
+ * @author TheElectronWill
+ */
+final class TreeGenerator extends AbstractGenerator {
+	private final ConfigWriter writer;
+	private final Deque<Object> containers = new ArrayDeque<>();// the tables and the lists
+	private CommentedConfig root;
+	private String key, comment;
+
+	TreeGenerator(ConfigWriter writer, CharacterOutput output) {
+		super(output);
+		this.writer = writer;
+	}
+
+	@Override
+	protected void writeTableStart(boolean first) {
+		CommentedConfig table = CommentedConfig.of(LinkedHashMap::new,
+												   InMemoryCommentedFormat.withUniversalSupport());
+		if (root == null) {
+			root = table;
+		} else {
+			add(table);
+		}
+		containers.push(table);
+	}
+
+	@Override
+	protected void writeTableEnd(boolean empty) {
+		containers.pop();
+	}
+
+	@Override
+	protected void writeArrayStart(boolean first) {
+		List<Object> list = new ArrayList<>();
+		add(list);
+		containers.push(list);
+	}
+
+	@Override
+	protected void writeArrayEnd(boolean empty) {
+		containers.pop();
+	}
+
+	@Override
+	protected void writeKey(String key, boolean first) {
+		this.key = key;
+	}
+
+	@Override
+	protected void writeValue(Object value, boolean first) {
+		add(value);
+	}
+
+	@Override
+	protected void writeComment(String comment) {
+		this.comment = (this.comment == null) ? comment : this.comment + '\n' + comment;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void add(Object value) {
+		Object container = containers.peek();
+		if (container instanceof List) {
+			((List<Object>)container).add(value);
+			comment = null;// the comments of the elements aren't kept
+			return;
+		}
+		List<String> path = Collections.singletonList(key);
+		CommentedConfig table = (CommentedConfig)container;
+		table.set(path, value);
+		if (comment != null) {
+			table.setComment(path, comment);
+			comment = null;
+		}
+	}
+
+	@Override
+	protected void finish() {
+		writer.write(root, output);
+	}
+}
\ No newline at end of file
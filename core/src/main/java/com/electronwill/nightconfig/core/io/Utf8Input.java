@@ -0,0 +1,350 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * An implementation of {@link CharacterInput} that reads UTF-8 bytes directly, without a
+ * {@link java.nio.charset.CharsetDecoder}. The ASCII bytes, which are the vast majority of the
+ * bytes of a configuration (and all of its structural characters), are simply widened to chars.
+ * The other bytes are decoded only where they appear, which is typically inside strings and
+ * comments. Malformed sequences are replaced by U+FFFD, like InputStreamReader does.
+ * <p>
+ * The runs of ASCII characters are scanned eight bytes at a time (see {@link Swar}) when the
+ * stop or skip set contains a few ASCII characters, which is the case for the quotes and
+ * backslashes that end a string, the newline that ends a comment, and the whitespace.
+ * <p>
+ * The buffers of the input come from the {@link BufferPool} and are given back by
+ * {@link #close()}.
+ *
+ * @author TheElectronWill
+ */
+public final class Utf8Input extends AbstractInput implements AutoCloseable {
+	private static final int DEFAULT_CHUNK_SIZE = 16384;
+	private static final char REPLACEMENT = '\uFFFD';
+
+	private final InputStream stream;// null if all the data is already in the buffer
+	private ByteBuffer bytes;// in "read mode": the bytes to read are between position and limit
+	private int pendingLow = -1;// low surrogate of a decoded supplementary character
+	private char[] token = BufferPool.takeChars(64);
+	private final CharSet.Cache charSets = new CharSet.Cache();
+
+	/**
+	 * Creates a new Utf8Input that reads the content of an InputStream. The stream isn't closed
+	 * by the input.
+	 *
+	 * @param stream the stream to read
+	 */
+	public Utf8Input(InputStream stream) {
+		this(stream, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a new Utf8Input that reads the content of an InputStream. The stream isn't closed
+	 * by the input.
+	 *
+	 * @param stream    the stream to read
+	 * @param chunkSize the number of bytes to read at once, must be at least 4
+	 */
+	public Utf8Input(InputStream stream, int chunkSize) {
+		if (chunkSize < 4) {
+			throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+		}
+		this.stream = stream;
+		this.bytes = ByteBuffer.wrap(BufferPool.takeBytes(chunkSize), 0, chunkSize).slice();
+		this.bytes.limit(0);
+		this.bytes.order(ByteOrder.LITTLE_ENDIAN);// for the word scans
+	}
+
+	/**
+	 * Creates a new Utf8Input that reads the remaining bytes of a ByteBuffer. The buffer may be
+	 * direct or memory-mapped. The position of the buffer isn't modified.
+	 *
+	 * @param bytes the bytes to read
+	 */
+	public Utf8Input(ByteBuffer bytes) {
+		this.stream = null;
+		this.bytes = bytes.duplicate();
+		this.bytes.order(ByteOrder.LITTLE_ENDIAN);// for the word scans
+	}
+
+	/**
+	 * Creates a new Utf8Input that reads the content of a byte array.
+	 *
+	 * @param bytes the bytes to read
+	 */
+	public Utf8Input(byte[] bytes) {
+		this(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Creates a new Utf8Input that reads a part of a byte array.
+	 *
+	 * @param bytes  the bytes to read
+	 * @param offset the index to begin at (inclusive index)
+	 * @param limit  the limit to stop at (exclusive index)
+	 */
+	public Utf8Input(byte[] bytes, int offset, int limit) {
+		this(ByteBuffer.wrap(bytes, offset, limit - offset));
+	}
+
+	/**
+	 * Gives the buffers back to the pool. This method doesn't close the stream, and the input
+	 * must not be used anymore.
+	 */
+	@Override
+	public void close() {
+		if (token != null) {
+			BufferPool.giveBack(token);
+			token = null;
+			if (stream != null) {
+				BufferPool.giveBack(bytes.array());
+			}
+			bytes = null;
+		}
+	}
+
+	/**
+	 * Ensures that at least n bytes are available, if possible.
+	 *
+	 * @return true if n bytes are available
+	 */
+	private boolean ensureAvailable(int n) {
+		if (bytes.remaining() >= n) {
+			return true;
+		}
+		if (stream == null) {
+			return false;
+		}
+		bytes.compact();
+		try {
+			while (bytes.position() < n) {
+				int read = stream.read(bytes.array(), bytes.position(), bytes.remaining());
+				if (read < 0) {
+					break;
+				}
+				bytes.position(bytes.position() + read);
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		} finally {
+			bytes.flip();
+		}
+		return bytes.remaining() >= n;
+	}
+
+	/**
+	 * Decodes a non-ASCII character, whose first byte has already been read. If the character
+	 * is a supplementary character, returns its high surrogate and keeps the low one for the
+	 * next read.
+	 */
+	private char decode(int first) {
+		int length, codePoint;
+		if ((first & 0xE0) == 0xC0) {
+			length = 1;
+			codePoint = first & 0x1F;
+		} else if ((first & 0xF0) == 0xE0) {
+			length = 2;
+			codePoint = first & 0x0F;
+		} else if ((first & 0xF8) == 0xF0) {
+			length = 3;
+			codePoint = first & 0x07;
+		} else {
+			return REPLACEMENT;
+		}
+		ensureAvailable(length);
+		for (int i = 0; i < length; i++) {
+			if (!bytes.hasRemaining()) {
+				return REPLACEMENT;
+			}
+			int b = bytes.get(bytes.position());
+			if ((b & 0xC0) != 0x80) {// the malformed sequence stops before this byte
+				return REPLACEMENT;
+			}
+			bytes.get();
+			codePoint = (codePoint << 6) | (b & 0x3F);
+		}
+		if (length == 1) {
+			return (codePoint < 0x80) ? REPLACEMENT : (char)codePoint;
+		}
+		if (length == 2) {
+			boolean valid = codePoint >= 0x800 && !Character.isSurrogate((char)codePoint);
+			return valid ? (char)codePoint : REPLACEMENT;
+		}
+		if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) {
+			return REPLACEMENT;
+		}
+		pendingLow = Character.lowSurrogate(codePoint);
+		return Character.highSurrogate(codePoint);
+	}
+
+	@Override
+	protected int directRead() {
+		if (pendingLow != -1) {
+			int low = pendingLow;
+			pendingLow = -1;
+			return low;
+		}
+		if (!bytes.hasRemaining() && !ensureAvailable(1)) {
+			return -1;
+		}
+		byte b = bytes.get();
+		return (b >= 0) ? b : decode(b & 0xFF);
+	}
+
+	@Override
+	protected char directReadChar() {
+		int c = directRead();
+		if (c == -1) {
+			throw ParsingException.notEnoughData();
+		}
+		return (char)c;
+	}
+
+	@Override
+	public int readAndSkip(char[] toSkip) {
+		if (!deque.isEmpty() || pendingLow != -1) {
+			return super.readAndSkip(toSkip);
+		}
+		CharSet set = charSets.get(toSkip);
+		boolean wordScan = set.isWordScannable();
+		while (true) {
+			if (wordScan) {
+				bytes.position(scanWords(set, bytes.position(), bytes.limit(), true));
+			}
+			while (bytes.hasRemaining()) {
+				byte b = bytes.get();
+				char c = (b >= 0) ? (char)b : decode(b & 0xFF);
+				if (!set.contains(c)) {
+					return c;
+				}
+				if (pendingLow != -1) {
+					return super.readAndSkip(toSkip);
+				}
+			}
+			if (!ensureAvailable(1)) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * Scans the bytes eight at a time, until a word contains a non-ASCII byte or a byte that
+	 * is in the set (or not in the set, if {@code skip} is true). Less than eight bytes may
+	 * remain before the end: they must be examined one by one.
+	 *
+	 * @return the index of the first byte that isn't part of the run
+	 */
+	private int scanWords(CharSet set, int from, int end, boolean skip) {
+		int i = from;
+		while (end - i >= 8) {
+			long word = bytes.getLong(i);
+			long mask = skip ? ~set.matches(word) & Swar.HIGH_BITS// includes non-ASCII
+							 : Swar.nonAscii(word) | set.matches(word);
+			if (mask != 0) {
+				return i + Swar.firstMarked(mask);
+			}
+			i += 8;
+		}
+		return i;
+	}
+
+	/**
+	 * Widens the ASCII bytes between from (inclusive) and to (exclusive) into chars.
+	 *
+	 * @return the new length of the chars
+	 */
+	private int widen(int from, int to, char[] chars, int length) {
+		if (bytes.hasArray()) {
+			byte[] array = bytes.array();
+			int offset = bytes.arrayOffset();
+			for (int i = from + offset, end = to + offset; i < end; i++) {
+				chars[length++] = (char)array[i];
+			}
+		} else {
+			for (int i = from; i < to; i++) {
+				chars[length++] = (char)bytes.get(i);
+			}
+		}
+		return length;
+	}
+
+	@Override
+	public char readCharAndSkip(char[] toSkip) {
+		int c = readAndSkip(toSkip);
+		if (c == -1) {
+			throw ParsingException.notEnoughData();
+		}
+		return (char)c;
+	}
+
+	@Override
+	public CharsWrapper readUntil(char[] stop) {
+		return readUntil(stop, false);
+	}
+
+	@Override
+	public CharsWrapper readCharsUntil(char[] stop) {
+		return readUntil(stop, true);
+	}
+
+	private CharsWrapper readUntil(char[] stop, boolean stopRequired) {
+		if (!deque.isEmpty() || pendingLow != -1) {
+			return stopRequired ? super.readCharsUntil(stop) : super.readUntil(stop);
+		}
+		CharSet set = charSets.get(stop);
+		char[] chars = token;
+		int length = 0;
+		while (true) {
+			if (!bytes.hasRemaining() && !ensureAvailable(1)) {
+				if (stopRequired) {
+					throw ParsingException.notEnoughData();
+				}
+				return new CharsWrapper(Arrays.copyOf(chars, length));
+			}
+			if (chars.length - length < 2) {
+				chars = token = Arrays.copyOf(chars, chars.length * 2);
+			}
+			// ASCII fast path: widens the bytes until a stop or a non-ASCII byte is found
+			int i = bytes.position();
+			int end = Math.min(bytes.limit(), i + chars.length - length);
+			if (set.isWordScannable()) {
+				int runEnd = scanWords(set, i, end, false);
+				length = widen(i, runEnd, chars, length);
+				i = runEnd;
+			}
+			byte b = 0;
+			while (i < end && (b = bytes.get(i)) >= 0) {
+				if (set.contains((char)b)) {// the stop char stays in the buffer
+					bytes.position(i);
+					return new CharsWrapper(Arrays.copyOf(chars, length));
+				}
+				chars[length++] = (char)b;
+				i++;
+			}
+			bytes.position(i);
+			if (i == end) {
+				continue;
+			}
+			bytes.get();
+			char c = decode(b & 0xFF);
+			if (set.contains(c)) {
+				deque.addFirst(c);// remember this char for later
+				return new CharsWrapper(Arrays.copyOf(chars, length));
+			}
+			chars[length++] = c;
+			if (pendingLow != -1) {
+				char low = (char)pendingLow;
+				pendingLow = -1;
+				if (set.contains(low)) {
+					deque.addFirst(low);
+					return new CharsWrapper(Arrays.copyOf(chars, length));
+				}
+				chars[length++] = low;
+			}
+		}
+	}
+}
\ No newline at end of file
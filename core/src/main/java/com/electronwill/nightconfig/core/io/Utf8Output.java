@@ -0,0 +1,225 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * An implementation of {@link CharacterOutput} that encodes the characters in UTF-8 directly,
+ * without a {@link java.nio.charset.CharsetEncoder} and without any intermediate char array.
+ * The bytes are written to a ByteBuffer, which is either:
+ * <ul>
+ * <li>a buffer provided by the user, which must be big enough to contain all the data,</li>
+ * <li>a growable buffer, which is replaced by a bigger one when it's full,</li>
+ * <li>a pooled direct buffer that is emptied into a {@link WritableByteChannel} when it's full,
+ * and when {@link #flush()} is called.</li>
+ * </ul>
+ * Unpaired surrogates are replaced by '?', like OutputStreamWriter does.
+ *
+ * @author TheElectronWill
+ */
+public final class Utf8Output implements CharacterOutput, AutoCloseable {
+	private static final int POOLED_BUFFER_SIZE = 16384;
+	private static final ArrayBlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(4);
+
+	private final WritableByteChannel channel;// null if the bytes stay in the buffer
+	private final boolean growable;
+	private ByteBuffer buffer;// in "write mode": the next byte is written at the position
+	private int pendingHigh = -1;// high surrogate waiting for its low surrogate
+
+	/**
+	 * Creates a new Utf8Output that writes to a channel, through a pooled direct buffer. The
+	 * Utf8Output must be flushed when the writing is done, and closed to give its buffer back to
+	 * the pool. The channel isn't closed by the output.
+	 *
+	 * @param channel the channel to write to
+	 */
+	public Utf8Output(WritableByteChannel channel) {
+		this.channel = channel;
+		this.growable = false;
+		ByteBuffer pooled = POOL.poll();
+		this.buffer = (pooled == null) ? ByteBuffer.allocateDirect(POOLED_BUFFER_SIZE) : pooled;
+	}
+
+	/**
+	 * Creates a new Utf8Output that writes to a ByteBuffer, from its current position. The
+	 * position of the buffer is advanced as the characters are written.
+	 *
+	 * @param buffer   the buffer to write to
+	 * @param growable true to replace the buffer by a bigger one when it's full, false to throw
+	 *                 a {@link WritingException} when it's full
+	 */
+	public Utf8Output(ByteBuffer buffer, boolean growable) {
+		this.channel = null;
+		this.growable = growable;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Gets the buffer that contains the bytes written so far. If the output is growable, it may
+	 * not be the buffer given to the constructor.
+	 *
+	 * @return the current buffer, in "write mode"
+	 */
+	public ByteBuffer buffer() {
+		return buffer;
+	}
+
+	/**
+	 * Makes room for n bytes in the buffer.
+	 */
+	private void ensureRoom(int n) {
+		if (buffer.remaining() >= n) {
+			return;
+		}
+		if (channel != null) {
+			drain();
+		} else if (growable) {
+			int capacity = Math.max(buffer.capacity() * 2, buffer.position() + n);
+			ByteBuffer bigger = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity)
+												  : ByteBuffer.allocate(capacity);
+			buffer.flip();
+			bigger.put(buffer);
+			buffer = bigger;
+		} else {
+			throw new WritingException("Not enough space in the ByteBuffer");
+		}
+	}
+
+	/**
+	 * Writes all the buffered bytes to the channel.
+	 */
+	private void drain() {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new WritingException(e);
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * Writes the buffered bytes to the channel, if there is one. An unpaired high surrogate at
+	 * the end of the data is written as '?'.
+	 */
+	public void flush() {
+		if (pendingHigh != -1) {
+			pendingHigh = -1;
+			ensureRoom(1);
+			buffer.put((byte)'?');
+		}
+		if (channel != null) {
+			drain();
+		}
+	}
+
+	/**
+	 * Gives the pooled buffer back to the pool, if the output writes to a channel. This method
+	 * doesn't flush the output nor close the channel, and the output must not be used anymore.
+	 */
+	@Override
+	public void close() {
+		if (channel != null && buffer != null) {
+			buffer.clear();
+			POOL.offer(buffer);
+			buffer = null;
+		}
+	}
+
+	@Override
+	public void write(char c) {
+		if (c < 0x80 && pendingHigh == -1) {
+			if (!buffer.hasRemaining()) {
+				ensureRoom(1);
+			}
+			buffer.put((byte)c);
+		} else {
+			encode(c);
+		}
+	}
+
+	/**
+	 * Encodes any character, including the surrogates.
+	 */
+	private void encode(char c) {
+		if (pendingHigh != -1) {
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint((char)pendingHigh, c);
+				pendingHigh = -1;
+				ensureRoom(4);
+				buffer.put((byte)(0xF0 | (codePoint >> 18)));
+				buffer.put((byte)(0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte)(0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte)(0x80 | (codePoint & 0x3F)));
+				return;
+			}
+			pendingHigh = -1;
+			ensureRoom(1);
+			buffer.put((byte)'?');// unpaired high surrogate
+		}
+		if (c < 0x80) {
+			ensureRoom(1);
+			buffer.put((byte)c);
+		} else if (c < 0x800) {
+			ensureRoom(2);
+			buffer.put((byte)(0xC0 | (c >> 6)));
+			buffer.put((byte)(0x80 | (c & 0x3F)));
+		} else if (Character.isHighSurrogate(c)) {
+			pendingHigh = c;
+		} else if (Character.isLowSurrogate(c)) {
+			ensureRoom(1);
+			buffer.put((byte)'?');// unpaired low surrogate
+		} else {
+			ensureRoom(3);
+			buffer.put((byte)(0xE0 | (c >> 12)));
+			buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+			buffer.put((byte)(0x80 | (c & 0x3F)));
+		}
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) {
+		int i = offset;
+		final int end = offset + length;
+		while (i < end) {
+			// ASCII fast path: copies the bytes until a non-ASCII char is found or the buffer is full
+			if (pendingHigh == -1) {
+				int asciiEnd = Math.min(end, i + buffer.remaining());
+				char c;
+				while (i < asciiEnd && (c = chars[i]) < 0x80) {
+					buffer.put((byte)c);
+					i++;
+				}
+				if (i == end) {
+					return;
+				}
+			}
+			write(chars[i++]);
+		}
+	}
+
+	@Override
+	public void write(String s, int offset, int length) {
+		int i = offset;
+		final int end = offset + length;
+		while (i < end) {
+			if (pendingHigh == -1) {
+				int asciiEnd = Math.min(end, i + buffer.remaining());
+				char c;
+				while (i < asciiEnd && (c = s.charAt(i)) < 0x80) {
+					buffer.put((byte)c);
+					i++;
+				}
+				if (i == end) {
+					return;
+				}
+			}
+			write(s.charAt(i++));
+		}
+	}
+}
\ No newline at end of file
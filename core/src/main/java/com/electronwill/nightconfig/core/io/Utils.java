@@ -1,5 +1,14 @@
 package com.electronwill.nightconfig.core.io;
 
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
 /**
  * Serialization utilities.
  *
@@ -41,35 +50,51 @@ public final class Utils {
 		return -1;
 	}
 
+	/**
+	 * Maps a file in memory and creates a CharacterInput that reads it. A UTF-8 file is read
+	 * directly from the mapped buffer, a file with another charset is decoded at once.
+	 *
+	 * @param file          the file to map
+	 * @param charset       the charset of the file
+	 * @param mmapThreshold the minimum size of the file
+	 * @return a CharacterInput, or null if the file is smaller than the threshold, too big to be
+	 * mapped in one buffer, or truncated while it is decoded
+	 */
+	static CharacterInput mapFile(Path file, Charset charset, long mmapThreshold)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < mmapThreshold || size > Integer.MAX_VALUE) {
+				return null;
+			}
+			// The mapping stays valid after the channel is closed
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (StandardCharsets.UTF_8.equals(charset)) {
+				return new Utf8Input(mapped);
+			}
+			CharBuffer chars;
+			try {
+				chars = charset.decode(mapped);
+			} catch (InternalError e) {
+				return null;// the file has been truncated, the mapping can't be read
+			}
+			int offset = chars.arrayOffset() + chars.position();
+			return new BufferedInput(chars.array(), offset, offset + chars.remaining());
+		}
+	}
+
 	/**
 	 * Parses a CharsWrapper that represents a long value in the specified base.
 	 *
 	 * @param chars the CharsWrapper representing a long
 	 * @param base  the base of the number
 	 * @return the long value represented by the CharsWrapper
+	 *
+	 * @throws ParsingException if the value is invalid or doesn't fit in a long
+	 * @see NumberParser#parseLong(char[], int, int, int)
 	 */
 	public static long parseLong(CharsWrapper chars, int base) {
-		// Optimized lightweight parsing
-		int offset = chars.offset;
-		boolean negative = false;
-		char firstChar = chars.charAt(0);
-		if (firstChar == '-') {
-			negative = true;
-			offset += 1;
-		} else if (firstChar == '+') {
-			offset += 1;
-		}
-		long value = 0, coefficient = 1;
-		char[] array = chars.chars;
-		for (int i = chars.limit - 1; i >= offset; i--) {
-			int digitValue = Character.digit(array[i], base);
-			if (digitValue == -1) {//invalid digit in the specified base
-				throw new ParsingException("Invalid value: " + chars);
-			}
-			value += digitValue * coefficient;
-			coefficient *= base;
-		}
-		return negative ? -value : value;
+		return NumberParser.parseLong(chars.chars, chars.offset, chars.limit, base);
 	}
 
 	/**
@@ -88,8 +113,11 @@ public final class Utils {
 	 *
 	 * @param chars the CharsWrapper representing a double
 	 * @return the double value represented by the CharsWrapper
+	 *
+	 * @throws NumberFormatException if the value is invalid
+	 * @see NumberParser#parseDouble(char[], int, int)
 	 */
 	public static double parseDouble(CharsWrapper chars) {
-		return Double.parseDouble(chars.toString());
+		return NumberParser.parseDouble(chars.chars, chars.offset, chars.limit);
 	}
 }
\ No newline at end of file
@@ -41,4 +41,13 @@ public final class WriterOutput implements CharacterOutput {
 			throw new WritingException(e);
 		}
 	}
+
+	@Override
+	public void flush() {
+		try {
+			writer.flush();
+		} catch (IOException e) {
+			throw new WritingException(e);
+		}
+	}
 }
\ No newline at end of file
@@ -43,6 +43,18 @@ public final class FastStringReader extends Reader {
 		return len;
 	}
 
+	/**
+	 * Reads all the remaining characters at once.
+	 *
+	 * @return an array containing the remaining characters
+	 */
+	public char[] readRemaining() {
+		char[] chars = new char[lim - cursor];
+		str.getChars(cursor, lim, chars, 0);
+		cursor = lim;
+		return chars;
+	}
+
 	@Override
 	public long skip(long n) {
 		int skip = (int)n;
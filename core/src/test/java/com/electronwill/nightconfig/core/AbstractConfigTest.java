@@ -9,6 +9,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
 
 import org.junit.jupiter.api.Test;
 import org.opentest4j.AssertionFailedError;
@@ -166,6 +167,209 @@ public class AbstractConfigTest {
 		testNestedValuesOrder(config);
 	}
 
+	@Test
+	public void cachedHashCode() {
+		Config config = Config.inMemory();
+		Config copy = Config.inMemory();
+		for (Config c : Arrays.asList(config, copy)) {
+			c.set("a", "string");
+			c.set("sub.b", 12);
+			c.set("list", new ArrayList<>(Arrays.asList(1, 2)));
+		}
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertEquals(config, copy);
+
+		// modification through the config
+		config.set("a", "other");
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertNotEquals(config, copy);
+		config.set("a", "string");
+		assertEquals(config, copy);
+
+		// modification of a sub-config and of a list
+		config.<Config>get("sub").set("b", 13);
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertNotEquals(config, copy);
+		config.set("sub.b", 12);
+		config.<List<Integer>>get("list").add(3);
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertNotEquals(config, copy);
+		config.<List<Integer>>get("list").remove(2);
+
+		// modification through the views
+		config.valueMap().put("a", "view");
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		config.entrySet().iterator().next().setValue("entry");
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		config.valueMap().values().removeIf(v -> v.equals("entry"));
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		config.remove("a");
+		copy.remove("a");
+		assertEquals(config, copy);
+	}
+
+	@Test
+	public void cachedHashCodeWithMutableValues() {
+		Config config = Config.inMemory();
+		Config copy = Config.inMemory();
+		for (Config c : Arrays.asList(config, copy)) {
+			c.set("a.b.list", new ArrayList<>(Arrays.asList(1, 2)));
+			c.set("a.b.c", "string");
+			c.set("a.d", 1.5);
+		}
+		assertEquals(config, copy);
+		assertEquals(config.hashCode(), copy.hashCode());
+
+		// in-place modification of a list, deep in the tree
+		config.<List<Integer>>get("a.b.list").add(3);
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertNotEquals(config, copy);
+		copy.<List<Integer>>get("a.b.list").add(3);
+		assertEquals(config, copy);
+		assertEquals(config.hashCode(), copy.hashCode());
+
+		// modification of a cached sub-config, through a direct reference
+		Config b = config.get("a.b");
+		b.set("c", "other");
+		assertEquals(config.valueMap().hashCode(), config.hashCode());
+		assertNotEquals(config, copy);
+
+		// a sub-config shared by two configs
+		Config shared = Config.inMemory();
+		shared.set("x", 1);
+		copy.set("shared", shared);
+		Config other = Config.inMemory();
+		other.set("shared", shared);
+		int before = other.hashCode();
+		copy.hashCode();
+		shared.set("x", 2);
+		assertNotEquals(before, other.hashCode());
+		assertEquals(other.valueMap().hashCode(), other.hashCode());
+		assertEquals(copy.valueMap().hashCode(), copy.hashCode());
+	}
+
+	@Test
+	public void incrementalHashCode() {
+		Config root = Config.inMemory();
+		List<CountingConfig> subs = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			CountingConfig sub = new CountingConfig();
+			for (int j = 0; j < 100; j++) {
+				sub.set("leaf" + j, j);
+			}
+			subs.add(sub);
+			root.set("sub" + i, sub);
+		}
+		assertEquals(root.valueMap().hashCode(), root.hashCode());
+		subs.forEach(sub -> sub.hashCount = 0);
+
+		// Only the modified sub-config is hashed again
+		subs.get(3).set("leaf0", -1);
+		int hash = root.hashCode();
+		for (int i = 0; i < subs.size(); i++) {
+			assertEquals(i == 3 ? 1 : 0, subs.get(i).hashCount, "sub" + i);
+		}
+		root.hashCode();
+		assertEquals(1, subs.get(3).hashCount);
+		assertEquals(root.valueMap().hashCode(), hash);
+
+		// A removed sub-config doesn't invalidate its former parent
+		CountingConfig removed = root.remove("sub5");
+		hash = root.hashCode();
+		assertEquals(root.valueMap().hashCode(), hash);
+		Config other = Config.inMemory();
+		other.set("shared", removed);
+		int otherHash = other.hashCode();
+		subs.forEach(sub -> sub.hashCount = 0);
+		removed.set("leaf0", -1);
+		assertEquals(hash, root.hashCode());
+		subs.forEach(sub -> assertEquals(0, sub.hashCount));
+		assertNotEquals(otherHash, other.hashCode());
+		assertEquals(other.valueMap().hashCode(), other.hashCode());
+	}
+
+	/**
+	 * A config that counts the calls to its hashCode() method.
+	 */
+	private static final class CountingConfig extends AbstractConfig {
+		int hashCount;
+
+		CountingConfig() {
+			super(false);
+		}
+
+		@Override
+		public int hashCode() {
+			hashCount++;
+			return super.hashCode();
+		}
+
+		@Override
+		public CountingConfig clone() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public ConfigFormat<?> configFormat() {
+			return InMemoryFormat.defaultInstance();
+		}
+
+		@Override
+		public Config createSubConfig() {
+			return new CountingConfig();
+		}
+	}
+
+	@Test
+	public void valueMapView() {
+		Config config = Config.inMemory();
+		assertSame(config.valueMap(), config.valueMap());
+		Config concurrent = Config.inMemoryConcurrent();
+		assertTrue(concurrent.valueMap() instanceof ConcurrentMap);
+		concurrent.set("a", 1);
+		int hash = concurrent.hashCode();
+		((ConcurrentMap<String, Object>)concurrent.valueMap()).replace("a", 1, 2);
+		assertNotEquals(hash, concurrent.hashCode());
+		assertEquals(concurrent.valueMap().hashCode(), concurrent.hashCode());
+	}
+
+	@Test
+	public void bulkOperations() {
+		Config config = Config.of(LinkedHashMap::new, InMemoryFormat.withUniversalSupport());
+		config.set("a.existing", "old");
+		Map<List<String>, Object> values = new LinkedHashMap<>();
+		values.put(Arrays.asList("a", "b", "c"), 1);
+		values.put(Arrays.asList("z"), null);
+		values.put(Arrays.asList("a", "existing"), "new");
+		values.put(Arrays.asList("a", "b", "d"), 2);
+		config.setAll(values);
+
+		assertEquals(1, (int)config.get("a.b.c"));
+		assertEquals(2, (int)config.get("a.b.d"));
+		assertEquals("new", config.get("a.existing"));
+		assertTrue(config.isNull("z"));
+		assertEquals(Arrays.asList("a", "z"), new ArrayList<>(config.valueMap().keySet()));
+		assertEquals(Arrays.asList("existing", "b"),
+					 new ArrayList<>(config.<Config>get("a").valueMap().keySet()));
+
+		List<String> missing = Arrays.asList("a", "b", "missing");
+		Map<List<String>, Object> read = config.getAll(Arrays.asList(Arrays.asList("a", "b", "d"),
+			Arrays.asList("z"), missing, Arrays.asList("a", "existing")));
+		assertEquals(3, read.size());
+		assertEquals(2, read.get(Arrays.asList("a", "b", "d")));
+		assertTrue(read.containsKey(Arrays.asList("z")));
+		assertNull(read.get(Arrays.asList("z")));
+		assertFalse(read.containsKey(missing));
+
+		Map<List<String>, Object> invalid = new LinkedHashMap<>();
+		invalid.put(Arrays.asList("new", "value"), 0);
+		invalid.put(Arrays.asList("a", "existing", "x"), 0);
+		int hash = config.hashCode();
+		assertThrows(IllegalArgumentException.class, () -> config.setAll(invalid));
+		assertFalse(config.contains("new"));// nothing is set if a path is invalid
+		assertEquals(hash, config.hashCode());
+	}
+
 	@Test
 	public void orderedSetting() {
 		Config.setInsertionOrderPreserved(true);
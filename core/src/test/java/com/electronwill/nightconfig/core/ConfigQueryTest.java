@@ -0,0 +1,102 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author TheElectronWill
+ */
+public class ConfigQueryTest {
+
+	private static Config server(String host, int port, boolean enabled) {
+		Config server = Config.inMemory();
+		server.set("host", host);
+		server.set("port", port);
+		server.set("enabled", enabled);
+		return server;
+	}
+
+	private static Config createConfig() {
+		Config config = Config.inMemory();
+		List<Config> servers = new ArrayList<>();
+		servers.add(server("alpha", 1000, true));
+		servers.add(server("beta", 2000, false));
+		servers.add(server("gamma", 3000, true));
+		config.set("servers", servers);
+		config.set("db.timeout", 30);
+		config.set("db.pool.timeout", 5);
+		config.set("cache.timeout", 10);
+		config.set("a.b", "not a dotted key");
+		config.set(Collections.singletonList("a.b"), "dotted key");
+		config.set("matrix", Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4)));
+		return config;
+	}
+
+	@Test
+	public void keys() {
+		Config config = createConfig();
+		assertEquals(Collections.singletonList(30), ConfigQuery.compile("db.timeout").getAll(config));
+		assertEquals(Collections.emptyList(), ConfigQuery.compile("db.missing").getAll(config));
+		assertEquals(Collections.singletonList("dotted key"),
+					 ConfigQuery.compile("\"a.b\"").getAll(config));
+		assertEquals(Collections.singletonList("not a dotted key"),
+					 ConfigQuery.compile("a.b").getAll(config));
+		assertEquals(Collections.singletonList(config), ConfigQuery.compile("").getAll(config));
+	}
+
+	@Test
+	public void wildcards() {
+		Config config = createConfig();
+		assertIterableEquals(Arrays.asList(1000, 2000, 3000),
+							 ConfigQuery.compile("servers[*].port").getAll(config));
+		assertIterableEquals(Arrays.asList("gamma"),
+							 ConfigQuery.compile("servers[-1].host").getAll(config));
+		assertIterableEquals(Arrays.asList(3),
+							 ConfigQuery.compile("matrix[1][0]").getAll(config));
+		assertEquals(2, ConfigQuery.compile("*.timeout").stream(config).count());
+		assertEquals(2, ConfigQuery.compile("db.*").stream(config).count());
+
+		List<Object> timeouts = ConfigQuery.compile("**.timeout").getAll(config);
+		assertEquals(3, timeouts.size());
+		assertTrue(timeouts.containsAll(Arrays.asList(30, 5, 10)));
+
+		assertEquals(3, ConfigQuery.compile("**.port").stream(config).count());
+	}
+
+	@Test
+	public void filters() {
+		Config config = createConfig();
+		assertIterableEquals(Arrays.asList("alpha", "gamma"),
+							 ConfigQuery.compile("servers[?enabled=true].host").getAll(config));
+		assertIterableEquals(Arrays.asList("beta"),
+							 ConfigQuery.compile("servers[?enabled != true].host").getAll(config));
+		assertIterableEquals(Arrays.asList("beta", "gamma"),
+							 ConfigQuery.compile("servers[?port >= 2000].host").getAll(config));
+		assertIterableEquals(Arrays.asList(2000),
+							 ConfigQuery.compile("servers[?host='beta'].port").getAll(config));
+		assertIterableEquals(Arrays.asList(5),
+							 ConfigQuery.compile("[?pool.timeout<10].pool.timeout").getAll(config));
+		assertEquals(3, ConfigQuery.compile("servers[?host]").getAll(config).size());
+	}
+
+	@Test
+	public void lazyEvaluation() {
+		Config config = createConfig();
+		assertEquals("alpha", ConfigQuery.compile("servers[*].host").getFirst(config).get());
+		assertFalse(ConfigQuery.compile("nothing.here").getFirst(config).isPresent());
+	}
+
+	@Test
+	public void invalidQueries() {
+		assertThrows(IllegalArgumentException.class, () -> ConfigQuery.compile("a..b"));
+		assertThrows(IllegalArgumentException.class, () -> ConfigQuery.compile("a[1"));
+		assertThrows(IllegalArgumentException.class, () -> ConfigQuery.compile("a[x]"));
+		assertThrows(IllegalArgumentException.class, () -> ConfigQuery.compile("'unterminated"));
+	}
+}
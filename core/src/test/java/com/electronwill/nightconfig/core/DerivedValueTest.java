@@ -0,0 +1,146 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author TheElectronWill
+ */
+public class DerivedValueTest {
+
+	@Test
+	public void singleValue() {
+		Config config = Config.inMemory();
+		config.set("filter.pattern", "a+b");
+		AtomicInteger computations = new AtomicInteger();
+		DerivedValue<Pattern> pattern = config.derive("filter.pattern", (String regex) -> {
+			computations.incrementAndGet();
+			return Pattern.compile(regex);
+		});
+		assertEquals(0, computations.get());
+		Pattern p = pattern.get();
+		assertTrue(p.matcher("aab").matches());
+		assertSame(p, pattern.get());
+		assertEquals(1, computations.get());
+
+		config.set("filter.pattern", new String("a+b"));// equal value: no recomputation
+		assertSame(p, pattern.get());
+		config.set("filter.pattern", "c");
+		assertTrue(pattern.get().matcher("c").matches());
+		assertEquals(2, computations.get());
+
+		pattern.invalidate();
+		pattern.get();
+		assertEquals(3, computations.get());
+		assertFalse(pattern.refresh());
+	}
+
+	@Test
+	public void containers() {
+		Config config = Config.inMemory();
+		config.set("routes.a", 1);
+		config.set("weights", Arrays.asList(1, 2));
+		AtomicInteger computations = new AtomicInteger();
+		List<List<String>> paths = Arrays.asList(Arrays.asList("routes"), Arrays.asList("weights"));
+		DerivedValue<String> derived = config.deriveAll(paths, values -> {
+			computations.incrementAndGet();
+			return values.toString();
+		});
+		derived.get();
+		derived.get();
+		assertEquals(1, computations.get());
+
+		// modification of the sub-config in place
+		config.<Config>get("routes").set("b", 2);
+		assertTrue(derived.get().contains("b=2"));
+		assertEquals(2, computations.get());
+
+		// replacement by an equal sub-config, as done by a reload
+		Config copy = Config.inMemory();
+		copy.set("a", 1);
+		copy.set("b", 2);
+		config.set("routes", copy);
+		derived.get();
+		assertEquals(2, computations.get());
+
+		config.remove("weights");
+		assertTrue(derived.refresh());
+		assertEquals(3, computations.get());
+	}
+
+	@Test
+	public void modificationStamps() {
+		Config config = Config.inMemory().checked();
+		config.set("server.tls.port", 443);
+		config.set("server.name", "main");
+		AtomicInteger computations = new AtomicInteger();
+		DerivedValue<String> derived = config.derive("server", (Config server) -> {
+			computations.incrementAndGet();
+			return server.toString();
+		});
+		derived.get();
+		derived.get();
+		assertEquals(1, computations.get());
+
+		// modifications of a nested sub-config, directly and through the value map
+		config.<Config>get("server.tls").set("port", 8443);
+		assertTrue(derived.get().contains("8443"));
+		assertEquals(2, computations.get());
+		config.<Config>get("server.tls").valueMap().put("cert", "a.pem");
+		assertTrue(derived.get().contains("a.pem"));
+		assertEquals(3, computations.get());
+
+		// modification of another part of the config: no recomputation
+		config.set("client.name", "c");
+		derived.get();
+		derived.get();
+		assertEquals(3, computations.get());
+
+		// a list makes the config unstampable, but its modifications are still detected
+		List<Integer> ports = new ArrayList<>(Arrays.asList(1, 2));
+		config.set("server.ports", ports);
+		derived.get();
+		assertEquals(4, computations.get());
+		ports.add(3);
+		assertTrue(derived.get().contains("3]"));
+		assertEquals(5, computations.get());
+	}
+
+	@Test
+	public void inPlaceModificationWithSameHash() {
+		Config config = Config.inMemory();
+		List<Integer> weights = new ArrayList<>(Arrays.asList(0, 31));
+		config.set("weights", weights);
+		AtomicInteger computations = new AtomicInteger();
+		DerivedValue<Integer> first = config.derive("weights", (List<Integer> list) -> {
+			computations.incrementAndGet();
+			return list.get(0);
+		});
+		assertEquals(0, (int)first.get());
+
+		// [1, 0] has the same hash code as [0, 31]
+		int hash = weights.hashCode();
+		weights.set(0, 1);
+		weights.set(1, 0);
+		assertEquals(hash, weights.hashCode());
+		assertEquals(1, (int)first.get());
+		assertEquals(2, computations.get());
+		first.get();
+		assertEquals(2, computations.get());
+
+		// arrays nested in a list are compared by content too
+		int[] counts = {0, 31};
+		config.set("counts", new ArrayList<>(Arrays.asList(counts)));
+		DerivedValue<Integer> second = config.derive("counts", (List<int[]> list) -> list.get(0)[0]);
+		assertEquals(0, (int)second.get());
+		counts[0] = 1;
+		assertEquals(1, (int)second.get());
+	}
+}
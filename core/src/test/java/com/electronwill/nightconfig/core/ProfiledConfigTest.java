@@ -0,0 +1,58 @@
+package com.electronwill.nightconfig.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author TheElectronWill
+ */
+public class ProfiledConfigTest {
+
+	@Test
+	public void countAccesses() {
+		ProfiledConfig config = Config.inMemory().profiled();
+		config.set("a.hot", 1);
+		config.set("a.cold", 2);
+		config.set("b", 3);
+		config.set("unused.x", 4);
+		for (int i = 0; i < 10; i++) {
+			config.<Integer>get("a.hot");
+		}
+		config.<Integer>get("b");
+		config.set("b", 4);
+
+		assertEquals(10, config.readCount("a.hot"));
+		assertEquals(2, config.writeCount("b"));
+		assertEquals(0, config.readCount("a.cold"));
+
+		Map<List<String>, Long> top = config.topReads(1);
+		assertEquals(Collections.singletonMap(Arrays.asList("a", "hot"), 10L), top);
+		assertEquals(2, config.topWrites(10).get(Collections.singletonList("b")).intValue());
+
+		List<List<String>> neverRead = config.neverRead();
+		assertEquals(2, neverRead.size());
+		assertTrue(neverRead.contains(Arrays.asList("a", "cold")));
+		assertTrue(neverRead.contains(Arrays.asList("unused", "x")));
+
+		config.resetCounters();
+		assertEquals(0, config.readCount("a.hot"));
+	}
+
+	@Test
+	public void sampling() {
+		ProfiledConfig config = Config.inMemory().profiled(8);
+		config.set("key", "value");
+		for (int i = 0; i < 10_000; i++) {
+			config.<String>get("key");
+		}
+		long count = config.readCount("key");
+		assertEquals(0, count % 8);
+		assertTrue(count > 5_000 && count < 15_000, "Unlikely estimation: " + count);
+	}
+}
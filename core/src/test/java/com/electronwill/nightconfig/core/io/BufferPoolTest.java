@@ -0,0 +1,40 @@
+package com.electronwill.nightconfig.core.io;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+	@Test
+	void recycling() {
+		char[] chars = BufferPool.takeChars(100);
+		assertNotSame(chars, BufferPool.takeChars(10));// the pool is empty
+		BufferPool.giveBack(chars);
+		assertSame(chars, BufferPool.takeChars(10));
+		BufferPool.giveBack(chars);
+		assertNotSame(chars, BufferPool.takeChars(200));// too small
+
+		char[] huge = new char[1 << 20];
+		BufferPool.giveBack(huge);
+		assertNotSame(huge, BufferPool.takeChars(10));// too big to be kept
+
+		CharsWrapper.Builder builder = BufferPool.takeBuilder(8);
+		builder.append("content");
+		BufferPool.giveBack(builder);
+		CharsWrapper.Builder reused = BufferPool.takeBuilder(8);
+		assertSame(builder, reused);
+		assertEquals(0, reused.length());
+	}
+
+	@Test
+	void recyclingPerThread() throws InterruptedException {
+		byte[] bytes = BufferPool.takeBytes(16);
+		BufferPool.giveBack(bytes);
+		byte[][] other = new byte[1][];
+		Thread thread = new Thread(() -> other[0] = BufferPool.takeBytes(16));
+		thread.start();
+		thread.join();
+		assertNotSame(bytes, other[0]);
+		assertSame(bytes, BufferPool.takeBytes(16));
+	}
+}
\ No newline at end of file
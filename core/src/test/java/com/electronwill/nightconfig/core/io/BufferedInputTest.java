@@ -0,0 +1,93 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedInputTest {
+	private static final String DATA = "  key = value # comment\nsecond lineé end";
+	private static final char[] SPACES = {' ', '\t'};
+	private static final char[] STOP = {'=', '\n', 'é'};
+
+	@Test
+	void sameBehaviorAsArrayInput() {
+		for (int chunkSize = 1; chunkSize < 8; chunkSize++) {
+			check(new BufferedInput(new StringReader(DATA), chunkSize));
+		}
+		check(new BufferedInput(DATA));
+		check(new ArrayInput(DATA.toCharArray()));
+		byte[] utf8 = DATA.getBytes(StandardCharsets.UTF_8);
+		for (int chunkSize = 4; chunkSize < 8; chunkSize++) {
+			check(new Utf8Input(new ByteArrayInputStream(utf8), chunkSize));
+		}
+		check(new Utf8Input(utf8));
+	}
+
+	@Test
+	void utf8Decoding() {
+		String str = "a\u00e9\u20ac\ud83d\ude00b";
+		byte[] utf8 = (str + '\n').getBytes(StandardCharsets.UTF_8);
+		char[] newline = {'\n'};
+		assertEquals(str, new Utf8Input(utf8).readUntil(newline).toString());
+		CharacterInput input = new Utf8Input(utf8);
+		for (int i = 0; i < str.length(); i++) {
+			assertEquals(str.charAt(i), input.read());
+		}
+		byte[] malformed = {'a', (byte)0xC3, 'b', (byte)0xFF};
+		assertEquals("a\ufffdb\ufffd", new Utf8Input(malformed).readUntil(newline).toString());
+	}
+
+	@Test
+	void wordScans() {
+		char[] stringEnd = {'"', '\\'};
+		char[] spaces = {' ', '\t', '\n', '\r'};
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 40; i++) {
+			sb.append(" \t\n".substring(0, i % 4)).append('"');
+			for (int j = 0; j < i; j++) {
+				sb.append((j % 11 == 10) ? 'é' : (char)('a' + j % 26));
+			}
+			sb.append((i % 2 == 0) ? '"' : '\\');
+		}
+		String data = sb.toString();
+		byte[] utf8 = data.getBytes(StandardCharsets.UTF_8);
+		CharacterInput expected = new ArrayInput(data.toCharArray());
+		CharacterInput actual = new Utf8Input(new ByteArrayInputStream(utf8), 13);
+		for (int i = 0; i < 40; i++) {
+			assertEquals(expected.readCharAndSkip(spaces), actual.readCharAndSkip(spaces));
+			assertEquals(expected.readCharsUntil(stringEnd).toString(),
+				actual.readCharsUntil(stringEnd).toString());
+			assertEquals(expected.readChar(), actual.readChar());
+		}
+		assertEquals(-1, actual.read());
+	}
+
+	private void check(CharacterInput input) {
+		assertEquals('k', input.readCharAndSkip(SPACES));
+		CharsWrapper key = input.readCharsUntil(STOP);
+		assertEquals("ey ", key.toString());
+		assertEquals('=', input.peek());
+		input.skipPeeks();
+		assertEquals(' ', input.peek());
+		assertEquals('v', input.peek(1));
+		assertEquals('a', input.peekChar(2));
+		input.skipPeeks();
+		assertEquals("lue # comment", input.readUntil(STOP).toString());
+		assertEquals("ey ", key.toString());// still valid after moving forward
+		assertEquals('\n', input.readChar());
+		input.pushBack('\n');
+		input.pushBack('x');
+		assertEquals("x\nsec", input.readChars(5).toString());
+		assertEquals("ond line", input.readUntil(STOP).toString());
+		assertEquals('é', input.read());
+		assertEquals(" end", input.readUntil(STOP).toString());
+		assertEquals(-1, input.read());
+		assertEquals(-1, input.peek(3));
+		assertThrows(ParsingException.class, () -> input.readCharsUntil(STOP));
+		assertEquals("", input.read(10).toString());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedOutputTest {
+	@Test
+	void writeAndFlush() {
+		for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+			StringWriter sw = new StringWriter();
+			BufferedOutput output = new BufferedOutput(sw, bufferSize);
+			output.write('a');
+			output.write("bcdef");
+			output.write(new char[] {'g', 'h', 'i'});
+			output.write(new StringBuilder("xjklx"), 1, 3);
+			output.write(new CharsWrapper("xmnx"), 1, 2);
+			output.write("");
+			output.flush();
+			assertEquals("abcdefghijklmn", sw.toString());
+		}
+	}
+
+	@Test
+	void indentCache() {
+		IndentCache cache = new IndentCache(IndentStyle.SPACES_2.chars);
+		assertEquals(0, cache.get(0).length);
+		assertEquals("      ", new String(cache.get(3)));
+		assertEquals(40, cache.get(20).length);
+		assertSame(cache.get(3), cache.get(3));
+
+		StringWriter sw = new StringWriter();
+		BufferedOutput output = new BufferedOutput(sw);
+		cache.write(-1, output);
+		cache.write(1, output);
+		output.flush();
+		assertEquals("  ", sw.toString());
+	}
+
+	@Test
+	void utf8Encoding() {
+		String str = "a\u00e9\u20ac\ud83d\ude00b";
+		byte[] expected = str.getBytes(StandardCharsets.UTF_8);
+		for (int capacity = 1; capacity < 12; capacity++) {
+			Utf8Output output = new Utf8Output(ByteBuffer.allocate(capacity), true);
+			output.write(str.substring(0, 4));// splits the surrogate pair
+			output.write(str.toCharArray(), 4, str.length() - 4);
+			output.flush();
+			ByteBuffer buffer = output.buffer();
+			assertArrayEquals(expected, Arrays.copyOf(buffer.array(), buffer.position()));
+		}
+		Utf8Output unpaired = new Utf8Output(ByteBuffer.allocate(8), false);
+		unpaired.write("\ud83dx\ude00");
+		unpaired.write('\ud83d');
+		unpaired.flush();
+		assertArrayEquals("?x??".getBytes(StandardCharsets.UTF_8),
+			Arrays.copyOf(unpaired.buffer().array(), 4));
+
+		Utf8Output tooSmall = new Utf8Output(ByteBuffer.allocate(2), false);
+		assertThrows(WritingException.class, () -> tooSmall.write("abc"));
+	}
+
+	@Test
+	void utf8Channel() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			sb.append(i).append('\u00e9');
+		}
+		String str = sb.toString();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (Utf8Output output = new Utf8Output(Channels.newChannel(bytes))) {
+			output.write(str);
+			output.flush();
+		}
+		assertArrayEquals(str.getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberFormatterTest {
+	@Test
+	void integers() {
+		long[] values = {0, 1, -1, 9, 10, 99, 100, 123456789, Integer.MIN_VALUE, Long.MAX_VALUE,
+			Long.MIN_VALUE, 1_000_000_000_000_000_000L};
+		for (long l : values) {
+			assertEquals(Long.toString(l), format(l));
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long l = random.nextLong() >> random.nextInt(64);
+			assertEquals(Long.toString(l), format(l));
+		}
+		assertEquals("12", format((short)12));
+		assertEquals("12345678901234567890", format(new BigDecimal("12345678901234567890")));
+	}
+
+	@Test
+	void doubleFormat() {
+		assertEquals("0.0", format(0.0));
+		assertEquals("-0.0", format(-0.0));
+		assertEquals("NaN", format(Double.NaN));
+		assertEquals("-Infinity", format(Double.NEGATIVE_INFINITY));
+		assertEquals("1.0", format(1.0));
+		assertEquals("100.0", format(100.0));
+		assertEquals("9999999.0", format(9999999.0));
+		assertEquals("1.0E7", format(1e7));
+		assertEquals("0.001", format(0.001));
+		assertEquals("1.5E-4", format(1.5e-4));
+		assertEquals("-123456.789", format(-123456.789));
+		assertEquals("0.1", format(0.1));
+		assertEquals("1.0E23", format(1e23));
+		assertEquals("5.0E-324", format(Double.MIN_VALUE));// 4.9E-324 isn't the shortest
+		assertEquals("1.7976931348623157E308", format(Double.MAX_VALUE));
+		assertEquals("0.1", format(0.1f));
+		assertEquals("3.4028235E38", format(Float.MAX_VALUE));
+	}
+
+	@Test
+	void shortestRoundTrip() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++) {
+			double d = Double.longBitsToDouble(random.nextLong());
+			if (!Double.isNaN(d)) {
+				String str = format(d);
+				assertEquals(d, Double.parseDouble(str), str);
+				assertTrue(str.length() <= Double.toString(d).length(), str);
+			}
+			float f = Float.intBitsToFloat(random.nextInt());
+			if (!Float.isNaN(f)) {
+				String str = format(f);
+				assertEquals(f, Float.parseFloat(str), str);
+				assertTrue(str.length() <= Float.toString(f).length(), str);
+			}
+		}
+	}
+
+	private static String format(Number number) {
+		CharsWrapper.Builder builder = new CharsWrapper.Builder(32);
+		NumberFormatter.write(number, builder);
+		return builder.toString();
+	}
+}
\ No newline at end of file
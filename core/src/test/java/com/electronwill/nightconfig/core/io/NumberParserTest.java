@@ -0,0 +1,109 @@
+package com.electronwill.nightconfig.core.io;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumberParserTest {
+	@Test
+	void sameDoublesAsJdk() {
+		String[] special = {"0", "-0", "0.0", "1", "-1.5", "+3.25", "1e10", "1E-10", "1.", ".5",
+			"123456789012345678", "1234567890123456789", "12345678901234567890.5", "9007199254740993",
+			"2.2250738585072011e-308", "4.9e-324", "1e-400", "1.7976931348623157e308", "1e309",
+			"0.1", "0.3", "7.3177701707893310e+15", "9.5e-3", "1e23", "8.41e21", "5e-324", "NaN",
+			"-Infinity", "1d", "0x1p3", "000000000000000000000012.5e1", "0.000000000000000000001"};
+		for (String str : special) {
+			check(str);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < 100_000; i++) {
+			double d = Double.longBitsToDouble(random.nextLong());
+			if (!Double.isNaN(d)) {
+				check(Double.toString(d));
+			}
+			check(Long.toString(random.nextLong() >>> random.nextInt(64))
+				  + "." + Integer.toString(random.nextInt(100_000))
+				  + "e" + (random.nextInt(700) - 350));
+			check(Integer.toString(random.nextInt()) + "e" + (random.nextInt(50) - 25));
+		}
+	}
+
+	@Test
+	void powersOfTen() {
+		for (int e = NumberParser.PowersOfTen.MIN_EXP; e <= NumberParser.PowersOfTen.MAX_EXP; e++) {
+			BigInteger power = BigInteger.TEN.pow(Math.abs(e));
+			BigInteger approx;
+			if (e >= 0) {
+				int shift = power.bitLength() - 128;
+				approx = (shift >= 0) ? power.shiftRight(shift) : power.shiftLeft(-shift);
+			} else {
+				approx = BigInteger.ONE.shiftLeft(127 + power.bitLength()).divide(power);
+			}
+			int index = e - NumberParser.PowersOfTen.MIN_EXP;
+			assertEquals(approx.shiftRight(64).longValue(), NumberParser.PowersOfTen.HIGH[index]);
+			assertEquals(approx.longValue(), NumberParser.PowersOfTen.LOW[index]);
+		}
+	}
+
+	@Test
+	void invalidDoubles() {
+		for (String str : new String[] {"", "-", "e5", "1e", "1.2.3", "1e+", "abc"}) {
+			assertThrows(NumberFormatException.class, () -> parseChars(str));
+			assertThrows(NumberFormatException.class, () -> parseBytes(str));
+		}
+	}
+
+	@Test
+	void longs() {
+		assertEquals(0, parseLong("0", 10));
+		assertEquals(-17, parseLong("-17", 10));
+		assertEquals(17, parseLong("+17", 10));
+		assertEquals(Long.MAX_VALUE, parseLong(Long.toString(Long.MAX_VALUE), 10));
+		assertEquals(Long.MIN_VALUE, parseLong(Long.toString(Long.MIN_VALUE), 10));
+		assertEquals(0xCAFE, parseLong("cAfE", 16));
+		assertEquals(5, parseLong("101", 2));
+		assertEquals(Long.MAX_VALUE, parseLong("7fffffffffffffff", 16));
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long l = random.nextLong() >> random.nextInt(64);
+			assertEquals(l, parseLong(Long.toString(l), 10));
+			assertEquals(l, parseLong(Long.toString(l, 8), 8));
+		}
+		for (String str : new String[] {"", "-", "1a", "12 ", "9223372036854775808",
+			"-9223372036854775809", "99999999999999999999"}) {
+			assertThrows(ParsingException.class, () -> parseLong(str, 10));
+		}
+		assertThrows(ParsingException.class, () -> parseLong("2", 2));
+		assertThrows(ParsingException.class, () -> parseLong("10000000000000000", 16));
+	}
+
+	private static void check(String str) {
+		double expected = Double.parseDouble(str);
+		assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(parseChars(str)),
+			str);
+		assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(parseBytes(str)),
+			str);
+	}
+
+	private static double parseChars(String str) {
+		char[] chars = ("x" + str + "x").toCharArray();
+		return NumberParser.parseDouble(chars, 1, chars.length - 1);
+	}
+
+	private static double parseBytes(String str) {
+		byte[] bytes = ("x" + str + "x").getBytes(StandardCharsets.UTF_8);
+		return NumberParser.parseDouble(bytes, 1, bytes.length - 1);
+	}
+
+	private static long parseLong(String str, int base) {
+		char[] chars = str.toCharArray();
+		long l = NumberParser.parseLong(chars, 0, chars.length, base);
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		assertEquals(l, NumberParser.parseLong(bytes, 0, bytes.length, base));
+		return l;
+	}
+}
\ No newline at end of file
@@ -15,7 +15,9 @@ import java.util.function.Predicate;
 import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
 
 /**
- * A configurable HOCON writer.
+ * A configurable HOCON writer. The writer keeps no state between its calls, therefore a writer
+ * whose settings are no longer modified can be shared and used by several threads at the same
+ * time.
  *
  * @author TheElectronWill
  */
@@ -39,25 +41,47 @@ public final class HoconWriter implements ConfigWriter {
 	private Predicate<Collection<?>> indentArrayElementsPredicate = c -> true;
 	private boolean newlineAfterObjectStart;
 	private char[] newline = NewlineStyle.system().chars;
-	private char[] indent = IndentStyle.TABS.chars;
+	private IndentCache indent = new IndentCache(IndentStyle.TABS.chars);
 	private char[] kvSeparator = KeyValueSeparatorStyle.COLON.chars;
 	private char[] commentPrefix = CommentStyle.HASH.chars;
-	private int currentIndentLevel;
 
 	// --- Writer's methods ---
 	@Override
 	public void write(UnmodifiableConfig config, Writer writer) {
-		currentIndentLevel = -1;
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			write(config, output);
+			output.flush();
+		}
+	}
+
+	@Override
+	public void write(UnmodifiableConfig config, CharacterOutput output) {
 		UnmodifiableCommentedConfig commentedConfig;
 		if (config instanceof UnmodifiableCommentedConfig) {
 			commentedConfig = (UnmodifiableCommentedConfig)config;
 		} else {
 			commentedConfig = new FakeUnmodifiableCommentedConfig(config);
 		}
-		writeObject(commentedConfig, new WriterOutput(writer), true);
+		writeObject(commentedConfig, output, true, -1);// -1 to make the root entries not indented
+	}
+
+	/**
+	 * Creates a generator that writes HOCON data as it comes. The predicates that decide whether
+	 * the elements are indented can't be used, because the elements aren't known in advance:
+	 * the generated objects and arrays are always indented.
+	 */
+	@Override
+	public ConfigGenerator createGenerator(CharacterOutput output) {
+		return new Generator(output);
 	}
 
-	private void writeObject(UnmodifiableCommentedConfig config, CharacterOutput output, boolean root) {
+	/**
+	 * Writes a config as a HOCON object.
+	 *
+	 * @param indentLevel the indent level of the line that contains the start of the object
+	 */
+	private void writeObject(UnmodifiableCommentedConfig config, CharacterOutput output,
+							 boolean root, int indentLevel) {
 		if (config.isEmpty()) {
 			output.write(EMPTY_OBJECT);
 			return;
@@ -70,12 +94,13 @@ public final class HoconWriter implements ConfigWriter {
 		}
 		final Iterator<? extends UnmodifiableCommentedConfig.Entry> it = config.entrySet().iterator();
 		final boolean indentElements = indentObjectElementsPredicate.test(config);
+		int elementsLevel = indentLevel;
 		if (indentElements) {
 			if (!root && !newlineAfterObjectStart) {
 				// only write newline if there isn't already one
 				output.write(newline);
 			}
-			increaseIndentLevel();
+			elementsLevel++;
 		}
 		do {
 			final UnmodifiableCommentedConfig.Entry entry = it.next();
@@ -83,13 +108,13 @@ public final class HoconWriter implements ConfigWriter {
 			final Object value = entry.getValue();
 			final List<String> comments = StringUtils.splitLines(entry.getComment());
 			for (String comment : comments) {
-				writeIndent(output);
+				indent.write(elementsLevel, output);
 				output.write(commentPrefix);
 				output.write(comment);
 				output.write(newline);
 			}
 			if (indentElements) {
-				writeIndent(output);// Indents the line
+				indent.write(elementsLevel, output);// Indents the line
 			}
 			writeString(key, output);// key
 			if (value instanceof UnmodifiableConfig) {
@@ -98,7 +123,7 @@ public final class HoconWriter implements ConfigWriter {
 				output.write(kvSeparator);
 				// HOCON allows to omit the separator if the value is a config
 			}
-			writeValue(value, output);// value
+			writeValue(value, output, elementsLevel);// value
 			if (indentElements) {
 				output.write(newline);
 			} else {
@@ -106,15 +131,14 @@ public final class HoconWriter implements ConfigWriter {
 			}
 		} while (it.hasNext());
 		if (indentElements) {
-			decreaseIndentLevel();
-			writeIndent(output);
+			indent.write(indentLevel, output);
 		}
 		if (!root) {
 			output.write('}');// HOCON allows to omit the root braces
 		}
 	}
 
-	private void writeValue(Object v, CharacterOutput output) {
+	private void writeValue(Object v, CharacterOutput output, int indentLevel) {
 		if (v == null || v == NULL_OBJECT) {
 			output.write(NULL_CHARS);
 		} else if (v instanceof String) {
@@ -122,19 +146,20 @@ public final class HoconWriter implements ConfigWriter {
 		} else if (v instanceof Enum) {
 			writeString(((Enum<?>)v).name(), output);
 		} else if (v instanceof Number) {
-			output.write(v.toString());
+			NumberFormatter.write((Number)v, output);
 		} else if (v instanceof UnmodifiableCommentedConfig) {
-			writeObject((UnmodifiableCommentedConfig)v, output, false);
+			writeObject((UnmodifiableCommentedConfig)v, output, false, indentLevel);
 		} else if (v instanceof UnmodifiableConfig) {
-			writeObject(new FakeUnmodifiableCommentedConfig((UnmodifiableConfig)v), output, false);
+			UnmodifiableConfig config = (UnmodifiableConfig)v;
+			writeObject(new FakeUnmodifiableCommentedConfig(config), output, false, indentLevel);
 		} else if (v instanceof Collection) {
-			writeArray((Collection<?>)v, output);
+			writeArray((Collection<?>)v, output, indentLevel);
 		} else if (v instanceof Boolean) { writeBoolean((boolean)v, output); } else {
 			throw new WritingException("Unsupported value type: " + v.getClass());
 		}
 	}
 
-	private void writeArray(Collection<?> collection, CharacterOutput output) {
+	private void writeArray(Collection<?> collection, CharacterOutput output, int indentLevel) {
 		if (collection.isEmpty()) {
 			output.write(EMPTY_ARRAY);
 			return;
@@ -145,16 +170,17 @@ public final class HoconWriter implements ConfigWriter {
 		}
 		final Iterator<?> it = collection.iterator();
 		final boolean indentElements = indentArrayElementsPredicate.test(collection);
+		int elementsLevel = indentLevel;
 		if (indentElements) {
 			output.write(newline);
-			increaseIndentLevel();
+			elementsLevel++;
 		}
 		while (true) {
 			Object value = it.next();
 			if (indentElements) {
-				writeIndent(output);
+				indent.write(elementsLevel, output);
 			}
-			writeValue(value, output);
+			writeValue(value, output, elementsLevel);
 			if (it.hasNext()) {
 				output.write(VALUE_SEPARATOR);
 				if (indentElements) {
@@ -168,8 +194,7 @@ public final class HoconWriter implements ConfigWriter {
 			}
 		}
 		if (indentElements) {
-			decreaseIndentLevel();
-			writeIndent(output);
+			indent.write(indentLevel, output);
 		}
 		output.write(']');// Closes the array
 	}
@@ -189,17 +214,17 @@ public final class HoconWriter implements ConfigWriter {
 		}
 		output.write('"');
 		final int length = s.length();
+		int runStart = 0;// start of the characters that don't need to be escaped
 		for (int i = 0; i < length; i++) {
-			char c = s.charAt(i);
-			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, c);
-			if (escapeIndex == -1) {
-				output.write(c);
-			} else {// the character must be escaped
-				char escaped = ESCAPED[escapeIndex];
+			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, s.charAt(i));
+			if (escapeIndex != -1) {// the character must be escaped
+				output.write(s, runStart, i - runStart);
 				output.write('\\');
-				output.write(escaped);
+				output.write(ESCAPED[escapeIndex]);
+				runStart = i + 1;
 			}
 		}
+		output.write(s, runStart, length - runStart);
 		output.write('"');
 	}
 
@@ -213,17 +238,121 @@ public final class HoconWriter implements ConfigWriter {
 		return true;
 	}
 
-	private void increaseIndentLevel() {
-		currentIndentLevel++;
-	}
+	private final class Generator extends AbstractGenerator {
+		private boolean objectStarted;// true if the newline after '{' hasn't been written
 
-	private void decreaseIndentLevel() {
-		currentIndentLevel--;
-	}
+		Generator(CharacterOutput output) {
+			super(output);
+		}
+
+		/**
+		 * Writes the newline after the beginning of an object, if it hasn't been written yet.
+		 */
+		private void startContent() {
+			if (objectStarted) {
+				objectStarted = false;
+				output.write(newline);
+				if (newlineAfterObjectStart) {
+					output.write(newline);
+				}
+			}
+		}
+
+		/**
+		 * Starts a line for the next element of an array, or writes the separator after a key.
+		 */
+		private void startValue(boolean first, boolean object) {
+			if (inArray()) {
+				if (!first) {
+					output.write(VALUE_SEPARATOR);
+				} else if (newlineAfterObjectStart) {
+					output.write(newline);
+				}
+				output.write(newline);
+				indent.write(depth() - 1, output);
+			} else if (object) {
+				output.write(' ');// HOCON allows to omit the separator if the value is an object
+			} else {
+				output.write(kvSeparator);
+			}
+		}
+
+		/**
+		 * Ends the line of an entry, if the value isn't in an array.
+		 */
+		private void endValue() {
+			if (!inArray()) {
+				output.write(newline);
+			}
+		}
+
+		@Override
+		protected void writeTableStart(boolean first) {
+			if (depth() > 0) {// HOCON allows to omit the root braces
+				startValue(first, true);
+				output.write('{');
+				objectStarted = true;
+			}
+		}
+
+		@Override
+		protected void writeTableEnd(boolean empty) {
+			if (depth() == 0) {
+				if (empty) {
+					output.write(EMPTY_OBJECT);
+				}
+				return;
+			}
+			if (!empty) {
+				indent.write(depth() - 1, output);
+			}
+			objectStarted = false;
+			output.write('}');
+			endValue();
+		}
+
+		@Override
+		protected void writeArrayStart(boolean first) {
+			startValue(first, false);
+			output.write('[');
+		}
 
-	private void writeIndent(CharacterOutput output) {
-		for (int i = 0; i < currentIndentLevel; i++) {
-			output.write(indent);
+		@Override
+		protected void writeArrayEnd(boolean empty) {
+			if (!empty) {
+				output.write(newline);
+				indent.write(depth() - 1, output);
+			}
+			output.write(']');
+			endValue();
+		}
+
+		@Override
+		protected void writeKey(String key, boolean first) {
+			startContent();
+			indent.write(depth() - 1, output);
+			writeString(key, output);
+		}
+
+		@Override
+		protected void writeValue(Object value, boolean first) {
+			startValue(first, value instanceof UnmodifiableConfig);
+			HoconWriter.this.writeValue(value, output, depth() - 1);
+			endValue();
+		}
+
+		@Override
+		protected void writeComment(String comment) {
+			if (inArray()) {
+				return;// the comments are only written before the keys
+			}
+			startContent();
+			for (String line : StringUtils.splitLines(comment)) {
+				indent.write(depth() - 1, output);
+				output.write(commentPrefix);
+				output.write(line);
+				output.write(newline);
+			}
 		}
 	}
 
@@ -246,12 +375,12 @@ public final class HoconWriter implements ConfigWriter {
 	}
 
 	public HoconWriter setIndent(IndentStyle indentStyle) {
-		this.indent = indentStyle.chars;
+		this.indent = new IndentCache(indentStyle.chars);
 		return this;
 	}
 
 	public HoconWriter setIndent(String indentString) {
-		this.indent = indentString.toCharArray();
+		this.indent = new IndentCache(indentString.toCharArray());
 		return this;
 	}
 
@@ -3,6 +3,8 @@ package com.electronwill.nightconfig.hocon;
 import com.electronwill.nightconfig.core.BasicTestEnum;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.io.ConfigGenerator;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -12,6 +14,8 @@ import java.util.List;
 import com.electronwill.nightconfig.core.TestEnum;
 import org.junit.jupiter.api.Test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 /**
  * @author TheElectronWill
  */
@@ -44,5 +48,39 @@ public class HoconWriterTest {
 		writer.write(config, sw);
 		System.out.println("Written:");
 		System.out.println(sw);
+
+		StringWriter generated = new StringWriter();
+		try (ConfigGenerator generator = writer.createGenerator(generated)) {
+			generator.beginTable();
+			generate(config, generator);
+			generator.endTable();
+		}
+		assertEquals(sw.toString(), generated.toString());
+	}
+
+	private static void generate(UnmodifiableCommentedConfig config, ConfigGenerator generator) {
+		for (UnmodifiableCommentedConfig.Entry entry : config.entrySet()) {
+			if (entry.getComment() != null) {
+				generator.comment(entry.getComment());
+			}
+			generator.key(entry.getKey());
+			generateValue(entry.getValue(), generator);
+		}
+	}
+
+	private static void generateValue(Object value, ConfigGenerator generator) {
+		if (value instanceof UnmodifiableCommentedConfig) {
+			generator.beginTable();
+			generate((UnmodifiableCommentedConfig)value, generator);
+			generator.endTable();
+		} else if (value instanceof List) {
+			generator.beginArray();
+			for (Object element : (List<?>)value) {
+				generateValue(element, generator);
+			}
+			generator.endArray();
+		} else {
+			generator.value(value);
+		}
 	}
 }
\ No newline at end of file
@@ -12,7 +12,9 @@ import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
 import static com.electronwill.nightconfig.json.MinimalJsonWriter.*;
 
 /**
- * A configurable <a href="http://www.json.org/">JSON</a> writer.
+ * A configurable <a href="http://www.json.org/">JSON</a> writer. The writer keeps no state
+ * between its calls, therefore a writer whose settings are no longer modified can be shared and
+ * used by several threads at the same time.
  *
  * @author TheElectronWill
  */
@@ -24,17 +26,38 @@ public final class FancyJsonWriter implements ConfigWriter {
 	private Predicate<Collection<?>> indentArrayElementsPredicate = c -> true;
 	private boolean newlineAfterObjectStart;
 	private char[] newline = NewlineStyle.system().chars;
-	private char[] indent = IndentStyle.TABS.chars;
-	private int currentIndentLevel;
+	private IndentCache indent = new IndentCache(IndentStyle.TABS.chars);
 
 	// --- Writer's methods --
 	@Override
 	public void write(UnmodifiableConfig config, Writer writer) {
-		currentIndentLevel = 0;
-		writeObject(config, new WriterOutput(writer));
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			write(config, output);
+			output.flush();
+		}
+	}
+
+	@Override
+	public void write(UnmodifiableConfig config, CharacterOutput output) {
+		writeObject(config, output, 0);
+	}
+
+	/**
+	 * Creates a generator that writes JSON data as it comes. The predicates that decide whether
+	 * the elements are indented can't be used, because the elements aren't known in advance:
+	 * the generated tables and arrays are always indented. Comments are ignored.
+	 */
+	@Override
+	public ConfigGenerator createGenerator(CharacterOutput output) {
+		return new Generator(output);
 	}
 
-	private void writeObject(UnmodifiableConfig config, CharacterOutput output) {
+	/**
+	 * Writes a config as a JSON object.
+	 *
+	 * @param indentLevel the indent level of the line that contains the start of the object
+	 */
+	private void writeObject(UnmodifiableConfig config, CharacterOutput output, int indentLevel) {
 		if (config.isEmpty()) {
 			output.write(EMPTY_OBJECT);
 			return;
@@ -45,9 +68,10 @@ public final class FancyJsonWriter implements ConfigWriter {
 			output.write(newline);
 		}
 		boolean indentElements = indentObjectElementsPredicate.test(config);
+		int elementsLevel = indentLevel;
 		if (indentElements) {
 			output.write(newline);
-			increaseIndentLevel();
+			elementsLevel++;
 		}
 		while (true) {
 			final Map.Entry<String, Object> entry = it.next();
@@ -55,11 +79,11 @@ public final class FancyJsonWriter implements ConfigWriter {
 			final Object value = entry.getValue();
 
 			if (indentElements) {
-				writeIndent(output);// Indents the line
+				indent.write(elementsLevel, output);// Indents the line
 			}
 			writeString(key, output);// key
 			output.write(ENTRY_SEPARATOR);// separator
-			writeValue(value, output);// value
+			writeValue(value, output, elementsLevel);// value
 			if (it.hasNext()) {
 				output.write(',');
 				if (indentElements) {
@@ -73,8 +97,7 @@ public final class FancyJsonWriter implements ConfigWriter {
 			}
 		}
 		if (indentElements) {
-			decreaseIndentLevel();
-			writeIndent(output);
+			indent.write(indentLevel, output);
 		}
 		output.write('}');
 	}
@@ -82,10 +105,11 @@ public final class FancyJsonWriter implements ConfigWriter {
 	/**
 	 * Writes some value in the JSON format.
 	 *
-	 * @param v      the value to write
-	 * @param output the output to write to
+	 * @param v           the value to write
+	 * @param output      the output to write to
+	 * @param indentLevel the indent level of the line that contains the value
 	 */
-	private void writeValue(Object v, CharacterOutput output) {
+	private void writeValue(Object v, CharacterOutput output, int indentLevel) {
 		if (v == null || v == NULL_OBJECT) {
 			output.write(NULL_CHARS);
 		} else if (v instanceof CharSequence) {
@@ -93,17 +117,17 @@ public final class FancyJsonWriter implements ConfigWriter {
 		} else if (v instanceof Enum) {
 			writeString(((Enum<?>)v).name(), output);
 		} else if (v instanceof Number) {
-			output.write(v.toString());
+			NumberFormatter.write((Number)v, output);
 		} else if (v instanceof UnmodifiableConfig) {
-			writeObject((UnmodifiableConfig)v, output);
+			writeObject((UnmodifiableConfig)v, output, indentLevel);
 		} else if (v instanceof Collection) {
-			writeArray((Collection<?>)v, output);
+			writeArray((Collection<?>)v, output, indentLevel);
 		} else if (v instanceof Boolean) {
 			writeBoolean((boolean)v, output);
 		} else if (v instanceof Object[]) {
-			writeArray(Arrays.asList((Object[])v), output);
+			writeArray(Arrays.asList((Object[])v), output, indentLevel);
 		} else if (v.getClass().isArray()) {
-			writeArray(v, output);
+			writeArray(v, output, indentLevel);
 		} else {
 			throw new WritingException("Unsupported value type: " + v.getClass());
 		}
@@ -112,10 +136,11 @@ public final class FancyJsonWriter implements ConfigWriter {
 	/**
 	 * Writes a Collection as a JSON array.
 	 *
-	 * @param collection the Collection to write
-	 * @param output     the output to write to
+	 * @param collection  the Collection to write
+	 * @param output      the output to write to
+	 * @param indentLevel the indent level of the line that contains the start of the array
 	 */
-	private void writeArray(Collection<?> collection, CharacterOutput output) {
+	private void writeArray(Collection<?> collection, CharacterOutput output, int indentLevel) {
 		if (collection.isEmpty()) {
 			output.write(EMPTY_ARRAY);
 			return;
@@ -126,16 +151,17 @@ public final class FancyJsonWriter implements ConfigWriter {
 			output.write(newline);
 		}
 		boolean indentElements = indentArrayElementsPredicate.test(collection);
+		int elementsLevel = indentLevel;
 		if (indentElements) {
 			output.write(newline);
-			increaseIndentLevel();
+			elementsLevel++;
 		}
 		while (true) {
 			Object value = it.next();
 			if (indentElements) {
-				writeIndent(output);
+				indent.write(elementsLevel, output);
 			}
-			writeValue(value, output);
+			writeValue(value, output, elementsLevel);
 			if (it.hasNext()) {
 				output.write(VALUE_SEPARATOR);
 				if (indentElements) {
@@ -149,13 +175,12 @@ public final class FancyJsonWriter implements ConfigWriter {
 			}
 		}
 		if (indentElements) {
-			decreaseIndentLevel();
-			writeIndent(output);
+			indent.write(indentLevel, output);
 		}
 		output.write(']');
 	}
 
-	private void writeArray(Object array, CharacterOutput output) {
+	private void writeArray(Object array, CharacterOutput output, int indentLevel) {
 		// Converts the array into a List:
 		int length = Array.getLength(array);
 		List<Object> list = new ArrayList<>(length);
@@ -163,7 +188,7 @@ public final class FancyJsonWriter implements ConfigWriter {
 			list.add(Array.get(array, i));
 		}
 		// Then, writes the list as a JSON array:
-		writeArray(list, output);
+		writeArray(list, output, indentLevel);
 	}
 
 	/**
@@ -189,32 +214,96 @@ public final class FancyJsonWriter implements ConfigWriter {
 	private void writeString(CharSequence s, CharacterOutput output) {
 		output.write('"');
 		final int length = s.length();
+		int runStart = 0;// start of the characters that don't need to be escaped
 		for (int i = 0; i < length; i++) {
-			char c = s.charAt(i);
-			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, c);
-			if (escapeIndex == -1) {
-				output.write(c);
-			} else {// This character must be escaped
-				char escaped = ESCAPED[escapeIndex];
+			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, s.charAt(i));
+			if (escapeIndex != -1) {// This character must be escaped
+				output.write(s, runStart, i - runStart);
 				output.write('\\');
-				output.write(escaped);
+				output.write(ESCAPED[escapeIndex]);
+				runStart = i + 1;
 			}
 		}
+		output.write(s, runStart, length - runStart);
 		output.write('"');
 	}
 
-	private void increaseIndentLevel() {
-		currentIndentLevel++;
-	}
+	private final class Generator extends AbstractGenerator {
+		Generator(CharacterOutput output) {
+			super(output);
+		}
 
-	private void decreaseIndentLevel() {
-		currentIndentLevel--;
-	}
+		@Override
+		protected boolean supportsRootArray() {
+			return true;
+		}
 
-	private void writeIndent(CharacterOutput output) {
-		for (int i = 0; i < currentIndentLevel; i++) {
-			output.write(indent);
+		/**
+		 * Starts a line for the next element of an array, if the position is in an array.
+		 */
+		private void startElement(boolean first) {
+			if (inArray()) {
+				if (!first) {
+					output.write(VALUE_SEPARATOR);
+				} else if (newlineAfterObjectStart) {
+					output.write(newline);
+				}
+				output.write(newline);
+				indent.write(depth(), output);
+			}
 		}
+
+		private void end(boolean empty, char c) {
+			if (!empty) {
+				output.write(newline);
+				indent.write(depth(), output);
+			}
+			output.write(c);
+		}
+
+		@Override
+		protected void writeTableStart(boolean first) {
+			startElement(first);
+			output.write('{');
+		}
+
+		@Override
+		protected void writeTableEnd(boolean empty) {
+			end(empty, '}');
+		}
+
+		@Override
+		protected void writeArrayStart(boolean first) {
+			startElement(first);
+			output.write('[');
+		}
+
+		@Override
+		protected void writeArrayEnd(boolean empty) {
+			end(empty, ']');
+		}
+
+		@Override
+		protected void writeKey(String key, boolean first) {
+			if (!first) {
+				output.write(',');
+			} else if (newlineAfterObjectStart) {
+				output.write(newline);
+			}
+			output.write(newline);
+			indent.write(depth(), output);
+			writeString(key, output);
+			output.write(ENTRY_SEPARATOR);
+		}
+
+		@Override
+		protected void writeValue(Object value, boolean first) {
+			startElement(first);
+			FancyJsonWriter.this.writeValue(value, output, depth());
+		}
+
+		@Override
+		protected void writeComment(String comment) {}// JSON doesn't support comments
 	}
 
 	// --- Settings ---
@@ -236,12 +325,12 @@ public final class FancyJsonWriter implements ConfigWriter {
 	}
 
 	public FancyJsonWriter setIndent(IndentStyle indentStyle) {
-		this.indent = indentStyle.chars;
+		this.indent = new IndentCache(indentStyle.chars);
 		return this;
 	}
 
 	public FancyJsonWriter setIndent(String indent) {
-		this.indent = indent.toCharArray();
+		this.indent = new IndentCache(indent.toCharArray());
 		return this;
 	}
 
@@ -0,0 +1,211 @@
+package com.electronwill.nightconfig.json;
+
+import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+
+import java.util.*;
+
+/**
+ * An unmodifiable view of a JSON object, which reads its values from a {@link JsonIndex} when
+ * they are requested. Getting a value only compares the keys of the object, and reads the value
+ * itself: the nested objects are {@code IndexedJsonConfig}s and the arrays are
+ * {@link IndexedJsonList}s, whose content is read on demand too. The values aren't kept, except
+ * by {@link #valueMap()}, which reads all the entries once and is used by the other methods
+ * afterwards.
+ * <p>
+ * Like with {@link JsonParser#parse(String)}, if a key appears several times in the object, its
+ * last value is the one of the config. An {@code IndexedJsonConfig} is only equal to another
+ * {@code IndexedJsonConfig}, like an {@link com.electronwill.nightconfig.core.AbstractConfig} is
+ * only equal to another AbstractConfig.
+ * <p>
+ * This config retains the whole document until it's no longer used. Like the other configs, it
+ * isn't thread-safe.
+ *
+ * @author TheElectronWill
+ */
+final class IndexedJsonConfig implements UnmodifiableConfig {
+	private static final Object MISSING = new Object();
+
+	private final JsonIndex index;
+	private final int open;// the entry of the '{'
+	private Map<String, Object> values;// created by valueMap()
+
+	IndexedJsonConfig(JsonIndex index, int open) {
+		this.index = index;
+		this.open = open;
+	}
+
+	@Override
+	public <T> T getRaw(List<String> path) {
+		Object value = find(path);
+		return (value == MISSING) ? null : (T)value;
+	}
+
+	@Override
+	public boolean contains(List<String> path) {
+		return find(path) != MISSING;
+	}
+
+	private Object find(List<String> path) {
+		IndexedJsonConfig config = this;
+		final int lastIndex = path.size() - 1;
+		for (int i = 0; i < lastIndex; i++) {
+			Object value = config.find(path.get(i));
+			if (!(value instanceof IndexedJsonConfig)) {
+				return MISSING;
+			}
+			config = (IndexedJsonConfig)value;
+		}
+		return config.find(path.get(lastIndex));
+	}
+
+	/**
+	 * Finds the value of a key in this object.
+	 *
+	 * @return the value, or {@link #MISSING} if there is no such key
+	 */
+	private Object find(String key) {
+		if (values != null) {
+			Object value = values.get(key);
+			return (value == null && !values.containsKey(key)) ? MISSING : value;
+		}
+		if (index.isEmpty(open)) {
+			return MISSING;
+		}
+		int close = index.end(open);
+		int quote = open + 1;
+		int found = -1;// the separator of the last entry with the key
+		while (true) {
+			int separator = index.key(quote);
+			if (index.keyEquals(quote, key)) {
+				found = separator;
+			}
+			int comma = index.next(index.skipValue(separator), close);
+			if (comma == -1) {
+				return (found == -1) ? MISSING : index.readValue(found);
+			}
+			quote = comma + 1;
+		}
+	}
+
+	@Override
+	public int size() {
+		if (values != null) {
+			return values.size();
+		}
+		if (index.isEmpty(open)) {
+			return 0;
+		}
+		int close = index.end(open);
+		Set<String> keys = new HashSet<>();// a key may appear several times
+		int quote = open + 1;
+		while (true) {
+			int separator = index.key(quote);
+			keys.add(index.readString(quote));
+			int comma = index.next(index.skipValue(separator), close);
+			if (comma == -1) {
+				return keys.size();
+			}
+			quote = comma + 1;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The first call reads all the entries of the object. The nested objects and arrays are
+	 * still read on demand.
+	 */
+	@Override
+	public Map<String, Object> valueMap() {
+		if (values == null) {
+			Map<String, Object> map = new LinkedHashMap<>();
+			if (!index.isEmpty(open)) {
+				int close = index.end(open);
+				int quote = open + 1;
+				while (true) {
+					int separator = index.key(quote);
+					map.put(index.readString(quote), index.readValue(separator));
+					int comma = index.next(index.skipValue(separator), close);
+					if (comma == -1) {
+						break;
+					}
+					quote = comma + 1;
+				}
+			}
+			values = Collections.unmodifiableMap(map);
+		}
+		return values;
+	}
+
+	@Override
+	public Set<? extends Entry> entrySet() {
+		Set<Map.Entry<String, Object>> entries = valueMap().entrySet();
+		return new AbstractSet<Entry>() {
+			@Override
+			public Iterator<Entry> iterator() {
+				Iterator<Map.Entry<String, Object>> it = entries.iterator();
+				return new Iterator<Entry>() {
+					@Override
+					public boolean hasNext() {
+						return it.hasNext();
+					}
+
+					@Override
+					public Entry next() {
+						return new IndexedEntry(it.next());
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return entries.size();
+			}
+		};
+	}
+
+	@Override
+	public ConfigFormat<?> configFormat() {
+		return index.parser.getFormat();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof IndexedJsonConfig)) {
+			return false;
+		}
+		return valueMap().equals(((IndexedJsonConfig)obj).valueMap());
+	}
+
+	@Override
+	public int hashCode() {
+		return valueMap().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + ':' + valueMap();
+	}
+
+	private static final class IndexedEntry implements Entry {
+		private final Map.Entry<String, Object> mapEntry;
+
+		IndexedEntry(Map.Entry<String, Object> mapEntry) {
+			this.mapEntry = mapEntry;
+		}
+
+		@Override
+		public String getKey() {
+			return mapEntry.getKey();
+		}
+
+		@Override
+		public <T> T getRawValue() {
+			return (T)mapEntry.getValue();
+		}
+	}
+}
\ No newline at end of file
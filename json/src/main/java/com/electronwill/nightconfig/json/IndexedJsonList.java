@@ -0,0 +1,63 @@
+package com.electronwill.nightconfig.json;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
+
+/**
+ * An unmodifiable view of a JSON array, which reads its elements from a {@link JsonIndex} when
+ * they are requested. The positions of the elements are found when the list is created, but each
+ * element is only read by the first call to {@link #get(int)} for its index, and then kept.
+ *
+ * @author TheElectronWill
+ */
+final class IndexedJsonList extends AbstractList<Object> implements RandomAccess {
+	private static final Object NOT_READ = new Object();
+	private static final int[] NO_ELEMENT = {};
+
+	private final JsonIndex index;
+	private final int[] separators;// the entry before each element: the '[' or a ','
+	private final Object[] elements;
+
+	IndexedJsonList(JsonIndex index, int open) {
+		this.index = index;
+		int[] separators = NO_ELEMENT;
+		if (!index.isEmpty(open)) {
+			int close = index.end(open);
+			separators = new int[8];
+			int size = 0;
+			int separator = open;
+			do {
+				if (size == separators.length) {
+					separators = Arrays.copyOf(separators, size * 2);
+				}
+				separators[size++] = separator;
+				separator = index.next(index.skipValue(separator), close);
+			} while (separator != -1);
+			separators = Arrays.copyOf(separators, size);
+		}
+		this.separators = separators;
+		this.elements = new Object[separators.length];
+		Arrays.fill(elements, NOT_READ);
+	}
+
+	@Override
+	public Object get(int i) {
+		Object element = elements[i];
+		if (element == NOT_READ) {
+			element = index.readValue(separators[i]);
+			if (element == NULL_OBJECT) {// like JsonParser, the lists contain null
+				element = null;
+			}
+			elements[i] = element;
+		}
+		return element;
+	}
+
+	@Override
+	public int size() {
+		return separators.length;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package com.electronwill.nightconfig.json;
+
+import com.electronwill.nightconfig.core.io.CharacterInput;
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
+import com.electronwill.nightconfig.core.io.ParsingException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the events of a JSON document. It only keeps the nesting of the current value, so the
+ * size of the document doesn't matter.
+ *
+ * @author TheElectronWill
+ */
+final class JsonEventReader implements ConfigEventReader {
+	private static final char[] SPACES = {' ', '\t', '\n', '\r'};
+
+	// --- States ---
+	private static final int START = 0, KEY = 1, FIRST_KEY = 2, VALUE = 3, FIRST_ELEMENT = 4;
+	private static final int AFTER_VALUE = 5, FINISHED = 6;
+
+	private final JsonParser parser;
+	private final CharacterInput input;
+	private int state = START;
+	private boolean[] objects = new boolean[16];// true for an object, false for an array
+	private int depth;
+
+	private List<String> key;
+	private Object value;
+
+	JsonEventReader(JsonParser parser, CharacterInput input) {
+		this.parser = parser;
+		this.input = input;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return state != FINISHED;
+	}
+
+	@Override
+	public ConfigEvent next() {
+		while (true) {
+			switch (state) {
+				case START: {
+					if (input.peek() == -1) {
+						if (!parser.isEmptyDataAccepted()) {
+							throw new ParsingException("No json data: input is empty");
+						}
+						state = FINISHED;
+						return ConfigEvent.END_DOCUMENT;
+					}
+					char first = input.readCharAndSkip(SPACES);
+					if (first != '{' && first != '[') {
+						throw new ParsingException(
+								"Invalid first character for a json document: " + first);
+					}
+					return startValue(first);
+				}
+				case FIRST_KEY:
+				case KEY: {
+					char c = input.readCharAndSkip(SPACES);
+					if (c == '}' && state == FIRST_KEY) {
+						return end();
+					}
+					if (c != '"') {
+						throw new ParsingException("Invalid beginning of a key: " + c);
+					}
+					key = Collections.singletonList(parser.parseString(input));
+					char sep = input.readCharAndSkip(SPACES);
+					if (sep != ':') {
+						throw new ParsingException("Invalid key-value separator: " + sep);
+					}
+					state = VALUE;
+					return ConfigEvent.KEY;
+				}
+				case FIRST_ELEMENT: {
+					char c = input.readCharAndSkip(SPACES);
+					if (c == ']') {
+						return end();
+					}
+					return startValue(c);
+				}
+				case VALUE:
+					return startValue(input.readCharAndSkip(SPACES));
+				case AFTER_VALUE: {
+					if (depth == 0) {
+						state = FINISHED;
+						return ConfigEvent.END_DOCUMENT;
+					}
+					char c = input.readCharAndSkip(SPACES);
+					boolean inObject = objects[depth - 1];
+					if (c == (inObject ? '}' : ']')) {
+						return end();
+					}
+					if (c != ',') {
+						throw new ParsingException("Invalid value separator: " + c);
+					}
+					state = inObject ? KEY : VALUE;
+					break;// continues with the next key or element
+				}
+				default:
+					throw new NoSuchElementException();
+			}
+		}
+	}
+
+	private ConfigEvent startValue(char first) {
+		switch (first) {
+			case '{':
+				push(true);
+				state = FIRST_KEY;
+				return ConfigEvent.START_TABLE;
+			case '[':
+				push(false);
+				state = FIRST_ELEMENT;
+				return ConfigEvent.START_ARRAY;
+			case '"':
+				value = parser.parseString(input);
+				break;
+			case 't':
+				value = parser.parseTrue(input);
+				break;
+			case 'f':
+				value = parser.parseFalse(input);
+				break;
+			case 'n':
+				value = parser.parseNull(input);
+				break;
+			default:
+				input.pushBack(first);
+				value = parser.parseNumber(input);
+		}
+		state = AFTER_VALUE;
+		return ConfigEvent.VALUE;
+	}
+
+	private void push(boolean object) {
+		if (depth == objects.length) {
+			objects = Arrays.copyOf(objects, depth * 2);
+		}
+		objects[depth++] = object;
+	}
+
+	private ConfigEvent end() {
+		boolean object = objects[--depth];
+		state = AFTER_VALUE;
+		return object ? ConfigEvent.END_TABLE : ConfigEvent.END_ARRAY;
+	}
+
+	@Override
+	public List<String> getKey() {
+		return key;
+	}
+
+	@Override
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String getComment() {
+		return null;// JSON doesn't support comments
+	}
+}
\ No newline at end of file
@@ -5,6 +5,7 @@ import com.electronwill.nightconfig.core.ConfigFormat;
 import com.electronwill.nightconfig.core.file.FormatDetector;
 import com.electronwill.nightconfig.core.io.ConfigParser;
 import com.electronwill.nightconfig.core.io.ConfigWriter;
+import com.electronwill.nightconfig.core.io.SectionScanner;
 import com.electronwill.nightconfig.core.utils.WriterSupplier;
 
 import java.io.IOException;
@@ -131,6 +132,11 @@ public abstract class JsonFormat<W extends ConfigWriter> implements ConfigFormat
 		return false;
 	}
 
+	@Override
+	public SectionScanner createSectionScanner() {
+		return new JsonSectionScanner();
+	}
+
 	@Override
 	public void initEmptyFile(WriterSupplier ws) throws IOException {
 		try (Writer writer = ws.get()) {
@@ -0,0 +1,348 @@
+package com.electronwill.nightconfig.json;
+
+import com.electronwill.nightconfig.core.io.ArrayInput;
+import com.electronwill.nightconfig.core.io.CharsWrapper;
+import com.electronwill.nightconfig.core.io.ParsingException;
+
+import java.util.Arrays;
+
+import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
+
+/**
+ * The structural index of a JSON document: the positions of its structural characters
+ * {@code { } [ ] : ,} and of the quotes of its strings, in the order of the document. It is
+ * built in one pass, without creating any value, and is used by {@link IndexedJsonConfig} and
+ * {@link IndexedJsonList} to find and read the values on demand.
+ * <p>
+ * The elements of the index are designated by their number, called "entry" below. The value
+ * that follows a separator entry ({@code :} or {@code ,} or the opening bracket of an array)
+ * begins at the next non-space character. An object, an array or a string takes the following
+ * entries, up to its closing bracket or quote. A number or a literal has no entry: it ends at
+ * the next entry, which is a separator.
+ * <p>
+ * The index only checks that the brackets are balanced. The rest of the syntax is checked when
+ * the data is read, so an invalid value that is never read isn't detected.
+ *
+ * @author TheElectronWill
+ */
+final class JsonIndex {
+	private static final char[] TRUE = {'t', 'r', 'u', 'e'}, FALSE = {'f', 'a', 'l', 's', 'e'};
+	private static final char[] NULL = {'n', 'u', 'l', 'l'};
+
+	final JsonParser parser;
+	private final char[] text;
+	private final int length;
+	private int[] positions;// the position of each entry in the text
+	private int[] ends;// the closing entry of each bracket, 1 for each quote of an escaped string
+	private int size;
+
+	private JsonIndex(JsonParser parser, char[] text, int length) {
+		this.parser = parser;
+		this.text = text;
+		this.length = length;
+		int capacity = Math.max(16, length >> 3);
+		this.positions = new int[capacity];
+		this.ends = new int[capacity];
+	}
+
+	/**
+	 * Builds the index of a JSON document, whose root must be an object.
+	 *
+	 * @param parser the parser that provides the format and parses the escaped strings
+	 * @param text   the document, which must not be modified afterwards
+	 * @param length the number of characters of the document
+	 * @return the index
+	 */
+	static JsonIndex build(JsonParser parser, char[] text, int length) {
+		JsonIndex index = new JsonIndex(parser, text, length);
+		int[] stack = new int[16];// the opening entries of the current objects and arrays
+		int depth = 0;
+		int i = skipSpaces(text, 0, length);
+		if (i == length || text[i] != '{') {
+			throw new ParsingException("Invalid JSON document: the root must be an object");
+		}
+		for (; i < length; i++) {
+			char c = text[i];
+			switch (c) {
+				case '"': {
+					int open = index.add(i);
+					boolean escaped = false;
+					while (true) {
+						if (++i >= length) {
+							throw new ParsingException("Unterminated string at position "
+													   + index.positions[open]);
+						}
+						c = text[i];
+						if (c == '"') {
+							break;
+						}
+						if (c == '\\') {
+							escaped = true;
+							i++;
+						}
+					}
+					if (escaped) {
+						index.ends[open] = 1;
+					}
+					index.add(i);
+					break;
+				}
+				case '{':
+				case '[':
+					if (depth == stack.length) {
+						stack = Arrays.copyOf(stack, depth * 2);
+					}
+					stack[depth++] = index.add(i);
+					break;
+				case '}':
+				case ']': {
+					if (depth == 0) {
+						throw new ParsingException("Invalid character '"
+												   + c
+												   + "' at position "
+												   + i
+												   + ": nothing to close");
+					}
+					int open = stack[--depth];
+					char openChar = text[index.positions[open]];
+					if ((openChar == '{') != (c == '}')) {
+						throw new ParsingException("Invalid character '"
+												   + c
+												   + "' at position "
+												   + i
+												   + ": expected the end of the "
+												   + (openChar == '{' ? "object" : "array")
+												   + " that begins at position "
+												   + index.positions[open]);
+					}
+					int close = index.add(i);// may replace the arrays
+					index.ends[open] = close;
+					if (depth == 0) {// end of the root object
+						int rest = skipSpaces(text, i + 1, length);
+						if (rest != length) {
+							throw new ParsingException("Invalid data after the end of the "
+													   + "document at position "
+													   + rest);
+						}
+					}
+					break;
+				}
+				case ':':
+				case ',':
+					index.add(i);
+					break;
+				// The other characters belong to the numbers and literals, or are spaces
+			}
+		}
+		if (depth != 0) {
+			throw ParsingException.notEnoughData();
+		}
+		return index;
+	}
+
+	private int add(int position) {
+		if (size == positions.length) {
+			positions = Arrays.copyOf(positions, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+		}
+		positions[size] = position;
+		return size++;
+	}
+
+	/**
+	 * @return the closing entry of an object or an array
+	 */
+	int end(int open) {
+		return ends[open];
+	}
+
+	/**
+	 * @return true if an object or an array is empty
+	 */
+	boolean isEmpty(int open) {
+		return firstChar(open) == positions[ends[open]];
+	}
+
+	/**
+	 * Checks the separator that follows a value, and returns it if it's a ',', or -1 if it ends
+	 * the object or array.
+	 *
+	 * @param next  the entry that follows the value, as returned by {@link #skipValue(int)}
+	 * @param close the closing entry of the object or array
+	 */
+	int next(int next, int close) {
+		if (next == close) {
+			return -1;
+		}
+		if (text[positions[next]] != ',') {
+			throw invalid(positions[next], "',' or the end of the " + container(close));
+		}
+		if (firstChar(next) == positions[close]) {
+			throw invalid(positions[close], "a value after ','");
+		}
+		return next;
+	}
+
+	/**
+	 * Checks the key that begins at the given entry, and returns the ':' entry that follows it.
+	 */
+	int key(int quote) {
+		checkStart(quote - 1, quote, '"', "a key");
+		int separator = quote + 2;
+		if (text[positions[separator]] != ':' || firstChar(quote + 1) != positions[separator]) {
+			throw invalid(firstChar(quote + 1), "':' after the key");
+		}
+		return separator;
+	}
+
+	/**
+	 * Checks if the string that begins at the given entry is equal to a key.
+	 */
+	boolean keyEquals(int quote, String key) {
+		if (ends[quote] == 1) {
+			return readString(quote).equals(key);
+		}
+		int start = positions[quote] + 1;
+		int keyLength = positions[quote + 1] - start;
+		if (keyLength != key.length()) {
+			return false;
+		}
+		for (int i = 0; i < keyLength; i++) {
+			if (text[start + i] != key.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the string that begins at the given entry
+	 */
+	String readString(int quote) {
+		int start = positions[quote] + 1;
+		int end = positions[quote + 1];
+		if (ends[quote] == 0) {// common case: no escape sequence
+			return new String(text, start, end - start);
+		}
+		return parser.parseString(new ArrayInput(text, start, end + 1));
+	}
+
+	/**
+	 * Returns the entry that follows the value of a separator, without reading the value.
+	 */
+	int skipValue(int separator) {
+		int entry = separator + 1;
+		switch (text[firstChar(separator)]) {
+			case '{':
+			case '[':
+				checkValue(separator);
+				return ends[entry] + 1;
+			case '"':
+				checkValue(separator);
+				return entry + 2;
+			default:// number or literal
+				return entry;
+		}
+	}
+
+	/**
+	 * Reads the value of a separator. An object is read as an {@link IndexedJsonConfig} and an
+	 * array as an {@link IndexedJsonList}, which read their values on demand. A null value is
+	 * read as {@link com.electronwill.nightconfig.core.NullObject#NULL_OBJECT}.
+	 */
+	Object readValue(int separator) {
+		int start = firstChar(separator);
+		int entry = separator + 1;
+		switch (text[start]) {
+			case '{':
+				checkValue(separator);
+				return new IndexedJsonConfig(this, entry);
+			case '[':
+				checkValue(separator);
+				return new IndexedJsonList(this, entry);
+			case '"':
+				checkValue(separator);
+				return readString(entry);
+			default:
+				return readLiteral(start, positions[entry]);
+		}
+	}
+
+	private Object readLiteral(int start, int end) {
+		while (end > start && isSpace(text[end - 1])) {
+			end--;
+		}
+		if (start == end) {
+			throw invalid(start, "a value");
+		}
+		CharsWrapper chars = new CharsWrapper(text, start, end);
+		switch (text[start]) {
+			case 't':
+				if (chars.contentEquals(TRUE)) {
+					return true;
+				}
+				break;
+			case 'f':
+				if (chars.contentEquals(FALSE)) {
+					return false;
+				}
+				break;
+			case 'n':
+				if (chars.contentEquals(NULL)) {
+					return NULL_OBJECT;
+				}
+				break;
+			default:
+				return JsonParser.parseNumber(chars);
+		}
+		throw new ParsingException("Invalid value at position " + start + ": " + chars);
+	}
+
+	/**
+	 * Checks that the value of a separator begins with its first entry, i.e. that there is
+	 * nothing but spaces between the separator and the value.
+	 */
+	private void checkValue(int separator) {
+		checkStart(separator, separator + 1, text[positions[separator + 1]], "a value");
+	}
+
+	private void checkStart(int previous, int entry, char expected, String what) {
+		int start = firstChar(previous);
+		if (start != positions[entry] || text[start] != expected) {
+			throw invalid(start, what);
+		}
+	}
+
+	/**
+	 * @return the position of the first non-space character after an entry
+	 */
+	private int firstChar(int entry) {
+		return skipSpaces(text, positions[entry] + 1, length);
+	}
+
+	private String container(int close) {
+		return (text[positions[close]] == '}') ? "object" : "array";
+	}
+
+	private ParsingException invalid(int position, String expected) {
+		String found = (position < length) ? "'" + text[position] + "'" : "end of data";
+		return new ParsingException("Invalid JSON data at position "
+									+ position
+									+ ": expected "
+									+ expected
+									+ " but found "
+									+ found);
+	}
+
+	private static int skipSpaces(char[] text, int from, int length) {
+		int i = from;
+		while (i < length && isSpace(text[i])) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+	}
+}
\ No newline at end of file
@@ -2,16 +2,25 @@ package com.electronwill.nightconfig.json;
 
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.LazyString;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.electronwill.nightconfig.core.io.*;
+import com.electronwill.nightconfig.core.io.SectionScanner.Section;
 import com.electronwill.nightconfig.core.utils.FastStringReader;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
- * A JSON parser.
+ * A JSON parser. The parser keeps no state between its calls, therefore a parser whose
+ * settings are no longer modified can be shared and used by several threads at the same time.
  *
  * @author TheElectronWill
  */
@@ -20,9 +29,15 @@ public final class JsonParser implements ConfigParser<Config> {
 	private static final char[] TRUE_LAST = {'r', 'u', 'e'}, FALSE_LAST = {'a', 'l', 's', 'e'};
 	private static final char[] NULL_LAST = {'u', 'l', 'l'};
 	private static final char[] NUMBER_END = {',', '}', ']', ' ', '\t', '\n', '\r'};
+	private static final char[] FP_CHARS = {'.', 'e', 'E'};
+	private static final char[] STRING_END = {'"', '\\'};
+	private static final char[] NESTED_STOP = {'"', '{', '}', '[', ']'};
 
 	private final ConfigFormat<Config> configFormat;
 	private boolean emptyDataAccepted = false;
+	private boolean lazyStrings = false;
+	private ForkJoinPool parallelPool = null;
+	int segmentSize = 1 << 20;// the minimum size of the parts parsed in parallel, in chars
 
 	public JsonParser() {
 		this(JsonFormat.fancyInstance());
@@ -56,6 +71,50 @@ public final class JsonParser implements ConfigParser<Config> {
 		return this;
 	}
 
+	/**
+	 * @return true if the parser creates lazy strings, false otherwise (default)
+	 */
+	public boolean isLazyStrings() {
+		return lazyStrings;
+	}
+
+	/**
+	 * Enables or disables the lazy strings. False by default. If set to true, the string values
+	 * of the objects that contain no escape sequence are stored as {@link LazyString}s, which
+	 * are turned into Strings when they are read for the first time. This saves time and memory
+	 * when only a few values are read, but the parsed data is retained until then.
+	 *
+	 * @param lazyStrings true to create lazy strings, false to create Strings
+	 */
+	public JsonParser setLazyStrings(boolean lazyStrings) {
+		this.lazyStrings = lazyStrings;
+		return this;
+	}
+
+	/**
+	 * @return the pool used to parse the documents in parallel, or null if the parallel parsing
+	 * is disabled (default)
+	 */
+	public ForkJoinPool getParallelPool() {
+		return parallelPool;
+	}
+
+	/**
+	 * Enables or disables the parallel parsing. Disabled by default. If a pool is set, the methods
+	 * that take a Reader or a String and return a new config or list read the whole document,
+	 * find the members of its root object or the elements of its root array with a quick scan,
+	 * and parse them on the pool. The small documents are parsed by the calling thread.
+	 * <p>
+	 * The methods that parse the data into an existing config or list aren't affected.
+	 *
+	 * @param parallelPool the pool to use, or null to parse on the calling thread only
+	 * @return this parser
+	 */
+	public JsonParser setParallelPool(ForkJoinPool parallelPool) {
+		this.parallelPool = parallelPool;
+		return this;
+	}
+
 	/**
 	 * Parses a JSON document, either a JSON object (parsed to a JsonConfig) or a JSON array
 	 * (parsed to a List).
@@ -64,6 +123,9 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @return either a JsonConfig or a List, depending on the document's type
 	 */
 	public Object parseDocument(String json) {
+		if (parallelPool != null) {
+			return parseDocumentInMemory(json);
+		}
 		return parseDocument(new FastStringReader(json));
 	}
 
@@ -75,7 +137,32 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @return either a JsonConfig or a List, depending on the document's type
 	 */
 	public Object parseDocument(Reader reader) {
-		CharacterInput input = new ReaderInput(reader);
+		if (parallelPool != null) {
+			return parseDocumentInMemory(readAll(reader));
+		}
+		return parseDocument(BufferedInput.of(reader));
+	}
+
+	private Object parseDocumentInMemory(String json) {
+		if (json.length() >= 2 * segmentSize) {
+			int i = 0;
+			while (i < json.length() && Utils.arrayContains(SPACES, json.charAt(i))) {
+				i++;
+			}
+			char firstChar = (i < json.length()) ? json.charAt(i) : ' ';
+			if (firstChar == '{') {
+				Config config = configFormat.createConfig();
+				parseInParallel(json, config);
+				return config;
+			}
+			if (firstChar == '[') {
+				return parseListInParallel(json);
+			}
+		}
+		return parseDocument(BufferedInput.of(new FastStringReader(json)));
+	}
+
+	private Object parseDocument(CharacterInput input) {
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => return empty config
@@ -99,8 +186,38 @@ public final class JsonParser implements ConfigParser<Config> {
 	 */
 	@Override
 	public Config parse(Reader reader) {
+		if (parallelPool != null) {
+			return parseInMemory(readAll(reader));
+		}
+		return parse(BufferedInput.of(reader));
+	}
+
+	/**
+	 * Parses a JSON object to a Config.
+	 */
+	@Override
+	public Config parse(String json) {
+		if (parallelPool != null) {
+			return parseInMemory(json);
+		}
+		return ConfigParser.super.parse(json);
+	}
+
+	/**
+	 * Parses a JSON object to a Config.
+	 */
+	@Override
+	public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
+		parse(BufferedInput.of(reader), destination, parsingMode);
+	}
+
+	/**
+	 * Parses a JSON object to a Config.
+	 */
+	@Override
+	public Config parse(CharacterInput input) {
 		Config config = JsonFormat.minimalInstance().createConfig();
-		parse(reader, config, ParsingMode.MERGE);
+		parse(input, config, ParsingMode.MERGE);
 		return config;
 	}
 
@@ -108,8 +225,7 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * Parses a JSON object to a Config.
 	 */
 	@Override
-	public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
-		CharacterInput input = new ReaderInput(reader);
+	public void parse(CharacterInput input, Config destination, ParsingMode parsingMode) {
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => let the config as it is
@@ -126,6 +242,106 @@ public final class JsonParser implements ConfigParser<Config> {
 		parseObject(input, destination, parsingMode);
 	}
 
+	/**
+	 * Parses the members of a JSON object that are accepted by a filter. The skipped values are
+	 * only scanned to find their end: their strings, numbers, objects and arrays aren't created.
+	 */
+	@Override
+	public void parse(Reader reader, Config destination, ParsingMode parsingMode,
+					  PathFilter filter) {
+		CharacterInput input = BufferedInput.of(reader);
+		if (input.peek() == -1) {
+			if (emptyDataAccepted) {
+				return;
+			} else {
+				throw new ParsingException("No json data: input is empty");
+			}
+		}
+		char firstChar = input.readCharAndSkip(SPACES);
+		if (firstChar != '{') {
+			throw new ParsingException("Invalid first character for a json object: " + firstChar);
+		}
+		parsingMode.prepareParsing(destination);
+		parseObject(input, destination, parsingMode, filter, new ArrayList<>());
+	}
+
+	/**
+	 * Creates a reader of the events of a JSON document, either a JSON object or a JSON array.
+	 * If the data is empty and {@link #isEmptyDataAccepted()}, the only event is
+	 * {@link ConfigEvent#END_DOCUMENT}.
+	 */
+	@Override
+	public ConfigEventReader readEvents(Reader reader) {
+		return readEvents(BufferedInput.of(reader));
+	}
+
+	/**
+	 * Creates a reader of the events of a JSON document, either a JSON object or a JSON array.
+	 * If the data is empty and {@link #isEmptyDataAccepted()}, the only event is
+	 * {@link ConfigEvent#END_DOCUMENT}.
+	 */
+	@Override
+	public ConfigEventReader readEvents(CharacterInput input) {
+		return new JsonEventReader(this, input);
+	}
+
+	/**
+	 * Parses a JSON object on demand. The document is first scanned to build an index of its
+	 * structure, without creating any value. The returned config reads the values from this index
+	 * when they are requested, and only reads the data that precedes them in their object: the
+	 * objects, arrays, strings and numbers that are never requested aren't created. This is much
+	 * faster than {@link #parse(String)} when only a few values of a big document are read.
+	 * <p>
+	 * The brackets are checked when the index is built, but the rest of the syntax is only
+	 * checked when the data is read, so a ParsingException may be thrown by the methods of the
+	 * config. The config retains the document until it's no longer used.
+	 *
+	 * @param json the data to parse
+	 * @return an unmodifiable config that reads its values on demand
+	 */
+	public UnmodifiableConfig parseOnDemand(String json) {
+		return parseOnDemand(json.toCharArray(), json.length());
+	}
+
+	/**
+	 * Parses a JSON object on demand. The Reader is read entirely before this method returns.
+	 *
+	 * @param reader the Reader to parse
+	 * @return an unmodifiable config that reads its values on demand
+	 * @see #parseOnDemand(String)
+	 */
+	public UnmodifiableConfig parseOnDemand(Reader reader) {
+		char[] text = new char[8192];
+		int length = 0;
+		try {
+			int read;
+			while ((read = reader.read(text, length, text.length - length)) != -1) {
+				length += read;
+				if (length == text.length) {
+					text = Arrays.copyOf(text, length * 2);
+				}
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		return parseOnDemand(text, length);
+	}
+
+	private UnmodifiableConfig parseOnDemand(char[] text, int length) {
+		int i = 0;
+		while (i < length && Utils.arrayContains(SPACES, text[i])) {
+			i++;
+		}
+		if (i == length) {
+			if (emptyDataAccepted) {
+				return configFormat.createConfig().unmodifiable();
+			} else {
+				throw new ParsingException("No json data: input is empty");
+			}
+		}
+		return new IndexedJsonConfig(JsonIndex.build(this, text, length), 0);
+	}
+
 	/**
 	 * Parses a JSON array to a List.
 	 *
@@ -133,6 +349,9 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @return a List with the content of the parsed array
 	 */
 	public <T> List<T> parseList(String json) {
+		if (parallelPool != null) {
+			return (List<T>)parseListInMemory(json);
+		}
 		return parseList(new FastStringReader(json));
 	}
 
@@ -143,6 +362,9 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @return a List with the content of the parsed array
 	 */
 	public <T> List<T> parseList(Reader reader) {
+		if (parallelPool != null) {
+			return (List<T>)parseListInMemory(readAll(reader));
+		}
 		List<Object> list = new ArrayList<>();
 		parseList(reader, list, ParsingMode.MERGE);
 		return (List<T>)list;
@@ -155,7 +377,10 @@ public final class JsonParser implements ConfigParser<Config> {
 	 * @param destination the List where to put the data
 	 */
 	public void parseList(Reader reader, List<?> destination, ParsingMode parsingMode) {
-		CharacterInput input = new ReaderInput(reader);
+		parseList(BufferedInput.of(reader), destination, parsingMode);
+	}
+
+	private void parseList(CharacterInput input, List<?> destination, ParsingMode parsingMode) {
 		if (input.peek() == -1) {
 			if (emptyDataAccepted) {
 				// If data is empty && we accept empty data => let the config as it is
@@ -171,6 +396,114 @@ public final class JsonParser implements ConfigParser<Config> {
 		parseArray(input, destination, parsingMode);
 	}
 
+	private Config parseInMemory(String json) {
+		if (json.length() < 2 * segmentSize) {// not worth splitting
+			return parse(BufferedInput.of(new FastStringReader(json)));
+		}
+		Config config = JsonFormat.minimalInstance().createConfig();
+		parseInParallel(json, config);
+		return config;
+	}
+
+	private List<Object> parseListInMemory(String json) {
+		List<Object> list = new ArrayList<>();
+		if (json.length() < 2 * segmentSize) {// not worth splitting
+			parseList(BufferedInput.of(new FastStringReader(json)), list, ParsingMode.MERGE);
+		} else {
+			list.addAll(parseListInParallel(json));
+		}
+		return list;
+	}
+
+	/**
+	 * Splits a root object between its members and parses the parts on the parallel pool. The
+	 * values are put into the config in the order of the document, so that the last value of a
+	 * duplicate key is kept, like in a sequential parsing.
+	 */
+	private void parseInParallel(String json, Config destination) {
+		JsonSectionScanner scanner = new JsonSectionScanner();
+		List<ForkJoinTask<Config>> tasks = new ArrayList<>();
+		try {
+			for (List<Section> segment : segments(scanner.scan(json))) {
+				String segmentJson = scanner.join(json, segment, false);
+				CharacterInput input = BufferedInput.of(new FastStringReader(segmentJson));
+				tasks.add(parallelPool.submit(() -> parse(input)));
+			}
+			Map<String, Object> values = destination.valueMap();
+			for (ForkJoinTask<Config> task : tasks) {
+				values.putAll(task.join().valueMap());
+			}
+		} finally {
+			for (ForkJoinTask<?> task : tasks) {
+				task.cancel(false);// doesn't affect the completed tasks
+			}
+		}
+	}
+
+	/**
+	 * Splits a root array between its elements and parses the parts on the parallel pool.
+	 */
+	private List<Object> parseListInParallel(String json) {
+		JsonSectionScanner scanner = new JsonSectionScanner();
+		List<Section> elements = scanner.scanElements(json);
+		List<ForkJoinTask<List<Object>>> tasks = new ArrayList<>();
+		try {
+			for (List<Section> segment : segments(elements)) {
+				String segmentJson = scanner.join(json, segment, true);
+				CharacterInput input = BufferedInput.of(new FastStringReader(segmentJson));
+				tasks.add(parallelPool.submit(() -> {
+					List<Object> list = new ArrayList<>(segment.size());
+					parseList(input, list, ParsingMode.MERGE);
+					return list;
+				}));
+			}
+			List<Object> list = new ArrayList<>(elements.size());
+			for (ForkJoinTask<List<Object>> task : tasks) {
+				list.addAll(task.join());
+			}
+			return list;
+		} finally {
+			for (ForkJoinTask<?> task : tasks) {
+				task.cancel(false);
+			}
+		}
+	}
+
+	/**
+	 * Groups consecutive sections in segments of at least segmentSize chars.
+	 */
+	private List<List<Section>> segments(List<Section> sections) {
+		List<List<Section>> segments = new ArrayList<>();
+		int from = 0;
+		long size = 0;
+		for (int i = 0; i < sections.size(); i++) {
+			size += sections.get(i).size();
+			if (size >= segmentSize) {
+				segments.add(sections.subList(from, i + 1));
+				from = i + 1;
+				size = 0;
+			}
+		}
+		if (from < sections.size()) {
+			segments.add(sections.subList(from, sections.size()));
+		}
+		return segments;
+	}
+
+	private static String readAll(Reader reader) {
+		StringBuilder builder = new StringBuilder(8192);
+		char[] buffer = new char[8192];
+		try {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				builder.append(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		return builder.toString();
+	}
+
 	private <T extends Config> T parseObject(CharacterInput input, T config, ParsingMode parsingMode) {
 		char kfirst = input.readCharAndSkip(SPACES);
 		if (kfirst == '}') {
@@ -202,10 +535,98 @@ public final class JsonParser implements ConfigParser<Config> {
 		}
 
 		char vfirst = input.readCharAndSkip(SPACES);
-		Object value = parseValue(input, vfirst, parsingMode);
+		Object value = (vfirst == '"' && lazyStrings) ? parseLazyString(input)
+													  : parseValue(input, vfirst, parsingMode);
 		parsingMode.put(config, key, value);
 	}
 
+	/**
+	 * Parses the members of an object that are accepted by a filter.
+	 *
+	 * @param path the path of the object, which is used to build the paths of the members
+	 */
+	private void parseObject(CharacterInput input, Config config, ParsingMode parsingMode,
+							 PathFilter filter, List<String> path) {
+		char kfirst = input.readCharAndSkip(SPACES);
+		if (kfirst == '}') {
+			return;
+		}
+		while (true) {
+			if (kfirst != '"') {
+				throw new ParsingException("Invalid beginning of a key: " + kfirst);
+			}
+			String key = parseString(input);
+			char sep = input.readCharAndSkip(SPACES);
+			if (sep != ':') {
+				throw new ParsingException("Invalid key-value separator: " + sep);
+			}
+			char vfirst = input.readCharAndSkip(SPACES);
+			path.add(key);
+			PathFilter.Action action = filter.test(path);
+			if (action == PathFilter.Action.SKIP) {
+				skipValue(input, vfirst);
+			} else {
+				Object value;
+				if (action == PathFilter.Action.DESCEND && vfirst == '{') {
+					Config object = configFormat.createConfig();
+					parseObject(input, object, parsingMode, filter, path);
+					value = object;
+				} else if (vfirst == '"' && lazyStrings) {
+					value = parseLazyString(input);
+				} else {
+					value = parseValue(input, vfirst, parsingMode);
+				}
+				parsingMode.put(config, Collections.singletonList(key), value);
+			}
+			path.remove(path.size() - 1);
+			char vsep = input.readCharAndSkip(SPACES);
+			if (vsep == '}') {// end of the object
+				return;
+			} else if (vsep != ',') {
+				throw new ParsingException("Invalid value separator: " + vsep);
+			}
+			kfirst = input.readCharAndSkip(SPACES);
+		}
+	}
+
+	/**
+	 * Skips a value without creating it.
+	 */
+	private void skipValue(CharacterInput input, char firstChar) {
+		switch (firstChar) {
+			case '"':
+				skipString(input);
+				break;
+			case '{':
+			case '[':
+				int depth = 1;
+				do {
+					input.readCharsUntil(NESTED_STOP);
+					char c = input.readChar();
+					if (c == '"') {
+						skipString(input);
+					} else if (c == '{' || c == '[') {
+						depth++;
+					} else {
+						depth--;
+					}
+				} while (depth > 0);
+				break;
+			default:// number or literal
+				input.readCharsUntil(NUMBER_END);
+		}
+	}
+
+	private void skipString(CharacterInput input) {
+		while (true) {
+			input.readCharsUntil(STRING_END);
+			if (input.readChar() == '"') {
+				return;
+			}
+			input.readChar();// the escaped character, which can't end the string
+		}
+	}
+
 	private <T> List<T> parseArray(CharacterInput input, List<T> list, ParsingMode parsingMode) {
 		boolean first = true;
 		while (true) {
@@ -245,9 +666,12 @@ public final class JsonParser implements ConfigParser<Config> {
 		}
 	}
 
-	private Number parseNumber(CharacterInput input) {
-		CharsWrapper chars = input.readCharsUntil(NUMBER_END);
-		if (chars.contains('.') || chars.contains('e') || chars.contains('E')) {// must be a double
+	Number parseNumber(CharacterInput input) {
+		return parseNumber(input.readCharsUntil(NUMBER_END));
+	}
+
+	static Number parseNumber(CharsWrapper chars) {
+		if (chars.indexOfFirst(FP_CHARS) != -1) {// must be a double
 			return Utils.parseDouble(chars);
 		}
 		long l = Utils.parseLong(chars, 10);
@@ -258,7 +682,7 @@ public final class JsonParser implements ConfigParser<Config> {
 		return l;
 	}
 
-	private boolean parseTrue(CharacterInput input) {
+	boolean parseTrue(CharacterInput input) {
 		CharsWrapper chars = input.readChars(3);
 		if (!chars.contentEquals(TRUE_LAST)) {
 			throw new ParsingException("Invalid value: t" + chars + " - expected boolean true");
@@ -266,7 +690,7 @@ public final class JsonParser implements ConfigParser<Config> {
 		return true;
 	}
 
-	private boolean parseFalse(CharacterInput input) {
+	boolean parseFalse(CharacterInput input) {
 		CharsWrapper chars = input.readChars(4);
 		if (!chars.contentEquals(FALSE_LAST)) {
 			throw new ParsingException("Invalid value: f" + chars + " - expected boolean false");
@@ -274,7 +698,7 @@ public final class JsonParser implements ConfigParser<Config> {
 		return false;
 	}
 
-	private Object parseNull(CharacterInput input) {
+	Object parseNull(CharacterInput input) {
 		CharsWrapper chars = input.readChars(3);
 		if (!chars.contentEquals(NULL_LAST)) {
 			throw new ParsingException("Invaid value: n" + chars + " - expected null");
@@ -282,24 +706,68 @@ public final class JsonParser implements ConfigParser<Config> {
 		return null;
 	}
 
-	private String parseString(CharacterInput input) {
-		StringBuilder builder = new StringBuilder();
-		boolean escape = false;
-		char c;
-		while ((c = input.readChar()) != '"' || escape) {
-			if (escape) {
-				builder.append(escape(c, input));
-				escape = false;
-			} else if (c == '\\') {
-				escape = true;
+	private CharSequence parseLazyString(CharacterInput input) {
+		CharsWrapper chars = input.readCharsUntil(STRING_END);
+		if (input.readChar() == '"') {
+			return new LazyString(chars);
+		}
+		// The string contains escape sequences: it can't be a view of the input
+		CharsWrapper.Builder builder = BufferPool.takeBuilder(chars.length() + 16);
+		builder.append(chars);
+		builder.append(escape(input.readChar(), input));
+		return parseString(input, builder);
+	}
+
+	String parseString(CharacterInput input) {
+		CharsWrapper chars = input.readCharsUntil(STRING_END);
+		if (input.readChar() == '"') {// common case: no escape sequence
+			return chars.toString();
+		}
+		CharsWrapper.Builder builder = BufferPool.takeBuilder(chars.length() + 16);
+		builder.append(chars);
+		builder.append(escape(input.readChar(), input));
+		return parseString(input, builder);
+	}
+
+	/**
+	 * Parses the rest of a string, and gives the builder back to the pool.
+	 */
+	private String parseString(CharacterInput input, CharsWrapper.Builder builder) {
+		while (true) {
+			builder.append(input.readCharsUntil(STRING_END));
+			if (input.readChar() == '"') {
+				break;
+			}
+			builder.append(escape(input.readChar(), input));
+		}
+		String str = builder.toString();
+		BufferPool.giveBack(builder);
+		return str;
+	}
+
+	/**
+	 * Replaces the escape sequences of a string's content, like {@link #parseString} does.
+	 */
+	static String unescape(String s) {
+		int backslash = s.indexOf('\\');
+		if (backslash == -1) {
+			return s;
+		}
+		StringBuilder builder = new StringBuilder(s.length());
+		builder.append(s, 0, backslash);
+		CharacterInput input = new ArrayInput(s.toCharArray(), backslash, s.length());
+		int c;
+		while ((c = input.read()) != -1) {
+			if (c == '\\') {
+				builder.append(escape(input.readChar(), input));
 			} else {
-				builder.append(c);
+				builder.append((char)c);
 			}
 		}
 		return builder.toString();
 	}
 
-	private char escape(char c, CharacterInput input) {
+	private static char escape(char c, CharacterInput input) {
 		switch (c) {
 			case '"':
 			case '\\':
@@ -0,0 +1,246 @@
+package com.electronwill.nightconfig.json;
+
+import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.SectionScanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the members of the root object of a JSON document. Each member is a section that starts
+ * at the opening quote of its key and ends after its value. The scanner can also find the
+ * elements of a root array, in a document that is already in memory.
+ * <p>
+ * The document is read from an InputStream, and the positions are in bytes, or from a
+ * CharSequence, and the positions are in characters.
+ *
+ * @author TheElectronWill
+ */
+final class JsonSectionScanner implements SectionScanner {
+	private static final int BUFFER_SIZE = 65536;
+
+	private InputStream input;
+	private CharSequence text;// read instead of the input if not null
+	private byte[] buffer;// allocated by the first scan of an InputStream
+	private int bufferPos, bufferLimit;
+	private long position;// position of the next byte
+
+	@Override
+	public List<Section> scan(InputStream input, Charset charset) throws IOException {
+		this.input = input;
+		this.text = null;
+		if (buffer == null) {
+			buffer = new byte[BUFFER_SIZE];
+		}
+		this.bufferPos = 0;
+		this.bufferLimit = 0;
+		return scanMembers(charset);
+	}
+
+	/**
+	 * Scans a document that is already in memory. The positions of the sections are indexes in
+	 * the text.
+	 *
+	 * @param text the document to scan, whose root must be an object
+	 * @return the members of the root object
+	 */
+	List<Section> scan(CharSequence text) {
+		this.input = null;
+		this.text = text;
+		try {
+			return scanMembers(null);
+		} catch (IOException e) {// impossible without an InputStream
+			throw new ParsingException("Failed to scan the text", e);
+		}
+	}
+
+	/**
+	 * Scans the elements of a root array. The sections have no key, and their positions are
+	 * indexes in the text.
+	 *
+	 * @param text the document to scan, whose root must be an array
+	 * @return the elements of the root array
+	 */
+	List<Section> scanElements(CharSequence text) {
+		this.input = null;
+		this.text = text;
+		this.position = 0;
+		List<Section> sections = new ArrayList<>();
+		try {
+			if (nextNonSpace() != '[') {
+				throw new ParsingException("Invalid JSON document: the root must be an array");
+			}
+			int b = nextNonSpace();
+			if (b == ']') {
+				return sections;
+			}
+			while (true) {
+				long start = position - 1;
+				int end = skipValue(b, ']');
+				sections.add(new Section(null, start, position - 1));
+				if (end == ']') {
+					return sections;
+				}
+				b = nextNonSpace();
+			}
+		} catch (IOException e) {// impossible without an InputStream
+			throw new ParsingException("Failed to scan the text", e);
+		}
+	}
+
+	private List<Section> scanMembers(Charset charset) throws IOException {
+		this.position = 0;
+		List<Section> sections = new ArrayList<>();
+		int b = nextNonSpace();
+		if (b != '{') {
+			throw new ParsingException("Invalid JSON document: the root must be an object");
+		}
+		ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+		b = nextNonSpace();
+		if (b == '}') {
+			return sections;
+		}
+		while (true) {
+			if (b != '"') {
+				throw new ParsingException("Invalid beginning of a key at byte " + (position - 1));
+			}
+			long start = position - 1;
+			String key;
+			if (text == null) {
+				keyBytes.reset();
+				skipString(keyBytes);
+				key = JsonParser.unescape(new String(keyBytes.toByteArray(), charset));
+			} else {
+				skipString(null);
+				CharSequence raw = text.subSequence((int)start + 1, (int)position - 1);
+				key = JsonParser.unescape(raw.toString());
+			}
+			if (nextNonSpace() != ':') {
+				throw new ParsingException("Missing ':' after key " + key);
+			}
+			int end = skipValue(next(), '}');
+			sections.add(new Section(key, start, position - 1));
+			if (end == '}') {
+				return sections;
+			}
+			b = nextNonSpace();
+		}
+	}
+
+	@Override
+	public String join(List<String> sectionTexts) {
+		return '{' + String.join(",", sectionTexts) + '}';
+	}
+
+	/**
+	 * Joins some sections of a text scanned by {@link #scan(CharSequence)} or
+	 * {@link #scanElements(CharSequence)}.
+	 *
+	 * @param text     the scanned text
+	 * @param sections the sections to join, in the order of the text
+	 * @param array    true to join the elements of an array, false to join members
+	 * @return the document
+	 */
+	String join(String text, List<Section> sections, boolean array) {
+		StringBuilder builder = new StringBuilder(
+				(int)(sections.get(sections.size() - 1).end() - sections.get(0).start()) + 2);
+		builder.append(array ? '[' : '{');
+		for (int i = 0; i < sections.size(); i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			Section section = sections.get(i);
+			builder.append(text, (int)section.start(), (int)section.end());
+		}
+		return builder.append(array ? ']' : '}').toString();
+	}
+
+	/**
+	 * Skips a value and returns the character that ends it: ',' or the closing character of the
+	 * object or array that contains the value.
+	 *
+	 * @param first the first character of the value, or a space before it
+	 */
+	private int skipValue(int first, int close) throws IOException {
+		int depth = 0;
+		int b = first;
+		while (true) {
+			switch (b) {
+				case '"':
+					skipString(null);
+					break;
+				case '{':
+				case '[':
+					depth++;
+					break;
+				case ']':
+				case '}':
+					if (depth == 0 && b == close) {
+						return b;
+					}
+					depth--;
+					break;
+				case ',':
+					if (depth == 0) {
+						return b;
+					}
+					break;
+			}
+			b = next();
+		}
+	}
+
+	/**
+	 * Skips the rest of a string, after its opening quote.
+	 *
+	 * @param content receives the raw bytes of the string (without quotes), may be null
+	 */
+	private void skipString(ByteArrayOutputStream content) throws IOException {
+		while (true) {
+			int b = next();
+			if (b == '"') {
+				return;
+			}
+			if (content != null) {
+				content.write(b);
+			}
+			if (b == '\\') {
+				b = next();
+				if (content != null) {
+					content.write(b);
+				}
+			}
+		}
+	}
+
+	private int nextNonSpace() throws IOException {
+		int b;
+		do {
+			b = next();
+		} while (b == ' ' || b == '\t' || b == '\n' || b == '\r');
+		return b;
+	}
+
+	private int next() throws IOException {
+		if (text != null) {
+			if (position == text.length()) {
+				throw ParsingException.notEnoughData();
+			}
+			return text.charAt((int)position++);
+		}
+		if (bufferPos == bufferLimit) {
+			bufferLimit = input.read(buffer);
+			bufferPos = 0;
+			if (bufferLimit <= 0) {
+				bufferLimit = 0;
+				throw ParsingException.notEnoughData();
+			}
+		}
+		position++;
+		return buffer[bufferPos++] & 0xFF;
+	}
+}
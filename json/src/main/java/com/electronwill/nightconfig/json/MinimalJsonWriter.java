@@ -27,28 +27,53 @@ public final class MinimalJsonWriter implements ConfigWriter {
 	 */
 	@Override
 	public void write(UnmodifiableConfig config, Writer writer) {
-		writeConfig(config, new WriterOutput(writer));
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			writeConfig(config, output);
+			output.flush();
+		}
+	}
+
+	@Override
+	public void write(UnmodifiableConfig config, CharacterOutput output) {
+		writeConfig(config, output);
 	}
 
 	/**
 	 * Writes a Collection in the JSON array format.
 	 */
 	public void writeCollection(Collection<?> collection, Writer writer) {
-		writeCollection(collection, new WriterOutput(writer));
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			writeCollection(collection, output);
+			output.flush();
+		}
 	}
 
 	/**
 	 * Writes a String in the JSON string format.
 	 */
 	public void writeString(CharSequence csq, Writer writer) {
-		writeString(csq, new WriterOutput(writer));
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			writeString(csq, output);
+			output.flush();
+		}
 	}
 
 	/**
 	 * Writes a value in the JSON format.
 	 */
 	public void writeValue(Object value, Writer writer) {
-		writeValue(value, new WriterOutput(writer));
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			writeValue(value, output);
+			output.flush();
+		}
+	}
+
+	/**
+	 * Creates a generator that writes minimized JSON data as it comes. Comments are ignored.
+	 */
+	@Override
+	public ConfigGenerator createGenerator(CharacterOutput output) {
+		return new Generator(output);
 	}
 
 	private void writeConfig(UnmodifiableConfig config, CharacterOutput output) {
@@ -82,7 +107,7 @@ public final class MinimalJsonWriter implements ConfigWriter {
 		} else if (v instanceof Enum) {
 			writeString(((Enum<?>)v).name(), output);
 		} else if (v instanceof Number) {
-			output.write(v.toString());
+			NumberFormatter.write((Number)v, output);
 		} else if (v instanceof UnmodifiableConfig) {
 			writeConfig((UnmodifiableConfig)v, output);
 		} else if (v instanceof Collection) {
@@ -150,17 +175,74 @@ public final class MinimalJsonWriter implements ConfigWriter {
 	private void writeString(CharSequence csq, CharacterOutput output) {
 		output.write('"');
 		final int length = csq.length();
+		int runStart = 0;// start of the characters that don't need to be escaped
 		for (int i = 0; i < length; i++) {
-			char c = csq.charAt(i);
-			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, c);
-			if (escapeIndex == -1) {
-				output.write(c);
-			} else {// the character must be escaped
-				char escaped = ESCAPED[escapeIndex];
+			int escapeIndex = Utils.arrayIndexOf(TO_ESCAPE, csq.charAt(i));
+			if (escapeIndex != -1) {// the character must be escaped
+				output.write(csq, runStart, i - runStart);
 				output.write('\\');
-				output.write(escaped);
+				output.write(ESCAPED[escapeIndex]);
+				runStart = i + 1;
 			}
 		}
+		output.write(csq, runStart, length - runStart);
 		output.write('"');
 	}
+
+	private final class Generator extends AbstractGenerator {
+		Generator(CharacterOutput output) {
+			super(output);
+		}
+
+		@Override
+		protected boolean supportsRootArray() {
+			return true;
+		}
+
+		@Override
+		protected void writeTableStart(boolean first) {
+			if (!first) {
+				output.write(',');
+			}
+			output.write('{');
+		}
+
+		@Override
+		protected void writeTableEnd(boolean empty) {
+			output.write('}');
+		}
+
+		@Override
+		protected void writeArrayStart(boolean first) {
+			if (!first) {
+				output.write(',');
+			}
+			output.write('[');
+		}
+
+		@Override
+		protected void writeArrayEnd(boolean empty) {
+			output.write(']');
+		}
+
+		@Override
+		protected void writeKey(String key, boolean first) {
+			if (!first) {
+				output.write(',');
+			}
+			writeString(key, output);
+			output.write(':');
+		}
+
+		@Override
+		protected void writeValue(Object value, boolean first) {
+			if (!first) {
+				output.write(',');
+			}
+			MinimalJsonWriter.this.writeValue(value, output);
+		}
+
+		@Override
+		protected void writeComment(String comment) {}// JSON doesn't support comments
+	}
 }
\ No newline at end of file
@@ -1,19 +1,45 @@
 package com.electronwill.nightconfig.json;
 
 import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigSpec;
+import com.electronwill.nightconfig.core.LazyString;
 import com.electronwill.nightconfig.core.TestEnum;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.core.file.ConfigLoader;
 import com.electronwill.nightconfig.core.file.FileConfig;
 import com.electronwill.nightconfig.core.file.FileNotFoundAction;
+import com.electronwill.nightconfig.core.file.NoFormatFoundException;
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
+import com.electronwill.nightconfig.core.io.ConfigGenerator;
 import com.electronwill.nightconfig.core.io.IndentStyle;
 import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.ParsingMode;
+import com.electronwill.nightconfig.core.io.PathFilter;
+import com.electronwill.nightconfig.core.io.WritingException;
 import com.electronwill.nightconfig.core.io.WritingMode;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -75,6 +101,402 @@ public class JsonConfigTest {
 		assertEquals(read.toString(), config.toString());
 	}
 
+	@Test
+	public void testWriteThenReadMapped() throws IOException {
+		File mappedFile = new File("test-mapped.json");
+		new FancyJsonWriter().write(config, mappedFile, WritingMode.REPLACE);
+
+		Config read = new JsonParser().parse(mappedFile.toPath(), FileNotFoundAction.THROW_ERROR,
+			StandardCharsets.UTF_8, 0);
+		assertEquals(read.toString(), config.toString());
+
+		FileConfig fileConfig = FileConfig.builder(mappedFile).sync().memoryMapped(0).build();
+		fileConfig.load();
+		assertEquals(fileConfig.valueMap().toString(), config.valueMap().toString());
+		fileConfig.close();
+	}
+
+	@Test
+	public void testLoadAsync() {
+		File asyncFile = new File("test-async.json");
+		new FancyJsonWriter().write(config, asyncFile, WritingMode.REPLACE);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			FileConfig sync = FileConfig.builder(asyncFile).sync().concurrent().build();
+			FileConfig async = FileConfig.builder(asyncFile).concurrent().build();
+			async.set("old", "removed by the loading");
+			async.set("string", "replaced by the loading");
+			CompletableFuture.allOf(sync.loadAsync(executor), async.loadAsync(executor)).join();
+			assertEquals(config.valueMap().toString(), sync.valueMap().toString());
+			assertEquals(config.valueMap().toString(), async.valueMap().toString());
+
+			// The other threads can read the config during the loading
+			FileConfig notConcurrent = FileConfig.builder(asyncFile).sync().build();
+			assertThrows(UnsupportedOperationException.class,
+						 () -> notConcurrent.loadAsync(executor));
+
+			// The file is never parsed while it's saved
+			for (int i = 0; i < 50; i++) {
+				sync.set("count", i);
+				sync.save();
+				CompletableFuture<Void> loading = sync.loadAsync(executor);
+				sync.save();// rewrites the file during the loading
+				loading.join();
+				assertEquals(i, sync.<Integer>get("count"));
+				assertEquals(config.size() + 1, sync.size());
+				async.set("count", i);
+				async.save();
+				async.loadAsync(executor).join();
+				assertEquals(i, async.<Integer>get("count"));
+			}
+
+			FileConfig missing = FileConfig.builder(new File("missing-async.json"))
+										   .onFileNotFound(FileNotFoundAction.READ_NOTHING)
+										   .concurrent()
+										   .build();
+			missing.set("kept", true);
+			missing.loadAsync(executor).join();
+			assertTrue(missing.<Boolean>get("kept"));
+
+			sync.close();
+			async.close();
+			assertThrows(IllegalStateException.class, () -> sync.loadAsync(executor));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testConfigLoader() throws IOException {
+		Path directory = Files.createTempDirectory("night-config-loader");
+		Files.createDirectory(directory.resolve("sub"));
+		List<Path> valid = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			String name = (i % 2 == 0) ? "tenant" + i + ".json" : "sub/tenant" + i + ".json";
+			Path file = directory.resolve(name);
+			Files.write(file, ("{\"id\": " + i + "}").getBytes(StandardCharsets.UTF_8));
+			valid.add(file);
+		}
+		Path invalid = directory.resolve("invalid.json");
+		Files.write(invalid, "{\"id\": ".getBytes(StandardCharsets.UTF_8));
+		Files.write(directory.resolve("readme.txt"), Collections.singletonList("not a config"));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ConfigLoader loader = new ConfigLoader(executor);
+			ConfigLoader.Result all = loader.load(directory, "**.json");
+			assertEquals(20, all.getConfigs().size());
+			for (Path file : valid) {
+				assertEquals(valid.indexOf(file), all.getConfigs().get(file).getInt("id"));
+			}
+			assertEquals(Collections.singleton(invalid), all.getErrors().keySet());
+			assertTrue(all.getErrors().get(invalid) instanceof ParsingException);
+
+			// An Error only fails its file
+			Path deep = directory.resolve("deep.json");
+			char[] nested = new char[1_000_000];
+			Arrays.fill(nested, '[');
+			Files.write(deep, ("{\"a\": " + new String(nested)).getBytes(StandardCharsets.UTF_8));
+			ConfigLoader.Result withError = loader.load(Arrays.asList(deep, valid.get(0)));
+			assertTrue(withError.getErrors().get(deep) instanceof StackOverflowError);
+			assertEquals(1, withError.getConfigs().size());
+			Files.delete(deep);
+
+			ConfigLoader.Result top = loader.loadAsync(directory).join();
+			assertEquals(10, top.getConfigs().size());// not the subdirectory
+			Path readme = directory.resolve("readme.txt");
+			assertEquals(new HashSet<>(Arrays.asList(invalid, readme)), top.getErrors().keySet());
+			assertTrue(top.getErrors().get(readme) instanceof NoFormatFoundException);
+
+			// A rejected task only fails its file
+			AtomicInteger submitted = new AtomicInteger();
+			ConfigLoader limited = new ConfigLoader(task -> {
+				if (submitted.getAndIncrement() > 0) {
+					throw new RejectedExecutionException();
+				}
+				executor.execute(task);
+			});
+			ConfigLoader.Result rejected = limited.load(valid.subList(0, 2));
+			assertEquals(Collections.singleton(valid.get(0)), rejected.getConfigs().keySet());
+			assertTrue(rejected.getErrors().get(valid.get(1)) instanceof RejectedExecutionException);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testLazyStrings() {
+		String json = "{\"a\": \"plain\", \"b\": \"esc\\\"aped\", \"c\": [\"in list\"],"
+					  + " \"d\": \"x\"}";
+		Config lazy = new JsonParser().setLazyStrings(true).parse(json);
+		Config eager = new JsonParser().parse(json);
+		assertEquals("esc\"aped", lazy.valueMap().get("b"));
+		assertEquals(lazy.hashCode(), eager.hashCode());
+		assertEquals(lazy, eager);
+		assertEquals(eager, lazy);
+
+		// the LazyStrings don't leave the config, even through its value map
+		Map<String, Object> map = lazy.valueMap();
+		assertTrue(map.get("a") instanceof String);
+		assertTrue(map.values().stream().noneMatch(v -> v instanceof LazyString));
+		map.forEach((k, v) -> assertFalse(v instanceof LazyString));
+		assertTrue(map.containsValue("plain"));
+		assertEquals(map, eager.valueMap());
+		assertEquals(eager.valueMap(), map);
+		assertEquals(map, new HashMap<>(eager.valueMap()));
+		assertEquals(new HashMap<>(eager.valueMap()), map);
+		ConfigSpec spec = new ConfigSpec();
+		spec.define("a", "default", v -> v instanceof String);
+		spec.define("b", "default", v -> v instanceof String);
+		spec.define("c", Collections.emptyList(), v -> v instanceof List);
+		spec.define("d", "default", v -> v instanceof String);
+		assertTrue(spec.isCorrect(lazy));
+		assertEquals(0, spec.correct(lazy));
+
+		String a = lazy.get("a");
+		assertEquals("plain", a);
+		assertSame(a, lazy.get("a"));
+		assertEquals("in list", lazy.<List<String>>get("c").get(0));
+
+		// the conditional operations and the functions see the Strings too
+		assertTrue(map.replace("a", "plain", "other"));
+		assertEquals("X", map.compute("d", (k, v) -> ((String)v).toUpperCase()));
+	}
+
+	@Test
+	public void testParseOnDemand() {
+		String json = new FancyJsonWriter().writeToString(config);
+		UnmodifiableConfig onDemand = new JsonParser().parseOnDemand(json);
+		Config eager = new JsonParser().parse(json);
+		assertEquals(123456, onDemand.<Integer>get("int"));
+		assertTrue(onDemand.<Boolean>get("config.boolean"));
+		assertEquals(eager.<String>get("string"), onDemand.get("string"));
+		assertEquals(17.5, onDemand.<List<Object>>get("list").get(6));
+		assertTrue(onDemand.contains("null"));
+		assertTrue(onDemand.isNull("null"));
+		assertFalse(onDemand.contains("missing"));
+		assertNull(onDemand.get("config.missing"));
+		assertEquals("value", onDemand.get(Collections.singletonList("dots.in.key")));
+		assertEquals(eager.size(), onDemand.size());
+		assertEquals(eager, new JsonParser().parse(new MinimalJsonWriter().writeToString(onDemand)));
+		assertEquals(eager.valueMap().keySet(), onDemand.valueMap().keySet());
+		assertEquals(onDemand, new JsonParser().parseOnDemand(json));
+		assertNotEquals(onDemand, eager);
+		assertNotEquals(eager, onDemand);
+
+		// A duplicate key has its last value, before and after the values are all read
+		String duplicates = "{\"a\": 1, \"b\": 2, \"a\": 3}";
+		UnmodifiableConfig duplicated = new JsonParser().parseOnDemand(duplicates);
+		assertEquals(3, duplicated.<Integer>get("a"));
+		assertEquals(2, duplicated.size());
+		assertEquals(new JsonParser().parse(duplicates).valueMap(), duplicated.valueMap());
+		assertEquals(3, duplicated.<Integer>get("a"));
+		assertEquals(2, duplicated.size());
+
+		// The syntax of the values is only checked when they are read
+		UnmodifiableConfig invalid = new JsonParser().parseOnDemand(
+			"{\"a\": tru, \"b\": [1, {\"c\": \"\\u0041\"}], \"d\": {}}");
+		assertEquals("A", ((UnmodifiableConfig)invalid.<List<?>>get("b").get(1)).get("c"));
+		assertTrue(invalid.<UnmodifiableConfig>get("d").isEmpty());
+		assertThrows(ParsingException.class, () -> invalid.get("a"));
+		assertThrows(ParsingException.class, () -> new JsonParser().parseOnDemand("{\"a\": [1}"));
+		assertThrows(ParsingException.class, () -> new JsonParser().parseOnDemand("{} {}"));
+		assertThrows(ParsingException.class, () -> new JsonParser().parseOnDemand("[1, 2]"));
+	}
+
+	@Test
+	public void testPathFilter() {
+		String json = "{\"skipped\": {\"s\": \"}\\\"]\", \"n\": [1, {\"x\": 1e999999}]},"
+					  + " \"server\": {\"host\": \"h\", \"port\": 80, \"tls\": {\"cert\": \"c\"}},"
+					  + " \"bad\": 1x, \"list\": [1, 2]}";
+		Config config = Config.inMemory();
+		PathFilter filter = PathFilter.include("server.host", "server.tls", "list");
+		new JsonParser().parse(json, config, ParsingMode.REPLACE, filter);
+		assertEquals(2, config.size());
+		assertEquals(2, config.<Config>get("server").size());
+		assertEquals("h", config.<String>get("server.host"));
+		assertEquals("c", config.<String>get("server.tls.cert"));
+		assertEquals(Arrays.asList(1, 2), config.get("list"));
+
+		Config excluded = Config.inMemory();
+		filter = PathFilter.exclude("bad", "server.tls");
+		new JsonParser().parse(json, excluded, ParsingMode.REPLACE, filter);
+		assertEquals("}\"]", excluded.<String>get("skipped.s"));
+		assertEquals(80, excluded.<Integer>get("server.port"));
+		assertFalse(excluded.contains("server.tls"));
+		assertFalse(excluded.contains("bad"));
+		assertThrows(ParsingException.class, () -> new JsonParser().parse(json));
+	}
+
+	@Test
+	public void testConcurrentUse() {
+		JsonParser parser = new JsonParser();
+		FancyJsonWriter writer = new FancyJsonWriter();
+		String expected = writer.writeToString(config);
+		Config expectedConfig = parser.parse(expected);
+		List<String> written = IntStream.range(0, 64).parallel().mapToObj(i -> {
+			Config parsed = parser.parse(expected);
+			assertEquals(expectedConfig, parsed);
+			return writer.writeToString(parsed);
+		}).collect(Collectors.toList());
+		for (String json : written) {
+			assertEquals(expected, json);
+		}
+	}
+
+	@Test
+	public void testParallelParsing() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < 40; i++) {
+			builder.append("\"k").append(i).append("\": {\"s\": \"},\\\"]\", \"n\": [").append(i);
+			builder.append(", {\"x\": null}]},\n");
+		}
+		builder.append("\"dup\": 1, \"k3\": \"last\", \"dots.in.key\": true}");
+		String json = builder.toString();
+		JsonParser parser = new JsonParser().setParallelPool(ForkJoinPool.commonPool());
+		parser.segmentSize = 64;
+		Config parallel = parser.parse(json);
+		assertEquals(new JsonParser().parse(json), parallel);
+		assertEquals("last", parallel.<String>get("k3"));
+		assertEquals("},\"]", parallel.<String>get("k39.s"));
+		assertEquals(parallel, parser.parseDocument(new StringReader(json)));
+
+		String array = "[" + json + ", 1, \"]\", [2, [3]], " + json + ", {}]";
+		List<Object> list = parser.parseList(array);
+		assertEquals(new JsonParser().parseList(array), list);
+		assertEquals(6, list.size());
+		assertEquals(list, parser.parseDocument(array));
+		assertThrows(ParsingException.class, () -> parser.parse(json.replace("\"dup\": 1", "1")));
+	}
+
+	@Test
+	public void testEventReader() {
+		String json = new FancyJsonWriter().writeToString(config);
+		ConfigEventReader events = new JsonParser().readEvents(json);
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		Config rebuilt = readTable(events);
+		assertEquals(ConfigEvent.END_DOCUMENT, events.next());
+		assertFalse(events.hasNext());
+		assertEquals(new JsonParser().parse(json).toString(), rebuilt.toString());
+
+		events = new JsonParser().readEvents("{\"a\": {\"b\": [1, {\"c\": 2}]}, \"d\": [true]}");
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertEquals(ConfigEvent.KEY, events.next());
+		events.skipValue();
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(Collections.singletonList("d"), events.getKey());
+		assertEquals(ConfigEvent.START_ARRAY, events.next());
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertEquals(true, events.getValue());
+		assertEquals(ConfigEvent.END_ARRAY, events.next());
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		assertEquals(ConfigEvent.END_DOCUMENT, events.next());
+
+		assertThrows(ParsingException.class, () -> {
+			ConfigEventReader invalid = new JsonParser().readEvents("{\"a\": 1 \"b\": 2}");
+			while (invalid.hasNext()) {
+				invalid.next();
+			}
+		});
+	}
+
+	private static Config readTable(ConfigEventReader events) {
+		Config table = Config.inMemory();
+		ConfigEvent event;
+		while ((event = events.next()) != ConfigEvent.END_TABLE) {
+			assertEquals(ConfigEvent.KEY, event);
+			List<String> key = events.getKey();
+			table.set(key, readValue(events, events.next()));
+		}
+		return table;
+	}
+
+	private static Object readValue(ConfigEventReader events, ConfigEvent event) {
+		switch (event) {
+			case START_TABLE:
+				return readTable(events);
+			case START_ARRAY:
+				List<Object> list = new ArrayList<>();
+				while ((event = events.next()) != ConfigEvent.END_ARRAY) {
+					list.add(readValue(events, event));
+				}
+				return list;
+			default:
+				assertEquals(ConfigEvent.VALUE, event);
+				return events.getValue();
+		}
+	}
+
+	@Test
+	public void testGenerator() {
+		FancyJsonWriter fancyWriter = new FancyJsonWriter();
+		String json = fancyWriter.writeToString(config);
+		StringWriter out = new StringWriter();
+		try (ConfigGenerator generator = fancyWriter.createGenerator(out)) {
+			copy(new JsonParser().readEvents(json), generator);
+		}
+		assertEquals(json, out.toString());
+
+		MinimalJsonWriter minimalWriter = new MinimalJsonWriter();
+		out = new StringWriter();
+		try (ConfigGenerator generator = minimalWriter.createGenerator(out)) {
+			copy(new JsonParser().readEvents(json), generator);
+		}
+		assertEquals(minimalWriter.writeToString(config), out.toString());
+
+		out = new StringWriter();
+		try (ConfigGenerator generator = minimalWriter.createGenerator(out)) {
+			generator.beginArray().value(1).beginTable().entry("a", config.get("config"));
+			generator.key("b").beginArray().endArray().endTable().beginTable().endTable();
+			generator.endArray();
+		}
+		assertEquals("[1,{\"a\":{\"boolean\":true,\"false\":false},\"b\":[]},{}]",
+					 out.toString());
+
+		ConfigGenerator generator = minimalWriter.createGenerator(new StringWriter());
+		assertThrows(WritingException.class, () -> generator.value(1));
+		generator.beginTable();
+		assertThrows(WritingException.class, () -> generator.value(1));
+		assertThrows(WritingException.class, generator::endArray);
+		generator.key("a");
+		assertThrows(WritingException.class, () -> generator.key("b"));
+		assertThrows(WritingException.class, generator::endTable);
+		generator.beginArray();
+		assertThrows(WritingException.class, () -> generator.key("c"));
+		assertThrows(WritingException.class, generator::close);
+	}
+
+	private static void copy(ConfigEventReader events, ConfigGenerator generator) {
+		while (true) {
+			switch (events.next()) {
+				case START_TABLE:
+					generator.beginTable();
+					break;
+				case END_TABLE:
+					generator.endTable();
+					break;
+				case START_ARRAY:
+					generator.beginArray();
+					break;
+				case END_ARRAY:
+					generator.endArray();
+					break;
+				case KEY:
+					generator.key(events.getKey().get(0));
+					break;
+				case VALUE:
+					generator.value(events.getValue());
+					break;
+				case COMMENT:
+					generator.comment(events.getComment());
+					break;
+				case END_DOCUMENT:
+					return;
+			}
+		}
+	}
+
 	@Test
 	public void testWrite() throws IOException {
 		new FancyJsonWriter().setIndent(IndentStyle.SPACES_4).write(config, file, WritingMode.REPLACE);
@@ -204,6 +626,20 @@ public class JsonConfigTest {
 		}// finally closes the writer
 	}
 
+	@Test
+	public void testWriteBytes() {
+		FancyJsonWriter writer = new FancyJsonWriter();
+		byte[] expected = writer.writeToString(config).getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.allocate(expected.length);
+		writer.write(config, buffer);
+		assertArrayEquals(expected, buffer.array());
+		assertThrows(WritingException.class, () -> writer.write(config, ByteBuffer.allocate(8)));
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		writer.write(config, output);
+		assertArrayEquals(expected, output.toByteArray());
+	}
+
 	@Test
 	public void testMinimalWriter() {
 		StringWriter sw = new StringWriter();
@@ -12,8 +12,8 @@ final class ArrayParser {
 	/**
 	 * Parses a plain array, not an array of tables.
 	 */
-	static List<?> parse(CharacterInput input, TomlParser parser) {
-		List<Object> list = parser.createList();
+	static List<?> parse(CharacterInput input, ParsingContext context) {
+		List<Object> list = context.createList();
 		while (true) {
 			char firstChar = Toml.readUsefulChar(input);
 			if (firstChar == ']') {// End of the array
@@ -28,7 +28,7 @@ final class ArrayParser {
 										   + "' - "
 										   + "Expected end of array because of the leading comma.");
 			}
-			Object value = ValueParser.parse(input, firstChar, parser);
+			Object value = ValueParser.parse(input, firstChar, context);
 			list.add(value);
 			char after = Toml.readUsefulChar(input);
 			if (after == ']') {// End of the array
@@ -0,0 +1,215 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.AbstractCommentedConfig;
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.io.SectionScanner.Section;
+
+import java.util.*;
+
+/**
+ * A TOML config whose top-level tables are parsed when they are accessed for the first time. The
+ * document is kept in memory until all its tables have been parsed. The values that are defined
+ * before the first table are parsed immediately.
+ * <p>
+ * A table is parsed by {@link #getRaw(List)}, {@link #set(List, Object)} and the other methods
+ * that use its key, or when its value is read from the {@link #valueMap()}. Iterating over the
+ * entries of the config parses all the remaining tables. The entries are in the same order as
+ * in the document if {@link Config#isInsertionOrderPreserved()} is true, like in the configs
+ * created by the TOML format. Like the other configs, this config
+ * isn't thread-safe.
+ *
+ * @author TheElectronWill
+ */
+final class LazyTomlConfig extends AbstractCommentedConfig {
+	private final TableMap tables;
+
+	LazyTomlConfig(CommentedConfig root, Map<String, List<Section>> pending, String text,
+				   TomlSectionScanner scanner, TomlParser parser) {
+		this(new TableMap(TableMap.initialValues(root, pending), pending, text, scanner, parser),
+			 root.commentMap());
+	}
+
+	private LazyTomlConfig(TableMap tables, Map<String, String> comments) {
+		super(tables);
+		this.tables = tables;
+		tables.comments = super.commentMap();
+		tables.comments.putAll(comments);
+	}
+
+	@Override
+	public String getComment(List<String> path) {
+		tables.load(path);
+		return super.getComment(path);
+	}
+
+	@Override
+	public String setComment(List<String> path, String comment) {
+		tables.load(path);
+		return super.setComment(path, comment);
+	}
+
+	@Override
+	public String removeComment(List<String> path) {
+		tables.load(path);
+		return super.removeComment(path);
+	}
+
+	@Override
+	public boolean containsComment(List<String> path) {
+		tables.load(path);
+		return super.containsComment(path);
+	}
+
+	@Override
+	public Map<String, String> commentMap() {
+		tables.loadAll();
+		return super.commentMap();
+	}
+
+	@Override
+	public ConfigFormat<?> configFormat() {
+		return TomlFormat.instance();
+	}
+
+	@Override
+	public CommentedConfig createSubConfig() {
+		return TomlFormat.instance().createConfig();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The tables that haven't been parsed are shared with the clone, which parses them again
+	 * if needed.
+	 */
+	@Override
+	public LazyTomlConfig clone() {
+		Map<String, Object> values = TableMap.createMap();
+		values.putAll(tables.values);
+		TableMap copy = new TableMap(values, new HashMap<>(tables.pending), tables.text,
+									 tables.scanner, tables.parser);
+		return new LazyTomlConfig(copy, super.commentMap());
+	}
+
+	/**
+	 * The values of the config. The tables that haven't been parsed yet are represented by
+	 * their sections, and by a placeholder in the values, which keeps their place in the order of
+	 * the entries.
+	 */
+	private static final class TableMap extends AbstractMap<String, Object> {
+		private static final Object NOT_LOADED = new Object();
+
+		final Map<String, Object> values;// contains NOT_LOADED for the pending keys
+		final Map<String, List<Section>> pending;// by top-level key
+		final String text;
+		final TomlSectionScanner scanner;
+		final TomlParser parser;
+		Map<String, String> comments;
+
+		TableMap(Map<String, Object> values, Map<String, List<Section>> pending, String text,
+				 TomlSectionScanner scanner, TomlParser parser) {
+			this.values = values;
+			this.pending = pending;
+			this.text = text;
+			this.scanner = scanner;
+			this.parser = parser;
+		}
+
+		/**
+		 * Creates a map like the ones of the configs created by the TOML format.
+		 */
+		static Map<String, Object> createMap() {
+			return Config.<Object>getDefaultMapCreator(false).get();
+		}
+
+		/**
+		 * Creates the values of a new config: the root values, then the placeholders of the
+		 * pending tables, in the order of the document.
+		 */
+		static Map<String, Object> initialValues(CommentedConfig root,
+												 Map<String, List<Section>> pending) {
+			Map<String, Object> values = createMap();
+			values.putAll(root.valueMap());
+			for (String key : pending.keySet()) {
+				values.put(key, NOT_LOADED);
+			}
+			return values;
+		}
+
+		/**
+		 * Parses the sections of the first key of a path, if they haven't been parsed yet.
+		 */
+		void load(List<String> path) {
+			if (!path.isEmpty()) {
+				load(path.get(0));
+			}
+		}
+
+		/**
+		 * Parses the sections of a top-level key, if they haven't been parsed yet.
+		 */
+		void load(String key) {
+			List<Section> sections = pending.remove(key);
+			if (sections != null) {
+				CommentedConfig parsed = parser.parse(scanner.join(text, sections));
+				values.put(key, parsed.valueMap().get(key));// replaces NOT_LOADED, at its place
+				String comment = parsed.commentMap().get(key);
+				if (comment != null) {
+					comments.put(key, comment);
+				}
+			}
+		}
+
+		void loadAll() {
+			for (String key : new ArrayList<>(pending.keySet())) {
+				load(key);
+			}
+		}
+
+		@Override
+		public Object get(Object key) {
+			if (key instanceof String) {
+				load((String)key);
+			}
+			return values.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return values.containsKey(key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			load(key);
+			return values.put(key, value);
+		}
+
+		@Override
+		public Object remove(Object key) {
+			if (key instanceof String) {
+				load((String)key);
+			}
+			return values.remove(key);
+		}
+
+		@Override
+		public void clear() {
+			pending.clear();
+			values.clear();
+		}
+
+		@Override
+		public int size() {
+			return values.size();
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			loadAll();
+			return values.entrySet();
+		}
+	}
+}
\ No newline at end of file
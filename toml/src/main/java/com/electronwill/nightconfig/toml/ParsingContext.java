@@ -0,0 +1,159 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.io.BufferPool;
+import com.electronwill.nightconfig.core.io.CharsWrapper;
+import com.electronwill.nightconfig.core.io.ParsingMode;
+import com.electronwill.nightconfig.core.io.PathFilter;
+
+import java.util.*;
+
+/**
+ * The state of the parsing of one TOML document: the parsing mode, the inline tables that have
+ * been created and the comments that haven't been attached to an entry yet. The settings are
+ * read from the {@link TomlParser}, which isn't modified, so that a parser can parse several
+ * documents at the same time.
+ *
+ * @author TheElectronWill
+ */
+final class ParsingContext {
+	private final TomlParser parser;
+	private final ParsingMode parsingMode;
+	private final boolean configWasEmpty;
+	private final PathFilter pathFilter;// null when the parsing isn't filtered
+	private final Set<Config> inlineTables = Collections.newSetFromMap(new IdentityHashMap<>());
+	private String currentComment;
+
+	/**
+	 * @param parser         the parser that provides the settings
+	 * @param parsingMode    the mode used to put the values into the configs
+	 * @param configWasEmpty true if the destination was empty before the parsing, in which case
+	 *                       the duplicate entries are detected
+	 * @param pathFilter     the filter of the entries, or null to parse everything
+	 */
+	ParsingContext(TomlParser parser, ParsingMode parsingMode, boolean configWasEmpty,
+				   PathFilter pathFilter) {
+		this.parser = parser;
+		this.parsingMode = parsingMode;
+		this.configWasEmpty = configWasEmpty;
+		this.pathFilter = pathFilter;
+	}
+
+	// --- Parser's settings ---
+	boolean isLenientWithBareKeys() {
+		return parser.isLenientWithBareKeys();
+	}
+
+	boolean isLenientWithSeparators() {
+		return parser.isLenientWithSeparators();
+	}
+
+	boolean isLazyStrings() {
+		return parser.isLazyStrings();
+	}
+
+	<T> List<T> createList() {
+		return new ArrayList<>(parser.getInitialListCapacity());
+	}
+
+	/**
+	 * Takes a builder from the {@link BufferPool}. It should be given back once used.
+	 */
+	CharsWrapper.Builder createBuilder() {
+		return BufferPool.takeBuilder(parser.getInitialStringBuilderCapacity());
+	}
+
+	// --- State for TOML compliance ---
+	boolean configWasEmpty() {
+		return configWasEmpty;
+	}
+
+	ParsingMode getParsingMode() {
+		return parsingMode;
+	}
+
+	void registerInlineTable(Config table) {
+		inlineTables.add(table);
+	}
+
+	boolean isInlineTable(Config table) {
+		return inlineTables.contains(table);
+	}
+
+	/**
+	 * @return true if the entries are filtered
+	 */
+	boolean isFiltered() {
+		return pathFilter != null;
+	}
+
+	/**
+	 * Calls the path filter with the prefixes of a path, from the shortest to the longest, and
+	 * stops at the first one that isn't {@link PathFilter.Action#DESCEND DESCEND}.
+	 *
+	 * @param path  the path to test
+	 * @param known the number of elements of the path that have already been tested
+	 * @return the action for the path
+	 */
+	PathFilter.Action filter(List<String> path, int known) {
+		for (int i = known + 1; i <= path.size(); i++) {
+			PathFilter.Action action = pathFilter.test(path.subList(0, i));
+			if (action != PathFilter.Action.DESCEND) {
+				return action;
+			}
+		}
+		return PathFilter.Action.DESCEND;
+	}
+
+	/**
+	 * Counts the elements of a skipped path whose prefix is {@link PathFilter.Action#DESCEND
+	 * DESCEND}ed by the path filter. These prefixes are the tables that contain the skipped
+	 * entry, which exist even if all their entries are skipped.
+	 *
+	 * @param path  the path that has been skipped by {@link #filter(List, int)}
+	 * @param known the number of elements of the path that have already been tested
+	 * @return the length of the longest prefix that is descended
+	 */
+	int descended(List<String> path, int known) {
+		int length = known;
+		while (length < path.size() - 1
+			   && pathFilter.test(path.subList(0, length + 1)) == PathFilter.Action.DESCEND) {
+			length++;
+		}
+		return length;
+	}
+
+	// --- Comment management ---
+	boolean hasPendingComment() {
+		return currentComment != null;
+	}
+
+	String consumeComment() {
+		String comment = currentComment;
+		currentComment = null;
+		return comment;
+	}
+
+	void setComment(CharsWrapper comment) {
+		if (comment != null) {
+			if (currentComment == null) {
+				currentComment = comment.toString();
+			} else {
+				currentComment = currentComment + '\n' + comment.toString();
+			}
+		}
+	}
+
+	void setComment(List<CharsWrapper> commentsList) {
+		CharsWrapper.Builder builder = new CharsWrapper.Builder(32);
+		if (!commentsList.isEmpty()) {
+			Iterator<CharsWrapper> it = commentsList.iterator();
+			builder.append(it.next());
+			while (it.hasNext()) {
+				builder.append('\n');
+				builder.append(it.next());
+			}
+			setComment(builder.build());// Appends the builder to the current comment if any
+		}
+	}
+}
\ No newline at end of file
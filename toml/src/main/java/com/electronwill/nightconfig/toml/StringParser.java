@@ -1,5 +1,8 @@
 package com.electronwill.nightconfig.toml;
 
+import com.electronwill.nightconfig.core.LazyString;
+import com.electronwill.nightconfig.core.io.ArrayInput;
+import com.electronwill.nightconfig.core.io.BufferPool;
 import com.electronwill.nightconfig.core.io.CharacterInput;
 import com.electronwill.nightconfig.core.io.CharsWrapper;
 import com.electronwill.nightconfig.core.io.ParsingException;
@@ -11,13 +14,14 @@ import com.electronwill.nightconfig.core.io.Utils;
  */
 final class StringParser {
 	private static final char[] SINGLE_QUOTE = {'\''};
+	private static final char[] BASIC_END = {'\"', '\\'};
 
 	/**
 	 * Parses a basic string (surrounded by "). The opening quote must be parse before calling this
 	 * method.
 	 */
-	static String parseBasic(CharacterInput input, TomlParser parser) {
-		CharsWrapper.Builder builder = parser.createBuilder();
+	static String parseBasic(CharacterInput input, ParsingContext context) {
+		CharsWrapper.Builder builder = context.createBuilder();
 		boolean escape = false;
 		char c;
 		while ((c = input.readChar()) != '\"' || escape) {
@@ -30,14 +34,47 @@ final class StringParser {
 				builder.write(c);
 			}
 		}
-		return builder.toString();
+		return buildString(builder);
+	}
+
+	/**
+	 * Parses a basic string (surrounded by ") to a LazyString if it contains no escape sequence,
+	 * or to a String. The opening quote must be read before calling this method.
+	 */
+	static CharSequence parseLazyBasic(CharacterInput input, ParsingContext context) {
+		CharsWrapper chars = input.readCharsUntil(BASIC_END);
+		if (input.readChar() == '\"') {
+			return new LazyString(chars);
+		}
+		CharsWrapper.Builder builder = context.createBuilder();
+		builder.write(chars);
+		builder.write(escape(input.readChar(), input));
+		char c;
+		while ((c = input.readChar()) != '\"') {
+			if (c == '\\') {
+				builder.write(escape(input.readChar(), input));
+			} else {
+				builder.write(c);
+			}
+		}
+		return buildString(builder);
+	}
+
+	/**
+	 * Parses a literal string (surrounded by ') to a LazyString. The opening quote must be read
+	 * before calling this method.
+	 */
+	static CharSequence parseLazyLiteral(CharacterInput input) {
+		CharsWrapper chars = input.readCharsUntil(SINGLE_QUOTE);
+		input.readChar();// skips the last single quote
+		return new LazyString(chars);
 	}
 
 	/**
 	 * Parses a literal string (surrounded by '). The opening quote must be read before calling
 	 * this method.
 	 */
-	static String parseLiteral(CharacterInput input, TomlParser parser) {
+	static String parseLiteral(CharacterInput input, ParsingContext context) {
 		String str = input.readCharsUntil(SINGLE_QUOTE).toString();
 		input.readChar();// skips the last single quote
 		return str;
@@ -47,8 +84,8 @@ final class StringParser {
 	 * Parses a multiline basic string (surrounded by """). The 3 opening quotes must be read
 	 * before calling this method.
 	 */
-	static String parseMultiBasic(CharacterInput input, TomlParser parser) {
-		CharsWrapper.Builder builder = parser.createBuilder();
+	static String parseMultiBasic(CharacterInput input, ParsingContext context) {
+		CharsWrapper.Builder builder = context.createBuilder();
 		char c;
 		while ((c = input.readChar()) != '\"' || input.peek() != '\"' || input.peek(1) != '\"') {
 			if (c == '\\') {
@@ -76,8 +113,8 @@ final class StringParser {
 	 * Parses a multiline literal string (surrounded by '''). The 3 opening quotes must be parse
 	 * before calling this method.
 	 */
-	static String parseMultiLiteral(CharacterInput input, TomlParser parser) {
-		CharsWrapper.Builder builder = parser.createBuilder();
+	static String parseMultiLiteral(CharacterInput input, ParsingContext context) {
+		CharsWrapper.Builder builder = context.createBuilder();
 		char c;
 		while ((c = input.readChar()) != '\'' || input.peek() != '\'' || input.peek(1) != '\'') {
 			builder.append(c);
@@ -87,15 +124,80 @@ final class StringParser {
 	}
 
 	/**
-	 * Builds a multiline string with the content of a Builder. Trims the first line break if it's
-	 * at the beginning of the string.
+	 * Skips a string of any kind without creating it. The opening quote must be read before
+	 * calling this method.
+	 *
+	 * @param quote the opening quote, ' or "
+	 */
+	static void skip(CharacterInput input, char quote) {
+		if (input.peek() == quote && input.peek(1) == quote) {// multiline string
+			input.skipPeeks();
+			char c;
+			while ((c = input.readChar()) != quote || input.peek() != quote
+				   || input.peek(1) != quote) {
+				if (c == '\\' && quote == '\"') {
+					input.readChar();// the escaped character, which can't end the string
+				}
+			}
+			input.skipPeeks();
+		} else if (quote == '\'') {
+			input.readCharsUntil(SINGLE_QUOTE);
+			input.readChar();
+		} else {
+			while (true) {
+				input.readCharsUntil(BASIC_END);
+				if (input.readChar() == '\"') {
+					return;
+				}
+				input.readChar();// the escaped character, which can't end the string
+			}
+		}
+	}
+
+	/**
+	 * Builds a string with the content of a Builder, and gives the builder back to the pool.
+	 */
+	private static String buildString(CharsWrapper.Builder builder) {
+		String str = builder.toString();
+		BufferPool.giveBack(builder);
+		return str;
+	}
+
+	/**
+	 * Builds a multiline string with the content of a Builder, and gives the builder back to the
+	 * pool. Trims the first line break if it's at the beginning of the string.
 	 */
 	private static String buildMultilineString(CharsWrapper.Builder builder) {
-		if (builder.get(0) == '\n') {
-			return builder.toString(1);
+		String str;
+		if (builder.length() > 0 && builder.get(0) == '\n') {
+			str = builder.toString(1);
+		} else if (builder.length() > 1 && builder.get(0) == '\r' && builder.get(1) == '\n') {
+			str = builder.toString(2);
+		} else {
+			str = builder.toString();
+		}
+		BufferPool.giveBack(builder);
+		return str;
+	}
+
+	/**
+	 * Replaces the escape sequences of a string's content, like {@link #parseBasic} does.
+	 */
+	static String unescape(String s) {
+		int backslash = s.indexOf('\\');
+		if (backslash == -1) {
+			return s;
 		}
-		if (builder.get(0) == '\r' && builder.get(1) == '\n') {
-			return builder.toString(2);
+		StringBuilder builder = new StringBuilder(s.length());
+		builder.append(s, 0, backslash);
+		CharacterInput input = new ArrayInput(s.toCharArray(), backslash, s.length());
+		int c;
+		while ((c = input.read()) != -1) {
+			if (c == '\\') {
+				builder.append(escape(input.readChar(), input));
+			} else {
+				builder.append((char)c);
+			}
 		}
 		return builder.toString();
 	}
@@ -17,9 +17,16 @@ final class StringWriter {
 	static void writeBasic(CharSequence csq, CharacterOutput output) {
 		output.write('\"');
 		final int l = csq.length();
+		int runStart = 0;// start of the characters that don't need to be escaped
 		for (int i = 0; i < l; i++) {
-			writeBasicChar(csq.charAt(i), output);
+			char[] escaped = escape(csq.charAt(i));
+			if (escaped != null) {
+				output.write(csq, runStart, i - runStart);
+				output.write(escaped);
+				runStart = i + 1;
+			}
 		}
+		output.write(csq, runStart, l - runStart);
 		output.write('\"');
 	}
 
@@ -29,31 +36,24 @@ final class StringWriter {
 		output.write('\'');
 	}
 
-	private static void writeBasicChar(char c, CharacterOutput output) {
+	private static char[] escape(char c) {
 		switch (c) {
 			case '\\':
-				output.write(ESCAPED_BACKSLASH);
-				break;
+				return ESCAPED_BACKSLASH;
 			case '\"':
-				output.write(ESCAPED_QUOTE);
-				break;
+				return ESCAPED_QUOTE;
 			case '\b':
-				output.write(ESCAPED_B);
-				break;
+				return ESCAPED_B;
 			case '\f':
-				output.write(ESCAPED_F);
-				break;
+				return ESCAPED_F;
 			case '\n':
-				output.write(ESCAPED_N);
-				break;
+				return ESCAPED_N;
 			case '\r':
-				output.write(ESCAPED_R);
-				break;
+				return ESCAPED_R;
 			case '\t':
-				output.write(ESCAPED_T);
-				break;
+				return ESCAPED_T;
 			default:
-				output.write(c);
+				return null;
 		}
 	}
 
@@ -1,12 +1,15 @@
 package com.electronwill.nightconfig.toml;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.io.CharacterInput;
 import com.electronwill.nightconfig.core.io.CharsWrapper;
 import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.PathFilter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author TheElectronWill
@@ -16,22 +19,40 @@ import java.util.List;
 final class TableParser {
 
 	private static final char[] KEY_END = {'\t', ' ', '=', '.', '\n', '\r', ']', ':'};
+	private static final Object SKIPPED = new Object();// the value of the skipped entries
 
-	static CommentedConfig parseInline(CharacterInput input, TomlParser parser) {
+	static CommentedConfig parseInline(CharacterInput input, ParsingContext context) {
+		return parseInline(input, context, null);
+	}
+
+	/**
+	 * Parses an inline table. If the path isn't null, the entries are filtered by the parser's
+	 * {@link PathFilter}.
+	 *
+	 * @param path the path of the table, modified during the parsing, or null
+	 */
+	static CommentedConfig parseInline(CharacterInput input, ParsingContext context,
+									   List<String> path) {
 		CommentedConfig config = TomlFormat.instance().createConfig();
-		parser.registerInlineTable(config);
+		context.registerInlineTable(config);
 		while (true) {
 			char keyFirst = Toml.readNonSpaceChar(input, false);
 			if (keyFirst == '}') {
 				return config;// handles {} and {k1=v1,... ,}
 			}
-			String key = parseKey(input, keyFirst, parser);
+			String key = parseKey(input, keyFirst, context);
 			char sep = Toml.readNonSpaceChar(input, false);
-			checkInvalidSeparator(sep, key, parser);
+			checkInvalidSeparator(sep, key, context);
 
-			Object value = ValueParser.parse(input, parser);
-			Object previous = parser.getParsingMode().put(config.valueMap(), key, value);
-			checkDuplicateKey(key, previous, true);
+			if (path == null) {
+				Object value = ValueParser.parse(input, context);
+				Object previous = context.getParsingMode().put(config.valueMap(), key, value);
+				checkDuplicateKey(key, previous, true);
+			} else {
+				path.add(key);
+				parseFiltered(input, context, path, path.size() - 1, config.valueMap());
+				path.remove(path.size() - 1);
+			}
 
 			char after = Toml.readNonSpaceChar(input, false);
 			if (after == '}') {
@@ -44,20 +65,47 @@ final class TableParser {
 		}
 	}
 
-	static <T extends CommentedConfig> T parseNormal(CharacterInput input, TomlParser parser,
+	static <T extends CommentedConfig> T parseNormal(CharacterInput input, ParsingContext context,
 													 T config) {
+		return parseNormal(input, context, config, null);
+	}
+
+	/**
+	 * Parses a normal table. If the table path isn't null, the entries are filtered by the
+	 * parser's {@link PathFilter}.
+	 *
+	 * @param tablePath the path of the table, or null
+	 */
+	static <T extends CommentedConfig> T parseNormal(CharacterInput input, ParsingContext context,
+													 T config, List<String> tablePath) {
 		while (true) {
 			List<CharsWrapper> commentsList = new ArrayList<>(2);
 			int keyFirst = Toml.readUseful(input, commentsList);
 			if (keyFirst == -1 || keyFirst == '[') {
-				parser.setComment(commentsList);// Saves the comments that are above the next table
+				context.setComment(commentsList);// Saves the comments that are above the next table
 				return config;// No more data, or beginning of an other table
 			}
-			List<String> key = parseDottedKey(input, (char)keyFirst, parser);
+			List<String> key = parseDottedKey(input, (char)keyFirst, context);
 
-			Object value = ValueParser.parse(input, parser);
-			Object previous = parser.getParsingMode().put(config, key, value);
-			checkDuplicateKey(key, previous, parser.configWasEmpty());
+			Object value;
+			if (tablePath == null) {
+				value = ValueParser.parse(input, context);
+				Object previous = context.getParsingMode().put(config, key, value);
+				checkDuplicateKey(key, previous, context.configWasEmpty());
+			} else {
+				List<String> path = new ArrayList<>(tablePath.size() + key.size());
+				path.addAll(tablePath);
+				path.addAll(key);
+				value = parseFiltered(input, context, path, tablePath.size(), null);
+				if (value == SKIPPED) {
+					commentsList = null;// the comments of the skipped entries are ignored
+					int descended = context.descended(path, tablePath.size()) - tablePath.size();
+					createTables(config, key.subList(0, descended));
+				} else {
+					Object previous = context.getParsingMode().put(config, key, value);
+					checkDuplicateKey(key, previous, context.configWasEmpty());
+				}
+			}
 
 			int after = Toml.readNonSpace(input, false);
 			if (after == -1) {// End of the stream
@@ -65,17 +113,106 @@ final class TableParser {
 			}
 			if (after == '#') {
 				CharsWrapper comment = Toml.readLine(input);
-				commentsList.add(comment);
+				if (commentsList != null) {
+					commentsList.add(comment);
+				}
 			} else if (after != '\n' && after != '\r') {
 				throw new ParsingException("Invalid character '"
 										   + (char)after
 										   + "' after table entry \""
 										   + key
 										   + "\" = "
-										   + value);
+										   + (value == SKIPPED ? "(skipped)" : value));
+			}
+			if (commentsList != null) {
+				context.setComment(commentsList);
+				config.setComment(key, context.consumeComment());
+			}
+		}
+	}
+
+	/**
+	 * Parses or skips the value of an entry, depending on the parser's {@link PathFilter}.
+	 *
+	 * @param path   the path of the entry
+	 * @param known  the number of elements of the path that have already been accepted
+	 * @param map    the map of the inline table where to put the value, or null to return it
+	 * @return the value, or {@link #SKIPPED}
+	 */
+	private static Object parseFiltered(CharacterInput input, ParsingContext context,
+										List<String> path, int known, Map<String, Object> map) {
+		PathFilter.Action action = context.filter(path, known);
+		char valueFirst = Toml.readNonSpaceChar(input, false);
+		Object value;
+		if (action == PathFilter.Action.SKIP) {
+			ValueParser.skip(input, valueFirst);
+			return SKIPPED;
+		} else if (action == PathFilter.Action.DESCEND && valueFirst == '{') {
+			value = parseInline(input, context, new ArrayList<>(path));
+		} else {
+			value = ValueParser.parse(input, valueFirst, context, true);
+		}
+		if (map != null) {
+			Object previous = context.getParsingMode().put(map, path.get(path.size() - 1), value);
+			checkDuplicateKey(path, previous, true);
+		}
+		return value;
+	}
+
+	/**
+	 * Creates the tables of a dotted key that are declared implicitly by a skipped entry, like
+	 * the parsing would without the filter.
+	 */
+	private static void createTables(Config config, List<String> tables) {
+		Config table = config;
+		for (String key : tables) {
+			Object value = table.valueMap().get(key);
+			if (value == null) {
+				Config subTable = table.createSubConfig();
+				table.valueMap().put(key, subTable);
+				table = subTable;
+			} else if (value instanceof Config) {
+				table = (Config)value;
+			} else {
+				return;// not a table: the entry would be invalid, but it's skipped
+			}
+		}
+	}
+
+	/**
+	 * Skips the entries of a normal table without creating them, up to the next table.
+	 */
+	static void skipNormal(CharacterInput input, ParsingContext context) {
+		List<CharsWrapper> commentsList = new ArrayList<>(2);
+		while (true) {
+			commentsList.clear();
+			int first = Toml.readUseful(input, commentsList);
+			if (first == -1 || first == '[') {
+				context.setComment(commentsList);// Saves the comments that are above the next table
+				return;
+			}
+			// Skips the key
+			char c = (char)first;
+			while (!Toml.isKeyValueSeparator(c, context.isLenientWithSeparators())) {
+				if (c == '\"' || c == '\'') {
+					StringParser.skip(input, c);
+				} else if (c == '\n') {
+					throw new ParsingException("Invalid entry without a value in a table");
+				}
+				c = input.readChar();
+			}
+			ValueParser.skip(input, Toml.readNonSpaceChar(input, false));
+			int after = Toml.readNonSpace(input, false);
+			if (after == -1) {
+				return;
+			}
+			if (after == '#') {
+				Toml.readLine(input);
+			} else if (after != '\n' && after != '\r') {
+				throw new ParsingException("Invalid character '"
+										   + (char)after
+										   + "' after a table entry");
 			}
-			parser.setComment(commentsList);
-			config.setComment(key, parser.consumeComment());
 		}
 	}
 
@@ -91,25 +228,31 @@ final class TableParser {
 		}
 	}
 
-	private static void checkInvalidSeparator(char sep, String key, TomlParser parser) {
-		if (!Toml.isKeyValueSeparator(sep, parser.isLenientWithSeparators())) {
+	private static void checkInvalidSeparator(char sep, String key, ParsingContext context) {
+		if (!Toml.isKeyValueSeparator(sep, context.isLenientWithSeparators())) {
 			throw new ParsingException(
 					"Invalid separator '" + sep + "'after key \"" + key + "\" in some table.");
 		}
 	}
 
-	static CommentedConfig parseNormal(CharacterInput input, TomlParser parser) {
-		return parseNormal(input, parser, TomlFormat.instance().createConfig());
+	static CommentedConfig parseNormal(CharacterInput input, ParsingContext context) {
+		return parseNormal(input, context, TomlFormat.instance().createConfig());
+	}
+
+	static CommentedConfig parseNormal(CharacterInput input, ParsingContext context,
+									   List<String> tablePath) {
+		return parseNormal(input, context, TomlFormat.instance().createConfig(), tablePath);
 	}
 
-	static List<String> parseTableName(CharacterInput input, TomlParser parser, boolean array) {
-		List<String> list = parser.createList();
+	static List<String> parseTableName(CharacterInput input, ParsingContext context,
+									   boolean array) {
+		List<String> list = context.createList();
 		while (true) {
 			char firstChar = Toml.readNonSpaceChar(input, false);
 			if (firstChar == ']') {
 				throw new ParsingException("Tables names must not be empty.");
 			}
-			String key = parseKey(input, firstChar, parser);
+			String key = parseKey(input, firstChar, context);
 			list.add(key);
 
 			char separator = Toml.readNonSpaceChar(input, false);
@@ -127,7 +270,7 @@ final class TableParser {
 				char after = Toml.readNonSpaceChar(input, false);
 				if (after == '#') {// Comment
 					CharsWrapper comment = Toml.readLine(input);
-					parser.setComment(comment);
+					context.setComment(comment);
 				} else if (after != '\n' && after != '\r') {
 					throw new ParsingException(
 							"Invalid character '" + after + "' after a table " + "declaration.");
@@ -139,15 +282,16 @@ final class TableParser {
 		}
 	}
 
-	static List<String> parseDottedKey(CharacterInput input, char firstChar, TomlParser parser) {
-		List<String> list = parser.createList();
+	static List<String> parseDottedKey(CharacterInput input, char firstChar,
+									   ParsingContext context) {
+		List<String> list = context.createList();
 		char first = firstChar;
 		while (true) {
-			String part = parseKey(input, first, parser);
+			String part = parseKey(input, first, context);
 			list.add(part);
 
 			char sep = Toml.readNonSpaceChar(input, false);
-			if (Toml.isKeyValueSeparator(sep, parser.isLenientWithSeparators())) {
+			if (Toml.isKeyValueSeparator(sep, context.isLenientWithSeparators())) {
 				return list;
 			} else if (sep != '.') {
 				throw new ParsingException("Invalid character '" + sep + "' after key " + list);
@@ -156,13 +300,13 @@ final class TableParser {
 		}
 	}
 
-	static String parseKey(CharacterInput input, char firstChar, TomlParser parser) {
+	static String parseKey(CharacterInput input, char firstChar, ParsingContext context) {
 		// Note that a key can't be multiline
 		// Empty keys are allowed if and only if they are quoted (with double or single quotes)
 		if (firstChar == '\"') {
-			return StringParser.parseBasic(input, parser);
+			return StringParser.parseBasic(input, context);
 		} else if (firstChar == '\'') {
-			return StringParser.parseLiteral(input, parser);
+			return StringParser.parseLiteral(input, context);
 		} else {
 			CharsWrapper restOfKey = input.readCharsUntil(KEY_END);
 			String bareKey = new CharsWrapper.Builder(restOfKey.length() + 1).append(firstChar)
@@ -172,7 +316,7 @@ final class TableParser {
 			if (bareKey.isEmpty()) {
 				throw new ParsingException("Empty bare keys aren't allowed.");
 			}
-			if (!Toml.isValidBareKey(bareKey, parser.isLenientWithBareKeys())) {
+			if (!Toml.isValidBareKey(bareKey, context.isLenientWithBareKeys())) {
 				throw new ParsingException("Invalid bare key: " + bareKey);
 			}
 			return bareKey;
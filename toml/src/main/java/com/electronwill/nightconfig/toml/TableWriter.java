@@ -22,7 +22,8 @@ final class TableWriter {
 								TABLE_NAME_BEGIN = {'['},
 								TABLE_NAME_END = {']'};
 
-	static void writeInline(UnmodifiableConfig config, CharacterOutput output, TomlWriter writer) {
+	static void writeInline(UnmodifiableConfig config, CharacterOutput output,
+							WritingContext context) {
 		output.write('{');
 		Iterator<Map.Entry<String, Object>> iterator = config.valueMap().entrySet().iterator();
 		while (iterator.hasNext()) {
@@ -30,9 +31,9 @@ final class TableWriter {
 			final String key = entry.getKey();
 			final Object value = entry.getValue();
 			// Comments aren't written in an inline table
-			writer.writeKey(key, output);
+			context.writeKey(key, output);
 			output.write(KEY_VALUE_SEPARATOR);
-			ValueWriter.write(value, output, writer);
+			ValueWriter.write(value, output, context);
 			if (iterator.hasNext()) {
 				output.write(INLINE_ENTRY_SEPARATOR);
 			}
@@ -41,24 +42,24 @@ final class TableWriter {
 	}
 
 	static void writeNormal(UnmodifiableConfig config, List<String> configPath,
-							CharacterOutput output, TomlWriter writer) {
+							CharacterOutput output, WritingContext context) {
 		UnmodifiableCommentedConfig commentedConfig = UnmodifiableCommentedConfig.fake(config);
-		writeNormal(commentedConfig, configPath, output, writer);
+		writeNormal(commentedConfig, configPath, output, context);
 	}
 
 	private static void writeNormal(UnmodifiableCommentedConfig config, List<String> configPath,
-									CharacterOutput output, TomlWriter writer) {
+									CharacterOutput output, WritingContext context) {
 		List<UnmodifiableCommentedConfig.Entry> tablesEntries = new ArrayList<>();
 		List<UnmodifiableCommentedConfig.Entry> tableArraysEntries = new ArrayList<>();
 
 		// Writes the "simple" values:
-		writer.increaseIndentLevel();// Indent++
+		context.increaseIndentLevel();// Indent++
 		for (UnmodifiableCommentedConfig.Entry entry : config.entrySet()) {
 			final String key = entry.getKey();
 			final Object value = entry.getValue();
 			final String comment = entry.getComment();
 			if (value instanceof UnmodifiableConfig &&
-				!writer.writesInline((UnmodifiableConfig)value)) {
+				!context.writesInline((UnmodifiableConfig)value)) {
 				tablesEntries.add(entry);
 				continue;
 			} else if (value instanceof List) {
@@ -68,75 +69,75 @@ final class TableWriter {
 					continue;
 				}
 			}
-			writer.writeComment(comment, output);// Writes the comment above the key
-			writer.writeIndent(output);// Indents the line.
-			writer.writeKey(key, output);
+			context.writeComment(comment, output);// Writes the comment above the key
+			context.writeIndent(output);// Indents the line.
+			context.writeKey(key, output);
 			output.write(KEY_VALUE_SEPARATOR);
-			ValueWriter.write(value, output, writer);
-			writer.writeNewline(output);
+			ValueWriter.write(value, output, context);
+			context.writeNewline(output);
 		}
 
 		int nonSimpleValuesCount = tablesEntries.size() + tableArraysEntries.size();
 		int simpleValuesCount = config.size() - nonSimpleValuesCount;
 		if (simpleValuesCount > 0 && nonSimpleValuesCount > 0) {
-			writer.writeNewline(output);
+			context.writeNewline(output);
 		}
 
 		// Writes the tables:
 		for (UnmodifiableCommentedConfig.Entry entry : tablesEntries) {
 			// Writes the comment, if there is one
-			writer.writeComment(entry.getComment(), output);
+			context.writeComment(entry.getComment(), output);
 
 			// Writes the table declaration
 			configPath.add(entry.getKey());// path level ++
-			writeTableName(configPath, output, writer);
-			writer.writeNewline(output);
+			writeTableName(configPath, output, context);
+			context.writeNewline(output);
 
 			// Writes the table's content
-			writeNormal(entry.<UnmodifiableConfig>getValue(), configPath, output, writer);
+			writeNormal(entry.<UnmodifiableConfig>getValue(), configPath, output, context);
 			configPath.remove(configPath.size() - 1);// path level --
 		}
 
 		// Writes the arrays of tables:
 		for (UnmodifiableCommentedConfig.Entry entry : tableArraysEntries) {
 			// Writes the comment, if there is one
-			writer.writeComment(entry.getComment(), output);
+			context.writeComment(entry.getComment(), output);
 
 			// Writes the tables
 			configPath.add(entry.getKey());// path level ++
 			List<Config> tableArray = entry.getValue();
 			for (UnmodifiableConfig table : tableArray) {
-				writeTableArrayName(configPath, output, writer);
-				writer.writeNewline(output);
-				writeNormal(table, configPath, output, writer);
+				writeTableArrayName(configPath, output, context);
+				context.writeNewline(output);
+				writeNormal(table, configPath, output, context);
 			}
 			configPath.remove(configPath.size() - 1);// path level --
 		}
-		writer.decreaseIndentLevel();// Indent--
+		context.decreaseIndentLevel();// Indent--
 	}
 
-	private static void writeTableArrayName(List<String> name, CharacterOutput output,
-											TomlWriter writer) {
-		writeTableName(name, output, writer, ARRAY_OF_TABLES_NAME_BEGIN, ARRAY_OF_TABLES_NAME_END);
+	static void writeTableArrayName(List<String> name, CharacterOutput output,
+									WritingContext context) {
+		writeTableName(name, output, context, ARRAY_OF_TABLES_NAME_BEGIN, ARRAY_OF_TABLES_NAME_END);
 	}
 
-	private static void writeTableName(List<String> name, CharacterOutput output,
-									   TomlWriter writer) {
-		writeTableName(name, output, writer, TABLE_NAME_BEGIN, TABLE_NAME_END);
+	static void writeTableName(List<String> name, CharacterOutput output,
+							   WritingContext context) {
+		writeTableName(name, output, context, TABLE_NAME_BEGIN, TABLE_NAME_END);
 	}
 
-	private static void writeTableName(List<String> name, CharacterOutput output, TomlWriter writer,
-									   char[] begin, char[] end) {
+	private static void writeTableName(List<String> name, CharacterOutput output,
+									   WritingContext context, char[] begin, char[] end) {
 		if (name.isEmpty()) {
 			throw new WritingException("Invalid empty table name.");
 		}
-		writer.writeIndent(output);// Indents the line.
+		context.writeIndent(output);// Indents the line.
 		output.write(begin);
 		Iterator<String> it = name.iterator();
-		writer.writeKey(it.next(), output);// Writes the first part
+		context.writeKey(it.next(), output);// Writes the first part
 		while (it.hasNext()) {
 			output.write('.');// part separator
-			writer.writeKey(it.next(), output);
+			context.writeKey(it.next(), output);
 		}
 		output.write(end);
 	}
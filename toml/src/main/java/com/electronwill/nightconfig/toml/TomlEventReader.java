@@ -0,0 +1,234 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.io.CharacterInput;
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
+import com.electronwill.nightconfig.core.io.ParsingException;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the events of a TOML document. The tables declared by a header like {@code [a.b]} or
+ * {@code [[a.b]]} are reported as a key with the full path, relative to the root table,
+ * followed by a table (and by an array, for the arrays of tables). Such a table ends at the
+ * next header. As in TOML, the path of a header refers to the last element of the arrays of
+ * tables it contains.
+ *
+ * @author TheElectronWill
+ */
+final class TomlEventReader implements ConfigEventReader {
+	// --- States ---
+	private static final int START = 0, ENTRY = 1, VALUE = 2, FIRST_ELEMENT = 3, ELEMENT = 4;
+	private static final int INLINE_KEY = 5, AFTER_VALUE = 6, FINISHED = 7;
+
+	private final ParsingContext context;
+	private final CharacterInput input;
+	private int state = START;
+	private boolean[] inlineTables = new boolean[16];// false for the arrays
+	private int depth;// nesting of the inline tables and arrays
+	private boolean inTable, inArrayOfTables;// table declared by a header
+	private final Deque<ConfigEvent> pending = new ArrayDeque<>(6);
+	private List<String> pendingKey;
+	private String pendingComment;
+
+	private List<String> key;
+	private Object value;
+	private String comment;
+
+	TomlEventReader(ParsingContext context, CharacterInput input) {
+		this.context = context;
+		this.input = input;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return state != FINISHED || !pending.isEmpty();
+	}
+
+	@Override
+	public ConfigEvent next() {
+		if (!pending.isEmpty()) {
+			return poll();
+		}
+		while (true) {
+			switch (state) {
+				case START:
+					state = ENTRY;
+					return ConfigEvent.START_TABLE;
+				case ENTRY: {
+					int c = Toml.readNonSpace(input, true);
+					if (c == -1) {
+						endHeaderTable();
+						pending.add(ConfigEvent.END_TABLE);// the root table
+						pending.add(ConfigEvent.END_DOCUMENT);
+						state = FINISHED;
+						return poll();
+					}
+					if (c == '#') {
+						return comment(Toml.readLine(input).toString());
+					}
+					if (c == '[') {
+						return startHeaderTable();
+					}
+					key = TableParser.parseDottedKey(input, (char)c, context);
+					state = VALUE;
+					return ConfigEvent.KEY;
+				}
+				case VALUE:
+					return startValue(Toml.readNonSpaceChar(input, false));
+				case FIRST_ELEMENT:
+				case ELEMENT: {
+					char c = Toml.readUsefulChar(input);
+					if (c == ']') {
+						return end();// handles [] and [v1,v2,... ,]
+					}
+					if (c == ',' && state == FIRST_ELEMENT) {// handles [,]
+						char next = Toml.readUsefulChar(input);
+						if (next != ']') {
+							throw new ParsingException("Unexpected character in array: '"
+													   + next
+													   + "' - Expected end of array because "
+													   + "of the leading comma.");
+						}
+						return end();
+					}
+					return startValue(c);
+				}
+				case INLINE_KEY: {
+					char c = Toml.readNonSpaceChar(input, false);
+					if (c == '}') {
+						return end();// handles {} and {k1=v1,... ,}
+					}
+					key = TableParser.parseDottedKey(input, c, context);
+					state = VALUE;
+					return ConfigEvent.KEY;
+				}
+				case AFTER_VALUE: {
+					if (depth == 0) {// end of an entry of a table
+						int c = Toml.readNonSpace(input, false);
+						state = ENTRY;
+						if (c == '#') {
+							return comment(Toml.readLine(input).toString());
+						}
+						if (c != -1 && c != '\n' && c != '\r') {
+							throw new ParsingException("Invalid character '"
+													   + (char)c
+													   + "' after table entry "
+													   + key);
+						}
+						break;
+					}
+					boolean inInlineTable = inlineTables[depth - 1];
+					char c = inInlineTable ? Toml.readNonSpaceChar(input, false)
+										   : Toml.readUsefulChar(input);
+					if (c == (inInlineTable ? '}' : ']')) {
+						return end();
+					}
+					if (c != ',') {
+						throw new ParsingException("Invalid separator '" + c + "' in "
+												   + (inInlineTable ? "inline table." : "array."));
+					}
+					state = inInlineTable ? INLINE_KEY : ELEMENT;
+					break;// continues with the next key or element
+				}
+				default:
+					throw new NoSuchElementException();
+			}
+		}
+	}
+
+	private ConfigEvent poll() {
+		ConfigEvent event = pending.poll();
+		if (event == ConfigEvent.KEY) {
+			key = pendingKey;
+		} else if (event == ConfigEvent.COMMENT) {
+			comment = pendingComment;
+		}
+		return event;
+	}
+
+	private ConfigEvent comment(String text) {
+		comment = text;
+		return ConfigEvent.COMMENT;
+	}
+
+	private ConfigEvent startHeaderTable() {
+		boolean isArray = (input.peek() == '[');
+		if (isArray) {
+			input.skipPeeks();
+		}
+		List<String> path = TableParser.parseTableName(input, context, isArray);
+		endHeaderTable();
+		pendingKey = path;
+		pending.add(ConfigEvent.KEY);
+		if (isArray) {
+			pending.add(ConfigEvent.START_ARRAY);
+		}
+		pending.add(ConfigEvent.START_TABLE);
+		if (context.hasPendingComment()) {// comment on the same line as the header
+			pendingComment = context.consumeComment();
+			pending.add(ConfigEvent.COMMENT);
+		}
+		inTable = true;
+		inArrayOfTables = isArray;
+		return poll();
+	}
+
+	private void endHeaderTable() {
+		if (inTable) {
+			pending.add(ConfigEvent.END_TABLE);
+			if (inArrayOfTables) {
+				pending.add(ConfigEvent.END_ARRAY);
+			}
+			inTable = false;
+		}
+	}
+
+	private ConfigEvent startValue(char first) {
+		if (first == '{') {
+			push(true);
+			state = INLINE_KEY;
+			return ConfigEvent.START_TABLE;
+		}
+		if (first == '[') {
+			push(false);
+			state = FIRST_ELEMENT;
+			return ConfigEvent.START_ARRAY;
+		}
+		value = ValueParser.parse(input, first, context);
+		state = AFTER_VALUE;
+		return ConfigEvent.VALUE;
+	}
+
+	private void push(boolean inlineTable) {
+		if (depth == inlineTables.length) {
+			inlineTables = Arrays.copyOf(inlineTables, depth * 2);
+		}
+		inlineTables[depth++] = inlineTable;
+	}
+
+	private ConfigEvent end() {
+		boolean inlineTable = inlineTables[--depth];
+		state = AFTER_VALUE;
+		return inlineTable ? ConfigEvent.END_TABLE : ConfigEvent.END_ARRAY;
+	}
+
+	@Override
+	public List<String> getKey() {
+		return key;
+	}
+
+	@Override
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String getComment() {
+		return comment;
+	}
+}
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.electronwill.nightconfig.toml;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.ConfigFormat;
 import com.electronwill.nightconfig.core.file.FormatDetector;
+import com.electronwill.nightconfig.core.io.SectionScanner;
 
 import java.time.temporal.Temporal;
 import java.util.Map;
@@ -68,6 +69,11 @@ public final class TomlFormat implements ConfigFormat<CommentedConfig> {
 		return true;
 	}
 
+	@Override
+	public SectionScanner createSectionScanner() {
+		return new TomlSectionScanner();
+	}
+
 	@Override
 	public boolean supportsType(Class<?> type) {
 		return type != null && (ConfigFormat.super.supportsType(type) || Temporal.class.isAssignableFrom(type));
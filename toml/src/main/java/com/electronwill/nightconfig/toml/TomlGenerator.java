@@ -0,0 +1,250 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.io.AbstractGenerator;
+import com.electronwill.nightconfig.core.io.CharacterOutput;
+import com.electronwill.nightconfig.core.io.WritingException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes TOML data as it comes. The tables of the normal tables are written with a header like
+ * {@code [a.b]}, and the arrays that contain tables are written as arrays of tables, with a
+ * header like {@code [[a.b]]}. The other arrays, the tables in the arrays and the Configs given
+ * as values are written inline.
+ * <p>
+ * Because TOML requires the simple entries of a table to be written before its tables, an entry
+ * that follows a table with a header is rejected. For the same reason, an array of tables can't
+ * contain other values.
+ *
+ * @author TheElectronWill
+ */
+final class TomlGenerator extends AbstractGenerator {
+	private static final char[] KEY_VALUE_SEPARATOR = {' ', '=', ' '};
+
+	// --- Kinds of frame ---
+	private static final int TABLE = 0, INLINE_TABLE = 1, INLINE_ARRAY = 2, TABLES = 3;
+	private static final int PENDING_ARRAY = 4;// an array whose first element isn't known yet
+
+	private final WritingContext context;
+	private Frame current;
+	private String key, comment;
+
+	TomlGenerator(WritingContext context, CharacterOutput output) {
+		super(output);
+		this.context = context;
+	}
+
+	@Override
+	protected void writeTableStart(boolean first) {
+		if (current == null) {// root table
+			current = new Frame(TABLE, Collections.emptyList(), null);
+			context.increaseIndentLevel();
+			return;
+		}
+		switch (current.kind) {
+			case TABLE:
+				startTables(current);
+				writePendingComment();
+				List<String> path = new ArrayList<>(current.path);
+				path.add(key);
+				TableWriter.writeTableName(path, output, context);
+				context.writeNewline(output);
+				current = new Frame(TABLE, path, current);
+				context.increaseIndentLevel();
+				break;
+			case PENDING_ARRAY:
+				startTables(current.parent);
+				current.kind = TABLES;
+				// fall through
+			case TABLES:
+				writePendingComment();
+				TableWriter.writeTableArrayName(current.path, output, context);
+				context.writeNewline(output);
+				current = new Frame(TABLE, current.path, current);
+				context.increaseIndentLevel();
+				break;
+			case INLINE_ARRAY:
+				if (!first) {
+					output.write(ArrayWriter.ELEMENT_SEPARATOR);
+				}
+				// fall through
+			default:// INLINE_TABLE
+				output.write('{');
+				current = new Frame(INLINE_TABLE, null, current);
+		}
+	}
+
+	@Override
+	protected void writeTableEnd(boolean empty) {
+		Frame frame = current;
+		current = frame.parent;
+		if (frame.kind == TABLE) {
+			writePendingComment();
+			context.decreaseIndentLevel();
+		} else {
+			output.write('}');
+			endInlineValue();
+		}
+	}
+
+	@Override
+	protected void writeArrayStart(boolean first) {
+		switch (current.kind) {
+			case TABLE: {
+				List<String> path = new ArrayList<>(current.path);
+				path.add(key);
+				current = new Frame(PENDING_ARRAY, path, current);
+				return;
+			}
+			case TABLES:
+				throw mixedArray();
+			case PENDING_ARRAY:
+				startInlineArray();
+				break;
+			case INLINE_ARRAY:
+				if (!first) {
+					output.write(ArrayWriter.ELEMENT_SEPARATOR);
+				}
+				break;
+		}
+		output.write('[');
+		current = new Frame(INLINE_ARRAY, null, current);
+	}
+
+	@Override
+	protected void writeArrayEnd(boolean empty) {
+		Frame frame = current;
+		if (frame.kind == PENDING_ARRAY) {// empty array
+			startInlineArray();
+		}
+		current = current.parent;
+		if (frame.kind != TABLES) {
+			output.write(']');
+			endInlineValue();
+		}
+	}
+
+	@Override
+	protected void writeKey(String key, boolean first) {
+		if (current.kind == INLINE_TABLE) {
+			if (!first) {
+				output.write(ArrayWriter.ELEMENT_SEPARATOR);
+			}
+			context.writeKey(key, output);
+			output.write(KEY_VALUE_SEPARATOR);
+		} else {
+			this.key = key;// written with the value
+		}
+	}
+
+	@Override
+	protected void writeValue(Object value, boolean first) {
+		switch (current.kind) {
+			case TABLE:
+				startEntry(current);
+				ValueWriter.write(value, output, context);
+				context.writeNewline(output);
+				return;
+			case TABLES:
+				throw mixedArray();
+			case PENDING_ARRAY:
+				startInlineArray();
+				break;
+			case INLINE_ARRAY:
+				if (!first) {
+					output.write(ArrayWriter.ELEMENT_SEPARATOR);
+				}
+				break;
+		}
+		ValueWriter.write(value, output, context);
+	}
+
+	@Override
+	protected void writeComment(String comment) {
+		if (current == null) {// before the root table
+			context.writeComment(comment, output);
+		} else if (current.kind == TABLE || current.kind == TABLES
+				   || current.kind == PENDING_ARRAY) {
+			// Written with the next entry or table
+			this.comment = (this.comment == null) ? comment : this.comment + '\n' + comment;
+		}
+		// Comments aren't written in the inline tables and arrays
+	}
+
+	/**
+	 * Writes the key of an entry of a normal table, and its pending comment.
+	 */
+	private void startEntry(Frame table) {
+		if (table.hasTables) {
+			throw new WritingException("Invalid entry \""
+									   + key
+									   + "\" after the tables of the table "
+									   + table.path
+									   + ": TOML requires the simple entries to be written "
+									   + "before the tables");
+		}
+		table.hasEntries = true;
+		writePendingComment();
+		context.writeIndent(output);
+		context.writeKey(key, output);
+		output.write(KEY_VALUE_SEPARATOR);
+	}
+
+	/**
+	 * Separates the simple entries of a normal table from its tables, before its first table.
+	 */
+	private void startTables(Frame table) {
+		if (!table.hasTables) {
+			table.hasTables = true;
+			if (table.hasEntries) {
+				context.writeNewline(output);
+			}
+		}
+	}
+
+	/**
+	 * Turns the pending array into an inline array.
+	 */
+	private void startInlineArray() {
+		startEntry(current.parent);
+		output.write('[');
+		current.kind = INLINE_ARRAY;
+	}
+
+	/**
+	 * Ends the line of an inline table or array, if it's the value of an entry of a normal table.
+	 */
+	private void endInlineValue() {
+		if (current.kind == TABLE) {
+			context.writeNewline(output);
+		}
+	}
+
+	private void writePendingComment() {
+		if (comment != null) {
+			context.writeComment(comment, output);
+			comment = null;
+		}
+	}
+
+	private WritingException mixedArray() {
+		return new WritingException("Invalid value in the array of tables "
+									+ current.path
+									+ ": it can only contain tables");
+	}
+
+	private static final class Frame {
+		int kind;
+		final List<String> path;// the path of the normal tables and the arrays of tables
+		final Frame parent;
+		boolean hasEntries, hasTables;// for the normal tables
+
+		Frame(int kind, List<String> path, Frame parent) {
+			this.kind = kind;
+			this.path = path;
+			this.parent = parent;
+		}
+	}
+}
\ No newline at end of file
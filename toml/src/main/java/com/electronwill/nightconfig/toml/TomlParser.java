@@ -3,13 +3,20 @@ package com.electronwill.nightconfig.toml;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.LazyString;
 import com.electronwill.nightconfig.core.io.*;
+import com.electronwill.nightconfig.core.io.SectionScanner.Section;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
- * A configurable parser of TOML configurations. It is not thread-safe.
+ * A configurable parser of TOML configurations. The state of each parsing is kept apart from
+ * the parser, therefore a parser whose settings are no longer modified can be shared and used by
+ * several threads at the same time.
  *
  * @author TheElectronWill
  * @see <a href="https://github.com/toml-lang/toml">TOML specification</a>
@@ -19,59 +26,122 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 	private int initialStringBuilderCapacity = 16, initialListCapacity = 10;
 	private boolean lenientBareKeys = false;
 	private boolean lenientSeparators = false;
-	private boolean configWasEmpty = false;
-	private ParsingMode parsingMode;
+	private boolean lazyStrings = false;
+	private boolean lazyTables = false;
+	private ForkJoinPool parallelPool = null;
+	int segmentSize = 1 << 20;// the minimum size of the parts parsed in parallel, in chars
 
-	// --- Parser's state for TOML compliance ---
-	private final Set<Config> inlineTables = Collections.newSetFromMap(new IdentityHashMap<>());
-
-	void registerInlineTable(Config table) {
-		inlineTables.add(table);
+	// --- Parser's methods ---
+	@Override
+	public CommentedConfig parse(Reader reader) {
+		if (lazyTables || parallelPool != null) {
+			return parseInMemory(readAll(reader));
+		}
+		return parse(BufferedInput.of(reader));
 	}
 
-	boolean isInlineTable(Config table) {
-		return inlineTables.contains(table);
+	@Override
+	public CommentedConfig parse(String input) {
+		if (lazyTables || parallelPool != null) {
+			return parseInMemory(input);
+		}
+		return ConfigParser.super.parse(input);
 	}
 
-	private void clearParsingState() {
-		inlineTables.clear();
+	@Override
+	public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
+		parse(BufferedInput.of(reader), destination, parsingMode);
 	}
 
-	// --- Parser's methods ---
+	/**
+	 * Parses the entries of a TOML document that are accepted by a filter. The tables and the
+	 * values that are skipped are only scanned to find their end: they aren't created. The
+	 * filter is called with the path of each table declaration and of each entry.
+	 */
 	@Override
-	public CommentedConfig parse(Reader reader) {
-		configWasEmpty = true;
-		return parse(new ReaderInput(reader), TomlFormat.instance().createConfig(), ParsingMode.MERGE);
+	public void parse(Reader reader, Config destination, ParsingMode parsingMode,
+					  PathFilter filter) {
+		Objects.requireNonNull(filter, "The filter must not be null");
+		boolean configWasEmpty = (parsingMode == ParsingMode.REPLACE);
+		ParsingContext context = new ParsingContext(this, parsingMode, configWasEmpty, filter);
+		parseDocument(BufferedInput.of(reader), destination, context);
 	}
 
 	@Override
-	public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
-		if(parsingMode == ParsingMode.REPLACE) {
-			configWasEmpty = true;
+	public CommentedConfig parse(CharacterInput input) {
+		if (lazyTables || parallelPool != null) {
+			StringBuilder builder = new StringBuilder(4096);
+			int c;
+			while ((c = input.read()) != -1) {
+				builder.append((char)c);
+			}
+			return parseInMemory(builder.toString());
 		}
-		parse(new ReaderInput(reader), destination, parsingMode);
+		ParsingContext context = new ParsingContext(this, ParsingMode.MERGE, true, null);
+		return parseDocument(input, TomlFormat.instance().createConfig(), context);
 	}
 
-	private <T extends Config> T parse(CharacterInput input, T destination, ParsingMode parsingMode) {
-		this.parsingMode = parsingMode;
-		parsingMode.prepareParsing(destination);
+	@Override
+	public void parse(CharacterInput input, Config destination, ParsingMode parsingMode) {
+		boolean configWasEmpty = (parsingMode == ParsingMode.REPLACE);
+		ParsingContext context = new ParsingContext(this, parsingMode, configWasEmpty, null);
+		parseDocument(input, destination, context);
+	}
+
+	/**
+	 * Creates a reader of the events of a TOML document. The reader uses the settings of this
+	 * parser, which must not be modified until the reading is complete.
+	 */
+	@Override
+	public ConfigEventReader readEvents(Reader reader) {
+		return readEvents(BufferedInput.of(reader));
+	}
+
+	/**
+	 * Creates a reader of the events of a TOML document. The reader uses the settings of this
+	 * parser, which must not be modified until the reading is complete.
+	 */
+	@Override
+	public ConfigEventReader readEvents(CharacterInput input) {
+		ParsingContext context = new ParsingContext(this, ParsingMode.MERGE, true, null);
+		return new TomlEventReader(context, input);
+	}
+
+	private <T extends Config> T parseDocument(CharacterInput input, T destination,
+											   ParsingContext context) {
+		context.getParsingMode().prepareParsing(destination);
 		CommentedConfig commentedConfig = CommentedConfig.fake(destination);
-		CommentedConfig rootTable = TableParser.parseNormal(input, this, commentedConfig);
+		List<String> rootPath = context.isFiltered() ? Collections.emptyList() : null;
+		CommentedConfig rootTable = TableParser.parseNormal(input, context, commentedConfig,
+															rootPath);
 		int next;
 		while ((next = input.peek()) != -1) {
 			final boolean isArray = (next == '[');
 			if (isArray) {
 				input.skipPeeks();
 			}
-			final List<String> path = TableParser.parseTableName(input, this, isArray);
+			final List<String> path = TableParser.parseTableName(input, context, isArray);
+			List<String> tablePath = null;// the path of the table if its entries are filtered
+			if (context.isFiltered()) {
+				PathFilter.Action action = context.filter(path, 0);
+				if (action == PathFilter.Action.SKIP) {
+					// The tables that contain the skipped table are declared implicitly
+					getSubTable(rootTable, path.subList(0, context.descended(path, 0)), context);
+					context.consumeComment();// the comments of the skipped table are ignored
+					TableParser.skipNormal(input, context);
+					continue;
+				} else if (action == PathFilter.Action.DESCEND) {
+					tablePath = path;
+				}
+			}
 			final int lastIndex = path.size() - 1;
 			final String lastKey = path.get(lastIndex);
 			final List<String> parentPath = path.subList(0, lastIndex);
-			final Config parentConfig = getSubTable(rootTable, parentPath);
+			final Config parentConfig = getSubTable(rootTable, parentPath, context);
 			final Map<String, Object> parentMap = (parentConfig != null) ? parentConfig.valueMap()
 																		 : null;
-			if (hasPendingComment()) {// Handles comments that are before the table declaration
-				String comment = consumeComment();
+			if (context.hasPendingComment()) {// Handles comments before the table declaration
+				String comment = context.consumeComment();
 				if (parentConfig instanceof CommentedConfig) {
 					List<String> lastPath = Collections.singletonList(lastKey);
 					((CommentedConfig)parentConfig).setComment(lastPath, comment);
@@ -84,10 +154,10 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 											   + " because of an invalid "
 											   + "parent that isn't a table.");
 				}
-				CommentedConfig table = TableParser.parseNormal(input, this);
+				CommentedConfig table = TableParser.parseNormal(input, context, tablePath);
 				List<CommentedConfig> arrayOfTables = (List)parentMap.get(lastKey);
 				if (arrayOfTables == null) {
-					arrayOfTables = createList();
+					arrayOfTables = context.createList();
 					parentMap.put(lastKey, arrayOfTables);
 				}
 				arrayOfTables.add(table);
@@ -100,25 +170,192 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 				}
 				Object alreadyDeclared = parentMap.get(lastKey);
 				if (alreadyDeclared == null) {
-					CommentedConfig table = TableParser.parseNormal(input, this);
+					CommentedConfig table = TableParser.parseNormal(input, context, tablePath);
 					parentMap.put(lastKey, table);
 				} else {
 					if (alreadyDeclared instanceof Config) {
 						Config table = (Config)alreadyDeclared;
 						checkContainsOnlySubtables(table, path);
 						CommentedConfig commentedTable = CommentedConfig.fake(table);
-						TableParser.parseNormal(input, this, commentedTable);
-					} else if (configWasEmpty) {
+						TableParser.parseNormal(input, context, commentedTable, tablePath);
+					} else if (context.configWasEmpty()) {
 						throw new ParsingException("Entry " + path + " has been defined twice.");
 					}
 				}
 			}
 		}
-		clearParsingState();
 		return destination;
 	}
 
-	private Config getSubTable(Config parentTable, List<String> path) {
+	/**
+	 * Parses a document that has been read entirely, lazily or in parallel.
+	 */
+	private CommentedConfig parseInMemory(String text) {
+		if (lazyTables) {
+			return parseLazily(text);
+		}
+		if (text.length() < 2 * segmentSize) {// not worth splitting
+			return copySettings().parse(text);
+		}
+		return parseInParallel(text);
+	}
+
+	/**
+	 * Splits the document at its table declarations and parses the parts on the parallel pool.
+	 * The tables that define the same top-level key are parsed together, so that the TOML rules
+	 * about the redefinitions and the inline tables are checked like in a sequential parsing.
+	 * Only the elements of a top-level array of tables may be parsed separately, because they are
+	 * independent.
+	 */
+	private CommentedConfig parseInParallel(String text) {
+		TomlSectionScanner scanner = new TomlSectionScanner();
+		List<Section> rootSections = new ArrayList<>();
+		Map<String, List<Section>> groups = new LinkedHashMap<>();// by top-level key
+		for (Section section : scanner.scan(text)) {
+			if (section.key() == null) {
+				rootSections.add(section);
+			} else {
+				groups.computeIfAbsent(section.key(), k -> new ArrayList<>()).add(section);
+			}
+		}
+		// Groups the sections in segments of at least segmentSize chars
+		List<List<Section>> segments = new ArrayList<>();
+		List<Section> segment = new ArrayList<>();
+		long size = 0;
+		for (List<Section> group : groups.values()) {
+			boolean splittable = scanner.isArrayElement(group.get(0));
+			for (int i = 0; i < group.size(); i++) {
+				Section section = group.get(i);
+				boolean boundary = (i == 0) || (splittable && scanner.isArrayElement(section));
+				if (boundary && size >= segmentSize) {
+					segments.add(segment);
+					segment = new ArrayList<>();
+					size = 0;
+				}
+				segment.add(section);
+				size += section.size();
+			}
+		}
+		if (!segment.isEmpty()) {
+			segments.add(segment);
+		}
+		// Parses the segments with a parser that doesn't split them again
+		TomlParser segmentParser = copySettings();
+		List<ForkJoinTask<CommentedConfig>> tasks = new ArrayList<>(segments.size() + 1);
+		String rootText = scanner.join(text, rootSections);
+		tasks.add(parallelPool.submit(() -> segmentParser.parse(rootText)));
+		for (List<Section> sections : segments) {
+			String segmentText = scanner.join(text, sections);
+			tasks.add(parallelPool.submit(() -> segmentParser.parse(segmentText)));
+		}
+		try {
+			// Merges the results
+			CommentedConfig root = tasks.get(0).join();
+			Map<String, Object> values = root.valueMap();
+			Set<String> rootKeys = new HashSet<>(values.keySet());
+			Set<String> conflictKeys = new HashSet<>();
+			List<Section> conflicts = new ArrayList<>();
+			for (int i = 1; i < tasks.size(); i++) {
+				CommentedConfig parsed = tasks.get(i).join();
+				for (Map.Entry<String, Object> entry : parsed.valueMap().entrySet()) {
+					String key = entry.getKey();
+					if (rootKeys.contains(key)) {
+						if (conflictKeys.add(key)) {
+							conflicts.addAll(groups.get(key));
+						}
+						continue;
+					}
+					Object previous = values.putIfAbsent(key, entry.getValue());
+					if (previous != null) {// the next elements of a split array of tables
+						((List<Object>)previous).addAll((List<?>)entry.getValue());
+					} else {
+						String comment = parsed.getComment(key);
+						if (comment != null) {
+							root.setComment(Collections.singletonList(key), comment);
+						}
+					}
+				}
+			}
+			// A key defined by both the root values and some tables must be parsed at once
+			if (!conflicts.isEmpty()) {
+				conflicts.addAll(rootSections);
+				conflicts.sort(Comparator.comparingLong(Section::start));
+				CommentedConfig parsed = segmentParser.parse(scanner.join(text, conflicts));
+				values.putAll(parsed.valueMap());
+				for (Map.Entry<String, String> comment : parsed.commentMap().entrySet()) {
+					List<String> key = Collections.singletonList(comment.getKey());
+					root.setComment(key, comment.getValue());
+				}
+			}
+			return root;
+		} finally {
+			for (ForkJoinTask<?> task : tasks) {
+				task.cancel(false);// doesn't affect the completed tasks
+			}
+		}
+	}
+
+	/**
+	 * Parses the values that are defined before the first table, and finds the other tables
+	 * without parsing them.
+	 */
+	private CommentedConfig parseLazily(String text) {
+		TomlSectionScanner scanner = new TomlSectionScanner();
+		TomlParser eagerParser = copySettings();
+		List<Section> rootSections = new ArrayList<>();
+		Map<String, List<Section>> pending = new LinkedHashMap<>();// in the document's order
+		for (Section section : scanner.scan(text)) {
+			if (section.key() == null) {
+				rootSections.add(section);
+			} else {
+				pending.computeIfAbsent(section.key(), k -> new ArrayList<>()).add(section);
+			}
+		}
+		CommentedConfig root = eagerParser.parse(scanner.join(text, rootSections));
+		// A key defined by both the root values and some tables must be parsed at once
+		boolean conflict = false;
+		for (String key : root.valueMap().keySet()) {
+			List<Section> keySections = pending.remove(key);
+			if (keySections != null) {
+				rootSections.addAll(keySections);
+				conflict = true;
+			}
+		}
+		if (conflict) {
+			rootSections.sort(Comparator.comparingLong(Section::start));
+			root = eagerParser.parse(scanner.join(text, rootSections));
+		}
+		return new LazyTomlConfig(root, pending, text, scanner, eagerParser);
+	}
+
+	private static String readAll(Reader reader) {
+		StringBuilder builder = new StringBuilder(4096);
+		char[] buffer = new char[4096];
+		try {
+			int read;
+			while ((read = reader.read(buffer)) != -1) {
+				builder.append(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			throw ParsingException.readFailed(e);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return a new parser with the same settings as this parser, except the lazy tables
+	 */
+	private TomlParser copySettings() {
+		TomlParser copy = new TomlParser();
+		copy.initialStringBuilderCapacity = initialStringBuilderCapacity;
+		copy.initialListCapacity = initialListCapacity;
+		copy.lenientBareKeys = lenientBareKeys;
+		copy.lenientSeparators = lenientSeparators;
+		copy.lazyStrings = lazyStrings;
+		return copy;
+	}
+
+	private Config getSubTable(Config parentTable, List<String> path, ParsingContext context) {
 		if (path.isEmpty()) {
 			return parentTable;
 		}
@@ -142,7 +379,7 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 			} else {
 				return null;
 			}
-			if (this.isInlineTable(currentConfig)) {
+			if (context.isInlineTable(currentConfig)) {
 				// reject modification of inline tables
 				throw new ParsingException("Cannot modify an inline table after its creation. Key path: " + path);
 			}
@@ -193,71 +430,93 @@ public final class TomlParser implements ConfigParser<CommentedConfig> {
 		return this;
 	}
 
-	public TomlParser setInitialStringBuilderCapacity(int initialStringBuilderCapacity) {
-		this.initialStringBuilderCapacity = initialStringBuilderCapacity;
-		return this;
+	public boolean isLazyStrings() {
+		return lazyStrings;
 	}
 
-	public TomlParser setInitialListCapacity(int initialListCapacity) {
-		this.initialListCapacity = initialListCapacity;
+	/**
+	 * Enables or disables the lazy strings. False by default. If set to true, the single-line
+	 * string values of the tables that contain no escape sequence are stored as
+	 * {@link LazyString}s, which are turned into Strings when they are read for the first time.
+	 * This saves time and memory when only a few values are read, but the parsed data is
+	 * retained until then.
+	 *
+	 * @param lazyStrings true to create lazy strings, false to create Strings
+	 * @return this parser
+	 */
+	public TomlParser setLazyStrings(boolean lazyStrings) {
+		this.lazyStrings = lazyStrings;
 		return this;
 	}
 
-	@Override
-	public ConfigFormat<CommentedConfig> getFormat() {
-		return TomlFormat.instance();
+	/**
+	 * @return the pool used to parse the documents in parallel, or null if the parallel parsing
+	 * is disabled (default)
+	 */
+	public ForkJoinPool getParallelPool() {
+		return parallelPool;
 	}
 
-	boolean configWasEmpty() {
-		return configWasEmpty;
+	/**
+	 * Enables or disables the parallel parsing. Disabled by default. If a pool is set, the methods
+	 * that return a new config read the whole document, find its table declarations with a quick
+	 * scan, and parse the tables on the pool. The tables that define the same top-level key are
+	 * parsed together, except the elements of the top-level arrays of tables, like {@code [[a]]}.
+	 * The small documents are parsed by the calling thread. The lazy tables, if enabled, take
+	 * precedence over the parallel parsing.
+	 * <p>
+	 * The methods that parse the data into an existing config aren't affected.
+	 *
+	 * @param parallelPool the pool to use, or null to parse on the calling thread only
+	 * @return this parser
+	 */
+	public TomlParser setParallelPool(ForkJoinPool parallelPool) {
+		this.parallelPool = parallelPool;
+		return this;
 	}
 
-	ParsingMode getParsingMode() {
-		return parsingMode;
+	public boolean isLazyTables() {
+		return lazyTables;
 	}
 
-	// --- Configured objects creation ---
-	<T> List<T> createList() {
-		return new ArrayList<>(initialListCapacity);
+	/**
+	 * Enables or disables the lazy tables. False by default. If set to true, the methods that
+	 * return a new config only parse the values that are defined before the first table. The
+	 * other tables are found by a quick scan of the document, and each top-level table is parsed
+	 * when it is accessed for the first time. This saves a lot of time when only a few tables of
+	 * a big document are used, but the document is kept in memory until all its tables have
+	 * been parsed, and the syntax errors of a table are only reported when it is accessed.
+	 * <p>
+	 * The methods that parse the data into an existing config aren't affected.
+	 *
+	 * @param lazyTables true to parse the tables on demand, false to parse the whole document
+	 * @return this parser
+	 */
+	public TomlParser setLazyTables(boolean lazyTables) {
+		this.lazyTables = lazyTables;
+		return this;
 	}
 
-	CharsWrapper.Builder createBuilder() {
-		return new CharsWrapper.Builder(initialStringBuilderCapacity);
+	public int getInitialStringBuilderCapacity() {
+		return initialStringBuilderCapacity;
 	}
 
-	// --- Comment management ---
-	private String currentComment;
-
-	boolean hasPendingComment() {
-		return currentComment != null;
+	public TomlParser setInitialStringBuilderCapacity(int initialStringBuilderCapacity) {
+		this.initialStringBuilderCapacity = initialStringBuilderCapacity;
+		return this;
 	}
 
-	String consumeComment() {
-		String comment = currentComment;
-		currentComment = null;
-		return comment;
+	public int getInitialListCapacity() {
+		return initialListCapacity;
 	}
 
-	void setComment(CharsWrapper comment) {
-		if (comment != null) {
-			if (currentComment == null) {
-				currentComment = comment.toString();
-			} else {
-				currentComment = currentComment + '\n' + comment.toString();
-			}
-		}
+	public TomlParser setInitialListCapacity(int initialListCapacity) {
+		this.initialListCapacity = initialListCapacity;
+		return this;
 	}
 
-	void setComment(List<CharsWrapper> commentsList) {
-		CharsWrapper.Builder builder = new CharsWrapper.Builder(32);
-		if (!commentsList.isEmpty()) {
-			Iterator<CharsWrapper> it = commentsList.iterator();
-			builder.append(it.next());
-			while (it.hasNext()) {
-				builder.append('\n');
-				builder.append(it.next());
-			}
-			setComment(builder.build());// Appends the builder to the current comment if any
-		}
+	@Override
+	public ConfigFormat<CommentedConfig> getFormat() {
+		return TomlFormat.instance();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,361 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.SectionScanner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the tables and arrays of tables of a TOML document. Each table is a section that starts
+ * at the comments that precede its declaration, and ends before the next table. The key of the
+ * section is the first part of the table's name, for instance "a" for {@code [a.b.c]}. The
+ * values that are declared before the first table form a section whose key is null.
+ * <p>
+ * The document is read from an InputStream, and the positions are in bytes, or from a
+ * CharSequence, and the positions are in characters. The sections that declare an element of a
+ * top-level array of tables, like {@code [[a]]}, are recorded by the scanner: they can be parsed
+ * independently of the previous elements.
+ *
+ * @author TheElectronWill
+ */
+final class TomlSectionScanner implements SectionScanner {
+	private static final int BUFFER_SIZE = 65536;
+
+	private InputStream input;
+	private CharSequence text;// read instead of the input if not null
+	private byte[] buffer;// allocated by the first scan of an InputStream
+	private int bufferPos, bufferLimit;
+	private long position;// position of the next byte
+	private int pushedBack = -1;
+	private boolean arrayElement;// true if the last header declares an element like [[a]]
+	private final Set<Section> arrayElements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	@Override
+	public List<Section> scan(InputStream input, Charset charset) throws IOException {
+		this.input = input;
+		this.text = null;
+		if (buffer == null) {
+			buffer = new byte[BUFFER_SIZE];
+		}
+		this.bufferPos = 0;
+		this.bufferLimit = 0;
+		return scan(charset);
+	}
+
+	/**
+	 * Scans a document that is already in memory. The positions of the sections are indexes in
+	 * the text.
+	 *
+	 * @param text the document to scan
+	 * @return the list of the sections
+	 */
+	List<Section> scan(CharSequence text) {
+		this.input = null;
+		this.text = text;
+		try {
+			return scan((Charset)null);
+		} catch (IOException e) {// impossible without an InputStream
+			throw new ParsingException("Failed to scan the text", e);
+		}
+	}
+
+	private List<Section> scan(Charset charset) throws IOException {
+		this.position = 0;
+		this.pushedBack = -1;
+		arrayElements.clear();
+
+		List<Section> sections = new ArrayList<>();
+		String currentKey = null;
+		boolean currentIsElement = false;
+		long currentStart = 0;
+		long lineStart = 0;
+		long commentBlockStart = -1;// start of the comments that precede the next line
+		boolean atLineStart = true;// true if only spaces have been read on the current line
+		int depth = 0;// depth of the arrays and inline tables
+		KeyBuffer keyBuffer = new KeyBuffer();
+		int b;
+		while ((b = next()) != -1) {
+			switch (b) {
+				case '\n':
+					atLineStart = true;
+					lineStart = position;
+					continue;
+				case ' ':
+				case '\t':
+				case '\r':
+					continue;
+				case '#':
+					if (atLineStart && depth == 0 && commentBlockStart == -1) {
+						commentBlockStart = lineStart;
+					}
+					skipLine();
+					atLineStart = true;
+					lineStart = position;
+					continue;
+			}
+			if (atLineStart && depth == 0 && b == '[') {
+				long sectionStart = (commentBlockStart == -1) ? lineStart : commentBlockStart;
+				if (sectionStart > currentStart || currentKey != null) {
+					addSection(sections, currentKey, currentIsElement, currentStart, sectionStart);
+				}
+				keyBuffer.reset();
+				currentKey = readHeader(keyBuffer, charset);
+				currentIsElement = arrayElement;
+				currentStart = sectionStart;
+				commentBlockStart = -1;
+				atLineStart = false;
+				continue;
+			}
+			atLineStart = false;
+			commentBlockStart = -1;
+			switch (b) {
+				case '"':
+				case '\'':
+					skipString(b);
+					break;
+				case '[':
+				case '{':
+					depth++;
+					break;
+				case ']':
+				case '}':
+					depth--;
+					break;
+			}
+		}
+		if (position > currentStart || currentKey != null) {
+			addSection(sections, currentKey, currentIsElement, currentStart, position);
+		}
+		return sections;
+	}
+
+	private void addSection(List<Section> sections, String key, boolean isArrayElement,
+							long start, long end) {
+		Section section = new Section(key, start, end);
+		sections.add(section);
+		if (isArrayElement) {
+			arrayElements.add(section);
+		}
+	}
+
+	/**
+	 * Checks if a section declares an element of a top-level array of tables, like
+	 * {@code [[a]]}. Only the sections returned by the last scan are known.
+	 *
+	 * @param section a section returned by the last scan
+	 * @return true if the section declares an element of a top-level array of tables
+	 */
+	boolean isArrayElement(Section section) {
+		return arrayElements.contains(section);
+	}
+
+	@Override
+	public String join(List<String> sectionTexts) {
+		return String.join("\n", sectionTexts);
+	}
+
+	/**
+	 * Joins some sections of a text scanned by {@link #scan(CharSequence)}.
+	 *
+	 * @param text     the scanned text
+	 * @param sections the sections to join, in the order of the text
+	 * @return the document
+	 */
+	String join(String text, List<Section> sections) {
+		List<String> texts = new ArrayList<>(sections.size());
+		for (Section section : sections) {
+			texts.add(text.substring((int)section.start(), (int)section.end()));
+		}
+		return join(texts);
+	}
+
+	/**
+	 * Reads a table declaration, after its first '[', and returns the first part of its name.
+	 * Sets {@link #arrayElement} to true if the declaration is like {@code [[a]]}.
+	 */
+	private String readHeader(KeyBuffer keyBuffer, Charset charset) throws IOException {
+		int b = nextNonSpace();
+		boolean array = (b == '[');
+		if (array) {// array of tables
+			b = nextNonSpace();
+		}
+		String key;
+		if (b == '"' || b == '\'') {
+			readQuoted(b, keyBuffer);
+			String raw = keyBuffer.toString(charset);
+			key = (b == '"') ? StringParser.unescape(raw) : raw;
+			b = nextNonSpace();
+		} else {
+			while (b != -1 && b != '.' && b != ']' && b != ' ' && b != '\t' && b != '\n') {
+				keyBuffer.write(b);
+				b = next();
+			}
+			if (b == -1 || b == '\n') {
+				throw new ParsingException("Invalid table declaration at position " + position);
+			}
+			key = keyBuffer.toString(charset);
+			if (b == ' ' || b == '\t') {
+				b = nextNonSpace();
+			}
+		}
+		arrayElement = array && b == ']';// the name has only one part
+		if (b != ']' && b != '.') {
+			pushBack(b);// handled below
+		}
+		// Skips the rest of the declaration
+		while ((b = next()) != -1 && b != '\n') {
+			if (b == '"' || b == '\'') {
+				readQuoted(b, null);
+			} else if (b == '#') {
+				skipLine();
+				break;
+			}
+		}
+		if (b == '\n') {
+			pushedBack = b;
+			position--;
+		}
+		return key;
+	}
+
+	/**
+	 * Skips a string, after its first quote. Handles the basic, literal and multiline strings.
+	 */
+	private void skipString(int quote) throws IOException {
+		int b = next();
+		if (b != quote) {// single-line string
+			pushBack(b);
+			readQuoted(quote, null);
+			return;
+		}
+		b = next();
+		if (b != quote) {// empty string
+			pushBack(b);
+			return;
+		}
+		// multiline string
+		int quotes = 0;
+		while ((b = next()) != -1) {
+			if (b == quote) {
+				if (++quotes == 3) {
+					// A multiline string may end with up to 2 additional quotes
+					for (int i = 0; i < 2; i++) {
+						b = next();
+						if (b != quote) {
+							pushBack(b);
+							break;
+						}
+					}
+					return;
+				}
+			} else {
+				quotes = 0;
+				if (b == '\\' && quote == '"') {
+					next();
+				}
+			}
+		}
+		throw ParsingException.notEnoughData();
+	}
+
+	/**
+	 * Reads a single-line string, after its opening quote.
+	 *
+	 * @param content receives the raw content of the string (without quotes), may be null
+	 */
+	private void readQuoted(int quote, KeyBuffer content) throws IOException {
+		int b;
+		while ((b = next()) != quote) {
+			if (b == -1 || b == '\n') {
+				throw new ParsingException("Unterminated string at position " + position);
+			}
+			if (content != null) {
+				content.write(b);
+			}
+			if (b == '\\' && quote == '"') {
+				b = next();
+				if (content != null) {
+					content.write(b);
+				}
+			}
+		}
+	}
+
+	private void skipLine() throws IOException {
+		int b;
+		do {
+			b = next();
+		} while (b != '\n' && b != -1);
+	}
+
+	private int nextNonSpace() throws IOException {
+		int b;
+		do {
+			b = next();
+		} while (b == ' ' || b == '\t');
+		return b;
+	}
+
+	private void pushBack(int b) {
+		if (b != -1) {
+			pushedBack = b;
+			position--;
+		}
+	}
+
+	private int next() throws IOException {
+		if (pushedBack != -1) {
+			int b = pushedBack;
+			pushedBack = -1;
+			position++;
+			return b;
+		}
+		if (text != null) {
+			return (position < text.length()) ? text.charAt((int)position++) : -1;
+		}
+		if (bufferPos == bufferLimit) {
+			bufferLimit = input.read(buffer);
+			bufferPos = 0;
+			if (bufferLimit <= 0) {
+				bufferLimit = 0;
+				return -1;
+			}
+		}
+		position++;
+		return buffer[bufferPos++] & 0xFF;
+	}
+
+	/**
+	 * Stores the raw content of a key: bytes when reading an InputStream, characters when
+	 * reading a CharSequence.
+	 */
+	private final class KeyBuffer {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final StringBuilder chars = new StringBuilder();
+
+		void write(int b) {
+			if (text != null) {
+				chars.append((char)b);
+			} else {
+				bytes.write(b);
+			}
+		}
+
+		void reset() {
+			bytes.reset();
+			chars.setLength(0);
+		}
+
+		String toString(Charset charset) {
+			return (text != null) ? chars.toString() : new String(bytes.toByteArray(), charset);
+		}
+	}
+}
@@ -10,6 +10,10 @@ import java.util.List;
 import java.util.function.Predicate;
 
 /**
+ * A configurable writer of TOML configurations. The state of each writing is kept apart from the
+ * writer, therefore a writer whose settings are no longer modified can be shared and used by
+ * several threads at the same time.
+ *
  * @author TheElectronWill
  */
 public final class TomlWriter implements ConfigWriter {
@@ -18,16 +22,36 @@ public final class TomlWriter implements ConfigWriter {
 	private Predicate<UnmodifiableConfig> writeTableInlinePredicate = UnmodifiableConfig::isEmpty;
 	private Predicate<String> writeStringLiteralPredicate = c -> false;
 	private Predicate<List<?>> indentArrayElementsPredicate = c -> false;
-	private char[] indent = IndentStyle.TABS.chars;
+	private IndentCache indent = new IndentCache(IndentStyle.TABS.chars);
 	private char[] newline = NewlineStyle.system().chars;
-	private int currentIndentLevel;
 
 	// --- Writer's methods ---
 	@Override
 	public void write(UnmodifiableConfig config, Writer writer) {
-		currentIndentLevel = -1;//-1 to make the root entries not indented
-		CharacterOutput output = new WriterOutput(writer);
-		TableWriter.writeNormal(config, new ArrayList<>(), output, this);
+		try (BufferedOutput output = new BufferedOutput(writer)) {
+			write(config, output);
+			output.flush();
+		}
+	}
+
+	@Override
+	public void write(UnmodifiableConfig config, CharacterOutput output) {
+		WritingContext context = new WritingContext(this);
+		TableWriter.writeNormal(config, new ArrayList<>(), output, context);
+	}
+
+	/**
+	 * Creates a generator that writes TOML data as it comes. The tables are written with a
+	 * header, and the arrays that contain tables are written as arrays of tables, except in the
+	 * inline tables and arrays. The predicate that decides whether a table is written inline
+	 * can't be used, because the tables aren't known in advance.
+	 * <p>
+	 * TOML requires the simple entries of a table to be written before its sub-tables: the
+	 * generator throws a {@link WritingException} if an entry is written after a sub-table.
+	 */
+	@Override
+	public ConfigGenerator createGenerator(CharacterOutput output) {
+		return new TomlGenerator(new WritingContext(this), output);
 	}
 
 	// --- Getters/setters for the settings ---
@@ -52,11 +76,11 @@ public final class TomlWriter implements ConfigWriter {
 	}
 
 	public void setIndent(IndentStyle indentStyle) {
-		this.indent = indentStyle.chars;
+		this.indent = new IndentCache(indentStyle.chars);
 	}
 
 	public void setIndent(String indentString) {
-		this.indent = indentString.toCharArray();
+		this.indent = new IndentCache(indentString.toCharArray());
 	}
 
 	public void setNewline(NewlineStyle newlineStyle) {
@@ -68,28 +92,18 @@ public final class TomlWriter implements ConfigWriter {
 	}
 
 	// --- Methods used by the writing classes ---
-	void increaseIndentLevel() {
-		currentIndentLevel++;
-	}
-
-	void decreaseIndentLevel() {
-		currentIndentLevel--;
-	}
-
-	void writeIndent(CharacterOutput output) {
-		for (int i = 0; i < currentIndentLevel; i++) {
-			output.write(indent);
-		}
+	void writeIndent(int indentLevel, CharacterOutput output) {
+		indent.write(indentLevel, output);
 	}
 
 	void writeNewline(CharacterOutput output) {
 		output.write(newline);
 	}
 
-	void writeComment(String commentString, CharacterOutput output) {
+	void writeComment(String commentString, int indentLevel, CharacterOutput output) {
 		List<String> comments = StringUtils.splitLines(commentString);
 		for (String comment : comments) {
-			writeIndent(output);
+			writeIndent(indentLevel, output);
 			output.write('#');
 			output.write(comment);
 			output.write(newline);
@@ -19,29 +19,46 @@ final class ValueParser {
 	private static final char[] ONLY_IN_FP_NUMBER = {'.', 'e', 'E'};
 	private static final char[] FP_INFINITY = {'i', 'n', 'f'};
 	private static final char[] FP_NAN = {'n', 'a', 'n'};
+	private static final char[] NESTED_STOP = {'\"', '\'', '#', '{', '}', '[', ']'};
+	private static final char[] NEWLINE = {'\n'};
 
 	/**
 	 * Parses a TOML value. The value's type is determinated with the first character, and with
 	 * the next ones if necessary.
 	 */
-	static Object parse(CharacterInput input, char firstChar, TomlParser parser) {
+	static Object parse(CharacterInput input, char firstChar, ParsingContext context) {
+		return parse(input, firstChar, context, false);
+	}
+
+	/**
+	 * Parses a TOML value. If {@code allowLazy} is true and the parser creates lazy strings, the
+	 * single-line strings may be parsed to LazyStrings.
+	 */
+	static Object parse(CharacterInput input, char firstChar, ParsingContext context,
+						boolean allowLazy) {
 		switch (firstChar) {
 			case '{':
-				return TableParser.parseInline(input, parser);
+				return TableParser.parseInline(input, context);
 			case '[':
-				return ArrayParser.parse(input, parser);
+				return ArrayParser.parse(input, context);
 			case '\'':
 				if (input.peek() == '\'' && input.peek(1) == '\'') {
 					input.skipPeeks();// Don't include the opening quotes in the String
-					return StringParser.parseMultiLiteral(input, parser);
+					return StringParser.parseMultiLiteral(input, context);
+				}
+				if (allowLazy && context.isLazyStrings()) {
+					return StringParser.parseLazyLiteral(input);
 				}
-				return StringParser.parseLiteral(input, parser);
+				return StringParser.parseLiteral(input, context);
 			case '\"':
 				if (input.peek() == '\"' && input.peek(1) == '\"') {
 					input.skipPeeks();// Don't include the opening quotes in the String
-					return StringParser.parseMultiBasic(input, parser);
+					return StringParser.parseMultiBasic(input, context);
 				}
-				return StringParser.parseBasic(input, parser);
+				if (allowLazy && context.isLazyStrings()) {
+					return StringParser.parseLazyBasic(input, context);
+				}
+				return StringParser.parseBasic(input, context);
 			case 't':
 				return parseTrue(input);
 			case 'f':
@@ -64,8 +81,42 @@ final class ValueParser {
 		}
 	}
 
-	static Object parse(CharacterInput input, TomlParser parser) {
-		return parse(input, Toml.readNonSpaceChar(input, false), parser);
+	/**
+	 * Parses the value of a table's entry.
+	 */
+	static Object parse(CharacterInput input, ParsingContext context) {
+		return parse(input, Toml.readNonSpaceChar(input, false), context, true);
+	}
+
+	/**
+	 * Skips a TOML value without creating it. Only the structure of the value is checked.
+	 */
+	static void skip(CharacterInput input, char firstChar) {
+		switch (firstChar) {
+			case '{':
+			case '[':
+				int depth = 1;
+				do {
+					input.readCharsUntil(NESTED_STOP);
+					char c = input.readChar();
+					if (c == '\"' || c == '\'') {
+						StringParser.skip(input, c);
+					} else if (c == '#') {// comment in an array
+						input.readUntil(NEWLINE);
+					} else if (c == '{' || c == '[') {
+						depth++;
+					} else {
+						depth--;
+					}
+				} while (depth > 0);
+				break;
+			case '\'':
+			case '\"':
+				StringParser.skip(input, firstChar);
+				break;
+			default:// number, boolean or date
+				input.readUntil(END_OF_VALUE_DATE);
+		}
 	}
 
 	private static boolean shouldBeTemporal(CharsWrapper valueChars) {
@@ -96,15 +147,15 @@ final class ValueParser {
 		// Parse integers
 		CharsWrapper numberChars = valueChars;
 		int base = 10;
-		if (valueChars.length() > 2) {
-			switch (valueChars.subView(0, 2).toString()) {
-				case "0x":
+		if (valueChars.length() > 2 && valueChars.get(0) == '0') {
+			switch (valueChars.get(1)) {
+				case 'x':
 					base = 16;
 					break;
-				case "0b":
+				case 'b':
 					base = 2;
 					break;
-				case "0o":
+				case 'o':
 					base = 8;
 					break;
 			}
@@ -113,7 +164,7 @@ final class ValueParser {
 			}
 		}
 		// Parse other fp values if no base specified
-		if (base == 10 && valueChars.indexOf('.') != -1) {
+		if (base == 10 && valueChars.indexOfFirst(ONLY_IN_FP_NUMBER) != -1) {
 			try {
 				return Utils.parseDouble(valueChars);
 			} catch (NumberFormatException ex) {
@@ -140,6 +191,9 @@ final class ValueParser {
 		if (numberChars.charAt(numberChars.length() - 1) == '_') {
 			throw new ParsingException("Invalid trailing underscore in number " + numberChars);
 		}
+		if (numberChars.indexOf('_') == -1) {
+			return numberChars;// nothing to remove
+		}
 		CharsWrapper.Builder builder = new CharsWrapper.Builder(16);
 		boolean nextCannotBeUnderscore = false;
 		for (char c : numberChars) {
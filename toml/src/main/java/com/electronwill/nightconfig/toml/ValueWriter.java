@@ -2,6 +2,7 @@ package com.electronwill.nightconfig.toml;
 
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.io.CharacterOutput;
+import com.electronwill.nightconfig.core.io.NumberFormatter;
 import com.electronwill.nightconfig.core.io.WritingException;
 
 import java.time.temporal.Temporal;
@@ -14,8 +15,8 @@ import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
  * @author TheElectronWill
  */
 final class ValueWriter {
-	private static void writeString(String string, CharacterOutput output, TomlWriter writer) {
-		if (writer.writesLiteral(string)) {
+	private static void writeString(String string, CharacterOutput output, WritingContext context) {
+		if (context.writesLiteral(string)) {
 			StringWriter.writeLiteral(string, output);
 		} else {
 			StringWriter.writeBasic(string, output);
@@ -24,27 +25,27 @@ final class ValueWriter {
 	/**
 	 * Writes a value. This method calls the correct writing method based on the value's type.
 	 */
-	static void write(Object value, CharacterOutput output, TomlWriter writer) {
+	static void write(Object value, CharacterOutput output, WritingContext context) {
 		if (value instanceof Config) {
-			TableWriter.writeInline((Config)value, output, writer);
+			TableWriter.writeInline((Config)value, output, context);
 		} else if (value instanceof List) {
 			List<?> list = (List<?>)value;
 			if (!list.isEmpty() && list.stream().allMatch(Config.class::isInstance)) {// Array of tables
 				Iterator<?> iterator = list.iterator();
 				while (iterator.hasNext()) {
 					final Object table = iterator.next();
-					TableWriter.writeInline((Config)table, output, writer);
+					TableWriter.writeInline((Config)table, output, context);
 					if (iterator.hasNext()) {
 						output.write(ArrayWriter.ELEMENT_SEPARATOR);
 					}
 				}
 			} else {// Normal array
-				ArrayWriter.write((List<?>)value, output, writer);
+				ArrayWriter.write((List<?>)value, output, context);
 			}
 		} else if (value instanceof CharSequence) {// String
-			writeString(value.toString(), output, writer);
+			writeString(value.toString(), output, context);
 		} else if (value instanceof Enum) {// Enum value
-			writeString(((Enum<?>)value).name(), output, writer);
+			writeString(((Enum<?>)value).name(), output, context);
 		} else if (value instanceof Temporal) {// Date or DateTime
 			TemporalWriter.write((Temporal)value, output);
 		} else if (value instanceof Float || value instanceof Double) {// Floating-point number
@@ -56,9 +57,11 @@ final class ValueWriter {
 			} else if (d == Double.NEGATIVE_INFINITY) {
 				output.write("-inf");
 			} else {
-				output.write(value.toString());
+				NumberFormatter.write((Number)value, output);
 			}
-		} else if (value instanceof Number || value instanceof Boolean) {
+		} else if (value instanceof Number) {
+			NumberFormatter.write((Number)value, output);
+		} else if (value instanceof Boolean) {
 			output.write(value.toString());
 		} else if (value == null || value == NULL_OBJECT) {
 			throw new WritingException("TOML doesn't support null values");
@@ -0,0 +1,58 @@
+package com.electronwill.nightconfig.toml;
+
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.core.io.CharacterOutput;
+
+import java.util.List;
+
+/**
+ * The state of the writing of one TOML document: the current indent level. The settings are
+ * read from the {@link TomlWriter}, which isn't modified, so that a writer can write several
+ * documents at the same time.
+ *
+ * @author TheElectronWill
+ */
+final class WritingContext {
+	private final TomlWriter writer;
+	private int currentIndentLevel = -1;// -1 to make the root entries not indented
+
+	WritingContext(TomlWriter writer) {
+		this.writer = writer;
+	}
+
+	void increaseIndentLevel() {
+		currentIndentLevel++;
+	}
+
+	void decreaseIndentLevel() {
+		currentIndentLevel--;
+	}
+
+	void writeIndent(CharacterOutput output) {
+		writer.writeIndent(currentIndentLevel, output);
+	}
+
+	void writeNewline(CharacterOutput output) {
+		writer.writeNewline(output);
+	}
+
+	void writeComment(String commentString, CharacterOutput output) {
+		writer.writeComment(commentString, currentIndentLevel, output);
+	}
+
+	void writeKey(String key, CharacterOutput output) {
+		writer.writeKey(key, output);
+	}
+
+	boolean writesInline(UnmodifiableConfig config) {
+		return writer.writesInline(config);
+	}
+
+	boolean writesLiteral(String string) {
+		return writer.writesLiteral(string);
+	}
+
+	boolean writesIndented(List<?> list) {
+		return writer.writesIndented(list);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.electronwill.nightconfig.toml;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.file.FileConfig;
+import com.electronwill.nightconfig.core.file.FileNotFoundAction;
+import com.electronwill.nightconfig.core.io.ConfigParser;
+import com.electronwill.nightconfig.core.io.ConfigWriter;
+import com.electronwill.nightconfig.core.io.SectionScanner;
+import com.electronwill.nightconfig.core.io.SectionScanner.Section;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author TheElectronWill
+ */
+public class TomlPagedConfigTest {
+	private static final String DOCUMENT = "title = \"test\"\n"
+										   + "multi = '''\n[not.a.table]\n'''\n"
+										   + "\n# comment of a\n"
+										   + "[a]\nvalue = 1\narray = [\n[1, 2],\n]\n"
+										   + "[\"b.c\".d]\nvalue = \"]\"\n"
+										   + "[[servers]]\nname = \"s1\"\n"
+										   + "[a.sub]\nvalue = 2\n"
+										   + "[[servers]]\nname = \"s2\"\n";
+
+	@Test
+	public void scanSections() throws IOException {
+		List<Section> sections;
+		try (InputStream input = new ByteArrayInputStream(
+			DOCUMENT.getBytes(StandardCharsets.UTF_8))) {
+			sections = new TomlSectionScanner().scan(input, StandardCharsets.UTF_8);
+		}
+		String[] keys = {null, "a", "b.c", "servers", "a", "servers"};
+		assertEquals(keys.length, sections.size());
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(keys[i], sections.get(i).key());
+		}
+		assertTrue(DOCUMENT.substring((int)sections.get(1).start()).startsWith("# comment of a"));
+		assertEquals(DOCUMENT.length(), sections.get(5).end());
+	}
+
+	@Test
+	public void pagedConfig() throws IOException {
+		Path file = Files.createTempFile("paged", ".toml");
+		try {
+			Files.write(file, DOCUMENT.getBytes(StandardCharsets.UTF_8));
+			try (FileConfig config = FileConfig.paged(file, TomlFormat.instance(), 0)) {
+				config.load();
+				assertEquals(5, config.size());
+				assertEquals("test", config.<String>get("title"));
+				assertEquals(1, config.<Integer>get("a.value"));
+				assertEquals(2, config.<Integer>get("a.sub.value"));
+				assertEquals("]", config.<String>get(Arrays.asList("b.c", "d", "value")));
+				List<Config> servers = config.get("servers");
+				assertEquals(2, servers.size());
+				assertEquals("s2", servers.get(1).<String>get("name"));
+
+				config.set("a.value", 10);
+				config.get("servers");// evicts the other sections
+				assertEquals(10, config.<Integer>get("a.value"));
+
+				config.save();
+				assertEquals(10, config.<Integer>get("a.value"));
+				assertEquals(2, config.<Integer>get("a.sub.value"));
+				assertEquals(5, config.size());
+			}
+			Config reread = TomlFormat.instance().createParser().parse(file, FileNotFoundAction.THROW_ERROR);
+			assertEquals(10, reread.<Integer>get("a.value"));
+			assertEquals("s1", reread.<List<Config>>get("servers").get(0).<String>get("name"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void keysAndSaveDontLoad() throws IOException {
+		Path file = Files.createTempFile("paged", ".toml");
+		try {
+			Files.write(file, DOCUMENT.getBytes(StandardCharsets.UTF_8));
+			List<String> states = new ArrayList<>();
+			ConfigFormat<CommentedConfig> format = new ConfigFormat<CommentedConfig>() {
+				@Override
+				public ConfigWriter createWriter() {
+					return (config, writer) -> {
+						TomlFormat.instance().createWriter().write(config, writer);
+						states.add(config.toString());// the state at the end of the save
+					};
+				}
+
+				@Override
+				public ConfigParser<CommentedConfig> createParser() {
+					return TomlFormat.instance().createParser();
+				}
+
+				@Override
+				public SectionScanner createSectionScanner() {
+					return TomlFormat.instance().createSectionScanner();
+				}
+
+				@Override
+				public CommentedConfig createConfig(Supplier<Map<String, Object>> mapCreator) {
+					return TomlFormat.instance().createConfig(mapCreator);
+				}
+
+				@Override
+				public boolean supportsComments() {
+					return true;
+				}
+			};
+			try (FileConfig config = FileConfig.paged(file, format, 0)) {
+				config.load();
+				String initial = config.toString();
+				assertTrue(initial.endsWith("3 sections, 0 in memory)"), initial);
+				assertEquals(Arrays.asList("title", "multi", "a", "b.c", "servers"),
+							 new ArrayList<>(config.valueMap().keySet()));
+				assertEquals(initial, config.toString());
+
+				// The writer reads every section, but the sections aren't kept in memory
+				config.save();
+				assertTrue(states.get(0).endsWith("3 sections, 1 in memory)"), states.get(0));
+				assertEquals(2, config.<Integer>get("a.sub.value"));
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void inPlaceModification() throws IOException {
+		Path file = Files.createTempFile("paged", ".toml");
+		try {
+			String document = "[c]\nname = \"Aa\"\n[\"d\\u0065\"]\nname = \"x\"\n";
+			Files.write(file, document.getBytes(StandardCharsets.UTF_8));
+			try (FileConfig config = FileConfig.paged(file, TomlFormat.instance(), 0)) {
+				config.load();
+				// "BB" has the same hash code as "Aa": the modification doesn't change the hash
+				config.<Config>get("c").set("name", "BB");
+				assertEquals("x", config.<String>get("de.name"));// evicts c
+				assertEquals("BB", config.<String>get("c.name"));
+				config.save();
+			}
+			Config reread = TomlFormat.instance().createParser().parse(file, FileNotFoundAction.THROW_ERROR);
+			assertEquals("BB", reread.<String>get("c.name"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
\ No newline at end of file
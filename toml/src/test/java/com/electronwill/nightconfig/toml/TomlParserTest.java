@@ -1,14 +1,33 @@
 package com.electronwill.nightconfig.toml;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.ConfigFormat;
 import com.electronwill.nightconfig.core.TestEnum;
 import com.electronwill.nightconfig.core.file.FileNotFoundAction;
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigParser;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
 import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.ParsingMode;
+import com.electronwill.nightconfig.core.io.PathFilter;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,6 +72,221 @@ public class TomlParserTest {
 		assertEquals(parsed, reparsed);
 	}
 
+	@Test
+	public void readLazyTables() throws IOException {
+		String toml = new String(Files.readAllBytes(Paths.get("example.toml")), "UTF-8");
+		CommentedConfig eager = new TomlParser().parse(toml);
+		CommentedConfig lazy = new TomlParser().setLazyTables(true).parse(toml);
+		assertEquals(eager.size(), lazy.size());
+		assertEquals("TOML Example", lazy.<String>get("title"));
+		assertEquals("10.0.0.1", lazy.<String>get("servers.alpha.ip"));
+		assertEquals(eager.<Object>get("servers"), lazy.<Object>get("servers"));
+		assertEquals(eager, lazy);
+
+		String withErrors = "# root\nk = 1\n# comment of a\n[a]\nx = 1\n[b]\ny = = 2\n[a.c]\nz = 3";
+		CommentedConfig partial = new TomlParser().setLazyTables(true)
+												  .parse(new StringReader(withErrors));
+		assertTrue(partial.contains("b"));
+		assertEquals(" comment of a", partial.getComment("a"));
+		assertEquals(3, partial.<Integer>get("a.c.z"));
+		partial.set("a.x", 2);
+		assertEquals(2, partial.<Integer>get("a.x"));
+		assertThrows(ParsingException.class, () -> partial.get("b"));
+		assertNull(partial.getComment(Collections.emptyList()));
+		assertFalse(partial.containsComment(Collections.emptyList()));
+	}
+
+	@Test
+	public void readLazyTablesInOrder() {
+		boolean ordered = Config.isInsertionOrderPreserved();
+		Config.setInsertionOrderPreserved(true);
+		try {
+			String toml = "k = 1\n[z]\nx = 1\n[a]\nx = 2\n[m]\nx = 3\n[z.sub]\nx = 4";
+			CommentedConfig lazy = new TomlParser().setLazyTables(true).parse(toml);
+			assertEquals(2, lazy.<Integer>get("a.x"));// loaded first
+			assertEquals(1, lazy.<Integer>get("z.x"));
+			List<String> keys = Arrays.asList("k", "z", "a", "m");
+			assertEquals(keys, new ArrayList<>(lazy.valueMap().keySet()));
+			assertEquals(keys, new ArrayList<>(new TomlParser().parse(toml).valueMap().keySet()));
+		} finally {
+			Config.setInsertionOrderPreserved(ordered);
+		}
+	}
+
+	@Test
+	public void readFiltered() {
+		String toml = "title = 'x'\nskipped = \"\"\"\n[not.a.table]\n\"\"\"\n"
+					  + "[server]\nhost = 'h' # the host\nport = 80\nlimits = {max = 10, min = 1}\n"
+					  + "[server.tls]\ncert = 'c'\n"
+					  + "[db]\nurl = 'jdbc'\nbad = 1979-99-99\narr = [ # c ]\n 1, ']', {a = '}'} ]\n"
+					  + "[[db.pools]]\nsize = 1\n";
+		CommentedConfig config = TomlFormat.newConfig();
+		PathFilter filter = PathFilter.include("title", "server.host", "server.limits.max");
+		new TomlParser().parse(toml, config, ParsingMode.REPLACE, filter);
+		assertEquals("x", config.<String>get("title"));
+		assertEquals("h", config.<String>get("server.host"));
+		assertEquals(" the host", config.getComment("server.host"));
+		assertEquals(1, config.<CommentedConfig>get("server.limits").size());
+		assertEquals(10, config.<Integer>get("server.limits.max"));
+		assertEquals(2, config.size());
+		assertEquals(2, config.<CommentedConfig>get("server").size());
+
+		CommentedConfig excluded = TomlFormat.newConfig();
+		new TomlParser().parse(toml, excluded, ParsingMode.REPLACE, PathFilter.exclude("db"));
+		assertFalse(excluded.contains("db"));
+		assertEquals("c", excluded.<String>get("server.tls.cert"));
+		assertEquals("[not.a.table]\n", excluded.<String>get("skipped"));
+		assertThrows(DateTimeException.class, () -> new TomlParser().parse(toml));
+	}
+
+	@Test
+	public void readFilteredImplicitTables() {
+		String toml = "t.x = 1\nu.v.w = 2\n[a.b]\nc = 1\n[a.d]\ne = 2\n[[p.q]]\nr = 1\n"
+					  + "[s]\ny.z = 3\n";
+		// Parses everything, then copies the accepted entries
+		ConfigParser<CommentedConfig> copying = new ConfigParser<CommentedConfig>() {
+			@Override
+			public ConfigFormat<CommentedConfig> getFormat() {
+				return TomlFormat.instance();
+			}
+
+			@Override
+			public CommentedConfig parse(Reader reader) {
+				return new TomlParser().parse(reader);
+			}
+
+			@Override
+			public void parse(Reader reader, Config destination, ParsingMode parsingMode) {
+				new TomlParser().parse(reader, destination, parsingMode);
+			}
+		};
+		String[] included = {"t.z", "u.v.q", "a.b.q", "a.d.e", "p.x", "s.y.q", "t", "missing"};
+		for (String path : included) {
+			PathFilter filter = PathFilter.include(path);
+			CommentedConfig expected = TomlFormat.newConfig();
+			copying.parse(new StringReader(toml), expected, ParsingMode.REPLACE, filter);
+			CommentedConfig actual = TomlFormat.newConfig();
+			new TomlParser().parse(toml, actual, ParsingMode.REPLACE, filter);
+			assertEquals(expected, actual, path);
+		}
+		CommentedConfig config = TomlFormat.newConfig();
+		new TomlParser().parse(toml, config, ParsingMode.REPLACE, PathFilter.include("t.z"));
+		assertTrue(config.<CommentedConfig>get("t").isEmpty());
+	}
+
+	@Test
+	public void readWriteConcurrently() throws IOException {
+		String toml = new String(Files.readAllBytes(Paths.get("example.toml")), "UTF-8");
+		TomlParser parser = new TomlParser();
+		TomlWriter writer = new TomlWriter();
+		CommentedConfig expected = parser.parse(toml);
+		String expectedText = writer.writeToString(expected);
+		List<String> written = IntStream.range(0, 64).parallel().mapToObj(i -> {
+			CommentedConfig parsed = parser.parse(toml);
+			assertEquals(expected, parsed);
+			return writer.writeToString(parsed);
+		}).collect(Collectors.toList());
+		for (String text : written) {
+			assertEquals(expectedText, text);
+		}
+	}
+
+	@Test
+	public void readInParallel() {
+		StringBuilder builder = new StringBuilder("title = 'root'\nsrv.port = 1\n");
+		builder.append("[a]\nx = 1\ntext = '''\n[not.a.table]\n'''\n");
+		for (int i = 0; i < 50; i++) {
+			builder.append("# item ").append(i).append("\n[[items]]\nid = ").append(i);
+			builder.append("\nname = \"[x]\"\n[items.sub]\nv = ").append(i).append('\n');
+		}
+		builder.append("[b]\ny = ['[c]', {z = 1}]\n[srv.tls]\ncert = 'c'\n[a.c]\nz = 3\n");
+		String toml = builder.toString();
+		TomlParser parser = new TomlParser().setParallelPool(ForkJoinPool.commonPool());
+		parser.segmentSize = 64;
+		CommentedConfig parallel = parser.parse(toml);
+		CommentedConfig sequential = new TomlParser().parse(toml);
+		assertEquals(sequential, parallel);
+		List<CommentedConfig> items = parallel.get("items");
+		assertEquals(50, items.size());
+		assertEquals(49, items.get(49).<Integer>get("sub.v"));
+		assertEquals("c", parallel.<String>get("srv.tls.cert"));
+		assertEquals(3, parallel.<Integer>get("a.c.z"));
+
+		String duplicate = toml + "[b]\nw = 1\n";
+		assertThrows(ParsingException.class, () -> parser.parse(duplicate));
+	}
+
+	@Test
+	public void readEvents() throws IOException {
+		String toml = "# top\na = 1\nb.c = 's' # trailing\n[t]\narr = [1, [2], {x = true}]\n"
+					  + "[[list]]\n[[list]]\ny = 2";
+		ConfigEventReader events = new TomlParser().readEvents(toml);
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertComment(events, " top");
+		assertKey(events, "a");
+		assertValue(events, 1);
+		assertKey(events, "b", "c");
+		assertValue(events, "s");
+		assertComment(events, " trailing");
+		assertKey(events, "t");
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertKey(events, "arr");
+		assertEquals(ConfigEvent.START_ARRAY, events.next());
+		assertValue(events, 1);
+		assertEquals(ConfigEvent.START_ARRAY, events.next());
+		assertValue(events, 2);
+		assertEquals(ConfigEvent.END_ARRAY, events.next());
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertKey(events, "x");
+		assertValue(events, true);
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		assertEquals(ConfigEvent.END_ARRAY, events.next());
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		for (int i = 0; i < 2; i++) {
+			assertKey(events, "list");
+			assertEquals(ConfigEvent.START_ARRAY, events.next());
+			assertEquals(ConfigEvent.START_TABLE, events.next());
+			if (i == 1) {
+				assertKey(events, "y");
+				assertValue(events, 2);
+			}
+			assertEquals(ConfigEvent.END_TABLE, events.next());
+			assertEquals(ConfigEvent.END_ARRAY, events.next());
+		}
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		assertEquals(ConfigEvent.END_DOCUMENT, events.next());
+		assertFalse(events.hasNext());
+
+		int depth = 0;
+		try (Reader reader = Files.newBufferedReader(Paths.get("example.toml"))) {
+			ConfigEventReader example = new TomlParser().readEvents(reader);
+			while (example.hasNext()) {
+				ConfigEvent event = example.next();
+				if (event == ConfigEvent.START_TABLE || event == ConfigEvent.START_ARRAY) {
+					depth++;
+				} else if (event == ConfigEvent.END_TABLE || event == ConfigEvent.END_ARRAY) {
+					depth--;
+				}
+			}
+		}
+		assertEquals(0, depth);
+	}
+
+	private static void assertKey(ConfigEventReader events, String... key) {
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(Arrays.asList(key), events.getKey());
+	}
+
+	private static void assertValue(ConfigEventReader events, Object value) {
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertEquals(value, events.getValue());
+	}
+
+	private static void assertComment(ConfigEventReader events, String comment) {
+		assertEquals(ConfigEvent.COMMENT, events.next());
+		assertEquals(comment, events.getComment());
+	}
+
 	@Test
 	public void readInvalidString() {
 		assertThrows(ParsingException.class, this::testAlreadyDefinedTable);
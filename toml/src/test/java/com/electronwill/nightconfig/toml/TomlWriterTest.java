@@ -1,5 +1,6 @@
 package com.electronwill.nightconfig.toml;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertLinesMatch;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.function.Executable;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.NullObject;
 import com.electronwill.nightconfig.core.TestEnum;
+import com.electronwill.nightconfig.core.io.ConfigGenerator;
 import com.electronwill.nightconfig.core.io.WritingException;
 import com.electronwill.nightconfig.core.utils.StringUtils;
 
@@ -110,6 +112,53 @@ public class TomlWriterTest {
 				StringUtils.splitLines(written));
 	}
 
+	@Test
+	public void generator() {
+		TomlWriter tWriter = new TomlWriter();
+		tWriter.setNewline("\n");
+		Config inline = TomlFormat.newConfig();
+		inline.set("a", "b");
+		StringWriter written = new StringWriter();
+		try (ConfigGenerator generator = tWriter.createGenerator(written)) {
+			generator.beginTable().comment(" simple").entry("simple", 123);
+			generator.key("array").beginArray().value(1).beginArray().endArray().endArray();
+			generator.comment(" table").key("table").beginTable();
+			generator.entry("inline", inline);
+			generator.key("sub").beginTable().entry("key", "value").endTable();
+			generator.endTable();
+			generator.key("aot").beginArray();
+			generator.beginTable().entry("key", 1).endTable();
+			generator.beginTable().key("list").beginArray().beginTable().endTable().endArray();
+			generator.endTable();
+			generator.endArray();
+			generator.endTable();
+		}
+		assertEquals("# simple\n"
+					 + "simple = 123\n"
+					 + "array = [1, []]\n"
+					 + "\n"
+					 + "# table\n"
+					 + "[table]\n"
+					 + "\tinline = {a = \"b\"}\n"
+					 + "\n"
+					 + "\t[table.sub]\n"
+					 + "\t\tkey = \"value\"\n"
+					 + "[[aot]]\n"
+					 + "\tkey = 1\n"
+					 + "[[aot]]\n"
+					 + "\t[[aot.list]]\n",
+					 written.toString());
+		Config parsed = new TomlParser().parse(written.toString());
+		assertEquals("value", parsed.<String>get("table.sub.key"));
+		assertEquals(2, parsed.<List<?>>get("aot").size());
+
+		ConfigGenerator generator = tWriter.createGenerator(new StringWriter());
+		generator.beginTable().key("table").beginTable().endTable();
+		assertThrows(WritingException.class, () -> generator.entry("simple", 1));
+		generator.key("aot").beginArray().beginTable().endTable();
+		assertThrows(WritingException.class, () -> generator.value(1));
+	}
+
 	@Test
 	public void noNulls() {
 		Config config = TomlFormat.newConfig();
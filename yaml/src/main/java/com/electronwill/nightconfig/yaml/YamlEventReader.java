@@ -0,0 +1,182 @@
+package com.electronwill.nightconfig.yaml;
+
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
+import com.electronwill.nightconfig.core.io.ParsingException;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.util.*;
+
+/**
+ * Reads the events of a YAML document with the event API of snakeYaml. The scalars are
+ * resolved and constructed like the standard YAML tags of the {@link SafeConstructor}. The
+ * aliases of tables and arrays aren't supported, because their content isn't kept.
+ *
+ * @author TheElectronWill
+ */
+final class YamlEventReader implements ConfigEventReader {
+	private final Iterator<Event> events;
+	private final Resolver resolver = new Resolver();
+	private final ScalarConstructor constructor = new ScalarConstructor();
+	private final Map<String, Object> anchoredScalars = new HashMap<>();
+	private boolean[] mappings = new boolean[16];// false for the sequences
+	private boolean[] keyExpected = new boolean[16];
+	private int depth;
+	private boolean finished;
+
+	private List<String> key;
+	private Object value;
+	private String comment;
+
+	YamlEventReader(Iterator<Event> events) {
+		this.events = events;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return !finished;
+	}
+
+	@Override
+	public ConfigEvent next() {
+		if (finished) {
+			throw new NoSuchElementException();
+		}
+		try {
+			while (true) {
+				Event event = events.next();
+				switch (event.getEventId()) {
+					case MappingStart:
+						startNode();
+						push(true);
+						return ConfigEvent.START_TABLE;
+					case SequenceStart:
+						startNode();
+						push(false);
+						return ConfigEvent.START_ARRAY;
+					case MappingEnd:
+						depth--;
+						return ConfigEvent.END_TABLE;
+					case SequenceEnd:
+						depth--;
+						return ConfigEvent.END_ARRAY;
+					case Scalar: {
+						ScalarEvent scalar = (ScalarEvent)event;
+						Object v = construct(scalar);
+						if (scalar.getAnchor() != null) {
+							anchoredScalars.put(scalar.getAnchor(), v);
+						}
+						return scalar(v);
+					}
+					case Alias: {
+						String anchor = ((AliasEvent)event).getAnchor();
+						if (!anchoredScalars.containsKey(anchor)) {
+							throw new ParsingException("Unsupported alias *" + anchor
+													   + ": only the aliases of scalars are "
+													   + "supported by the event reader");
+						}
+						return scalar(anchoredScalars.get(anchor));
+					}
+					case Comment:
+						comment = ((CommentEvent)event).getValue();
+						return ConfigEvent.COMMENT;
+					case StreamEnd:
+						finished = true;
+						return ConfigEvent.END_DOCUMENT;
+					default:
+						break;// the beginning and end of the stream and the documents
+				}
+			}
+		} catch (YAMLException e) {
+			throw new ParsingException("YAML parsing failed", e);
+		}
+	}
+
+	/**
+	 * Handles the beginning of a table or array, which must be a value.
+	 */
+	private void startNode() {
+		if (depth > 0 && mappings[depth - 1]) {
+			if (keyExpected[depth - 1]) {
+				throw new ParsingException("Unsupported complex key: the keys must be scalars");
+			}
+			keyExpected[depth - 1] = true;// for the entry after this value
+		}
+	}
+
+	private ConfigEvent scalar(Object v) {
+		if (depth > 0 && mappings[depth - 1]) {
+			boolean isKey = keyExpected[depth - 1];
+			keyExpected[depth - 1] = !isKey;
+			if (isKey) {
+				key = Collections.singletonList(String.valueOf(v));
+				return ConfigEvent.KEY;
+			}
+		}
+		value = v;
+		return ConfigEvent.VALUE;
+	}
+
+	private Object construct(ScalarEvent scalar) {
+		String tag = scalar.getTag();
+		Tag nodeTag;
+		boolean resolved;
+		if (tag == null || tag.equals("!")) {
+			boolean implicit = scalar.getImplicit().canOmitTagInPlainScalar();
+			nodeTag = resolver.resolve(NodeId.scalar, scalar.getValue(), implicit);
+			resolved = true;
+		} else {
+			nodeTag = new Tag(tag);
+			resolved = false;
+		}
+		Node node = new ScalarNode(nodeTag, resolved, scalar.getValue(), scalar.getStartMark(),
+								   scalar.getEndMark(), scalar.getScalarStyle());
+		return constructor.construct(node);
+	}
+
+	private void push(boolean mapping) {
+		if (depth == mappings.length) {
+			mappings = Arrays.copyOf(mappings, depth * 2);
+			keyExpected = Arrays.copyOf(keyExpected, depth * 2);
+		}
+		mappings[depth] = mapping;
+		keyExpected[depth] = mapping;
+		depth++;
+	}
+
+	@Override
+	public List<String> getKey() {
+		return key;
+	}
+
+	@Override
+	public Object getValue() {
+		return value;
+	}
+
+	@Override
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * Gives access to the construction of the standard scalars.
+	 */
+	private static final class ScalarConstructor extends SafeConstructor {
+		ScalarConstructor() {
+			super(new LoaderOptions());
+		}
+
+		Object construct(Node node) {
+			return constructObject(node);
+		}
+	}
+}
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.electronwill.nightconfig.yaml;
 
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.ConfigFormat;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
 import com.electronwill.nightconfig.core.io.ConfigParser;
 import com.electronwill.nightconfig.core.io.ParsingException;
 import com.electronwill.nightconfig.core.io.ParsingMode;
@@ -17,7 +18,8 @@ import java.util.Map;
 import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
 
 /**
- * A YAML parser that uses the snakeYaml library.
+ * A YAML parser that uses the snakeYaml library. Like the Yaml object that it uses, it must not
+ * be used by several threads at the same time.
  *
  * @author TheElectronWill
  */
@@ -68,6 +70,16 @@ public final class YamlParser implements ConfigParser<Config> {
 		}
 	}
 
+	/**
+	 * Creates a reader of the events of a YAML document, based on the events of snakeYaml. The
+	 * scalars are constructed like the standard tags, the constructor of the Yaml object isn't
+	 * used.
+	 */
+	@Override
+	public ConfigEventReader readEvents(Reader reader) {
+		return new YamlEventReader(yaml.parse(reader).iterator());
+	}
+
 	private Map<String, Object> wrap(Map<String, Object> map) {
 		return new TransformingMap<>(map, this::wrap, v -> v, v -> v);
 	}
@@ -15,7 +15,8 @@ import java.util.Map;
 import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
 
 /**
- * A YAML writer that uses the snakeYaml library.
+ * A YAML writer that uses the snakeYaml library. Like the Yaml object that it uses, it must not
+ * be used by several threads at the same time.
  *
  * @author TheElectronWill
  */
@@ -3,6 +3,8 @@ package yaml;
 import com.electronwill.nightconfig.core.BasicTestEnum;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.core.io.ConfigEvent;
+import com.electronwill.nightconfig.core.io.ConfigEventReader;
 import com.electronwill.nightconfig.core.io.ParsingMode;
 import com.electronwill.nightconfig.core.io.WritingMode;
 import com.electronwill.nightconfig.yaml.YamlFormat;
@@ -11,6 +13,7 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static com.electronwill.nightconfig.core.NullObject.NULL_OBJECT;
@@ -58,4 +61,32 @@ public class YamlTest {
 
 		Assertions.assertEquals(config, parsed, "Error: written != parsed");
 	}
+
+	@Test
+	public void testEventReader() {
+		String yaml = "a: 1\nb:\n  - x\n  - {c: true, d: null}\n";
+		ConfigEventReader events = YamlFormat.defaultInstance().createParser().readEvents(yaml);
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(Collections.singletonList("a"), events.getKey());
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertEquals(1, events.getValue());
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(ConfigEvent.START_ARRAY, events.next());
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertEquals("x", events.getValue());
+		assertEquals(ConfigEvent.START_TABLE, events.next());
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertEquals(true, events.getValue());
+		assertEquals(ConfigEvent.KEY, events.next());
+		assertEquals(Collections.singletonList("d"), events.getKey());
+		assertEquals(ConfigEvent.VALUE, events.next());
+		assertNull(events.getValue());
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		assertEquals(ConfigEvent.END_ARRAY, events.next());
+		assertEquals(ConfigEvent.END_TABLE, events.next());
+		assertEquals(ConfigEvent.END_DOCUMENT, events.next());
+		assertFalse(events.hasNext());
+	}
 }